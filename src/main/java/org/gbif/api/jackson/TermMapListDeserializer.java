@@ -7,7 +7,6 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import com.google.common.collect.Lists;
 import org.codehaus.jackson.JsonParser;
@@ -18,6 +17,8 @@ import org.codehaus.jackson.map.JsonDeserializer;
 
 /**
  * Deserializes list of maps of terms values.
+ * <br/>
+ * The extension records are read token by token straight into term maps.
  */
 public class TermMapListDeserializer extends JsonDeserializer<List<Map<Term, String>>> {
 
@@ -25,25 +26,31 @@ public class TermMapListDeserializer extends JsonDeserializer<List<Map<Term, Str
 
   @Override
   public List<Map<Term, String>> deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
-    if (jp.getCurrentToken() == JsonToken.START_ARRAY) {
-      JsonDeserializer<Object> deserializer =
-        ctxt.getDeserializerProvider().findTypedValueDeserializer(ctxt.getConfig(),
-                                                                  ctxt.constructType(List.class),null);
-      List<Map<String, String>> verbatimTerms = (List<Map<String, String>>) deserializer.deserialize(jp, ctxt);
-      List<Map<Term, String>> interpretedTerms = Lists.newArrayList();
-      for (Map<String, String> verbExtension : verbatimTerms) {
-        Map<Term, String> extension = new HashMap<Term, String>();
-        for (Entry<String, String> entry : verbExtension.entrySet()) {
-          Term term = termFactory.findTerm(entry.getKey());
-          if (term == null && ctxt.getConfig().isEnabled(Feature.FAIL_ON_UNKNOWN_PROPERTIES)) {
-            throw ctxt.mappingException("Term not found " + entry.getKey());
-          }
-          extension.put(term, entry.getValue());
+    if (jp.getCurrentToken() != JsonToken.START_ARRAY) {
+      throw ctxt.mappingException("Expected JSON array");
+    }
+    boolean failOnUnknown = ctxt.getConfig().isEnabled(Feature.FAIL_ON_UNKNOWN_PROPERTIES);
+    List<Map<Term, String>> extensions = Lists.newArrayList();
+    JsonToken token;
+    while ((token = jp.nextToken()) != JsonToken.END_ARRAY) {
+      if (token != JsonToken.START_OBJECT) {
+        throw ctxt.mappingException("Expected JSON object");
+      }
+      Map<Term, String> extension = new HashMap<Term, String>();
+      while (jp.nextToken() == JsonToken.FIELD_NAME) {
+        String name = jp.getCurrentName();
+        Term term = termFactory.findTerm(name);
+        if (term == null && failOnUnknown) {
+          throw ctxt.mappingException("Term not found " + name);
+        }
+        token = jp.nextToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+          throw ctxt.mappingException("Expected JSON value for term " + name);
         }
-        interpretedTerms.add(extension);
+        extension.put(term, token == JsonToken.VALUE_NULL ? null : jp.getText());
       }
-      return interpretedTerms;
+      extensions.add(extension);
     }
-    throw ctxt.mappingException("Expected JSON String");
+    return extensions;
   }
 }
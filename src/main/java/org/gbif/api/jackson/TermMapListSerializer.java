@@ -6,17 +6,28 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
 
+import com.google.common.collect.Maps;
 import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.io.SerializedString;
 import org.codehaus.jackson.map.JsonSerializer;
 import org.codehaus.jackson.map.SerializationConfig.Feature;
 import org.codehaus.jackson.map.SerializerProvider;
 
 /**
  * Serializes list of maps of terms values.
+ * <br/>
+ * The qualified names of terms are kept as pre-encoded field names by each serializer,
+ * so they are built and escaped only once.
  */
 public class TermMapListSerializer extends JsonSerializer<List<Map<Term, String>>> {
 
+  // the number of distinct terms remembered, protecting against unbounded unknown terms
+  private static final int MAX_TERMS = 10000;
+
+  private final ConcurrentMap<Term, SerializedString> names = Maps.newConcurrentMap();
+
   @Override
   public void serialize(List<Map<Term, String>> value, JsonGenerator jgen, SerializerProvider provider)
     throws IOException {
@@ -28,11 +39,23 @@ public class TermMapListSerializer extends JsonSerializer<List<Map<Term, String>
       for (Map<Term, String> extension : value) {
         jgen.writeStartObject();
         for (Entry<Term, String> entry : extension.entrySet()) {
-          jgen.writeStringField(entry.getKey().qualifiedName(), entry.getValue());
+          jgen.writeFieldName(name(entry.getKey()));
+          jgen.writeString(entry.getValue());
         }
         jgen.writeEndObject();
       }
       jgen.writeEndArray();
     }
   }
+
+  private SerializedString name(Term term) {
+    SerializedString name = names.get(term);
+    if (name == null) {
+      name = new SerializedString(term.qualifiedName());
+      if (names.size() < MAX_TERMS) {
+        names.put(term, name);
+      }
+    }
+    return name;
+  }
 }
@@ -0,0 +1,210 @@
+package org.gbif.api.model.checklistbank;
+
+import org.gbif.api.model.common.LinneanClassification;
+import org.gbif.api.util.ClassificationUtils;
+import org.gbif.api.vocabulary.Rank;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+
+/**
+ * The parameters of a single name match, used to match many names at once with
+ * {@link org.gbif.api.service.checklistbank.NameUsageMatchingService#matchBatch}.
+ * The classification is copied into the query itself, so that equal queries can be recognized and matched once.
+ */
+public class NameUsageMatchQuery implements LinneanClassification {
+
+  private String scientificName;
+  private Rank rank;
+  private boolean strict;
+  private String kingdom;
+  private String phylum;
+  private String clazz;
+  private String order;
+  private String family;
+  private String genus;
+  private String subgenus;
+  private String species;
+
+  public NameUsageMatchQuery() {
+  }
+
+  /**
+   * @param classification optional classification which is copied
+   */
+  public NameUsageMatchQuery(String scientificName, @Nullable Rank rank,
+    @Nullable LinneanClassification classification, boolean strict) {
+    this.scientificName = scientificName;
+    this.rank = rank;
+    this.strict = strict;
+    if (classification != null) {
+      ClassificationUtils.copyLinneanClassification(classification, this);
+    }
+  }
+
+  /**
+   * @return the name to match against
+   */
+  public String getScientificName() {
+    return scientificName;
+  }
+
+  public void setScientificName(String scientificName) {
+    this.scientificName = scientificName;
+  }
+
+  /**
+   * @return the optional rank of the name to match
+   */
+  @Nullable
+  public Rank getRank() {
+    return rank;
+  }
+
+  public void setRank(Rank rank) {
+    this.rank = rank;
+  }
+
+  /**
+   * @return true if only the scientific name should be matched, but not the lowest taxon of the classification
+   */
+  public boolean isStrict() {
+    return strict;
+  }
+
+  public void setStrict(boolean strict) {
+    this.strict = strict;
+  }
+
+  @Override
+  @Nullable
+  public String getKingdom() {
+    return kingdom;
+  }
+
+  @Override
+  public void setKingdom(String kingdom) {
+    this.kingdom = kingdom;
+  }
+
+  @Override
+  @Nullable
+  public String getPhylum() {
+    return phylum;
+  }
+
+  @Override
+  public void setPhylum(String phylum) {
+    this.phylum = phylum;
+  }
+
+  @Override
+  @Nullable
+  public String getClazz() {
+    return clazz;
+  }
+
+  @Override
+  public void setClazz(String clazz) {
+    this.clazz = clazz;
+  }
+
+  @Override
+  @Nullable
+  public String getOrder() {
+    return order;
+  }
+
+  @Override
+  public void setOrder(String order) {
+    this.order = order;
+  }
+
+  @Override
+  @Nullable
+  public String getFamily() {
+    return family;
+  }
+
+  @Override
+  public void setFamily(String family) {
+    this.family = family;
+  }
+
+  @Override
+  @Nullable
+  public String getGenus() {
+    return genus;
+  }
+
+  @Override
+  public void setGenus(String genus) {
+    this.genus = genus;
+  }
+
+  @Override
+  @Nullable
+  public String getSubgenus() {
+    return subgenus;
+  }
+
+  @Override
+  public void setSubgenus(String subgenus) {
+    this.subgenus = subgenus;
+  }
+
+  @Override
+  @Nullable
+  public String getSpecies() {
+    return species;
+  }
+
+  @Override
+  public void setSpecies(String species) {
+    this.species = species;
+  }
+
+  @Override
+  public String getHigherRank(Rank rank) {
+    return ClassificationUtils.getHigherRank(this, rank);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof NameUsageMatchQuery)) {
+      return false;
+    }
+    NameUsageMatchQuery that = (NameUsageMatchQuery) obj;
+    return strict == that.strict
+           && Objects.equal(this.scientificName, that.scientificName)
+           && Objects.equal(this.rank, that.rank)
+           && Objects.equal(this.kingdom, that.kingdom)
+           && Objects.equal(this.phylum, that.phylum)
+           && Objects.equal(this.clazz, that.clazz)
+           && Objects.equal(this.order, that.order)
+           && Objects.equal(this.family, that.family)
+           && Objects.equal(this.genus, that.genus)
+           && Objects.equal(this.subgenus, that.subgenus)
+           && Objects.equal(this.species, that.species);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(scientificName, rank, strict, kingdom, phylum, clazz, order, family, genus, subgenus,
+      species);
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(this)
+      .add("scientificName", scientificName)
+      .add("rank", rank)
+      .add("strict", strict)
+      .add("classification", ClassificationUtils.getHigherClassification(this))
+      .toString();
+  }
+}
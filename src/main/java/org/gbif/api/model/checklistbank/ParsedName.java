@@ -15,8 +15,9 @@
  */
 package org.gbif.api.model.checklistbank;
 
+import java.io.IOException;
+
 import com.google.common.base.Objects;
-import com.google.common.base.Strings;
 import org.apache.commons.lang3.StringUtils;
 import org.codehaus.jackson.annotate.JsonIgnore;
 import org.codehaus.jackson.annotate.JsonProperty;
@@ -49,6 +50,54 @@ public class ParsedName {
   public static final Character HYBRID_MARKER = '×';
   private static final String HYBRID_MARKER_STR = HYBRID_MARKER.toString();
 
+  /**
+   * Flags for {@link #buildName(int)} controlling the name parts to be included in the resulting name,
+   * see {@link #buildName(boolean, boolean, boolean, boolean, boolean, boolean, boolean, boolean, boolean, boolean,
+   * boolean, boolean, boolean, boolean)} for their meaning. Combine them with a bitwise or.
+   */
+  public static final class Flags {
+    public static final int HYBRID_MARKER = 1;
+    public static final int RANK_MARKER = 1 << 1;
+    public static final int AUTHORSHIP = 1 << 2;
+    public static final int INFRAGENERIC = 1 << 3;
+    public static final int GENUS_FOR_INFRAGENERIC = 1 << 4;
+    public static final int ABBREVIATE_GENUS = 1 << 5;
+    public static final int DECOMPOSITION = 1 << 6;
+    public static final int ASCII_ONLY = 1 << 7;
+    public static final int SHOW_INDET = 1 << 8;
+    public static final int NOM_NOTE = 1 << 9;
+    public static final int REMARKS = 1 << 10;
+    public static final int SENSU = 1 << 11;
+    public static final int CULTIVAR = 1 << 12;
+    public static final int STRAIN = 1 << 13;
+
+    /**
+     * The flags of {@link ParsedName#canonicalName()}.
+     */
+    public static final int CANONICAL = DECOMPOSITION | ASCII_ONLY | SHOW_INDET;
+
+    /**
+     * The flags of {@link ParsedName#canonicalNameWithMarker()}.
+     */
+    public static final int CANONICAL_WITH_MARKER = HYBRID_MARKER | RANK_MARKER | DECOMPOSITION | ASCII_ONLY
+                                                    | SHOW_INDET | CULTIVAR | STRAIN;
+
+    /**
+     * The flags of {@link ParsedName#canonicalNameComplete()}.
+     */
+    public static final int CANONICAL_COMPLETE = HYBRID_MARKER | RANK_MARKER | AUTHORSHIP | GENUS_FOR_INFRAGENERIC
+                                                 | DECOMPOSITION | SHOW_INDET | CULTIVAR | STRAIN;
+
+    /**
+     * The flags of {@link ParsedName#fullName()}.
+     */
+    public static final int FULL = HYBRID_MARKER | RANK_MARKER | AUTHORSHIP | INFRAGENERIC | GENUS_FOR_INFRAGENERIC
+                                   | SHOW_INDET | NOM_NOTE | REMARKS | SENSU | CULTIVAR | STRAIN;
+
+    private Flags() {
+    }
+  }
+
   private Integer key;
   private String scientificName;
   @JsonProperty("rankMarker")
@@ -77,6 +126,11 @@ public class ParsedName {
   private String nomStatus;
   private String remarks;
 
+  // names built on first use, reset by all setters affecting them
+  private String cachedCanonicalName;
+  private String cachedCanonicalNameWithMarker;
+  private String cachedAuthorshipComplete;
+
   public ParsedName() {
   }
 
@@ -125,6 +179,7 @@ public class ParsedName {
 
   public void setAuthorship(String authorship) {
     this.authorship = authorship;
+    resetCachedNames();
   }
 
   /**
@@ -136,6 +191,7 @@ public class ParsedName {
 
   public void setBracketAuthorship(String bracketAuthorship) {
     this.bracketAuthorship = bracketAuthorship;
+    resetCachedNames();
   }
 
   /**
@@ -147,6 +203,7 @@ public class ParsedName {
 
   public void setBracketYear(String bracketYear) {
     this.bracketYear = bracketYear;
+    resetCachedNames();
   }
 
   /**
@@ -159,6 +216,7 @@ public class ParsedName {
 
   public void setCultivarEpithet(String cultivarEpithet) {
     this.cultivarEpithet = cultivarEpithet;
+    resetCachedNames();
   }
 
   /**
@@ -172,6 +230,7 @@ public class ParsedName {
 
   public void setStrain(String strain) {
     this.strain = strain;
+    resetCachedNames();
   }
 
   /**
@@ -201,6 +260,7 @@ public class ParsedName {
 
   public void setNomStatus(String nomStatus) {
     this.nomStatus = nomStatus;
+    resetCachedNames();
   }
 
   /**
@@ -213,6 +273,7 @@ public class ParsedName {
 
   public void setNotho(NamePart notho) {
     this.notho = notho;
+    resetCachedNames();
   }
 
   /**
@@ -224,6 +285,7 @@ public class ParsedName {
 
   public void setRemarks(String remarks) {
     this.remarks = remarks;
+    resetCachedNames();
   }
 
   /**
@@ -236,6 +298,7 @@ public class ParsedName {
 
   public void setSensu(String sensu) {
     this.sensu = sensu;
+    resetCachedNames();
   }
 
   public String getSpecificEpithet() {
@@ -259,6 +322,7 @@ public class ParsedName {
 
   public void setType(NameType type) {
     this.type = type;
+    resetCachedNames();
   }
 
   /**
@@ -270,6 +334,7 @@ public class ParsedName {
 
   public void setYear(String year) {
     this.year = year;
+    resetCachedNames();
   }
 
   @JsonIgnore
@@ -279,6 +344,7 @@ public class ParsedName {
 
   public void setRank(Rank rank) {
     this.rank = rank;
+    resetCachedNames();
   }
 
   public Integer getKey() {
@@ -334,9 +400,12 @@ public class ParsedName {
    * @return The full concatenated authorship or null if it is a hybrid
    */
   public String authorshipComplete() {
-    StringBuilder sb = new StringBuilder();
-    appendAuthorship(sb);
-    return sb.toString().trim();
+    if (cachedAuthorshipComplete == null) {
+      StringBuilder sb = new StringBuilder();
+      appendAuthorship(sb);
+      cachedAuthorshipComplete = sb.toString().trim();
+    }
+    return cachedAuthorshipComplete;
   }
 
   /**
@@ -370,7 +439,64 @@ public class ParsedName {
     boolean showCultivar,
     boolean showStrain
   ) {
-    StringBuilder sb = new StringBuilder();
+    return buildName((hybridMarker ? Flags.HYBRID_MARKER : 0)
+                     | (rankMarker ? Flags.RANK_MARKER : 0)
+                     | (authorship ? Flags.AUTHORSHIP : 0)
+                     | (infrageneric ? Flags.INFRAGENERIC : 0)
+                     | (genusForInfrageneric ? Flags.GENUS_FOR_INFRAGENERIC : 0)
+                     | (abbreviateGenus ? Flags.ABBREVIATE_GENUS : 0)
+                     | (decomposition ? Flags.DECOMPOSITION : 0)
+                     | (asciiOnly ? Flags.ASCII_ONLY : 0)
+                     | (showIndet ? Flags.SHOW_INDET : 0)
+                     | (nomNote ? Flags.NOM_NOTE : 0)
+                     | (remarks ? Flags.REMARKS : 0)
+                     | (showSensu ? Flags.SENSU : 0)
+                     | (showCultivar ? Flags.CULTIVAR : 0)
+                     | (showStrain ? Flags.STRAIN : 0));
+  }
+
+  /**
+   * Builds a name with the name parts selected by the given {@link Flags}.
+   *
+   * @return the name or null if it would be empty
+   */
+  public String buildName(int flags) {
+    StringBuilder sb = new StringBuilder(64);
+    appendName(sb, flags);
+    return sb.length() == 0 ? null : sb.toString();
+  }
+
+  /**
+   * Appends a name with the name parts selected by the given {@link Flags} to an Appendable.
+   * Appending to a StringBuilder does not create any intermediate strings for pure ascii names.
+   *
+   * @return the given appendable
+   */
+  public <A extends Appendable> A appendName(A out, int flags) throws IOException {
+    if (out instanceof StringBuilder) {
+      appendName((StringBuilder) out, flags);
+    } else {
+      StringBuilder sb = new StringBuilder(64);
+      appendName(sb, flags);
+      out.append(sb);
+    }
+    return out;
+  }
+
+  /**
+   * Appends a name with the name parts selected by the given {@link Flags}, appending nothing if it would be empty.
+   * Surrounding whitespace is not appended and unicode characters are folded in place, so that no intermediate
+   * strings are created for pure ascii names.
+   *
+   * @return the given StringBuilder
+   */
+  public StringBuilder appendName(StringBuilder sb, int flags) {
+    final int start = sb.length();
+    final boolean hybridMarker = (flags & Flags.HYBRID_MARKER) != 0;
+    final boolean rankMarker = (flags & Flags.RANK_MARKER) != 0;
+    final boolean authorship = (flags & Flags.AUTHORSHIP) != 0;
+    final boolean genusForInfrageneric = (flags & Flags.GENUS_FOR_INFRAGENERIC) != 0;
+    final boolean showIndet = (flags & Flags.SHOW_INDET) != 0;
 
     if (NameType.CANDIDATUS == type) {
       sb.append("Candidatus ");
@@ -380,8 +506,8 @@ public class ParsedName {
       if (hybridMarker && NamePart.GENERIC == notho) {
         sb.append(HYBRID_MARKER);
       }
-      if (abbreviateGenus) {
-        sb.append(genusOrAbove.substring(0, 1)).append('.');
+      if ((flags & Flags.ABBREVIATE_GENUS) != 0) {
+        sb.append(genusOrAbove, 0, 1).append('.');
       } else {
         sb.append(genusOrAbove);
       }
@@ -424,7 +550,7 @@ public class ParsedName {
         appendAuthorship(sb);
       }
     } else {
-      if (infrageneric && infraGeneric != null && (rank == null || rank == Rank.GENUS)) {
+      if ((flags & Flags.INFRAGENERIC) != 0 && infraGeneric != null && (rank == null || rank == Rank.GENUS)) {
         // only show subgenus if requested
         sb.append(" (");
         sb.append(infraGeneric);
@@ -436,8 +562,7 @@ public class ParsedName {
       if (hybridMarker && NamePart.SPECIFIC == notho) {
         sb.append(HYBRID_MARKER);
       }
-      String epi = specificEpithet.replaceAll("[ _-]", "-");
-      sb.append(epi);
+      appendEpithet(sb, specificEpithet);
 
       if (infraSpecificEpithet == null) {
         // Indetermined? Only show indet cultivar marker if no cultivar epithet exists
@@ -464,8 +589,7 @@ public class ParsedName {
         if (rankMarker) {
           appendRankMarker(sb, rank);
         }
-        epi = infraSpecificEpithet.replaceAll("[ _-]", "-");
-        sb.append(epi);
+        appendEpithet(sb, infraSpecificEpithet);
         // non autonym authorship ?
         if (authorship && !isAutonym()) {
           appendAuthorship(sb);
@@ -474,45 +598,65 @@ public class ParsedName {
     }
 
     // add cultivar name
-    if (showStrain && strain != null) {
+    if ((flags & Flags.STRAIN) != 0 && strain != null) {
       sb.append(" ");
       sb.append(strain);
     }
 
     // add cultivar name
-    if (showCultivar && cultivarEpithet != null) {
+    if ((flags & Flags.CULTIVAR) != 0 && cultivarEpithet != null) {
       sb.append(" '");
       sb.append(cultivarEpithet);
       sb.append("'");
     }
 
     // add sensu/sec reference
-    if (showSensu && sensu != null) {
+    if ((flags & Flags.SENSU) != 0 && sensu != null) {
       sb.append(" ");
       sb.append(sensu);
     }
 
     // add nom status
-    if (nomNote && nomStatus != null) {
+    if ((flags & Flags.NOM_NOTE) != 0 && nomStatus != null) {
       sb.append(", ");
       sb.append(nomStatus);
     }
 
     // add remarks
-    if (remarks && this.remarks != null) {
+    if ((flags & Flags.REMARKS) != 0 && remarks != null) {
       sb.append(" [");
-      sb.append(this.remarks);
+      sb.append(remarks);
       sb.append("]");
     }
 
-    String name = sb.toString().trim();
-    if (decomposition) {
-      name = UnicodeUtils.decompose(name);
+    // trim like String.trim() does
+    int end = sb.length();
+    while (end > start && sb.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    sb.setLength(end);
+    int first = start;
+    while (first < end && sb.charAt(first) <= ' ') {
+      first++;
+    }
+    sb.delete(start, first);
+    if ((flags & Flags.DECOMPOSITION) != 0) {
+      UnicodeUtils.decompose(sb, start);
     }
-    if (asciiOnly) {
-      name = UnicodeUtils.ascii(name);
+    if ((flags & Flags.ASCII_ONLY) != 0) {
+      UnicodeUtils.ascii(sb, start);
+    }
+    return sb;
+  }
+
+  /**
+   * Appends an epithet with spaces and underscores replaced by hyphens.
+   */
+  private static void appendEpithet(StringBuilder sb, String epithet) {
+    for (int i = 0; i < epithet.length(); i++) {
+      char c = epithet.charAt(i);
+      sb.append(c == ' ' || c == '_' ? '-' : c);
     }
-    return Strings.emptyToNull(name);
   }
 
   private boolean showIndet(boolean showIndet) {
@@ -567,7 +711,10 @@ public class ParsedName {
    */
   @JsonProperty
   public String canonicalName() {
-    return buildName(false, false, false, false, false, false, true, true, true, false, false, false, false, false);
+    if (cachedCanonicalName == null) {
+      cachedCanonicalName = buildName(Flags.CANONICAL);
+    }
+    return cachedCanonicalName;
   }
 
   /**
@@ -587,7 +734,10 @@ public class ParsedName {
    */
   @JsonProperty
   public String canonicalNameWithMarker() {
-    return buildName(true, true, false, false, false, false, true, true, true, false, false, false, true, true);
+    if (cachedCanonicalNameWithMarker == null) {
+      cachedCanonicalNameWithMarker = buildName(Flags.CANONICAL_WITH_MARKER);
+    }
+    return cachedCanonicalNameWithMarker;
   }
 
   /**
@@ -597,7 +747,7 @@ public class ParsedName {
    */
   @JsonProperty
   public String canonicalNameComplete() {
-    return buildName(true, true, true, false, true, false, true, false, true, false, false, false, true, true);
+    return buildName(Flags.CANONICAL_COMPLETE);
   }
 
   /**
@@ -614,7 +764,7 @@ public class ParsedName {
    * @return the name with all details that exist.
    */
   public String fullName() {
-    return buildName(true, true, true, true, true, false, false, false, true, true, true, true, true, true);
+    return buildName(Flags.FULL);
   }
 
   @JsonIgnore
@@ -700,6 +850,7 @@ public class ParsedName {
     } else {
       this.genusOrAbove = genusOrAbove;
     }
+    resetCachedNames();
   }
 
   public void setHybridFormula(boolean hybrid) {
@@ -708,6 +859,7 @@ public class ParsedName {
     } else if (NameType.HYBRID == type) {
       type = null;
     }
+    resetCachedNames();
   }
 
   public void setInfraGeneric(String infraGeneric) {
@@ -717,6 +869,7 @@ public class ParsedName {
     } else {
       this.infraGeneric = infraGeneric;
     }
+    resetCachedNames();
   }
 
   public void setInfraSpecificEpithet(String infraSpecies) {
@@ -726,6 +879,7 @@ public class ParsedName {
     } else {
       this.infraSpecificEpithet = infraSpecies;
     }
+    resetCachedNames();
   }
 
   public void setSpecificEpithet(String species) {
@@ -735,6 +889,13 @@ public class ParsedName {
     } else {
       specificEpithet = species;
     }
+    resetCachedNames();
+  }
+
+  private void resetCachedNames() {
+    cachedCanonicalName = null;
+    cachedCanonicalNameWithMarker = null;
+    cachedAuthorshipComplete = null;
   }
 
   @Override
@@ -0,0 +1,178 @@
+package org.gbif.api.model.common.paging;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+
+/**
+ * A paging response whose results are written one by one to JSON while they are being read from an iterator,
+ * so that large pages never need to be held in memory.
+ * The JSON is the same as for a {@link PagingResponse} with the same values, so clients can read it as such.
+ * This includes leaving out properties according to the serialization inclusion configured for the mapper.
+ * <br/>
+ * As the iterator is consumed when written, a response can be serialized only once.
+ * The end of records flag precedes the results in the JSON. If neither the count nor the flag are set,
+ * up to limit results are buffered to determine it, so set either of them to stream the results entirely.
+ *
+ * @param <T> the type of the results
+ */
+@JsonSerialize(using = StreamingPagingResponse.Serializer.class)
+public class StreamingPagingResponse<T> extends PageableBase {
+
+  private Boolean endOfRecords;
+  private Long count;
+  private Iterator<? extends T> results;
+
+  /**
+   * @param results the results, use {@code stream.iterator()} for a stream of results
+   */
+  public StreamingPagingResponse(Pageable page, @Nullable Long count, Iterator<? extends T> results) {
+    super(page);
+    this.count = count;
+    this.results = Preconditions.checkNotNull(results, "results can't be null");
+  }
+
+  /**
+   * @param results the results, use {@code stream.iterator()} for a stream of results
+   */
+  public StreamingPagingResponse(long offset, int limit, @Nullable Long count, Iterator<? extends T> results) {
+    super(offset, limit);
+    this.count = count;
+    this.results = Preconditions.checkNotNull(results, "results can't be null");
+  }
+
+  /**
+   * Gets the count of total results of search operation.
+   */
+  @Nullable
+  public Long getCount() {
+    return count;
+  }
+
+  /**
+   * Sets the total count for all results, not only the ones in this response page.
+   */
+  public void setCount(Long count) {
+    this.count = count;
+  }
+
+  /**
+   * Gets the remaining results not yet written.
+   */
+  public Iterator<? extends T> getResults() {
+    return results;
+  }
+
+  /**
+   * Flag indicating whether more records do exist, determined the same way as by
+   * {@link PagingResponse#isEndOfRecords()}.
+   * Without a count or a manually set flag this buffers up to limit results.
+   */
+  public boolean isEndOfRecords() {
+    if (endOfRecords == null) {
+      if (count != null) {
+        return count <= offset + limit;
+      }
+      List<T> head = Lists.<T>newArrayList(Iterators.limit(results, limit));
+      results = Iterators.concat(head.iterator(), results);
+      endOfRecords = head.size() < limit;
+    }
+    return endOfRecords;
+  }
+
+  /**
+   * Manually sets the end of records flag.
+   */
+  public void setEndOfRecords(boolean endOfRecords) {
+    this.endOfRecords = endOfRecords;
+  }
+
+  /**
+   * Writes the fields of this response in the order Jackson writes them for the matching bean,
+   * leaving out the ones the configured serialization inclusion excludes for it.
+   * Subclasses append their own fields.
+   */
+  protected void writeFields(JsonGenerator jgen, SerializerProvider provider) throws IOException {
+    // the values of a default constructed PagingResponse are left out by NON_DEFAULT
+    if (offset != PagingConstants.DEFAULT_PARAM_OFFSET || includesDefault(provider)) {
+      jgen.writeNumberField("offset", offset);
+    }
+    if (limit != PagingConstants.DEFAULT_PARAM_LIMIT || includesDefault(provider)) {
+      jgen.writeNumberField("limit", limit);
+    }
+    boolean endOfRecords = isEndOfRecords();
+    if (!endOfRecords || includesDefault(provider)) {
+      jgen.writeBooleanField("endOfRecords", endOfRecords);
+    }
+    if (count != null) {
+      jgen.writeNumberField("count", count);
+    } else if (includesNull(provider)) {
+      jgen.writeNullField("count");
+    }
+    writeArrayField("results", results, jgen, provider);
+  }
+
+  /**
+   * Writes the remaining elements as an array field, unless there are none and empty values are left out.
+   */
+  protected static void writeArrayField(String name, Iterator<?> elements, JsonGenerator jgen,
+    SerializerProvider provider) throws IOException {
+    if (elements.hasNext() || includesEmpty(provider)) {
+      jgen.writeArrayFieldStart(name);
+      while (elements.hasNext()) {
+        provider.defaultSerializeValue(elements.next(), jgen);
+      }
+      jgen.writeEndArray();
+    }
+  }
+
+  /**
+   * @return true if null properties are written by the configured mapper
+   */
+  protected static boolean includesNull(SerializerProvider provider) {
+    return inclusion(provider) == JsonSerialize.Inclusion.ALWAYS;
+  }
+
+  /**
+   * @return true if empty arrays are written by the configured mapper
+   */
+  protected static boolean includesEmpty(SerializerProvider provider) {
+    JsonSerialize.Inclusion inclusion = inclusion(provider);
+    return inclusion == JsonSerialize.Inclusion.ALWAYS || inclusion == JsonSerialize.Inclusion.NON_NULL;
+  }
+
+  /**
+   * @return true if properties with the value of a default constructed bean are written by the configured mapper
+   */
+  protected static boolean includesDefault(SerializerProvider provider) {
+    return inclusion(provider) != JsonSerialize.Inclusion.NON_DEFAULT;
+  }
+
+  private static JsonSerialize.Inclusion inclusion(SerializerProvider provider) {
+    JsonSerialize.Inclusion inclusion = provider.getConfig().getSerializationInclusion();
+    return inclusion == null ? JsonSerialize.Inclusion.ALWAYS : inclusion;
+  }
+
+  /**
+   * Writes a streaming response as a JSON object.
+   */
+  public static class Serializer extends JsonSerializer<StreamingPagingResponse<?>> {
+
+    @Override
+    public void serialize(StreamingPagingResponse<?> value, JsonGenerator jgen, SerializerProvider provider)
+      throws IOException {
+      jgen.writeStartObject();
+      value.writeFields(jgen, provider);
+      jgen.writeEndObject();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.gbif.api.model.common.search;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.StreamingPagingResponse;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+
+/**
+ * A search response whose results and facets are written one by one to JSON while they are being read from
+ * iterators, so that large pages and facet lists never need to be held in memory.
+ * The JSON is the same as for a {@link SearchResponse} with the same values, so clients can read it as such.
+ * See {@link StreamingPagingResponse} for how the results are consumed.
+ *
+ * @param <T> the type of the results
+ * @param <P> the search parameter type of the facets
+ */
+@JsonSerialize(using = StreamingPagingResponse.Serializer.class)
+public class StreamingSearchResponse<T, P extends SearchParameter> extends StreamingPagingResponse<T> {
+
+  private Iterator<? extends Facet<P>> facets = Collections.emptyIterator();
+
+  private SpellCheckResponse spellCheckResponse;
+
+  public StreamingSearchResponse(Pageable page, @Nullable Long count, Iterator<? extends T> results) {
+    super(page, count, results);
+  }
+
+  public StreamingSearchResponse(long offset, int limit, @Nullable Long count, Iterator<? extends T> results) {
+    super(offset, limit, count, results);
+  }
+
+  /**
+   * Gets the remaining facets not yet written.
+   */
+  public Iterator<? extends Facet<P>> getFacets() {
+    return facets;
+  }
+
+  /**
+   * Sets the facets, written after the results.
+   */
+  public void setFacets(Iterator<? extends Facet<P>> facets) {
+    this.facets = Preconditions.checkNotNull(facets, "facets can't be null");
+  }
+
+  /**
+   * @return the spellcheck response if it was requested
+   */
+  public SpellCheckResponse getSpellCheckResponse() {
+    return spellCheckResponse;
+  }
+
+  /**
+   * Sets the spellcheck response.
+   */
+  public void setSpellCheckResponse(SpellCheckResponse spellCheckResponse) {
+    this.spellCheckResponse = spellCheckResponse;
+  }
+
+  @Override
+  protected void writeFields(JsonGenerator jgen, SerializerProvider provider) throws IOException {
+    super.writeFields(jgen, provider);
+    writeArrayField("facets", facets, jgen, provider);
+    if (spellCheckResponse != null || includesNull(provider)) {
+      provider.defaultSerializeField("spellCheckResponse", spellCheckResponse, jgen);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 Global Biodiversity Information Facility (GBIF)
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.api.model.metrics.cube;
+
+import java.util.Arrays;
+
+/**
+ * A cube address encoded into a fixed number of longs by an {@link AddressEncoder}.
+ * Addresses are immutable and precompute their hash, so they are cheap keys for hash based counters.
+ */
+public final class Address {
+
+  private final long[] values;
+  private final int hash;
+
+  /**
+   * @param values the encoded dimension values, not copied and never to be modified afterwards
+   */
+  public Address(long[] values) {
+    this.values = values;
+    long h = 0;
+    for (long v : values) {
+      h = (h ^ v) * 0x9E3779B97F4A7C15L;
+    }
+    this.hash = (int) (h ^ (h >>> 32));
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof Address)) {
+      return false;
+    }
+    Address that = (Address) obj;
+    return hash == that.hash && Arrays.equals(values, that.values);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(values);
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 Global Biodiversity Information Facility (GBIF)
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.api.model.metrics.cube;
+
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Encodes the addresses of a single {@link Rollup} into fixed width {@link Address} keys.
+ * <br/>
+ * The values of the rollup dimensions are concatenated in the iteration order of {@link Rollup#getDimensions()},
+ * each encoded by the {@link DimensionCodec} of its dimension. Reading a typed {@link ReadBuilder} neither creates
+ * strings nor a map.
+ */
+@ThreadSafe
+public class AddressEncoder {
+
+  private final Dimension<?>[] dimensions;
+  private final DimensionCodec[] codecs;
+  private final int width;
+
+  /**
+   * Creates an encoder with its own codecs.
+   */
+  public AddressEncoder(Rollup rollup) {
+    this(rollup, null);
+  }
+
+  /**
+   * Creates an encoder sharing the given codecs, e.g. with the encoders of other rollups of the same cube.
+   *
+   * @param codecs the codecs by dimension, new codecs are created for missing dimensions
+   * @throws IllegalArgumentException if a dimension type is not supported
+   */
+  public AddressEncoder(Rollup rollup, @Nullable Map<Dimension<?>, DimensionCodec> codecs) {
+    int size = rollup.getDimensions().size();
+    this.dimensions = rollup.getDimensions().toArray(new Dimension<?>[size]);
+    this.codecs = new DimensionCodec[size];
+    int w = 0;
+    for (int i = 0; i < size; i++) {
+      DimensionCodec codec = codecs == null ? null : codecs.get(dimensions[i]);
+      this.codecs[i] = codec == null ? DimensionCodec.of(dimensions[i]) : codec;
+      w += this.codecs[i].width();
+    }
+    this.width = w;
+  }
+
+  /**
+   * @return the number of longs of an encoded address
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Encodes the typed values of the builder, which must hold exactly the dimensions of the rollup.
+   *
+   * @return the address or null if a value has never been encoded before, so no count can exist for it
+   * @throws IllegalArgumentException if the builder does not address the rollup
+   */
+  @Nullable
+  public Address encode(ReadBuilder address) {
+    Preconditions.checkArgument(address.getDimensions().size() == dimensions.length,
+                                "Address does not match the rollup dimensions");
+    long[] key = new long[width];
+    int offset = 0;
+    for (int i = 0; i < dimensions.length; i++) {
+      Object value = address.getValue(dimensions[i]);
+      Preconditions.checkArgument(value != null, "Address misses dimension %s", dimensions[i].getKey());
+      if (!codecs[i].encodeExisting(value, key, offset)) {
+        return null;
+      }
+      offset += codecs[i].width();
+    }
+    return new Address(key);
+  }
+
+  /**
+   * Encodes an address given in its string form as created by {@link ReadBuilder#build()}.
+   *
+   * @return the address or null if a value has never been encoded before, so no count can exist for it
+   * @throws IllegalArgumentException if the address does not match the rollup or a value cannot be parsed
+   */
+  @Nullable
+  public Address encode(Map<Dimension<?>, String> address) {
+    Preconditions.checkArgument(address.size() == dimensions.length, "Address does not match the rollup dimensions");
+    long[] key = new long[width];
+    int offset = 0;
+    for (int i = 0; i < dimensions.length; i++) {
+      String value = address.get(dimensions[i]);
+      Preconditions.checkArgument(value != null, "Address misses dimension %s", dimensions[i].getKey());
+      if (!codecs[i].encodeString(value, key, offset)) {
+        return null;
+      }
+      offset += codecs[i].width();
+    }
+    return new Address(key);
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2014 Global Biodiversity Information Facility (GBIF)
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.api.model.metrics.cube;
+
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.Language;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Encodes the values of a single dimension into a fixed number of longs based on {@link Dimension#getType()}.
+ * Enumerations are stored as their ordinal, UUIDs as their 2 halves, booleans and numbers as their raw bits and
+ * strings as an id assigned on first use.
+ * Values can also be decoded from the string form used by {@link ReadBuilder#build()}.
+ * <br/>
+ * Codecs are thread safe. The ids of strings are only valid for the codec instance which assigned them.
+ */
+public abstract class DimensionCodec {
+
+  // no subclasses outside this package
+  DimensionCodec() {
+  }
+
+  /**
+   * @return the number of longs used for a single value
+   */
+  public abstract int width();
+
+  /**
+   * Writes the encoded value into the target starting at the given offset.
+   *
+   * @throws IllegalArgumentException if the value is not of the dimension type
+   */
+  public abstract void encode(Object value, long[] target, int offset);
+
+  /**
+   * Same as {@link #encode(Object, long[], int)} but never assigns new ids to values, as needed for reading.
+   *
+   * @return false if the value has never been encoded before, so no count can exist for it
+   * @throws IllegalArgumentException if the value is not of the dimension type
+   */
+  public boolean encodeExisting(Object value, long[] target, int offset) {
+    encode(value, target, offset);
+    return true;
+  }
+
+  /**
+   * Writes the value given in its {@link ReadBuilder#build()} string form.
+   *
+   * @return false if the value is valid but has never been encoded before, so no count can exist for it
+   * @throws IllegalArgumentException if the value cannot be parsed
+   */
+  public abstract boolean encodeString(String value, long[] target, int offset);
+
+  /**
+   * Creates a new codec for the type of the dimension.
+   *
+   * @throws IllegalArgumentException if the dimension type is not supported
+   */
+  public static DimensionCodec of(Dimension<?> dim) {
+    Class<?> type = dim.getType();
+    if (type == UUID.class) {
+      return new UuidCodec();
+    } else if (type == Country.class) {
+      return new CountryCodec();
+    } else if (type == Language.class) {
+      return new LanguageCodec();
+    } else if (type != null && type.isEnum()) {
+      return new EnumCodec(type);
+    } else if (type == Boolean.class) {
+      return new BooleanCodec();
+    } else if (type == Integer.class || type == Long.class) {
+      return new IntegerCodec(type);
+    } else if (type == Double.class || type == Float.class) {
+      return new FloatingPointCodec(type);
+    } else if (type == String.class) {
+      return new StringCodec();
+    }
+    throw new IllegalArgumentException("Unsupported type " + type + " of dimension " + dim.getKey());
+  }
+
+  private static <T> T cast(Class<T> type, Object value) {
+    if (!type.isInstance(value)) {
+      throw new IllegalArgumentException("Value " + value + " is no " + type.getSimpleName());
+    }
+    return type.cast(value);
+  }
+
+  private static final class UuidCodec extends DimensionCodec {
+
+    @Override
+    public int width() {
+      return 2;
+    }
+
+    @Override
+    public void encode(Object value, long[] target, int offset) {
+      UUID uuid = cast(UUID.class, value);
+      target[offset] = uuid.getMostSignificantBits();
+      target[offset + 1] = uuid.getLeastSignificantBits();
+    }
+
+    @Override
+    public boolean encodeString(String value, long[] target, int offset) {
+      encode(UUID.fromString(value), target, offset);
+      return true;
+    }
+  }
+
+  private static class EnumCodec extends DimensionCodec {
+
+    private final Class<?> type;
+
+    private EnumCodec(Class<?> type) {
+      this.type = type;
+    }
+
+    @Override
+    public int width() {
+      return 1;
+    }
+
+    @Override
+    public void encode(Object value, long[] target, int offset) {
+      target[offset] = ((Enum<?>) cast(type, value)).ordinal();
+    }
+
+    @Override
+    public boolean encodeString(String value, long[] target, int offset) {
+      encode(parse(value), target, offset);
+      return true;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Enum<?> parse(String value) {
+      return Enum.valueOf((Class<? extends Enum>) type, value);
+    }
+  }
+
+  /**
+   * Countries are addressed by their ISO 2 letter code.
+   */
+  private static final class CountryCodec extends EnumCodec {
+
+    private CountryCodec() {
+      super(Country.class);
+    }
+
+    @Override
+    Enum<?> parse(String value) {
+      Country country = Country.fromIsoCode(value);
+      if (country == null) {
+        throw new IllegalArgumentException("Unknown country " + value);
+      }
+      return country;
+    }
+  }
+
+  /**
+   * Languages are addressed by their ISO 2 letter code.
+   */
+  private static final class LanguageCodec extends EnumCodec {
+
+    private LanguageCodec() {
+      super(Language.class);
+    }
+
+    @Override
+    Enum<?> parse(String value) {
+      Language language = Language.fromIsoCode(value);
+      if (language == Language.UNKNOWN && !Language.UNKNOWN.getIso2LetterCode().equalsIgnoreCase(value)) {
+        throw new IllegalArgumentException("Unknown language " + value);
+      }
+      return language;
+    }
+  }
+
+  private static final class BooleanCodec extends DimensionCodec {
+
+    @Override
+    public int width() {
+      return 1;
+    }
+
+    @Override
+    public void encode(Object value, long[] target, int offset) {
+      target[offset] = cast(Boolean.class, value) ? 1 : 0;
+    }
+
+    @Override
+    public boolean encodeString(String value, long[] target, int offset) {
+      if ("true".equalsIgnoreCase(value)) {
+        target[offset] = 1;
+      } else if ("false".equalsIgnoreCase(value)) {
+        target[offset] = 0;
+      } else {
+        throw new IllegalArgumentException("Value " + value + " is no Boolean");
+      }
+      return true;
+    }
+  }
+
+  private static final class IntegerCodec extends DimensionCodec {
+
+    private final Class<?> type;
+
+    private IntegerCodec(Class<?> type) {
+      this.type = type;
+    }
+
+    @Override
+    public int width() {
+      return 1;
+    }
+
+    @Override
+    public void encode(Object value, long[] target, int offset) {
+      target[offset] = ((Number) cast(type, value)).longValue();
+    }
+
+    @Override
+    public boolean encodeString(String value, long[] target, int offset) {
+      target[offset] = type == Integer.class ? Integer.parseInt(value) : Long.parseLong(value);
+      return true;
+    }
+  }
+
+  private static final class FloatingPointCodec extends DimensionCodec {
+
+    private final Class<?> type;
+
+    private FloatingPointCodec(Class<?> type) {
+      this.type = type;
+    }
+
+    @Override
+    public int width() {
+      return 1;
+    }
+
+    @Override
+    public void encode(Object value, long[] target, int offset) {
+      Number number = (Number) cast(type, value);
+      target[offset] = type == Float.class
+        ? Float.floatToIntBits(number.floatValue())
+        : Double.doubleToLongBits(number.doubleValue());
+    }
+
+    @Override
+    public boolean encodeString(String value, long[] target, int offset) {
+      target[offset] = type == Float.class
+        ? Float.floatToIntBits(Float.parseFloat(value))
+        : Double.doubleToLongBits(Double.parseDouble(value));
+      return true;
+    }
+  }
+
+  /**
+   * Assigns a sequential id to every distinct string.
+   */
+  private static final class StringCodec extends DimensionCodec {
+
+    private final ConcurrentMap<String, Long> ids = Maps.newConcurrentMap();
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Override
+    public int width() {
+      return 1;
+    }
+
+    @Override
+    public void encode(Object value, long[] target, int offset) {
+      String str = cast(String.class, value);
+      Long id = ids.get(str);
+      if (id == null) {
+        Long newId = nextId.getAndIncrement();
+        id = ids.putIfAbsent(str, newId);
+        if (id == null) {
+          id = newId;
+        }
+      }
+      target[offset] = id;
+    }
+
+    @Override
+    public boolean encodeExisting(Object value, long[] target, int offset) {
+      return encodeString(cast(String.class, value), target, offset);
+    }
+
+    @Override
+    public boolean encodeString(String value, long[] target, int offset) {
+      Long id = ids.get(value);
+      if (id == null) {
+        return false;
+      }
+      target[offset] = id;
+      return true;
+    }
+  }
+}
@@ -15,28 +15,36 @@ package org.gbif.api.model.metrics.cube;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.Language;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
  * Provides building of addresses for reading the cube.
  * This class ensures the type safety of dimensions as they are added to the builder.
+ * <br/>
+ * The typed values are kept as given, so that an {@link AddressEncoder} can encode them without creating strings.
+ * The string form of the address is only created when calling {@link #build()}.
  */
 @NotThreadSafe
 public class ReadBuilder {
 
-  private final Map<Dimension<?>, String> address = Maps.newHashMap();
+  private final List<Dimension<?>> dimensions = Lists.newArrayListWithCapacity(4);
+  private final List<Object> values = Lists.newArrayListWithCapacity(4);
 
   /**
    * Adds an country type dimension to the address.
    */
   public ReadBuilder at(Dimension<Country> dim, Country value) {
     Preconditions.checkNotNull(value, "Dimension cannot be null");
-    address.put(dim, value.getIso2LetterCode());
+    put(dim, value);
     return this;
   }
 
@@ -45,7 +53,7 @@ public class ReadBuilder {
    */
   public ReadBuilder at(Dimension<Language> dim, Language value) {
     Preconditions.checkNotNull(value, "Dimension cannot be null");
-    address.put(dim, value.getIso2LetterCode());
+    put(dim, value);
     return this;
   }
 
@@ -54,7 +62,7 @@ public class ReadBuilder {
    */
   public ReadBuilder at(Dimension<? extends Enum<?>> dim, Enum<?> value) {
     Preconditions.checkNotNull(value, "Dimension cannot be null");
-    address.put(dim, value.name());
+    put(dim, value);
     return this;
   }
 
@@ -62,7 +70,7 @@ public class ReadBuilder {
    * Adds a boolen typed dimension to the address.
    */
   public ReadBuilder at(Dimension<Boolean> dim, boolean value) {
-    address.put(dim, String.valueOf(value));
+    put(dim, value);
     return this;
   }
 
@@ -70,7 +78,7 @@ public class ReadBuilder {
    * Adds a double typed dimension to the address.
    */
   public ReadBuilder at(Dimension<Double> dim, double value) {
-    address.put(dim, String.valueOf(value));
+    put(dim, value);
     return this;
   }
 
@@ -78,7 +86,7 @@ public class ReadBuilder {
    * Adds a float typed dimension to the address.
    */
   public ReadBuilder at(Dimension<Float> dim, float value) {
-    address.put(dim, String.valueOf(value));
+    put(dim, value);
     return this;
   }
 
@@ -86,7 +94,7 @@ public class ReadBuilder {
    * Adds an integer typed dimension to the address.
    */
   public ReadBuilder at(Dimension<Integer> dim, int value) {
-    address.put(dim, String.valueOf(value));
+    put(dim, value);
     return this;
   }
 
@@ -95,7 +103,7 @@ public class ReadBuilder {
    */
   public ReadBuilder at(Dimension<String> dim, String value) {
     Preconditions.checkNotNull(value, "Dimension cannot be null");
-    address.put(dim, value);
+    put(dim, value);
     return this;
   }
 
@@ -104,14 +112,55 @@ public class ReadBuilder {
    */
   public ReadBuilder at(Dimension<UUID> dim, UUID value) {
     Preconditions.checkNotNull(value, "Dimension cannot be null");
-    address.put(dim, value.toString());
+    put(dim, value);
     return this;
   }
 
+  private void put(Dimension<?> dim, Object value) {
+    int idx = dimensions.indexOf(dim);
+    if (idx < 0) {
+      dimensions.add(dim);
+      values.add(value);
+    } else {
+      values.set(idx, value);
+    }
+  }
+
+  /**
+   * @return The dimensions of the address in the order they were first added.
+   */
+  public List<Dimension<?>> getDimensions() {
+    return Collections.unmodifiableList(dimensions);
+  }
+
   /**
-   * @return The built address.
+   * @return The typed value of the dimension or null if the dimension is not part of the address.
+   */
+  @Nullable
+  public Object getValue(Dimension<?> dim) {
+    int idx = dimensions.indexOf(dim);
+    return idx < 0 ? null : values.get(idx);
+  }
+
+  /**
+   * @return The built address with all values in their string form, countries and languages as ISO 2 letter codes.
    */
   public Map<Dimension<?>, String> build() {
+    Map<Dimension<?>, String> address = Maps.newHashMapWithExpectedSize(dimensions.size());
+    for (int i = 0; i < dimensions.size(); i++) {
+      address.put(dimensions.get(i), toString(values.get(i)));
+    }
     return address;
   }
+
+  private static String toString(Object value) {
+    if (value instanceof Country) {
+      return ((Country) value).getIso2LetterCode();
+    } else if (value instanceof Language) {
+      return ((Language) value).getIso2LetterCode();
+    } else if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    }
+    return String.valueOf(value);
+  }
 }
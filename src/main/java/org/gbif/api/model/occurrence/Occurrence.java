@@ -159,11 +159,11 @@ public class Occurrence extends VerbatimOccurrence implements LinneanClassificat
   private List<OccurrenceRelation> relations = Lists.newArrayList();
 
   public Occurrence() {
-
   }
 
   /**
    * Create occurrence instance from existing verbatim one, copying over all data.
+   * Verbatim fields kept in a {@link TermRecord} are copied into a new record of the same schema.
    */
   public Occurrence(@Nullable VerbatimOccurrence verbatim) {
     if (verbatim != null) {
@@ -176,7 +176,10 @@ public class Occurrence extends VerbatimOccurrence implements LinneanClassificat
       if (verbatim.getLastCrawled() != null) {
         setLastCrawled(new Date(verbatim.getLastCrawled().getTime()));
       }
-      if (verbatim.getVerbatimFields() != null) {
+      if (verbatim.getVerbatimFields() instanceof TermRecord) {
+        TermRecord fields = (TermRecord) verbatim.getVerbatimFields();
+        setVerbatimFields(new TermRecord(fields.getSchema(), fields));
+      } else if (verbatim.getVerbatimFields() != null) {
         getVerbatimFields().putAll(verbatim.getVerbatimFields());
       }
       if (verbatim.getLastParsed() != null) {
@@ -186,6 +189,16 @@ public class Occurrence extends VerbatimOccurrence implements LinneanClassificat
     }
   }
 
+  /**
+   * Creates an occurrence keeping its verbatim fields in a compact {@link TermRecord} of the given schema.
+   * Large batches of occurrences should share a single schema to use little memory.
+   */
+  public static Occurrence withSchema(TermSchema schema) {
+    Occurrence occ = new Occurrence();
+    occ.setVerbatimFields(Preconditions.checkNotNull(schema, "schema can't be null").newRecord());
+    return occ;
+  }
+
   @Nullable
   public BasisOfRecord getBasisOfRecord() {
     return basisOfRecord;
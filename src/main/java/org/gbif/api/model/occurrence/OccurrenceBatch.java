@@ -0,0 +1,1000 @@
+package org.gbif.api.model.occurrence;
+
+import org.gbif.api.model.common.Identifier;
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Continent;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.api.vocabulary.EstablishmentMeans;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.License;
+import org.gbif.api.vocabulary.LifeStage;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.Sex;
+import org.gbif.api.vocabulary.TypeStatus;
+import org.gbif.dwc.terms.Term;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A batch of occurrences stored column by column, for processing many thousands of records at once.
+ * <br/>
+ * Numbers and dates are kept in primitive arrays with a bitmap of null rows, enumerations as ordinals, strings,
+ * keys and URIs as codes into a dictionary of distinct values per column and the issues as a bitset per row.
+ * Columns can be scanned without creating any objects, e.g. to filter a batch before converting it back into
+ * {@link Occurrence}s. The verbatim fields, extensions, network keys and the lists of identifiers, media,
+ * facts and relations are not split into columns and are kept by reference.
+ * <br/>
+ * Batches grow as occurrences are added and are not thread safe.
+ */
+public class OccurrenceBatch {
+
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  private final List<Column> columns = Lists.newArrayList();
+  private int size;
+  private int capacity;
+
+  private final IntColumn key = add(new IntColumn());
+  private final DictionaryColumn<UUID> datasetKey = add(new DictionaryColumn<UUID>());
+  private final DictionaryColumn<UUID> publishingOrgKey = add(new DictionaryColumn<UUID>());
+  private final ObjectColumn<List<UUID>> networkKeys = add(new ObjectColumn<List<UUID>>());
+  private final DictionaryColumn<UUID> installationKey = add(new DictionaryColumn<UUID>());
+  private final EnumColumn<Country> publishingCountry = add(new EnumColumn<Country>(Country.class));
+  private final EnumColumn<EndpointType> protocol = add(new EnumColumn<EndpointType>(EndpointType.class));
+  private final LongColumn lastCrawled = add(new LongColumn());
+  private final LongColumn lastParsed = add(new LongColumn());
+  private final IntColumn crawlId = add(new IntColumn());
+  private final ObjectColumn<Map<Term, String>> verbatimFields = add(new ObjectColumn<Map<Term, String>>());
+  private final ObjectColumn<Map<Extension, List<Map<Term, String>>>> extensions =
+    add(new ObjectColumn<Map<Extension, List<Map<Term, String>>>>());
+
+  private final EnumColumn<BasisOfRecord> basisOfRecord = add(new EnumColumn<BasisOfRecord>(BasisOfRecord.class));
+  private final IntColumn individualCount = add(new IntColumn());
+  private final EnumColumn<Sex> sex = add(new EnumColumn<Sex>(Sex.class));
+  private final EnumColumn<LifeStage> lifeStage = add(new EnumColumn<LifeStage>(LifeStage.class));
+  private final EnumColumn<EstablishmentMeans> establishmentMeans =
+    add(new EnumColumn<EstablishmentMeans>(EstablishmentMeans.class));
+  private final IntColumn taxonKey = add(new IntColumn());
+  private final IntColumn kingdomKey = add(new IntColumn());
+  private final IntColumn phylumKey = add(new IntColumn());
+  private final IntColumn classKey = add(new IntColumn());
+  private final IntColumn orderKey = add(new IntColumn());
+  private final IntColumn familyKey = add(new IntColumn());
+  private final IntColumn genusKey = add(new IntColumn());
+  private final IntColumn subgenusKey = add(new IntColumn());
+  private final IntColumn speciesKey = add(new IntColumn());
+  private final DictionaryColumn<String> scientificName = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> kingdom = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> phylum = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> clazz = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> order = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> family = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> genus = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> subgenus = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> species = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> genericName = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> specificEpithet = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> infraspecificEpithet = add(new DictionaryColumn<String>());
+  private final EnumColumn<Rank> taxonRank = add(new EnumColumn<Rank>(Rank.class));
+  private final LongColumn dateIdentified = add(new LongColumn());
+  private final DoubleColumn decimalLongitude = add(new DoubleColumn());
+  private final DoubleColumn decimalLatitude = add(new DoubleColumn());
+  private final DoubleColumn coordinatePrecision = add(new DoubleColumn());
+  private final DoubleColumn coordinateUncertaintyInMeters = add(new DoubleColumn());
+  private final DoubleColumn coordinateAccuracy = add(new DoubleColumn());
+  private final DoubleColumn elevation = add(new DoubleColumn());
+  private final DoubleColumn elevationAccuracy = add(new DoubleColumn());
+  private final DoubleColumn depth = add(new DoubleColumn());
+  private final DoubleColumn depthAccuracy = add(new DoubleColumn());
+  private final EnumColumn<Continent> continent = add(new EnumColumn<Continent>(Continent.class));
+  private final EnumColumn<Country> country = add(new EnumColumn<Country>(Country.class));
+  private final DictionaryColumn<String> stateProvince = add(new DictionaryColumn<String>());
+  private final DictionaryColumn<String> waterBody = add(new DictionaryColumn<String>());
+  private final IntColumn year = add(new IntColumn());
+  private final IntColumn month = add(new IntColumn());
+  private final IntColumn day = add(new IntColumn());
+  private final LongColumn eventDate = add(new LongColumn());
+  private final EnumColumn<TypeStatus> typeStatus = add(new EnumColumn<TypeStatus>(TypeStatus.class));
+  private final DictionaryColumn<String> typifiedName = add(new DictionaryColumn<String>());
+  private final IssueColumn issues = add(new IssueColumn());
+  private final LongColumn modified = add(new LongColumn());
+  private final LongColumn lastInterpreted = add(new LongColumn());
+  private final DictionaryColumn<URI> references = add(new DictionaryColumn<URI>());
+  private final EnumColumn<License> license = add(new EnumColumn<License>(License.class));
+  private final ObjectColumn<List<Identifier>> identifiers = add(new ObjectColumn<List<Identifier>>());
+  private final ObjectColumn<List<MediaObject>> media = add(new ObjectColumn<List<MediaObject>>());
+  private final ObjectColumn<List<FactOrMeasurment>> facts = add(new ObjectColumn<List<FactOrMeasurment>>());
+  private final ObjectColumn<List<OccurrenceRelation>> relations = add(new ObjectColumn<List<OccurrenceRelation>>());
+
+  public OccurrenceBatch() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity the number of occurrences to reserve space for
+   */
+  public OccurrenceBatch(int capacity) {
+    checkArgument(capacity >= 0, "capacity must not be negative");
+    ensureCapacity(capacity);
+  }
+
+  /**
+   * Creates a batch holding all given occurrences in their order.
+   */
+  public static OccurrenceBatch of(Collection<? extends Occurrence> occurrences) {
+    OccurrenceBatch batch = new OccurrenceBatch(occurrences.size());
+    for (Occurrence occ : occurrences) {
+      batch.add(occ);
+    }
+    return batch;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Appends an occurrence to the batch.
+   *
+   * @return the row of the occurrence
+   */
+  public int add(Occurrence occ) {
+    checkNotNull(occ, "occurrence can't be null");
+    if (size == capacity) {
+      ensureCapacity(Math.max(16, capacity * 2));
+    }
+    int row = size++;
+    key.set(row, occ.getKey());
+    datasetKey.set(row, occ.getDatasetKey());
+    publishingOrgKey.set(row, occ.getPublishingOrgKey());
+    networkKeys.set(row, occ.getNetworkKeys());
+    installationKey.set(row, occ.getInstallationKey());
+    publishingCountry.set(row, occ.getPublishingCountry());
+    protocol.set(row, occ.getProtocol());
+    lastCrawled.setDate(row, occ.getLastCrawled());
+    lastParsed.setDate(row, occ.getLastParsed());
+    crawlId.set(row, occ.getCrawlId());
+    verbatimFields.set(row, occ.getVerbatimFields());
+    extensions.set(row, occ.getExtensions());
+
+    basisOfRecord.set(row, occ.getBasisOfRecord());
+    individualCount.set(row, occ.getIndividualCount());
+    sex.set(row, occ.getSex());
+    lifeStage.set(row, occ.getLifeStage());
+    establishmentMeans.set(row, occ.getEstablishmentMeans());
+    taxonKey.set(row, occ.getTaxonKey());
+    kingdomKey.set(row, occ.getKingdomKey());
+    phylumKey.set(row, occ.getPhylumKey());
+    classKey.set(row, occ.getClassKey());
+    orderKey.set(row, occ.getOrderKey());
+    familyKey.set(row, occ.getFamilyKey());
+    genusKey.set(row, occ.getGenusKey());
+    subgenusKey.set(row, occ.getSubgenusKey());
+    speciesKey.set(row, occ.getSpeciesKey());
+    scientificName.set(row, occ.getScientificName());
+    kingdom.set(row, occ.getKingdom());
+    phylum.set(row, occ.getPhylum());
+    clazz.set(row, occ.getClazz());
+    order.set(row, occ.getOrder());
+    family.set(row, occ.getFamily());
+    genus.set(row, occ.getGenus());
+    subgenus.set(row, occ.getSubgenus());
+    species.set(row, occ.getSpecies());
+    genericName.set(row, occ.getGenericName());
+    specificEpithet.set(row, occ.getSpecificEpithet());
+    infraspecificEpithet.set(row, occ.getInfraspecificEpithet());
+    taxonRank.set(row, occ.getTaxonRank());
+    dateIdentified.setDate(row, occ.getDateIdentified());
+    decimalLongitude.set(row, occ.getDecimalLongitude());
+    decimalLatitude.set(row, occ.getDecimalLatitude());
+    coordinatePrecision.set(row, occ.getCoordinatePrecision());
+    coordinateUncertaintyInMeters.set(row, occ.getCoordinateUncertaintyInMeters());
+    coordinateAccuracy.set(row, occ.getCoordinateAccuracy());
+    elevation.set(row, occ.getElevation());
+    elevationAccuracy.set(row, occ.getElevationAccuracy());
+    depth.set(row, occ.getDepth());
+    depthAccuracy.set(row, occ.getDepthAccuracy());
+    continent.set(row, occ.getContinent());
+    country.set(row, occ.getCountry());
+    stateProvince.set(row, occ.getStateProvince());
+    waterBody.set(row, occ.getWaterBody());
+    year.set(row, occ.getYear());
+    month.set(row, occ.getMonth());
+    day.set(row, occ.getDay());
+    eventDate.setDate(row, occ.getEventDate());
+    typeStatus.set(row, occ.getTypeStatus());
+    typifiedName.set(row, occ.getTypifiedName());
+    issues.set(row, occ.getIssues());
+    modified.setDate(row, occ.getModified());
+    lastInterpreted.setDate(row, occ.getLastInterpreted());
+    references.set(row, occ.getReferences());
+    license.set(row, occ.getLicense());
+    identifiers.set(row, occ.getIdentifiers());
+    media.set(row, occ.getMedia());
+    facts.set(row, occ.getFacts());
+    relations.set(row, occ.getRelations());
+    return row;
+  }
+
+  /**
+   * Creates a new occurrence from a row of the batch.
+   */
+  public Occurrence get(int row) {
+    checkElementIndex(row, size);
+    Occurrence occ = new Occurrence();
+    occ.setKey(key.getBoxed(row));
+    occ.setDatasetKey(datasetKey.get(row));
+    occ.setPublishingOrgKey(publishingOrgKey.get(row));
+    occ.setNetworkKeys(networkKeys.get(row));
+    occ.setInstallationKey(installationKey.get(row));
+    occ.setPublishingCountry(publishingCountry.get(row));
+    occ.setProtocol(protocol.get(row));
+    occ.setLastCrawled(lastCrawled.getDate(row));
+    occ.setLastParsed(lastParsed.getDate(row));
+    occ.setCrawlId(crawlId.getBoxed(row));
+    occ.setVerbatimFields(verbatimFields.get(row));
+    occ.setExtensions(extensions.get(row));
+
+    occ.setBasisOfRecord(basisOfRecord.get(row));
+    occ.setIndividualCount(individualCount.getBoxed(row));
+    occ.setSex(sex.get(row));
+    occ.setLifeStage(lifeStage.get(row));
+    occ.setEstablishmentMeans(establishmentMeans.get(row));
+    occ.setTaxonKey(taxonKey.getBoxed(row));
+    occ.setKingdomKey(kingdomKey.getBoxed(row));
+    occ.setPhylumKey(phylumKey.getBoxed(row));
+    occ.setClassKey(classKey.getBoxed(row));
+    occ.setOrderKey(orderKey.getBoxed(row));
+    occ.setFamilyKey(familyKey.getBoxed(row));
+    occ.setGenusKey(genusKey.getBoxed(row));
+    occ.setSubgenusKey(subgenusKey.getBoxed(row));
+    occ.setSpeciesKey(speciesKey.getBoxed(row));
+    occ.setScientificName(scientificName.get(row));
+    occ.setKingdom(kingdom.get(row));
+    occ.setPhylum(phylum.get(row));
+    occ.setClazz(clazz.get(row));
+    occ.setOrder(order.get(row));
+    occ.setFamily(family.get(row));
+    occ.setGenus(genus.get(row));
+    occ.setSubgenus(subgenus.get(row));
+    occ.setSpecies(species.get(row));
+    occ.setGenericName(genericName.get(row));
+    occ.setSpecificEpithet(specificEpithet.get(row));
+    occ.setInfraspecificEpithet(infraspecificEpithet.get(row));
+    occ.setTaxonRank(taxonRank.get(row));
+    occ.setDateIdentified(dateIdentified.getDate(row));
+    occ.setDecimalLongitude(decimalLongitude.getBoxed(row));
+    occ.setDecimalLatitude(decimalLatitude.getBoxed(row));
+    occ.setCoordinatePrecision(coordinatePrecision.getBoxed(row));
+    occ.setCoordinateUncertaintyInMeters(coordinateUncertaintyInMeters.getBoxed(row));
+    occ.setCoordinateAccuracy(coordinateAccuracy.getBoxed(row));
+    occ.setElevation(elevation.getBoxed(row));
+    occ.setElevationAccuracy(elevationAccuracy.getBoxed(row));
+    occ.setDepth(depth.getBoxed(row));
+    occ.setDepthAccuracy(depthAccuracy.getBoxed(row));
+    occ.setContinent(continent.get(row));
+    occ.setCountry(country.get(row));
+    occ.setStateProvince(stateProvince.get(row));
+    occ.setWaterBody(waterBody.get(row));
+    occ.setYear(year.getBoxed(row));
+    occ.setMonth(month.getBoxed(row));
+    occ.setDay(day.getBoxed(row));
+    occ.setEventDate(eventDate.getDate(row));
+    occ.setTypeStatus(typeStatus.get(row));
+    occ.setTypifiedName(typifiedName.get(row));
+    occ.setIssues(issues.get(row));
+    occ.setModified(modified.getDate(row));
+    occ.setLastInterpreted(lastInterpreted.getDate(row));
+    occ.setReferences(references.get(row));
+    occ.setLicense(license.get(row));
+    occ.setIdentifiers(identifiers.get(row));
+    occ.setMedia(media.get(row));
+    occ.setFacts(facts.get(row));
+    occ.setRelations(relations.get(row));
+    return occ;
+  }
+
+  /**
+   * @return new occurrences for all rows of the batch
+   */
+  public List<Occurrence> toOccurrences() {
+    List<Occurrence> occurrences = Lists.newArrayListWithCapacity(size);
+    for (int row = 0; row < size; row++) {
+      occurrences.add(get(row));
+    }
+    return occurrences;
+  }
+
+  /**
+   * Copies the selected rows into a new batch, keeping their order.
+   *
+   * @param rows the rows to keep, e.g. the result of a scan over some columns
+   */
+  public OccurrenceBatch filter(BitSet rows) {
+    OccurrenceBatch filtered = new OccurrenceBatch(rows.cardinality());
+    for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+      int target = filtered.size++;
+      for (int i = 0; i < columns.size(); i++) {
+        filtered.columns.get(i).copy(columns.get(i), row, target);
+      }
+    }
+    return filtered;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > this.capacity) {
+      for (Column column : columns) {
+        column.grow(capacity);
+      }
+      this.capacity = capacity;
+    }
+  }
+
+  private <C extends Column> C add(C column) {
+    columns.add(column);
+    return column;
+  }
+
+  public IntColumn getKey() {
+    return key;
+  }
+
+  public DictionaryColumn<UUID> getDatasetKey() {
+    return datasetKey;
+  }
+
+  public DictionaryColumn<UUID> getPublishingOrgKey() {
+    return publishingOrgKey;
+  }
+
+  public ObjectColumn<List<UUID>> getNetworkKeys() {
+    return networkKeys;
+  }
+
+  public DictionaryColumn<UUID> getInstallationKey() {
+    return installationKey;
+  }
+
+  public EnumColumn<Country> getPublishingCountry() {
+    return publishingCountry;
+  }
+
+  public EnumColumn<EndpointType> getProtocol() {
+    return protocol;
+  }
+
+  public LongColumn getLastCrawled() {
+    return lastCrawled;
+  }
+
+  public LongColumn getLastParsed() {
+    return lastParsed;
+  }
+
+  public IntColumn getCrawlId() {
+    return crawlId;
+  }
+
+  public ObjectColumn<Map<Term, String>> getVerbatimFields() {
+    return verbatimFields;
+  }
+
+  public ObjectColumn<Map<Extension, List<Map<Term, String>>>> getExtensions() {
+    return extensions;
+  }
+
+  public EnumColumn<BasisOfRecord> getBasisOfRecord() {
+    return basisOfRecord;
+  }
+
+  public IntColumn getIndividualCount() {
+    return individualCount;
+  }
+
+  public EnumColumn<Sex> getSex() {
+    return sex;
+  }
+
+  public EnumColumn<LifeStage> getLifeStage() {
+    return lifeStage;
+  }
+
+  public EnumColumn<EstablishmentMeans> getEstablishmentMeans() {
+    return establishmentMeans;
+  }
+
+  public IntColumn getTaxonKey() {
+    return taxonKey;
+  }
+
+  public IntColumn getKingdomKey() {
+    return kingdomKey;
+  }
+
+  public IntColumn getPhylumKey() {
+    return phylumKey;
+  }
+
+  public IntColumn getClassKey() {
+    return classKey;
+  }
+
+  public IntColumn getOrderKey() {
+    return orderKey;
+  }
+
+  public IntColumn getFamilyKey() {
+    return familyKey;
+  }
+
+  public IntColumn getGenusKey() {
+    return genusKey;
+  }
+
+  public IntColumn getSubgenusKey() {
+    return subgenusKey;
+  }
+
+  public IntColumn getSpeciesKey() {
+    return speciesKey;
+  }
+
+  public DictionaryColumn<String> getScientificName() {
+    return scientificName;
+  }
+
+  public DictionaryColumn<String> getKingdom() {
+    return kingdom;
+  }
+
+  public DictionaryColumn<String> getPhylum() {
+    return phylum;
+  }
+
+  public DictionaryColumn<String> getClazz() {
+    return clazz;
+  }
+
+  public DictionaryColumn<String> getOrder() {
+    return order;
+  }
+
+  public DictionaryColumn<String> getFamily() {
+    return family;
+  }
+
+  public DictionaryColumn<String> getGenus() {
+    return genus;
+  }
+
+  public DictionaryColumn<String> getSubgenus() {
+    return subgenus;
+  }
+
+  public DictionaryColumn<String> getSpecies() {
+    return species;
+  }
+
+  public DictionaryColumn<String> getGenericName() {
+    return genericName;
+  }
+
+  public DictionaryColumn<String> getSpecificEpithet() {
+    return specificEpithet;
+  }
+
+  public DictionaryColumn<String> getInfraspecificEpithet() {
+    return infraspecificEpithet;
+  }
+
+  public EnumColumn<Rank> getTaxonRank() {
+    return taxonRank;
+  }
+
+  public LongColumn getDateIdentified() {
+    return dateIdentified;
+  }
+
+  public DoubleColumn getDecimalLongitude() {
+    return decimalLongitude;
+  }
+
+  public DoubleColumn getDecimalLatitude() {
+    return decimalLatitude;
+  }
+
+  public DoubleColumn getCoordinatePrecision() {
+    return coordinatePrecision;
+  }
+
+  public DoubleColumn getCoordinateUncertaintyInMeters() {
+    return coordinateUncertaintyInMeters;
+  }
+
+  public DoubleColumn getCoordinateAccuracy() {
+    return coordinateAccuracy;
+  }
+
+  public DoubleColumn getElevation() {
+    return elevation;
+  }
+
+  public DoubleColumn getElevationAccuracy() {
+    return elevationAccuracy;
+  }
+
+  public DoubleColumn getDepth() {
+    return depth;
+  }
+
+  public DoubleColumn getDepthAccuracy() {
+    return depthAccuracy;
+  }
+
+  public EnumColumn<Continent> getContinent() {
+    return continent;
+  }
+
+  public EnumColumn<Country> getCountry() {
+    return country;
+  }
+
+  public DictionaryColumn<String> getStateProvince() {
+    return stateProvince;
+  }
+
+  public DictionaryColumn<String> getWaterBody() {
+    return waterBody;
+  }
+
+  public IntColumn getYear() {
+    return year;
+  }
+
+  public IntColumn getMonth() {
+    return month;
+  }
+
+  public IntColumn getDay() {
+    return day;
+  }
+
+  public LongColumn getEventDate() {
+    return eventDate;
+  }
+
+  public EnumColumn<TypeStatus> getTypeStatus() {
+    return typeStatus;
+  }
+
+  public DictionaryColumn<String> getTypifiedName() {
+    return typifiedName;
+  }
+
+  public IssueColumn getIssues() {
+    return issues;
+  }
+
+  public LongColumn getModified() {
+    return modified;
+  }
+
+  public LongColumn getLastInterpreted() {
+    return lastInterpreted;
+  }
+
+  public DictionaryColumn<URI> getReferences() {
+    return references;
+  }
+
+  public EnumColumn<License> getLicense() {
+    return license;
+  }
+
+  public ObjectColumn<List<Identifier>> getIdentifiers() {
+    return identifiers;
+  }
+
+  public ObjectColumn<List<MediaObject>> getMedia() {
+    return media;
+  }
+
+  public ObjectColumn<List<FactOrMeasurment>> getFacts() {
+    return facts;
+  }
+
+  public ObjectColumn<List<OccurrenceRelation>> getRelations() {
+    return relations;
+  }
+
+  /**
+   * A single column of a batch. Rows beyond the size of the batch are undefined.
+   */
+  public abstract static class Column {
+    protected final BitSet nulls = new BitSet();
+
+    public boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    /**
+     * @return the bitmap of all null rows, which must not be modified
+     */
+    public BitSet getNulls() {
+      return nulls;
+    }
+
+    abstract void grow(int capacity);
+
+    /**
+     * Copies a row of a column of the same kind into this column.
+     */
+    abstract void copy(Column from, int fromRow, int toRow);
+  }
+
+  /**
+   * Integer values, with rows being null having the value 0.
+   */
+  public static class IntColumn extends Column {
+    private int[] values = new int[0];
+
+    public int get(int row) {
+      return values[row];
+    }
+
+    @Nullable
+    public Integer getBoxed(int row) {
+      return nulls.get(row) ? null : values[row];
+    }
+
+    /**
+     * @return the backing array, which must not be modified
+     */
+    public int[] getValues() {
+      return values;
+    }
+
+    void set(int row, @Nullable Integer value) {
+      values[row] = value == null ? 0 : value;
+      nulls.set(row, value == null);
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void copy(Column from, int fromRow, int toRow) {
+      set(toRow, ((IntColumn) from).getBoxed(fromRow));
+    }
+  }
+
+  /**
+   * Long values, with rows being null having the value 0. Dates are kept as milliseconds since the epoch.
+   */
+  public static class LongColumn extends Column {
+    private long[] values = new long[0];
+
+    public long get(int row) {
+      return values[row];
+    }
+
+    @Nullable
+    public Long getBoxed(int row) {
+      return nulls.get(row) ? null : values[row];
+    }
+
+    @Nullable
+    public Date getDate(int row) {
+      return nulls.get(row) ? null : new Date(values[row]);
+    }
+
+    /**
+     * @return the backing array, which must not be modified
+     */
+    public long[] getValues() {
+      return values;
+    }
+
+    void set(int row, @Nullable Long value) {
+      values[row] = value == null ? 0 : value;
+      nulls.set(row, value == null);
+    }
+
+    void setDate(int row, @Nullable Date value) {
+      set(row, value == null ? null : value.getTime());
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void copy(Column from, int fromRow, int toRow) {
+      set(toRow, ((LongColumn) from).getBoxed(fromRow));
+    }
+  }
+
+  /**
+   * Double values, with rows being null having the value NaN.
+   */
+  public static class DoubleColumn extends Column {
+    private double[] values = new double[0];
+
+    public double get(int row) {
+      return values[row];
+    }
+
+    @Nullable
+    public Double getBoxed(int row) {
+      return nulls.get(row) ? null : values[row];
+    }
+
+    /**
+     * @return the backing array, which must not be modified
+     */
+    public double[] getValues() {
+      return values;
+    }
+
+    void set(int row, @Nullable Double value) {
+      values[row] = value == null ? Double.NaN : value;
+      nulls.set(row, value == null);
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void copy(Column from, int fromRow, int toRow) {
+      set(toRow, ((DoubleColumn) from).getBoxed(fromRow));
+    }
+  }
+
+  /**
+   * Enumeration values kept as their ordinal, with rows being null having the ordinal -1.
+   */
+  public static class EnumColumn<E extends Enum<E>> extends Column {
+    private final E[] constants;
+    private short[] ordinals = new short[0];
+
+    EnumColumn(Class<E> type) {
+      constants = type.getEnumConstants();
+    }
+
+    @Nullable
+    public E get(int row) {
+      int ordinal = ordinals[row];
+      return ordinal < 0 ? null : constants[ordinal];
+    }
+
+    /**
+     * @return the ordinal of the value or -1 for null
+     */
+    public int getOrdinal(int row) {
+      return ordinals[row];
+    }
+
+    /**
+     * @return the backing array of ordinals, which must not be modified
+     */
+    public short[] getOrdinals() {
+      return ordinals;
+    }
+
+    void set(int row, @Nullable E value) {
+      ordinals[row] = value == null ? -1 : (short) value.ordinal();
+      nulls.set(row, value == null);
+    }
+
+    @Override
+    void grow(int capacity) {
+      ordinals = Arrays.copyOf(ordinals, capacity);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void copy(Column from, int fromRow, int toRow) {
+      set(toRow, ((EnumColumn<E>) from).get(fromRow));
+    }
+  }
+
+  /**
+   * Values kept as codes into a dictionary of the distinct values of the column,
+   * with rows being null having the code -1.
+   */
+  public static class DictionaryColumn<T> extends Column {
+    private final List<T> dictionary = Lists.newArrayList();
+    private final Map<T, Integer> codes = Maps.newHashMap();
+    private int[] rows = new int[0];
+
+    @Nullable
+    public T get(int row) {
+      int code = rows[row];
+      return code < 0 ? null : dictionary.get(code);
+    }
+
+    /**
+     * @return the code of the value or -1 for null
+     */
+    public int getCode(int row) {
+      return rows[row];
+    }
+
+    /**
+     * @return the code of a value or -1 if no row has the value
+     */
+    public int codeOf(T value) {
+      Integer code = codes.get(value);
+      return code == null ? -1 : code;
+    }
+
+    /**
+     * @return the distinct values of the column, indexed by their code
+     */
+    public List<T> getDictionary() {
+      return Collections.unmodifiableList(dictionary);
+    }
+
+    /**
+     * @return the backing array of codes, which must not be modified
+     */
+    public int[] getCodes() {
+      return rows;
+    }
+
+    void set(int row, @Nullable T value) {
+      int code = -1;
+      if (value != null) {
+        Integer existing = codes.get(value);
+        if (existing == null) {
+          existing = dictionary.size();
+          dictionary.add(value);
+          codes.put(value, existing);
+        }
+        code = existing;
+      }
+      rows[row] = code;
+      nulls.set(row, value == null);
+    }
+
+    @Override
+    void grow(int capacity) {
+      rows = Arrays.copyOf(rows, capacity);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void copy(Column from, int fromRow, int toRow) {
+      set(toRow, ((DictionaryColumn<T>) from).get(fromRow));
+    }
+  }
+
+  /**
+   * Values not split into columns, kept by reference.
+   */
+  public static class ObjectColumn<T> extends Column {
+    private Object[] values = new Object[0];
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T get(int row) {
+      return (T) values[row];
+    }
+
+    void set(int row, @Nullable T value) {
+      values[row] = value;
+      nulls.set(row, value == null);
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void copy(Column from, int fromRow, int toRow) {
+      set(toRow, ((ObjectColumn<T>) from).get(fromRow));
+    }
+  }
+
+  /**
+   * The issues of each row as a bitset of issue ordinals. Issue sets are never null.
+   */
+  public static class IssueColumn extends Column {
+    private static final OccurrenceIssue[] ISSUES = OccurrenceIssue.values();
+    private static final int WORDS = (ISSUES.length + 63) / 64;
+    private long[] words = new long[0];
+
+    public boolean contains(int row, OccurrenceIssue issue) {
+      int bit = issue.ordinal();
+      return (words[row * WORDS + bit / 64] & (1L << bit)) != 0;
+    }
+
+    /**
+     * @return true if the row has any of the given issues
+     */
+    public boolean containsAny(int row, Set<OccurrenceIssue> issues) {
+      for (OccurrenceIssue issue : issues) {
+        if (contains(row, issue)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    public Set<OccurrenceIssue> get(int row) {
+      Set<OccurrenceIssue> issues = EnumSet.noneOf(OccurrenceIssue.class);
+      for (int w = 0; w < WORDS; w++) {
+        long word = words[row * WORDS + w];
+        while (word != 0) {
+          issues.add(ISSUES[w * 64 + Long.numberOfTrailingZeros(word)]);
+          word &= word - 1;
+        }
+      }
+      return issues;
+    }
+
+    /**
+     * @return the rows among the first {@code size} rows having the given issue
+     */
+    public BitSet rows(OccurrenceIssue issue, int size) {
+      BitSet rows = new BitSet(size);
+      int bit = issue.ordinal();
+      long mask = 1L << bit;
+      for (int row = 0, i = bit / 64; row < size; row++, i += WORDS) {
+        if ((words[i] & mask) != 0) {
+          rows.set(row);
+        }
+      }
+      return rows;
+    }
+
+    void set(int row, @Nullable Set<OccurrenceIssue> issues) {
+      Arrays.fill(words, row * WORDS, (row + 1) * WORDS, 0L);
+      if (issues == null) {
+        return;
+      }
+      for (OccurrenceIssue issue : issues) {
+        int bit = issue.ordinal();
+        words[row * WORDS + bit / 64] |= 1L << bit;
+      }
+    }
+
+    @Override
+    void grow(int capacity) {
+      words = Arrays.copyOf(words, capacity * WORDS);
+    }
+
+    @Override
+    void copy(Column from, int fromRow, int toRow) {
+      System.arraycopy(((IssueColumn) from).words, fromRow * WORDS, words, toRow * WORDS, WORDS);
+    }
+  }
+}
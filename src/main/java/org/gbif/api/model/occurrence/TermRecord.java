@@ -0,0 +1,219 @@
+package org.gbif.api.model.occurrence;
+
+import org.gbif.dwc.terms.Term;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A compact map of term values, keeping the values in an array indexed by the ordinals of a shared
+ * {@link TermSchema}.
+ * <br/>
+ * A record needs a single array slot per term of its schema instead of a hash map entry per value, which for
+ * batches of records using similar terms takes a fraction of the memory. It behaves like any other map,
+ * including null values and equality with other maps, but does not allow null keys.
+ * Records are not thread safe, but records of the same schema can be used by different threads.
+ */
+public class TermRecord extends AbstractMap<Term, String> {
+
+  private static final String[] EMPTY = new String[0];
+  // stands in for null values, as a null slot means no value
+  private static final String NULL = new String();
+
+  private final TermSchema schema;
+  private String[] slots = EMPTY;
+  private int size;
+
+  public TermRecord(TermSchema schema) {
+    this.schema = checkNotNull(schema, "schema can't be null");
+  }
+
+  /**
+   * Creates a record holding all values of the given map.
+   */
+  public TermRecord(TermSchema schema, Map<? extends Term, ? extends String> values) {
+    this(schema);
+    putAll(values);
+  }
+
+  public TermSchema getSchema() {
+    return schema;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return slot(key) >= 0;
+  }
+
+  @Override
+  public String get(Object key) {
+    int slot = slot(key);
+    return slot < 0 ? null : unmask(slots[slot]);
+  }
+
+  @Override
+  public String put(Term key, @Nullable String value) {
+    int ordinal = schema.ordinal(checkNotNull(key, "term can't be null"));
+    if (ordinal >= slots.length) {
+      // grow to all terms known so far, as further terms of the batch are likely to follow
+      slots = Arrays.copyOf(slots, Math.max(ordinal + 1, schema.size()));
+    }
+    String old = slots[ordinal];
+    slots[ordinal] = value == null ? NULL : value;
+    if (old == null) {
+      size++;
+    }
+    return unmask(old);
+  }
+
+  @Override
+  public String remove(Object key) {
+    int slot = slot(key);
+    if (slot < 0) {
+      return null;
+    }
+    String old = slots[slot];
+    slots[slot] = null;
+    size--;
+    return unmask(old);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(slots, null);
+    size = 0;
+  }
+
+  @Override
+  public Set<Entry<Term, String>> entrySet() {
+    return new AbstractSet<Entry<Term, String>>() {
+      @Override
+      public Iterator<Entry<Term, String>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public void clear() {
+        TermRecord.this.clear();
+      }
+    };
+  }
+
+  /**
+   * @return the slot holding a value for the key or -1 if there is none
+   */
+  private int slot(Object key) {
+    if (!(key instanceof Term)) {
+      return -1;
+    }
+    int ordinal = schema.find((Term) key);
+    return ordinal >= 0 && ordinal < slots.length && slots[ordinal] != null ? ordinal : -1;
+  }
+
+  private static String unmask(String value) {
+    return value == NULL ? null : value;
+  }
+
+  private class EntryIterator implements Iterator<Entry<Term, String>> {
+    private int next = advance(0);
+    private int last = -1;
+
+    private int advance(int from) {
+      while (from < slots.length && slots[from] == null) {
+        from++;
+      }
+      return from;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < slots.length;
+    }
+
+    @Override
+    public Entry<Term, String> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      last = next;
+      next = advance(next + 1);
+      return new SlotEntry(last);
+    }
+
+    @Override
+    public void remove() {
+      checkState(last >= 0, "next() has not been called");
+      if (slots[last] != null) {
+        slots[last] = null;
+        size--;
+      }
+      last = -1;
+    }
+  }
+
+  /**
+   * An entry writing through to its slot.
+   */
+  private class SlotEntry implements Entry<Term, String> {
+    private final int ordinal;
+
+    private SlotEntry(int ordinal) {
+      this.ordinal = ordinal;
+    }
+
+    @Override
+    public Term getKey() {
+      return schema.term(ordinal);
+    }
+
+    @Override
+    public String getValue() {
+      return unmask(slots[ordinal]);
+    }
+
+    @Override
+    public String setValue(String value) {
+      return put(getKey(), value);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> other = (Entry<?, ?>) obj;
+      return getKey().equals(other.getKey()) && (getValue() == null
+        ? other.getValue() == null
+        : getValue().equals(other.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      return getKey().hashCode() ^ (getValue() == null ? 0 : getValue().hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package org.gbif.api.model.occurrence;
+
+import org.gbif.dwc.terms.Term;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.collect.Maps;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Assigns dense ordinals to terms, shared by all {@link TermRecord}s of a batch.
+ * <br/>
+ * Ordinals are handed out in the order terms are first used, so a record only needs slots for the terms
+ * actually seen in its batch rather than for all terms known to the {@link org.gbif.dwc.terms.TermFactory}.
+ * Ordinals are never reassigned, so a schema should not outlive the batch it was created for.
+ */
+@ThreadSafe
+public class TermSchema {
+
+  private final ConcurrentMap<Term, Integer> ordinals = Maps.newConcurrentMap();
+  private volatile Term[] terms = new Term[0];
+
+  public TermSchema() {
+  }
+
+  /**
+   * Creates a schema with the given terms at the first ordinals, e.g. the columns of a dwc archive.
+   */
+  public TermSchema(Iterable<? extends Term> terms) {
+    for (Term term : terms) {
+      ordinal(term);
+    }
+  }
+
+  /**
+   * @return the ordinal of the term, assigning a new one if the term has not been used before
+   */
+  public int ordinal(Term term) {
+    Integer ordinal = ordinals.get(checkNotNull(term, "term can't be null"));
+    return ordinal == null ? assign(term) : ordinal;
+  }
+
+  /**
+   * @return the ordinal of the term or -1 if the term has not been used yet
+   */
+  public int find(Term term) {
+    Integer ordinal = ordinals.get(term);
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  public Term term(int ordinal) {
+    return terms[ordinal];
+  }
+
+  /**
+   * @return the number of terms used so far
+   */
+  public int size() {
+    return terms.length;
+  }
+
+  /**
+   * @return a new empty record for this schema
+   */
+  public TermRecord newRecord() {
+    return new TermRecord(this);
+  }
+
+  private synchronized int assign(Term term) {
+    Integer ordinal = ordinals.get(term);
+    if (ordinal == null) {
+      Term[] grown = Arrays.copyOf(terms, terms.length + 1);
+      grown[terms.length] = term;
+      // publish the term before its ordinal, so that term(ordinal) never fails
+      terms = grown;
+      ordinal = grown.length - 1;
+      ordinals.put(term, ordinal);
+    }
+    return ordinal;
+  }
+}
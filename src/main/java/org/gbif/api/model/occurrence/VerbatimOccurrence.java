@@ -62,6 +62,18 @@ public class VerbatimOccurrence {
   // verbatim extension data
   private Map<Extension, List<Map<Term, String>>> extensions = Maps.newHashMap();
 
+  public VerbatimOccurrence() {
+  }
+
+  /**
+   * Creates a record keeping its verbatim fields in a compact {@link TermRecord} of the given schema.
+   * Large batches of records should share a single schema to use little memory.
+   * Replacing the fields with {@link #setVerbatimFields(Map)} keeps the given map instead.
+   */
+  public VerbatimOccurrence(TermSchema schema) {
+    verbatimFields = checkNotNull(schema, "schema can't be null").newRecord();
+  }
+
   /**
    * Get the value of a specific field (Term).
    */
@@ -56,7 +56,7 @@ public class CompoundPredicate implements Predicate {
       return true;
     }
     if (!(obj instanceof CompoundPredicate)) {
-      return true;
+      return false;
     }
 
     final CompoundPredicate other = (CompoundPredicate) obj;
@@ -42,4 +42,8 @@ public class ConjunctionPredicate extends CompoundPredicate {
     return Objects.equal(this.getPredicates(), that.getPredicates());
   }
 
+  @Override
+  public int hashCode() {
+    return Objects.hashCode("AND", getPredicates());
+  }
 }
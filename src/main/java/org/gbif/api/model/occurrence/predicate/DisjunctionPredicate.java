@@ -41,4 +41,9 @@ public class DisjunctionPredicate extends CompoundPredicate {
     CompoundPredicate that = (CompoundPredicate) obj;
     return Objects.equal(this.getPredicates(), that.getPredicates());
   }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode("OR", getPredicates());
+  }
 }
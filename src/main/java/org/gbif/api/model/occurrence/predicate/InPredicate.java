@@ -78,7 +78,7 @@ public class InPredicate implements Predicate {
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(key, values);
+    return Objects.hashCode(key.name(), values);
   }
 
   @Override
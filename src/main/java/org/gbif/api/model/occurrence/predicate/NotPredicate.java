@@ -58,7 +58,7 @@ public class NotPredicate implements Predicate {
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(predicate);
+    return Objects.hashCode("NOT", predicate);
   }
 
   @Override
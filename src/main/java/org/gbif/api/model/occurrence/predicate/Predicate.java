@@ -20,6 +20,11 @@ import org.codehaus.jackson.annotate.JsonTypeInfo;
 
 import static org.codehaus.jackson.annotate.JsonSubTypes.Type;
 
+/**
+ * A predicate on occurrences, e.g. to filter an occurrence download.
+ * Implementations hash enums and operators by their names, so that the hash codes of predicates are the same in
+ * every JVM.
+ */
 @JsonTypeInfo(
   use = JsonTypeInfo.Id.NAME,
   include = JsonTypeInfo.As.PROPERTY,
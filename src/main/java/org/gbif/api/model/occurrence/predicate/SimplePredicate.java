@@ -66,7 +66,7 @@ public class SimplePredicate implements Predicate {
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(key, value);
+    return Objects.hashCode(getClass().getSimpleName(), key.name(), value);
   }
 
   @Override
@@ -12,14 +12,15 @@
  */
 package org.gbif.api.model.occurrence.predicate;
 
-import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
 import org.gbif.api.util.SearchTypeValidator;
 
 import javax.validation.constraints.NotNull;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.vividsolutions.jts.geom.Geometry;
 import org.codehaus.jackson.annotate.JsonCreator;
+import org.codehaus.jackson.annotate.JsonIgnore;
 import org.codehaus.jackson.annotate.JsonProperty;
 
 /**
@@ -30,13 +31,16 @@ public class WithinPredicate implements Predicate {
   @NotNull
   private final String geometry;
 
+  // parsed once while validating
+  private final Geometry parsedGeometry;
+
   /**
    * Builds a new within predicate for a single, simple geometry as
    * <a href="http://en.wikipedia.org/wiki/Well-known_text">Well Known Text</a> (WKT).
    * Multi geometries like MULTIPOLYGON are not supported and multiple predicates should be used instead.
    * <br/>
-   * The validation implemented does a basic syntax check for the following simple geometries, but does not
-   * verify that the resulting geometries are topologically valid (see the OGC SFS specification).
+   * The validation implemented does a syntax check for the following simple geometries and verifies that polygons
+   * are topologically valid (see the OGC SFS specification) and have an area.
    * <ul>
    *   <li>POINT</li>
    *   <li>LINESTRING</li>
@@ -49,7 +53,7 @@ public class WithinPredicate implements Predicate {
   public WithinPredicate(@JsonProperty("geometry") String geometry) {
     Preconditions.checkNotNull(geometry, "<geometry> may not be null");
     // make sure its a valid WKT
-    SearchTypeValidator.validate(OccurrenceSearchParameter.GEOMETRY, geometry);
+    parsedGeometry = SearchTypeValidator.parseGeometry(geometry);
     this.geometry = geometry;
   }
 
@@ -57,6 +61,15 @@ public class WithinPredicate implements Predicate {
     return geometry;
   }
 
+  /**
+   * Returns the JTS geometry for the WKT value, as parsed when validating it.
+   * The returned geometry is shared and must not be modified.
+   */
+  @JsonIgnore
+  public Geometry getParsedGeometry() {
+    return parsedGeometry;
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (this == obj) {
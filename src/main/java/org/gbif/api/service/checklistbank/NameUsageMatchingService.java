@@ -16,11 +16,19 @@
 package org.gbif.api.service.checklistbank;
 
 import org.gbif.api.model.checklistbank.NameUsageMatch;
+import org.gbif.api.model.checklistbank.NameUsageMatchQuery;
 import org.gbif.api.model.common.LinneanClassification;
 import org.gbif.api.vocabulary.Rank;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import javax.annotation.Nullable;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
 /**
  * A lookup service that fuzzy matches classified scientific names against a body of names.
  * In GBIF this is in particular used for a Nub Lookup service that binds occurrence names and other external records
@@ -45,4 +53,64 @@ public interface NameUsageMatchingService {
   NameUsageMatch match(String scientificName, @Nullable Rank rank, @Nullable LinneanClassification classification,
     boolean strict, boolean verbose);
 
+  /**
+   * Matches many names at once, matching identical queries only once.
+   * Identical queries share a single match instance, which must therefore not be modified.
+   * Implementations backed by a remote service should override this to send the distinct queries in bulk.
+   *
+   * @param queries the names to match
+   * @param verbose if true adds verbose matching information, i.e. list of alternative matches
+   *
+   * @return the matches in the order of the queries, identical queries sharing the same match instance
+   */
+  default List<NameUsageMatch> matchBatch(List<NameUsageMatchQuery> queries, boolean verbose) {
+    Map<NameUsageMatchQuery, NameUsageMatch> distinct = Maps.newHashMap();
+    List<NameUsageMatch> matches = Lists.newArrayListWithCapacity(queries.size());
+    for (NameUsageMatchQuery query : queries) {
+      NameUsageMatch match = distinct.get(query);
+      if (match == null) {
+        match = match(query.getScientificName(), query.getRank(), query, query.isStrict(), verbose);
+        distinct.put(query, match);
+      }
+      matches.add(match);
+    }
+    return matches;
+  }
+
+  /**
+   * Asynchronously matches many names at once, matching identical queries only once.
+   * Identical queries share a single match instance, which must therefore not be modified.
+   * By default each distinct query is matched as a separate task of the executor, so that up to as many queries
+   * as the executor has threads are in flight at the same time.
+   * The future fails with the first exception thrown by a match.
+   *
+   * @param queries  the names to match
+   * @param verbose  if true adds verbose matching information, i.e. list of alternative matches
+   * @param executor the executor to run the matches, which is expected to allow blocking tasks
+   *
+   * @return the future matches in the order of the queries, identical queries sharing the same match instance
+   */
+  default CompletableFuture<List<NameUsageMatch>> matchAsync(List<NameUsageMatchQuery> queries,
+    boolean verbose, Executor executor) {
+    Map<NameUsageMatchQuery, CompletableFuture<NameUsageMatch>> distinct = Maps.newHashMap();
+    List<CompletableFuture<NameUsageMatch>> futures = Lists.newArrayListWithCapacity(queries.size());
+    for (NameUsageMatchQuery query : queries) {
+      CompletableFuture<NameUsageMatch> future = distinct.get(query);
+      if (future == null) {
+        future = CompletableFuture.supplyAsync(
+          () -> match(query.getScientificName(), query.getRank(), query, query.isStrict(), verbose), executor);
+        distinct.put(query, future);
+      }
+      futures.add(future);
+    }
+    return CompletableFuture.allOf(distinct.values().toArray(new CompletableFuture<?>[distinct.size()]))
+      .thenApply(done -> {
+        List<NameUsageMatch> matches = Lists.newArrayListWithCapacity(futures.size());
+        for (CompletableFuture<NameUsageMatch> future : futures) {
+          matches.add(future.join());
+        }
+        return matches;
+      });
+  }
+
 }
@@ -0,0 +1,123 @@
+package org.gbif.api.util;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An immutable, case insensitive index of enumeration values by 2 or 3 letter alphabetic codes, e.g. ISO country or
+ * language codes.
+ * <br/>
+ * Codes are mapped directly to array positions, so a lookup neither hashes nor creates an upper or lower case copy of
+ * the given code. Surrounding whitespace is ignored. Only the ASCII letters A-Z are considered, any other character
+ * results in no match.
+ */
+public final class IsoCodeIndex<T extends Enum<T>> {
+
+  private static final int LETTERS = 26;
+
+  private final T[] values;
+  // ordinal + 1 of the indexed value, 0 for none
+  private final short[] alpha2;
+  private final short[] alpha3;
+
+  private IsoCodeIndex(T[] values, short[] alpha2, short[] alpha3) {
+    this.values = values;
+    this.alpha2 = alpha2;
+    this.alpha3 = alpha3;
+  }
+
+  public static <T extends Enum<T>> Builder<T> builder(Class<T> type) {
+    return new Builder<T>(type);
+  }
+
+  /**
+   * @param code a case insensitive 2 or 3 letter code
+   *
+   * @return the value indexed for the code or null if none
+   */
+  @Nullable
+  public T get(@Nullable CharSequence code) {
+    if (code == null) {
+      return null;
+    }
+    int start = 0;
+    int end = code.length();
+    while (start < end && code.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && code.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    int idx = index(code, start, end);
+    if (idx < 0) {
+      return null;
+    }
+    int ordinal = end - start == 2 ? alpha2[idx] : alpha3[idx];
+    return ordinal == 0 ? null : values[ordinal - 1];
+  }
+
+  /**
+   * @return the array position of the code or -1 if it is no 2 or 3 letter code
+   */
+  private static int index(CharSequence code, int start, int end) {
+    int len = end - start;
+    if (len != 2 && len != 3) {
+      return -1;
+    }
+    int idx = 0;
+    for (int i = start; i < end; i++) {
+      int letter = letter(code.charAt(i));
+      if (letter < 0) {
+        return -1;
+      }
+      idx = idx * LETTERS + letter;
+    }
+    return idx;
+  }
+
+  private static int letter(char c) {
+    if (c >= 'A' && c <= 'Z') {
+      return c - 'A';
+    }
+    if (c >= 'a' && c <= 'z') {
+      return c - 'a';
+    }
+    return -1;
+  }
+
+  /**
+   * Builds an index. If a code is added more than once the first value is kept.
+   */
+  public static final class Builder<T extends Enum<T>> {
+
+    private final T[] values;
+    private final short[] alpha2 = new short[LETTERS * LETTERS];
+    private final short[] alpha3 = new short[LETTERS * LETTERS * LETTERS];
+
+    private Builder(Class<T> type) {
+      values = type.getEnumConstants();
+      Preconditions.checkArgument(values.length < Short.MAX_VALUE, "Too many values to index");
+    }
+
+    /**
+     * Adds a code for the value, ignoring codes which are not made of 2 or 3 letters.
+     */
+    public Builder<T> add(@Nullable String code, T value) {
+      if (code != null) {
+        int idx = index(code, 0, code.length());
+        if (idx >= 0) {
+          short[] table = code.length() == 2 ? alpha2 : alpha3;
+          if (table[idx] == 0) {
+            table[idx] = (short) (value.ordinal() + 1);
+          }
+        }
+      }
+      return this;
+    }
+
+    public IsoCodeIndex<T> build() {
+      return new IsoCodeIndex<T>(values, alpha2.clone(), alpha3.clone());
+    }
+  }
+}
@@ -4,6 +4,7 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.regex.Pattern;
@@ -19,6 +20,8 @@ import static org.gbif.api.util.SearchTypeValidator.buildRange;
  */
 public class IsoDateParsingUtils {
   private static Pattern SIMPLE_ISO_PATTERN = Pattern.compile("\\d{4}(?:-\\d{2}(?:-\\d{2})?)?");
+  // the date formats use a julian calendar before the gregorian reform, so earlier dates are not scanned
+  private static final int FIRST_GREGORIAN_YEAR = 1583;
   /**
    * Enumerations with the allowed date formats by the occurrence search service.
    */
@@ -62,6 +65,10 @@ public class IsoDateParsingUtils {
      * Try to parse a string with the current date format.
      */
     public Date parseDate(String value) throws ParseException {
+      LocalDate scanned = value == null ? null : scan(value, 0, value.length());
+      if (scanned != null && formatOf(value, 0, value.length()) == this) {
+        return toDate(scanned);
+      }
       ParsePosition position = new ParsePosition(0);
       Date date = getDateFormat().parse(value, position);
       if (position.getIndex() != value.length()) {
@@ -84,6 +91,9 @@ public class IsoDateParsingUtils {
    * @throws IllegalArgumentException in case of unparsable dates
    */
   public static IsoDateFormat getFirstDateFormatMatch(String value) throws IllegalArgumentException {
+    if (value != null && scan(value, 0, value.length()) != null) {
+      return formatOf(value, 0, value.length());
+    }
     // at least 4 digits for a year must exist
     if (SIMPLE_ISO_PATTERN.matcher(value).find()) {
       for (IsoDateFormat dateFormat : IsoDateFormat.values()) {
@@ -105,6 +115,10 @@ public class IsoDateParsingUtils {
     if (Strings.isNullOrEmpty(value)) {
       throw new IllegalArgumentException("Date parameter can't be null or empty");
     }
+    LocalDate date = scan(value, 0, value.length());
+    if (date != null) {
+      return toDate(date);
+    }
     try {
       return getFirstDateFormatMatch(value).parseDate(value);
 
@@ -128,6 +142,26 @@ public class IsoDateParsingUtils {
     if (Strings.isNullOrEmpty(value)) {
       throw new IllegalArgumentException("Date parameter can't be null or empty");
     }
+    // scan well formed ranges in place, without splitting the value
+    final int comma = value.indexOf(',');
+    if (comma > 0 && comma == value.lastIndexOf(',')) {
+      LocalDate lower = scan(value, 0, comma);
+      LocalDate upper = scan(value, comma + 1, value.length());
+      boolean lowerWildcard = isWildcard(value, 0, comma);
+      boolean upperWildcard = isWildcard(value, comma + 1, value.length());
+      if ((lower != null || lowerWildcard) && (upper != null || upperWildcard)) {
+        if (upper != null) {
+          IsoDateFormat upperFormat = formatOf(value, comma + 1, value.length());
+          if (upperFormat == IsoDateFormat.YEAR_MONTH) {
+            upper = upper.withDayOfMonth(upper.lengthOfMonth());
+          } else if (upperFormat == IsoDateFormat.YEAR) {
+            upper = upper.withDayOfYear(upper.lengthOfYear());
+          }
+        }
+        return buildRange(lower == null ? null : toDate(lower), upper == null ? null : toDate(upper));
+      }
+    }
+
     final String[] dateValues = value.split(",");
     if (dateValues.length != 2) {
       throw new IllegalArgumentException("Date value must be a single value or a range");
@@ -150,6 +184,92 @@ public class IsoDateParsingUtils {
     return buildRange(lowerDate, upperDate);
   }
 
+  /**
+   * Parses a date in the form yyyy, yyyy-MM or yyyy-MM-dd within value[start, end) in a single scan.
+   * Months and days may have 1 or 2 digits, as accepted by the date formats.
+   *
+   * @return the date or null if the value has a different form, is invalid or is a date before the gregorian calendar
+   * was introduced, all of which are left to the date formats
+   */
+  private static LocalDate scan(String value, int start, int end) {
+    int len = end - start;
+    if (len != 4 && (len < 6 || len > 10)) {
+      return null;
+    }
+    int year = 0;
+    int pos = start;
+    for (; pos < start + 4; pos++) {
+      int digit = value.charAt(pos) - '0';
+      if (digit < 0 || digit > 9) {
+        return null;
+      }
+      year = year * 10 + digit;
+    }
+    if (year < FIRST_GREGORIAN_YEAR) {
+      return null;
+    }
+    if (pos == end) {
+      return LocalDate.of(year, 1, 1);
+    }
+
+    int month = 0;
+    int day = 1;
+    int field = 0;
+    int digits = 0;
+    for (; pos < end; pos++) {
+      char c = value.charAt(pos);
+      if (c == '-') {
+        if (field == 2 || (field > 0 && digits == 0)) {
+          return null;
+        }
+        field++;
+        digits = 0;
+      } else if (c >= '0' && c <= '9' && field > 0 && digits < 2) {
+        digits++;
+        if (field == 1) {
+          month = month * 10 + c - '0';
+        } else {
+          day = (digits == 1 ? 0 : day * 10) + c - '0';
+        }
+      } else {
+        return null;
+      }
+    }
+    if (digits == 0 || month < 1 || month > 12 || day < 1) {
+      return null;
+    }
+    LocalDate firstOfMonth = LocalDate.of(year, month, 1);
+    return day > firstOfMonth.lengthOfMonth() ? null : firstOfMonth.withDayOfMonth(day);
+  }
+
+  /**
+   * @return the format of a value accepted by {@link #scan(String, int, int)}, given by the number of dashes
+   */
+  private static IsoDateFormat formatOf(String value, int start, int end) {
+    int dashes = 0;
+    for (int i = start; i < end; i++) {
+      if (value.charAt(i) == '-') {
+        dashes++;
+      }
+    }
+    return dashes == 0 ? IsoDateFormat.YEAR : dashes == 1 ? IsoDateFormat.YEAR_MONTH : IsoDateFormat.FULL;
+  }
+
+  private static boolean isWildcard(String value, int start, int end) {
+    return value.regionMatches(start, QUERY_WILDCARD, 0, QUERY_WILDCARD.length())
+           && end - start == QUERY_WILDCARD.length();
+  }
+
+  /**
+   * @return the start of the day in the default time zone and calendar, exactly as with the date formats
+   */
+  private static Date toDate(LocalDate date) {
+    Calendar cal = Calendar.getInstance();
+    cal.clear();
+    cal.set(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth());
+    return cal.getTime();
+  }
+
   /**
    * Calculates the last day of the month for the date parameter and return it a new date instance.
    */
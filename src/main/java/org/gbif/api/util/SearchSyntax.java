@@ -0,0 +1,234 @@
+package org.gbif.api.util;
+
+import javax.annotation.Nullable;
+
+/**
+ * Hand written syntax checks for decimal ranges and simple WKT geometries as used by {@link SearchTypeValidator}.
+ * <br/>
+ * The checks accept exactly the same values as the regular expressions used before, but read each character only
+ * once and never backtrack, so that validating polygons with many thousands of vertices takes linear time and
+ * does not exhaust the stack. The grammar is:
+ * <pre>
+ * DECIMAL = -?\d+(\.\d+)?
+ * RANGE   = (DECIMAL|\*)\s*,\s*(DECIMAL|\*)
+ * COORD   = \s*DECIMAL\s+DECIMAL\s*
+ * LINE    = \s*\(COORD(,COORD)*\)\s*
+ * POLYGON = \(LINE(,LINE)*\)
+ *
+ * POINT\s*\(COORD\)
+ * (LINESTRING|LINEARRING)\s*LINE
+ * POLYGON\s*POLYGON
+ * MULTIPOLYGON\s*\(POLYGON(,POLYGON)*\)
+ * </pre>
+ * Keywords are case insensitive and, like a regular expression {@code $}, a single final line terminator is ignored.
+ */
+final class SearchSyntax {
+
+  private final String value;
+  private final int length;
+  private int pos;
+
+  private SearchSyntax(String value) {
+    this.value = value;
+    this.length = value.length();
+  }
+
+  /**
+   * Splits a decimal range into its lower and upper bound.
+   *
+   * @return the 2 bounds as given, either a decimal or the wildcard *, or null if the value is no decimal range
+   */
+  @Nullable
+  static String[] parseDecimalRange(@Nullable String value) {
+    if (value == null) {
+      return null;
+    }
+    SearchSyntax s = new SearchSyntax(value);
+    int lowerStart = s.pos;
+    if (!s.decimalOrWildcard()) {
+      return null;
+    }
+    int lowerEnd = s.pos;
+    s.whitespace();
+    if (!s.accept(',')) {
+      return null;
+    }
+    s.whitespace();
+    int upperStart = s.pos;
+    if (!s.decimalOrWildcard()) {
+      return null;
+    }
+    int upperEnd = s.pos;
+    if (!s.atEnd()) {
+      return null;
+    }
+    return new String[] {value.substring(lowerStart, lowerEnd), value.substring(upperStart, upperEnd)};
+  }
+
+  /**
+   * @return true if the value is a syntactically valid POINT, LINESTRING, LINEARRING, POLYGON or MULTIPOLYGON
+   */
+  static boolean isSimpleWkt(@Nullable String value) {
+    if (value == null) {
+      return false;
+    }
+    SearchSyntax s = new SearchSyntax(value);
+    if (s.keyword("POINT")) {
+      s.whitespace();
+      return s.accept('(') && s.coordinate() && s.accept(')') && s.atEnd();
+
+    } else if (s.keyword("LINESTRING") || s.keyword("LINEARRING")) {
+      s.whitespace();
+      return s.line() && s.atEnd();
+
+    } else if (s.keyword("POLYGON")) {
+      s.whitespace();
+      return s.polygon() && s.atEnd();
+
+    } else if (s.keyword("MULTIPOLYGON")) {
+      s.whitespace();
+      if (!s.accept('(') || !s.polygon()) {
+        return false;
+      }
+      while (s.accept(',')) {
+        if (!s.polygon()) {
+          return false;
+        }
+      }
+      return s.accept(')') && s.atEnd();
+    }
+    return false;
+  }
+
+  private boolean polygon() {
+    if (!accept('(') || !line()) {
+      return false;
+    }
+    while (accept(',')) {
+      if (!line()) {
+        return false;
+      }
+    }
+    return accept(')');
+  }
+
+  private boolean line() {
+    whitespace();
+    if (!accept('(') || !coordinate()) {
+      return false;
+    }
+    while (accept(',')) {
+      if (!coordinate()) {
+        return false;
+      }
+    }
+    if (!accept(')')) {
+      return false;
+    }
+    whitespace();
+    return true;
+  }
+
+  private boolean coordinate() {
+    whitespace();
+    if (!decimal()) {
+      return false;
+    }
+    int beforeSpace = pos;
+    whitespace();
+    if (pos == beforeSpace || !decimal()) {
+      return false;
+    }
+    whitespace();
+    return true;
+  }
+
+  private boolean decimalOrWildcard() {
+    return accept('*') || decimal();
+  }
+
+  private boolean decimal() {
+    accept('-');
+    if (!digits()) {
+      return false;
+    }
+    // a dot must be followed by digits to be part of the number
+    if (pos + 1 < length && value.charAt(pos) == '.' && isDigit(value.charAt(pos + 1))) {
+      pos++;
+      digits();
+    }
+    return true;
+  }
+
+  private boolean digits() {
+    int start = pos;
+    while (pos < length && isDigit(value.charAt(pos))) {
+      pos++;
+    }
+    return pos > start;
+  }
+
+  private void whitespace() {
+    while (pos < length && isWhitespace(value.charAt(pos))) {
+      pos++;
+    }
+  }
+
+  private boolean accept(char c) {
+    if (pos < length && value.charAt(pos) == c) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Matches an upper case keyword ignoring the case of ASCII letters only.
+   */
+  private boolean keyword(String keyword) {
+    if (pos + keyword.length() > length) {
+      return false;
+    }
+    for (int i = 0; i < keyword.length(); i++) {
+      char c = value.charAt(pos + i);
+      if (c >= 'a' && c <= 'z') {
+        c = (char) (c - 'a' + 'A');
+      }
+      if (c != keyword.charAt(i)) {
+        return false;
+      }
+    }
+    pos += keyword.length();
+    return true;
+  }
+
+  /**
+   * Same as the regular expression {@code $}: the end of input or a final line terminator.
+   */
+  private boolean atEnd() {
+    int rest = length - pos;
+    if (rest == 0) {
+      return true;
+    }
+    char c = value.charAt(pos);
+    if (rest == 2) {
+      return c == '\r' && value.charAt(pos + 1) == '\n';
+    }
+    if (c == '\n') {
+      // no match between \r and \n
+      return rest == 1 && (pos == 0 || value.charAt(pos - 1) != '\r');
+    }
+    return rest == 1 && (c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029');
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * The regular expression {@code \s}.
+   */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+}
@@ -10,12 +10,10 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
 import com.vividsolutions.jts.geom.Geometry;
@@ -31,11 +29,6 @@ import static org.gbif.api.model.common.search.SearchConstants.QUERY_WILDCARD;
 public class SearchTypeValidator {
 
   private static final Pattern BOOLEAN = Pattern.compile("^(true|false)$", Pattern.CASE_INSENSITIVE);
-  // this regex matches a double with an optional dot separated fracture and negative signing
-  private static final String DEC = "-?\\d+(?:\\.\\d+)?";
-  private static final String DECIMAL = "(" + DEC + ")";
-
-  private static final String DECIMAL_OR_WILDCARD = "(" + DEC + "|\\*)";
 
   private static final Range<Double> LATITUDE_RNG = Range.closed(-90.0, 90.0);
   private static final Range<Double> LONGITUDE_RNG = Range.closed(-180.0, 180.0);
@@ -46,49 +39,6 @@ public class SearchTypeValidator {
 
   private static final String WILD_CARD = "*";
 
-  /**
-   * Matches ranges in formats
-   *
-   * <pre>
-   * 23.1,55.2
-   * </pre>
-   *
-   * <pre>
-   * *,88
-   * </pre>
-   *
-   * and
-   *
-   * <pre>
-   * 55,*
-   * </pre>
-   *
-   * .
-   * The matcher returns 2 groups:
-   * group 1: lower bound
-   * group 2: upper bound
-   */
-  private static final Pattern DECIMAL_RANGE_PATTERN = Pattern.compile(
-    "^" + DECIMAL_OR_WILDCARD + "\\s*,\\s*" + DECIMAL_OR_WILDCARD + "$", Pattern.CASE_INSENSITIVE);
-  /**
-   * Matches without groups a space delimited coordinate pair allowing prefixing or trailing whitespace: 10.12 -90.12
-   */
-  private static final String WKT_COORD = "\\s*" + DECIMAL + "\\s+" + DECIMAL + "\\s*";
-
-  /**
-   * Matches without groups a comma separated list of coordinates enclosed in brackets:
-   * (10.12 -90.12, 30 10, 10 20, 20 40)
-   */
-  private static final String WKT_LINE = "\\s*\\(" + WKT_COORD + "(?:," + WKT_COORD + ")*\\)\\s*";
-
-  private static final String WKT_POLYGON = "\\(" + WKT_LINE + "(?:," + WKT_LINE + ")*\\)";
-
-  private static final List<Pattern> WKT_PATTERNS = ImmutableList.of(
-    Pattern.compile("^POINT\\s*\\(" + WKT_COORD + "\\)$", Pattern.CASE_INSENSITIVE),
-    Pattern.compile("^(?:LINESTRING|LINEARRING)\\s*" + WKT_LINE + "$", Pattern.CASE_INSENSITIVE),
-    Pattern.compile("^POLYGON\\s*" + WKT_POLYGON + "$", Pattern.CASE_INSENSITIVE),
-    Pattern.compile("^MULTIPOLYGON\\s*\\(" + WKT_POLYGON + "(?:," + WKT_POLYGON + ")*\\)$", Pattern.CASE_INSENSITIVE));
-
   /**
    * Private default constructor.
    */
@@ -123,7 +73,7 @@ public class SearchTypeValidator {
   public static boolean isRange(String value) {
     if (!Strings.isNullOrEmpty(value)) {
       // decimal range for ints or doubles
-      if (DECIMAL_RANGE_PATTERN.matcher(value).find()) {
+      if (SearchSyntax.parseDecimalRange(value) != null) {
         return true;
       }
       // check date range
@@ -156,9 +106,9 @@ public class SearchTypeValidator {
    */
   public static Range<Double> parseDecimalRange(String value) {
     if (!Strings.isNullOrEmpty(value)) {
-      Matcher m = DECIMAL_RANGE_PATTERN.matcher(value);
-      if (m.find()) {
-        return buildRange(parseDouble(m.group(1)), parseDouble(m.group(2)));
+      String[] bounds = SearchSyntax.parseDecimalRange(value);
+      if (bounds != null) {
+        return buildRange(parseDouble(bounds[0]), parseDouble(bounds[1]));
       }
     }
     throw new IllegalArgumentException("Invalid decimal range: " + value);
@@ -172,10 +122,9 @@ public class SearchTypeValidator {
    */
   public static Range<Integer> parseIntegerRange(String value) {
     if (!Strings.isNullOrEmpty(value)) {
-      Matcher m = DECIMAL_RANGE_PATTERN.matcher(value);
-      if (m.find()) {
-
-        return buildRange(parseInteger(m.group(1)), parseInteger(m.group(2)));
+      String[] bounds = SearchSyntax.parseDecimalRange(value);
+      if (bounds != null) {
+        return buildRange(parseInteger(bounds[0]), parseInteger(bounds[1]));
       }
     }
     throw new IllegalArgumentException("Invalid integer range: " + value);
@@ -334,6 +283,18 @@ public class SearchTypeValidator {
    * are accepted.
    */
   private static void validateGeometry(String wellKnownText) {
+    parseGeometry(wellKnownText);
+  }
+
+  /**
+   * Validates a simple geometry as {@link OccurrenceSearchParameter#GEOMETRY} values are validated and returns the
+   * geometry parsed for it, so that callers needing the geometry do not parse the WKT again.
+   *
+   * @param wellKnownText a POINT, LINESTRING, POLYGON or LINEARRING as WKT
+   * @return the parsed geometry
+   * @throws IllegalArgumentException if the WKT is invalid or the polygon is not topologically valid
+   */
+  public static Geometry parseGeometry(String wellKnownText) {
     validateGeometrySyntax(wellKnownText);
     try {
       Geometry geometry = new WKTReader().read(wellKnownText);
@@ -341,6 +302,7 @@ public class SearchTypeValidator {
       if (geometry instanceof Polygon && (!geometry.isValid() || geometry.getArea() == 0.0)) {
         throw new IllegalArgumentException("Invalid polygon " + wellKnownText);
       }
+      return geometry;
     } catch (ParseException e) {
       throw new IllegalArgumentException("Invalid simple WKT: " + wellKnownText);
     }
@@ -356,11 +318,9 @@ public class SearchTypeValidator {
     if (Strings.isNullOrEmpty(wellKnownText)) {
       throw new IllegalArgumentException("Well Known Text cannot be empty or null");
     }
-    // test all 4 supported geometry types with their respective regex - one must match!
-    for (Pattern regex : WKT_PATTERNS) {
-      if (regex.matcher(wellKnownText).find()) {
-        return;
-      }
+    // test all 4 supported geometry types in a single scan
+    if (SearchSyntax.isSimpleWkt(wellKnownText)) {
+      return;
     }
     throw new IllegalArgumentException("Invalid simple WKT: " + wellKnownText);
   }
@@ -1,7 +1,10 @@
 package org.gbif.api.util;
 
 import java.text.Normalizer;
+import java.util.Map;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -11,11 +14,53 @@ public class UnicodeUtils {
 
     /**
      * Replaces all diacretics with their ascii counterpart.
+     * Strings which are pure ascii already are returned as they are.
      */
     public static String ascii(String x) {
         if (x == null) {
             return null;
         }
+        StringBuilder sb = null;
+        for (int i = 0; i < x.length(); i++) {
+            char c = x.charAt(i);
+            if (c < 128) {
+                if (sb != null) {
+                    sb.append(c);
+                }
+                continue;
+            }
+            if (Character.isSurrogate(c)) {
+                // supplementary characters are rare enough to not deserve a table
+                return asciiNormalizer(x);
+            }
+            if (sb == null) {
+                sb = new StringBuilder(x.length() + 16);
+                sb.append(x, 0, i);
+            }
+            AsciiFolding.append(sb, c);
+        }
+        return sb == null ? x : sb.toString();
+    }
+
+    /**
+     * Replaces all diacretics with their ascii counterpart in the builder, starting at the given index.
+     * Nothing is allocated for pure ascii content.
+     */
+    public static void ascii(StringBuilder sb, int start) {
+        for (int i = start; i < sb.length(); i++) {
+            if (sb.charAt(i) >= 128) {
+                String folded = ascii(sb.substring(i));
+                sb.setLength(i);
+                sb.append(folded);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes diacretics by decomposing the string with the java Normalizer and removing all marks.
+     */
+    private static String asciiNormalizer(String x) {
         // manually normalize characters not dealt with by the java Normalizer
         x = StringUtils.replaceChars(x, "øØðÐ", "oOdD");
 
@@ -27,6 +72,7 @@ public class UnicodeUtils {
 
     /**
      * Replaces all digraphs and ligatures with their underlying 2 latin letters.
+     * Strings without any digraph or ligature are returned as they are.
      *
      * @param x the string to decompose
      */
@@ -34,23 +80,179 @@ public class UnicodeUtils {
         if (x == null) {
             return null;
         }
-        return x.replaceAll("æ", "ae")
-                .replaceAll("Æ", "Ae")
-                .replaceAll("œ", "oe")
-                .replaceAll("Œ", "Oe")
-                .replaceAll("Ĳ", "Ij")
-                .replaceAll("ĳ", "ij")
-                .replaceAll("ǈ", "Lj")
-                .replaceAll("ǉ", "lj")
-                .replaceAll("ȸ", "db")
-                .replaceAll("ȹ", "qp")
-                .replaceAll("ß", "ss")
-                .replaceAll("ﬆ", "st")
-                .replaceAll("ﬅ", "ft")
-                .replaceAll("ﬀ", "ff")
-                .replaceAll("ﬁ", "fi")
-                .replaceAll("ﬂ", "fl")
-                .replaceAll("ﬃ", "ffi")
-                .replaceAll("ﬄ", "ffl");
+        StringBuilder sb = null;
+        for (int i = 0; i < x.length(); i++) {
+            char c = x.charAt(i);
+            String replacement = c < 128 ? null : ligature(c);
+            if (replacement != null) {
+                if (sb == null) {
+                    sb = new StringBuilder(x.length() + 8);
+                    sb.append(x, 0, i);
+                }
+                sb.append(replacement);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? x : sb.toString();
+    }
+
+    /**
+     * @return the latin letters of a digraph or ligature or null for other characters
+     */
+    private static String ligature(char c) {
+        switch (c) {
+            case 'æ':
+                return "ae";
+            case 'Æ':
+                return "Ae";
+            case 'œ':
+                return "oe";
+            case 'Œ':
+                return "Oe";
+            case 'Ĳ':
+                return "Ij";
+            case 'ĳ':
+                return "ij";
+            case 'ǈ':
+                return "Lj";
+            case 'ǉ':
+                return "lj";
+            case 'ȸ':
+                return "db";
+            case 'ȹ':
+                return "qp";
+            case 'ß':
+                return "ss";
+            case 'ﬆ':
+                return "st";
+            case 'ﬅ':
+                return "ft";
+            case 'ﬀ':
+                return "ff";
+            case 'ﬁ':
+                return "fi";
+            case 'ﬂ':
+                return "fl";
+            case 'ﬃ':
+                return "ffi";
+            case 'ﬄ':
+                return "ffl";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Replaces all digraphs and ligatures with their underlying 2 latin letters in the builder,
+     * starting at the given index. Nothing is allocated for pure ascii content.
+     */
+    public static void decompose(StringBuilder sb, int start) {
+        for (int i = start; i < sb.length(); i++) {
+            if (sb.charAt(i) >= 128) {
+                String decomposed = decompose(sb.substring(i));
+                sb.setLength(i);
+                sb.append(decomposed);
+                return;
+            }
+        }
+    }
+
+    /**
+     * The result of {@link #asciiNormalizer(String)} for every single non surrogate character of the basic
+     * multilingual plane, built once when first needed.
+     * Hangul syllables are decomposed algorithmically and not stored.
+     */
+    private static final class AsciiFolding {
+
+        private static final char HANGUL_FIRST = '\uAC00';
+        private static final char HANGUL_LAST = '\uD7A3';
+        // marks characters that are removed entirely or replaced by more than one character
+        private static final char EXPANDED = '\uFFFF';
+
+        private static final char[] SINGLE = new char[0x10000];
+        private static final Map<Character, String> EXPANSIONS;
+
+        static {
+            Map<Character, String> expansions = Maps.newHashMap();
+            for (int i = 128; i < SINGLE.length; i++) {
+                char c = (char) i;
+                if (Character.isSurrogate(c) || (c >= HANGUL_FIRST && c <= HANGUL_LAST)) {
+                    continue;
+                }
+                String folded = fold(c);
+                if (folded.length() == 1 && folded.charAt(0) != EXPANDED) {
+                    SINGLE[i] = folded.charAt(0);
+                } else {
+                    SINGLE[i] = EXPANDED;
+                    expansions.put(c, folded);
+                }
+            }
+            EXPANSIONS = ImmutableMap.copyOf(expansions);
+        }
+
+        private static String fold(char c) {
+            c = replaceChar(c);
+            String nfd = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            StringBuilder sb = new StringBuilder(nfd.length());
+            for (int i = 0; i < nfd.length(); i++) {
+                char d = nfd.charAt(i);
+                if (!isMark(d)) {
+                    sb.append(d);
+                }
+            }
+            return sb.toString();
+        }
+
+        private static char replaceChar(char c) {
+            switch (c) {
+                case 'ø':
+                    return 'o';
+                case 'Ø':
+                    return 'O';
+                case 'ð':
+                    return 'd';
+                case 'Ð':
+                    return 'D';
+                default:
+                    return c;
+            }
+        }
+
+        private static boolean isMark(char c) {
+            int type = Character.getType(c);
+            return type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                   || type == Character.COMBINING_SPACING_MARK;
+        }
+
+        /**
+         * Appends the folded non ascii, non surrogate character.
+         */
+        static void append(StringBuilder sb, char c) {
+            if (c >= HANGUL_FIRST && c <= HANGUL_LAST) {
+                appendHangul(sb, c);
+                return;
+            }
+            char folded = SINGLE[c];
+            if (folded == EXPANDED) {
+                sb.append(EXPANSIONS.get(c));
+            } else {
+                sb.append(folded);
+            }
+        }
+
+        /**
+         * Canonical decomposition of a precomposed hangul syllable into its 2 or 3 jamo, see chapter 3.12
+         * of the unicode standard.
+         */
+        private static void appendHangul(StringBuilder sb, char c) {
+            int index = c - HANGUL_FIRST;
+            sb.append((char) (0x1100 + index / (21 * 28)));
+            sb.append((char) (0x1161 + (index % (21 * 28)) / 28));
+            int trailing = index % 28;
+            if (trailing > 0) {
+                sb.append((char) (0x11A7 + trailing));
+            }
+        }
     }
 }
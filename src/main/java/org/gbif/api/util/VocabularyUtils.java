@@ -23,6 +23,7 @@ import java.util.Map;
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.google.common.reflect.ClassPath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +32,28 @@ public final class VocabularyUtils {
 
   private static final Logger LOG = LoggerFactory.getLogger(VocabularyUtils.class);
 
+  /**
+   * Normalized names of all members of an enumeration, built once per enumeration class.
+   * If several members share the same normalized name the first one is used.
+   */
+  private static final ClassValue<Map<String, Enum<?>>> NORMALIZED_NAMES = new ClassValue<Map<String, Enum<?>>>() {
+    @Override
+    protected Map<String, Enum<?>> computeValue(Class<?> type) {
+      Map<String, Enum<?>> names = Maps.newHashMap();
+      Object[] values = type.getEnumConstants();
+      if (values != null) {
+        for (Object val : values) {
+          Enum<?> member = (Enum<?>) val;
+          String normed = normalize(member.name());
+          if (!names.containsKey(normed)) {
+            names.put(normed, member);
+          }
+        }
+      }
+      return ImmutableMap.copyOf(names);
+    }
+  };
+
   public static ContactType parseContactType(String type) {
     return (ContactType) lookupEnum(type, ContactType.class);
   }
@@ -60,17 +83,11 @@ public final class VocabularyUtils {
     if (Strings.isNullOrEmpty(name)) {
       return null;
     }
-    final String normedType = name.toUpperCase().replaceAll("[. _-]", "");
-    T[] values = vocab.getEnumConstants();
-    if (values != null) {
-      for (T val : values) {
-        final String normedVal = val.name().toUpperCase().replaceAll("[. _-]", "");
-        if (normedType.equals(normedVal)) {
-          return val;
-        }
-      }
+    T val = find(name, vocab);
+    if (val == null) {
+      throw new IllegalArgumentException("Cannot parse " + name + " into a known " + vocab.getSimpleName());
     }
-    throw new IllegalArgumentException("Cannot parse " + name + " into a known " + vocab.getSimpleName());
+    return val;
   }
 
   /**
@@ -84,13 +101,52 @@ public final class VocabularyUtils {
    * @return instance of com.google.common.base.Optional, never null.
    */
   public static <T extends Enum<?>> Optional<T> lookup(String name, Class<T> vocab) {
-    T result = null;
-    // this try/catch in needed until we replace all calls to lookupEnum() in favor of this method
-    try{
-      result = lookupEnum(name, vocab);
+    if (Strings.isNullOrEmpty(name)) {
+      return Optional.absent();
+    }
+    return Optional.fromNullable(find(name, vocab));
+  }
+
+  /**
+   * @return the enum member with the same normalized name or null if none exists
+   */
+  private static <T extends Enum<?>> T find(String name, Class<T> vocab) {
+    return vocab.cast(NORMALIZED_NAMES.get(vocab).get(normalize(name)));
+  }
+
+  /**
+   * Upper cases the name and removes all dots, whitespaces, underscores and dashes.
+   */
+  private static String normalize(String name) {
+    char[] chars = new char[name.length()];
+    int len = 0;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c == '.' || c == ' ' || c == '_' || c == '-') {
+        continue;
+      }
+      if (c >= 'a' && c <= 'z') {
+        chars[len++] = (char) (c - 'a' + 'A');
+      } else if (c < 128) {
+        chars[len++] = c;
+      } else {
+        // upper casing non ascii characters can change the length, e.g. for the german sharp s
+        return normalizeNonAscii(name);
+      }
+    }
+    return new String(chars, 0, len);
+  }
+
+  private static String normalizeNonAscii(String name) {
+    String upper = name.toUpperCase();
+    StringBuilder sb = new StringBuilder(upper.length());
+    for (int i = 0; i < upper.length(); i++) {
+      char c = upper.charAt(i);
+      if (c != '.' && c != ' ' && c != '_' && c != '-') {
+        sb.append(c);
+      }
     }
-    catch (IllegalArgumentException iaEx){/*ignore*/}
-    return Optional.fromNullable(result);
+    return sb.toString();
   }
 
   /**
@@ -0,0 +1,784 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.model.checklistbank.NameUsageMatch;
+import org.gbif.api.model.common.LinneanClassification;
+import org.gbif.api.service.checklistbank.NameUsageMatchingService;
+import org.gbif.api.util.ClassificationUtils;
+import org.gbif.api.v2.NameUsageMatch2;
+import org.gbif.api.v2.RankedName;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.TaxonomicStatus;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A {@link NameUsageMatchingService} matching names against an in memory index of a backbone taxonomy,
+ * for running without a remote checklistbank service, e.g. in tests.
+ * <br/>
+ * All usages are kept in primitive arrays ordered by their key, with parents and accepted usages as array indices.
+ * Names are found by their canonical name, ignoring case, whitespace and diacritics, through a hash table.
+ * Names not found exactly are matched fuzzily with a Damerau-Levenshtein distance of up to 1 for names of 6 to 10
+ * characters and 2 for longer names, with candidates taken from a trigram index. Names shorter than 6 characters are
+ * only matched exactly.
+ * <br/>
+ * Only usages found in the shortest postings of the name's trigrams are counted and only those sharing enough
+ * trigrams are compared by their distance. On 100000 synthetic species {@code BackboneIndexBenchmark} matches names
+ * with a single typo about 15 times slower than exact names.
+ * <br/>
+ * Candidates are scored like by the remote service: an exact name scores 100 and each edit 10 less, a different
+ * rank or names in the given classification differing from the candidate's classification reduce the confidence.
+ * Unless strict, names that cannot be matched are matched to the lowest taxon of the classification given.
+ * Several candidates scoring the same for different taxa are not matched.
+ * <br/>
+ * The index is immutable once built with {@link #builder()}.
+ */
+@ThreadSafe
+public class BackboneIndex implements NameUsageMatchingService {
+
+  private static final int MIN_CONFIDENCE = 50;
+  private static final int MAX_ALTERNATIVES = 10;
+  private static final int MAX_DEPTH = 100;
+  private static final Rank[] RANKS = Rank.values();
+  private static final TaxonomicStatus[] STATUSES = TaxonomicStatus.values();
+  // index of a rank in Rank.DWC_RANKS by rank ordinal, -1 for others
+  private static final int[] DWC_INDEX = new int[RANKS.length];
+  private static final Set<String> RANK_MARKERS = ImmutableSet.of("subsp.", "ssp.", "var.", "subvar.", "f.",
+    "fo.", "forma", "subf.", "cv.", "nothosubsp.", "nothovar.", "agg.", "sp.", "spec.");
+  // per thread buffers of the fuzzy matching, shared by all indices
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  static {
+    Arrays.fill(DWC_INDEX, -1);
+    for (int i = 0; i < Rank.DWC_RANKS.size(); i++) {
+      DWC_INDEX[Rank.DWC_RANKS.get(i).ordinal()] = i;
+    }
+  }
+
+  // the usages, ordered by key
+  private final int[] keys;
+  private final String[] scientificNames;
+  private final String[] canonicalNames;
+  private final String[] normalizedNames;
+  private final byte[] ranks;
+  private final byte[] statuses;
+  private final int[] parents;
+  private final int[] accepted;
+  // hash table of normalized canonical names, chaining usages with the same bucket
+  private final int[] buckets;
+  private final int[] nextInBucket;
+  // the normalized name lengths up to 255, unsigned
+  private final byte[] nameLengths;
+  // the distinct trigrams of all names, sorted, with the usages containing the trigram at index k
+  // from postings[trigramOffsets[k]] to postings[trigramOffsets[k+1]], ordered by their name length
+  private final int[] trigramCodes;
+  private final int[] trigramOffsets;
+  private final int[] postings;
+  private final int maxPostings;
+
+  /**
+   * A scored candidate usage for a name.
+   */
+  private static class Candidate {
+    private final int index;
+    private final boolean fuzzy;
+    private final int confidence;
+
+    private Candidate(int index, boolean fuzzy, int confidence) {
+      this.index = index;
+      this.fuzzy = fuzzy;
+      this.confidence = confidence;
+    }
+  }
+
+  private static final Comparator<Candidate> BY_CONFIDENCE = new Comparator<Candidate>() {
+    @Override
+    public int compare(Candidate c1, Candidate c2) {
+      return c2.confidence - c1.confidence;
+    }
+  };
+
+  /**
+   * The outcome of a match, with the matched candidate being null if nothing was matched.
+   */
+  private static class Result {
+    private final Candidate match;
+    private final NameUsageMatch.MatchType matchType;
+    private final int confidence;
+    private final String note;
+    private final List<Candidate> alternatives;
+
+    private Result(Candidate match, NameUsageMatch.MatchType matchType, int confidence, String note,
+      List<Candidate> alternatives) {
+      this.match = match;
+      this.matchType = matchType;
+      this.confidence = confidence;
+      this.note = note;
+      this.alternatives = alternatives;
+    }
+  }
+
+  /**
+   * The buffers of a thread matching names fuzzily, grown to the largest index and name matched,
+   * so that a match allocates no arrays.
+   */
+  private static class Scratch {
+    // counters of shared trigrams by usage index, all 0 between matches
+    private int[] counts = new int[0];
+    // the usages with a counter above 0
+    private int[] found = new int[1024];
+    private int[] trigrams = new int[64];
+    // the postings of the query trigrams as their length and first offset packed into longs
+    private long[] lists = new long[64];
+    // three rows of the distance matrix
+    private int[] before = new int[64];
+    private int[] previous = new int[64];
+    private int[] current = new int[64];
+
+    private void ensureRows(int length) {
+      if (current.length < length) {
+        before = new int[length];
+        previous = new int[length];
+        current = new int[length];
+      }
+    }
+  }
+
+  private static class Usage {
+    private final int key;
+    private final String scientificName;
+    private final String canonicalName;
+    private final Rank rank;
+    private final TaxonomicStatus status;
+    private final Integer parentKey;
+    private final Integer acceptedKey;
+
+    private Usage(int key, String scientificName, String canonicalName, Rank rank, TaxonomicStatus status,
+      Integer parentKey, Integer acceptedKey) {
+      this.key = key;
+      this.scientificName = scientificName;
+      this.canonicalName = canonicalName;
+      this.rank = rank;
+      this.status = status;
+      this.parentKey = parentKey;
+      this.acceptedKey = acceptedKey;
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Collects the usages of an index. Parents and accepted usages can be added in any order,
+   * references to usages never added are ignored.
+   */
+  public static class Builder {
+    private final List<Usage> usages = Lists.newArrayList();
+
+    /**
+     * Adds a usage with its key, names, rank, taxonomic status, parent and accepted key.
+     * The canonical name is derived from the scientific name if missing.
+     */
+    public Builder add(NameUsage usage) {
+      Preconditions.checkNotNull(usage.getKey(), "usage key required");
+      Preconditions.checkNotNull(usage.getScientificName(), "scientific name required");
+      usages.add(new Usage(usage.getKey(), usage.getScientificName(), usage.getCanonicalName(), usage.getRank(),
+        usage.getTaxonomicStatus(), usage.getParentKey(), usage.getAcceptedKey()));
+      return this;
+    }
+
+    /**
+     * Adds a usage given as a ranked name, with the name being the scientific name.
+     *
+     * @param acceptedKey the accepted usage for synonyms
+     */
+    public Builder add(RankedName usage, @Nullable Integer parentKey, @Nullable Integer acceptedKey,
+      @Nullable TaxonomicStatus status) {
+      Preconditions.checkNotNull(usage.getName(), "name required");
+      usages.add(new Usage(usage.getKey(), usage.getName(), null, usage.getRank(), status, parentKey, acceptedKey));
+      return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a key was added twice
+     */
+    public BackboneIndex build() {
+      return new BackboneIndex(usages);
+    }
+  }
+
+  private BackboneIndex(List<Usage> usages) {
+    Usage[] sorted = usages.toArray(new Usage[usages.size()]);
+    Arrays.sort(sorted, new Comparator<Usage>() {
+      @Override
+      public int compare(Usage u1, Usage u2) {
+        return u1.key < u2.key ? -1 : (u1.key == u2.key ? 0 : 1);
+      }
+    });
+    int size = sorted.length;
+    keys = new int[size];
+    scientificNames = new String[size];
+    canonicalNames = new String[size];
+    normalizedNames = new String[size];
+    ranks = new byte[size];
+    statuses = new byte[size];
+    for (int i = 0; i < size; i++) {
+      Usage u = sorted[i];
+      Preconditions.checkArgument(i == 0 || keys[i - 1] != u.key, "Duplicate usage key %s", u.key);
+      keys[i] = u.key;
+      scientificNames[i] = u.scientificName;
+      canonicalNames[i] = u.canonicalName == null ? canonicalize(u.scientificName) : u.canonicalName;
+      normalizedNames[i] = normalize(canonicalNames[i]);
+      ranks[i] = (byte) (u.rank == null ? -1 : u.rank.ordinal());
+      statuses[i] = (byte) (u.status == null ? -1 : u.status.ordinal());
+    }
+    parents = new int[size];
+    accepted = new int[size];
+    for (int i = 0; i < size; i++) {
+      parents[i] = indexOf(sorted[i].parentKey);
+      accepted[i] = indexOf(sorted[i].acceptedKey);
+      if (accepted[i] == i) {
+        accepted[i] = -1;
+      }
+    }
+
+    buckets = new int[Integer.highestOneBit(Math.max(16, size * 2) - 1) << 1];
+    Arrays.fill(buckets, -1);
+    nextInBucket = new int[size];
+    for (int i = 0; i < size; i++) {
+      if (normalizedNames[i] != null) {
+        int bucket = normalizedNames[i].hashCode() & (buckets.length - 1);
+        nextInBucket[i] = buckets[bucket];
+        buckets[bucket] = i;
+      }
+    }
+
+    // sort all trigram, name length and usage triples packed into longs,
+    // then split them into distinct trigrams and postings
+    nameLengths = new byte[size];
+    int[][] nameTrigrams = new int[size][];
+    int pairs = 0;
+    for (int i = 0; i < size; i++) {
+      nameLengths[i] = (byte) Math.min(255, normalizedNames[i] == null ? 0 : normalizedNames[i].length());
+      nameTrigrams[i] = trigrams(normalizedNames[i]);
+      pairs += nameTrigrams[i].length;
+    }
+    long[] sortedPairs = new long[pairs];
+    int p = 0;
+    for (int i = 0; i < size; i++) {
+      for (int t : nameTrigrams[i]) {
+        sortedPairs[p++] = (long) t << 40 | (long) (nameLengths[i] & 0xFF) << 32 | i;
+      }
+    }
+    Arrays.sort(sortedPairs);
+    int distinct = 0;
+    for (p = 0; p < pairs; p++) {
+      if (p == 0 || sortedPairs[p] >>> 40 != sortedPairs[p - 1] >>> 40) {
+        distinct++;
+      }
+    }
+    trigramCodes = new int[distinct];
+    trigramOffsets = new int[distinct + 1];
+    postings = new int[pairs];
+    int k = -1;
+    for (p = 0; p < pairs; p++) {
+      int t = (int) (sortedPairs[p] >>> 40);
+      if (k < 0 || trigramCodes[k] != t) {
+        trigramCodes[++k] = t;
+        trigramOffsets[k] = p;
+      }
+      postings[p] = (int) sortedPairs[p];
+    }
+    trigramOffsets[distinct] = pairs;
+    maxPostings = Math.max(1000, size / 100);
+  }
+
+  /**
+   * @return the number of usages in the index
+   */
+  public int size() {
+    return keys.length;
+  }
+
+  /**
+   * @return the usage with the given key as a ranked name or null if not in the index
+   */
+  @Nullable
+  public RankedName getUsage(int key) {
+    int i = Arrays.binarySearch(keys, key);
+    return i < 0 ? null : rankedName(i);
+  }
+
+  @Override
+  public NameUsageMatch match(String scientificName, @Nullable Rank rank,
+    @Nullable LinneanClassification classification, boolean strict, boolean verbose) {
+    Result result = find(scientificName, rank, classification, strict);
+    NameUsageMatch match;
+    if (result.match == null) {
+      match = new NameUsageMatch();
+    } else {
+      match = toMatch(result.match.index);
+    }
+    match.setMatchType(result.matchType);
+    match.setConfidence(result.confidence);
+    match.setNote(result.note);
+    if (verbose) {
+      List<NameUsageMatch> alternatives = Lists.newArrayList();
+      for (Candidate c : result.alternatives) {
+        NameUsageMatch alt = toMatch(c.index);
+        alt.setMatchType(c.fuzzy ? NameUsageMatch.MatchType.FUZZY : NameUsageMatch.MatchType.EXACT);
+        alt.setConfidence(c.confidence);
+        alternatives.add(alt);
+      }
+      match.setAlternatives(alternatives);
+    }
+    return match;
+  }
+
+  /**
+   * Matches a name like {@link #match(String, Rank, LinneanClassification, boolean, boolean)} and returns the
+   * result in the version 2 format, with the complete classification of the accepted usage.
+   */
+  public NameUsageMatch2 match2(String scientificName, @Nullable Rank rank,
+    @Nullable LinneanClassification classification, boolean strict, boolean verbose) {
+    Result result = find(scientificName, rank, classification, strict);
+    NameUsageMatch2 match = result.match == null ? new NameUsageMatch2() : toMatch2(result.match.index);
+    NameUsageMatch2.Diagnostics diagnostics = match.getDiagnostics();
+    diagnostics.setMatchType(result.matchType);
+    diagnostics.setConfidence(result.confidence);
+    diagnostics.setNote(result.note);
+    if (verbose) {
+      for (Candidate c : result.alternatives) {
+        NameUsageMatch2 alt = toMatch2(c.index);
+        alt.getDiagnostics().setMatchType(c.fuzzy ? NameUsageMatch.MatchType.FUZZY : NameUsageMatch.MatchType.EXACT);
+        alt.getDiagnostics().setConfidence(c.confidence);
+        diagnostics.getAlternatives().add(alt);
+      }
+    }
+    return match;
+  }
+
+  private Result find(String scientificName, @Nullable Rank rank, @Nullable LinneanClassification classification,
+    boolean strict) {
+    String[] query = new String[Rank.DWC_RANKS.size()];
+    if (classification != null) {
+      for (int i = 0; i < query.length; i++) {
+        query[i] = normalize(ClassificationUtils.getHigherRank(classification, Rank.DWC_RANKS.get(i)));
+      }
+    }
+
+    List<Candidate> candidates = Lists.newArrayList();
+    String name = normalize(scientificName);
+    if (name != null) {
+      String canonical = normalize(canonicalize(scientificName));
+      addExact(candidates, name, name, rank, query);
+      if (candidates.isEmpty() && canonical != null && !canonical.equals(name)) {
+        addExact(candidates, canonical, name, rank, query);
+      }
+      if (candidates.isEmpty()) {
+        addFuzzy(candidates, canonical == null ? name : canonical, rank, query);
+      }
+    }
+    Collections.sort(candidates, BY_CONFIDENCE);
+
+    if (!candidates.isEmpty() && candidates.get(0).confidence >= MIN_CONFIDENCE) {
+      Candidate best = candidates.get(0);
+      List<Candidate> alternatives = alternatives(candidates);
+      for (Candidate c : alternatives) {
+        if (c.confidence == best.confidence && acceptedIndex(c.index) != acceptedIndex(best.index)) {
+          return new Result(null, NameUsageMatch.MatchType.NONE, best.confidence,
+            "Multiple equal matches for " + scientificName, alternatives(candidates, 0));
+        }
+      }
+      return new Result(best, best.fuzzy ? NameUsageMatch.MatchType.FUZZY : NameUsageMatch.MatchType.EXACT,
+        best.confidence, null, alternatives);
+    }
+
+    if (!strict) {
+      // match the lowest taxon of the classification
+      for (int r = query.length - 1; r >= 0; r--) {
+        if (query[r] != null) {
+          List<Candidate> higher = Lists.newArrayList();
+          addExact(higher, query[r], null, Rank.DWC_RANKS.get(r), query);
+          Collections.sort(higher, BY_CONFIDENCE);
+          if (!higher.isEmpty() && higher.get(0).confidence >= MIN_CONFIDENCE) {
+            candidates.addAll(higher);
+            return new Result(higher.get(0), NameUsageMatch.MatchType.HIGHERRANK, higher.get(0).confidence, null,
+              alternatives(candidates, higher.get(0)));
+          }
+        }
+      }
+    }
+    int confidence = candidates.isEmpty() ? 100 : 100 - candidates.get(0).confidence;
+    return new Result(null, NameUsageMatch.MatchType.NONE, confidence, "No match found",
+      alternatives(candidates, 0));
+  }
+
+  private List<Candidate> alternatives(List<Candidate> sorted) {
+    return alternatives(sorted, 1);
+  }
+
+  private List<Candidate> alternatives(List<Candidate> sorted, int from) {
+    return Lists.newArrayList(sorted.subList(Math.min(from, sorted.size()),
+      Math.min(from + MAX_ALTERNATIVES, sorted.size())));
+  }
+
+  private List<Candidate> alternatives(List<Candidate> candidates, Candidate match) {
+    List<Candidate> alternatives = Lists.newArrayList();
+    for (Candidate c : candidates) {
+      if (c != match && alternatives.size() < MAX_ALTERNATIVES) {
+        alternatives.add(c);
+      }
+    }
+    return alternatives;
+  }
+
+  private void addExact(List<Candidate> candidates, String name, @Nullable String fullName, @Nullable Rank rank,
+    String[] query) {
+    for (int i = buckets[name.hashCode() & (buckets.length - 1)]; i >= 0; i = nextInBucket[i]) {
+      if (name.equals(normalizedNames[i])) {
+        int confidence = 99 + (fullName != null && fullName.equals(normalize(scientificNames[i])) ? 1 : 0);
+        candidates.add(new Candidate(i, false, score(i, confidence, rank, query)));
+      }
+    }
+  }
+
+  private void addFuzzy(List<Candidate> candidates, String name, @Nullable Rank rank, String[] query) {
+    int maxDistance = name.length() < 6 ? 0 : (name.length() <= 10 ? 1 : 2);
+    if (maxDistance == 0) {
+      return;
+    }
+    Scratch scratch = SCRATCH.get();
+    if (scratch.counts.length < keys.length) {
+      scratch.counts = new int[keys.length];
+    }
+    if (scratch.trigrams.length <= name.length()) {
+      scratch.trigrams = new int[name.length() + 1];
+      scratch.lists = new long[name.length() + 1];
+    }
+    int[] counts = scratch.counts;
+    int[] trigrams = scratch.trigrams;
+    long[] lists = scratch.lists;
+    // the postings of the less common trigrams with names differing in length by no more than the maximum distance,
+    // shortest first
+    int usable = 0;
+    int distinct = trigrams(name, trigrams);
+    for (int t = 0; t < distinct; t++) {
+      // trigrams of no usage have no postings
+      int k = Arrays.binarySearch(trigramCodes, trigrams[t]);
+      if (k < 0) {
+        lists[usable++] = 0;
+      } else if (trigramOffsets[k + 1] - trigramOffsets[k] <= maxPostings) {
+        int from = lengthBound(trigramOffsets[k], trigramOffsets[k + 1], name.length() - maxDistance);
+        int to = lengthBound(from, trigramOffsets[k + 1], name.length() + maxDistance + 1);
+        lists[usable++] = (long) (to - from) << 32 | from;
+      }
+    }
+    Arrays.sort(lists, 0, usable);
+    // each edit changes at most 3 trigrams and a transposition 4, so a usage within the maximum distance is in all
+    // but 4 * maxDistance of the postings and in one of the shortest 4 * maxDistance + 1
+    int required = Math.max(1, usable - 4 * maxDistance);
+    int[] found = scratch.found;
+    int n = 0;
+    for (int l = 0; l < usable; l++) {
+      int from = (int) lists[l];
+      int to = from + (int) (lists[l] >>> 32);
+      if (l <= usable - required) {
+        for (int p = from; p < to; p++) {
+          if (counts[postings[p]]++ == 0) {
+            if (n == found.length) {
+              found = scratch.found = Arrays.copyOf(found, n * 2);
+            }
+            found[n++] = postings[p];
+          }
+        }
+      } else {
+        for (int p = from; p < to; p++) {
+          if (counts[postings[p]] > 0) {
+            counts[postings[p]]++;
+          }
+        }
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      int idx = found[i];
+      if (counts[idx] >= required) {
+        int distance = distance(name, normalizedNames[idx], maxDistance, scratch);
+        if (distance <= maxDistance) {
+          candidates.add(new Candidate(idx, true, score(idx, 100 - 10 * distance, rank, query)));
+        }
+      }
+      counts[idx] = 0;
+    }
+  }
+
+  /**
+   * @return the first posting from the given range with a name of at least the given length, or the range end
+   */
+  private int lengthBound(int from, int to, int length) {
+    int bound = Math.min(length, 256);
+    while (from < to) {
+      int mid = (from + to) >>> 1;
+      if ((nameLengths[postings[mid]] & 0xFF) < bound) {
+        from = mid + 1;
+      } else {
+        to = mid;
+      }
+    }
+    return from;
+  }
+
+  /**
+   * Adjusts the confidence of a name match by the rank, the classification and the taxonomic status.
+   */
+  private int score(int i, int confidence, @Nullable Rank rank, String[] query) {
+    if (rank != null && ranks[i] >= 0 && ranks[i] != rank.ordinal()) {
+      Rank r = RANKS[ranks[i]];
+      confidence -= rank.isInfraspecific() && r.isInfraspecific() ? 10 : 35;
+    }
+    int seen = 0;
+    int node = acceptedIndex(i);
+    for (int depth = 0; node >= 0 && depth < MAX_DEPTH; depth++, node = parents[node]) {
+      int r = ranks[node] < 0 ? -1 : DWC_INDEX[ranks[node]];
+      if (r >= 0 && query[r] != null && (seen & (1 << r)) == 0) {
+        seen |= 1 << r;
+        if (query[r].equals(normalizedNames[node])) {
+          confidence += 1;
+        } else {
+          confidence -= r == 0 ? 30 : 10;
+        }
+      }
+    }
+    if (statuses[i] >= 0) {
+      TaxonomicStatus status = STATUSES[statuses[i]];
+      if (status == TaxonomicStatus.DOUBTFUL) {
+        confidence -= 2;
+      } else if (status.isSynonym()) {
+        confidence -= 1;
+      }
+    }
+    return Math.max(0, Math.min(100, confidence));
+  }
+
+  private int acceptedIndex(int i) {
+    return accepted[i] >= 0 ? accepted[i] : i;
+  }
+
+  private int indexOf(@Nullable Integer key) {
+    if (key == null) {
+      return -1;
+    }
+    int i = Arrays.binarySearch(keys, key);
+    return i < 0 ? -1 : i;
+  }
+
+  private RankedName rankedName(int i) {
+    return new RankedName(keys[i], scientificNames[i], ranks[i] < 0 ? null : RANKS[ranks[i]]);
+  }
+
+  @Nullable
+  private TaxonomicStatus status(int i) {
+    return statuses[i] < 0 ? null : STATUSES[statuses[i]];
+  }
+
+  private NameUsageMatch toMatch(int i) {
+    NameUsageMatch m = new NameUsageMatch();
+    m.setUsageKey(keys[i]);
+    m.setScientificName(scientificNames[i]);
+    m.setCanonicalName(canonicalNames[i]);
+    m.setRank(ranks[i] < 0 ? null : RANKS[ranks[i]]);
+    TaxonomicStatus status = status(i);
+    if (accepted[i] >= 0 || status != null && status.isSynonym()) {
+      m.setStatus(TaxonomicStatus.SYNONYM);
+    } else {
+      m.setStatus(status == TaxonomicStatus.DOUBTFUL ? TaxonomicStatus.DOUBTFUL : TaxonomicStatus.ACCEPTED);
+    }
+    if (accepted[i] >= 0) {
+      m.setAcceptedUsageKey(keys[accepted[i]]);
+    }
+    int node = acceptedIndex(i);
+    for (int depth = 0; node >= 0 && depth < MAX_DEPTH; depth++, node = parents[node]) {
+      int r = ranks[node] < 0 ? -1 : DWC_INDEX[ranks[node]];
+      if (r >= 0 && ClassificationUtils.getHigherRankKey(m, Rank.DWC_RANKS.get(r)) == null) {
+        ClassificationUtils.setHigherRank(m, Rank.DWC_RANKS.get(r), canonicalNames[node], keys[node]);
+      }
+    }
+    return m;
+  }
+
+  private NameUsageMatch2 toMatch2(int i) {
+    NameUsageMatch2 m = new NameUsageMatch2();
+    m.setUsage(rankedName(i));
+    TaxonomicStatus status = status(i);
+    m.setSynonym(accepted[i] >= 0 || status != null && status.isSynonym());
+    if (accepted[i] >= 0) {
+      m.setAcceptedUsage(rankedName(accepted[i]));
+    }
+    m.getDiagnostics().setStatus(status);
+    List<RankedName> classification = Lists.newArrayList();
+    int node = acceptedIndex(i);
+    for (int depth = 0; node >= 0 && depth < MAX_DEPTH; depth++, node = parents[node]) {
+      classification.add(rankedName(node));
+    }
+    m.setClassification(Lists.reverse(classification));
+    return m;
+  }
+
+  /**
+   * Normalizes a name for comparison by collapsing whitespace, folding to ASCII and lower casing.
+   */
+  @Nullable
+  static String normalize(@Nullable String name) {
+    String normalized = MatchKey.normalize(name);
+    return normalized == null ? null : normalized.toLowerCase(Locale.ENGLISH);
+  }
+
+  /**
+   * Derives a canonical name from a scientific name by keeping the first word and up to two following lower case
+   * epithets, skipping rank markers and stopping at the authorship.
+   */
+  @Nullable
+  static String canonicalize(@Nullable String scientificName) {
+    String[] words = StringUtils.split(scientificName);
+    if (words == null || words.length == 0) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder(words[0]);
+    int epithets = 0;
+    for (int i = 1; i < words.length && epithets < 2; i++) {
+      if (RANK_MARKERS.contains(words[i].toLowerCase(Locale.ENGLISH))) {
+        continue;
+      }
+      if (!isEpithet(words[i])) {
+        break;
+      }
+      sb.append(' ').append(words[i]);
+      epithets++;
+    }
+    return sb.toString();
+  }
+
+  private static boolean isEpithet(String word) {
+    for (int i = 0; i < word.length(); i++) {
+      char c = word.charAt(i);
+      if (!Character.isLowerCase(c) && c != '-') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the distinct trigrams of a name padded with spaces, each packed into the lower 21 bits of an int
+   */
+  private static int[] trigrams(@Nullable String name) {
+    if (name == null) {
+      return new int[0];
+    }
+    int[] trigrams = new int[name.length() + 1];
+    return Arrays.copyOf(trigrams, trigrams(name, trigrams));
+  }
+
+  /**
+   * Writes the distinct trigrams of a name padded with spaces, sorted, to the start of a buffer of at least
+   * the name's length + 1.
+   *
+   * @return the number of distinct trigrams
+   */
+  private static int trigrams(String name, int[] trigrams) {
+    int length = name.length() + 1;
+    for (int i = 0; i < length; i++) {
+      trigrams[i] = paddedChar(name, i - 2) << 14 | paddedChar(name, i - 1) << 7 | paddedChar(name, i);
+    }
+    Arrays.sort(trigrams, 0, length);
+    int n = 0;
+    for (int i = 0; i < length; i++) {
+      if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+        trigrams[n++] = trigrams[i];
+      }
+    }
+    return n;
+  }
+
+  private static int paddedChar(String name, int i) {
+    return i < 0 || i >= name.length() ? ' ' : name.charAt(i) & 0x7F;
+  }
+
+  /**
+   * The Damerau-Levenshtein distance of two strings counting transpositions of adjacent characters as one edit,
+   * giving up once it exceeds the maximum.
+   *
+   * @return the distance or max + 1 if it is larger than max
+   */
+  static int distance(String a, String b, int max) {
+    return distance(a, b, max, SCRATCH.get());
+  }
+
+  /**
+   * Skips the common prefix and suffix, which edits never touch, and computes the rest of the matrix only within max
+   * of the diagonal, as any path leaving it is longer than max, with rows reused from the scratch buffers.
+   */
+  private static int distance(String a, String b, int max, Scratch scratch) {
+    if (Math.abs(a.length() - b.length()) > max) {
+      return max + 1;
+    }
+    int start = 0;
+    while (start < a.length() && start < b.length() && a.charAt(start) == b.charAt(start)) {
+      start++;
+    }
+    int n = a.length();
+    int m = b.length();
+    while (n > start && m > start && a.charAt(n - 1) == b.charAt(m - 1)) {
+      n--;
+      m--;
+    }
+    n -= start;
+    m -= start;
+    scratch.ensureRows(m + 2);
+    int[] before = scratch.before;
+    int[] previous = scratch.previous;
+    int[] current = scratch.current;
+    for (int j = 0; j <= m; j++) {
+      previous[j] = Math.min(j, max + 1);
+    }
+    for (int i = 1; i <= n; i++) {
+      int from = Math.max(1, i - max);
+      int to = Math.min(m, i + max);
+      // cells left and right of the band
+      current[from - 1] = from == 1 ? i : max + 1;
+      current[to + 1] = max + 1;
+      int rowMin = current[from - 1];
+      for (int j = from; j <= to; j++) {
+        char ca = a.charAt(start + i - 1);
+        char cb = b.charAt(start + j - 1);
+        int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + (ca == cb ? 0 : 1));
+        if (i > 1 && j > 1 && ca == b.charAt(start + j - 2) && a.charAt(start + i - 2) == cb) {
+          d = Math.min(d, before[j - 2] + 1);
+        }
+        current[j] = d;
+        rowMin = Math.min(rowMin, d);
+      }
+      if (rowMin > max) {
+        return max + 1;
+      }
+      int[] tmp = before;
+      before = previous;
+      previous = current;
+      current = tmp;
+    }
+    return Math.min(previous[m], max + 1);
+  }
+}
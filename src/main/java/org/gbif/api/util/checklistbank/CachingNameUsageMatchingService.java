@@ -0,0 +1,341 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsageMatch;
+import org.gbif.api.model.checklistbank.NameUsageMatchQuery;
+import org.gbif.api.model.common.LinneanClassification;
+import org.gbif.api.service.checklistbank.NameUsageMatchingService;
+import org.gbif.api.vocabulary.Rank;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * A {@link NameUsageMatchingService} caching the matches of the wrapped service.
+ * <br/>
+ * Matches are cached by their normalized parameters, see {@link MatchKey}: names and the classification are
+ * compared with collapsed whitespace and folded to ASCII, so that such variants share a single match.
+ * The cache is bounded in size and uses the W-TinyLFU policy, which keeps the frequently matched names when many
+ * rare names pass through. Optionally matches evicted from the cache are kept serialized in a fixed size buffer
+ * outside of the heap, so that the long tail of rare names does not need to be matched again.
+ * Cached matches are read without locking: the accesses are recorded in a lossy {@link ReadBuffer} and replayed
+ * on the eviction policy whenever matches are added or the buffer fills up.
+ * Concurrent misses for the same parameters wait for a single match, and batches only pass on the distinct
+ * parameters not cached yet.
+ * <br/>
+ * Matches depend on the backbone, so all cached matches are dropped by {@link #updateVersion(String)} once a
+ * different backbone version is in use. Cached matches are shared between callers and must not be modified.
+ */
+@ThreadSafe
+public class CachingNameUsageMatchingService implements NameUsageMatchingService {
+  private static final int DEFAULT_SIZE = 100000;
+
+  private final NameUsageMatchingService service;
+  private final OffHeapMatchStore spill;
+  private final ConcurrentMap<MatchKey, SettableFuture<NameUsageMatch>> loading = Maps.newConcurrentMap();
+  // the matches of the cache, which are only modified together with the policy
+  private final ConcurrentMap<MatchKey, NameUsageMatch> data = Maps.newConcurrentMap();
+  private final ReadBuffer<MatchKey> reads = new ReadBuffer<MatchKey>();
+  private final ReentrantLock lock = new ReentrantLock();
+  @GuardedBy("lock")
+  private final TinyLfuCache<MatchKey, NameUsageMatch> cache;
+  // only incremented while holding the lock
+  private volatile long generation;
+  @GuardedBy("lock")
+  private String version;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder spillHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder loadSuccesses = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder loadTime = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Caches up to 100000 matches on the heap.
+   */
+  public CachingNameUsageMatchingService(NameUsageMatchingService service) {
+    this(service, DEFAULT_SIZE, 0);
+  }
+
+  /**
+   * @param maximumSize the maximum number of matches kept on the heap
+   * @param spillBytes  the size of the buffer outside of the heap keeping evicted matches, 0 for none
+   */
+  public CachingNameUsageMatchingService(NameUsageMatchingService service, int maximumSize, int spillBytes) {
+    Preconditions.checkArgument(spillBytes >= 0, "spillBytes can't be negative");
+    this.service = Preconditions.checkNotNull(service, "service can't be null");
+    cache = new TinyLfuCache<MatchKey, NameUsageMatch>(maximumSize);
+    spill = spillBytes > 0 ? new OffHeapMatchStore(spillBytes) : null;
+  }
+
+  @Override
+  public NameUsageMatch match(String scientificName, @Nullable Rank rank,
+    @Nullable LinneanClassification classification, boolean strict, boolean verbose) {
+    MatchKey key = new MatchKey(scientificName, rank, classification, strict, verbose);
+    NameUsageMatch match = getCached(key);
+    if (match != null) {
+      return match;
+    }
+
+    SettableFuture<NameUsageMatch> future = SettableFuture.create();
+    SettableFuture<NameUsageMatch> running = loading.putIfAbsent(key, future);
+    if (running != null) {
+      try {
+        return Uninterruptibles.getUninterruptibly(running);
+      } catch (ExecutionException e) {
+        throw Throwables.propagate(e.getCause());
+      }
+    }
+    try {
+      // a load finishing since the cache was read has cached its match before it left the loading map
+      match = getCached(key);
+      if (match == null) {
+        match = load(key, scientificName, rank, classification, strict, verbose);
+      }
+      future.set(match);
+      return match;
+    } catch (Throwable e) {
+      future.setException(e);
+      throw Throwables.propagate(e);
+    } finally {
+      loading.remove(key, future);
+    }
+  }
+
+  /**
+   * Matches the distinct queries not cached yet in a single batch of the wrapped service.
+   */
+  @Override
+  public List<NameUsageMatch> matchBatch(List<NameUsageMatchQuery> queries, boolean verbose) {
+    List<MatchKey> keys = Lists.newArrayListWithCapacity(queries.size());
+    Map<MatchKey, NameUsageMatch> matches = Maps.newHashMap();
+    Map<MatchKey, NameUsageMatchQuery> missing = Maps.newLinkedHashMap();
+    for (NameUsageMatchQuery query : queries) {
+      MatchKey key = new MatchKey(query.getScientificName(), query.getRank(), query, query.isStrict(), verbose);
+      keys.add(key);
+      if (!matches.containsKey(key) && !missing.containsKey(key)) {
+        NameUsageMatch match = getCached(key);
+        if (match == null) {
+          missing.put(key, query);
+        } else {
+          matches.put(key, match);
+        }
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      long generation = this.generation;
+      long start = System.nanoTime();
+      List<NameUsageMatch> loaded;
+      try {
+        loaded = service.matchBatch(Lists.newArrayList(missing.values()), verbose);
+      } catch (RuntimeException e) {
+        failed(missing.size(), System.nanoTime() - start);
+        throw e;
+      }
+      Map<MatchKey, NameUsageMatch> loadedMatches = Maps.newHashMap();
+      int i = 0;
+      for (MatchKey key : missing.keySet()) {
+        loadedMatches.put(key, loaded.get(i++));
+      }
+      loaded(loadedMatches, generation, System.nanoTime() - start);
+      matches.putAll(loadedMatches);
+    }
+
+    List<NameUsageMatch> result = Lists.newArrayListWithCapacity(keys.size());
+    for (MatchKey key : keys) {
+      result.add(matches.get(key));
+    }
+    return result;
+  }
+
+  /**
+   * Drops all cached matches if the backbone version differs from the one they were matched against.
+   * Call this whenever the backbone of the wrapped service might have been rebuilt.
+   *
+   * @param version the version of the backbone in use, e.g. its last modification date
+   *
+   * @return true if the version changed and the cache was cleared
+   */
+  public boolean updateVersion(String version) {
+    lock.lock();
+    try {
+      if (Objects.equal(this.version, version)) {
+        return false;
+      }
+      this.version = version;
+    } finally {
+      lock.unlock();
+    }
+    invalidateAll();
+    return true;
+  }
+
+  /**
+   * Drops all cached matches, including the ones currently being matched.
+   */
+  public void invalidateAll() {
+    long generation;
+    lock.lock();
+    try {
+      generation = ++this.generation;
+      drainReads();
+      cache.clear();
+      data.clear();
+    } finally {
+      lock.unlock();
+    }
+    if (spill != null) {
+      spill.clear(generation);
+    }
+  }
+
+  /**
+   * Statistics of the cache since it was created. Matches found outside of the heap count as hits,
+   * evictions count all matches removed from the heap.
+   */
+  public CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(), loadTime.sum(),
+      evictions.sum());
+  }
+
+  /**
+   * @return the number of hits for matches kept outside of the heap, included in the hits of {@link #stats()}
+   */
+  public long getSpillHitCount() {
+    return spillHits.sum();
+  }
+
+  /**
+   * @return the number of matches currently cached on the heap
+   */
+  public int size() {
+    return data.size();
+  }
+
+  @Nullable
+  private NameUsageMatch getCached(MatchKey key) {
+    long generation = this.generation;
+    NameUsageMatch match = data.get(key);
+    if (reads.record(key) && lock.tryLock()) {
+      try {
+        drainReads();
+      } finally {
+        lock.unlock();
+      }
+    }
+    if (match != null) {
+      hits.increment();
+      return match;
+    }
+    if (spill == null) {
+      return null;
+    }
+    match = spill.get(key);
+    if (match != null) {
+      hits.increment();
+      spillHits.increment();
+      Map.Entry<MatchKey, NameUsageMatch> evicted = null;
+      lock.lock();
+      try {
+        if (generation == this.generation) {
+          evicted = admit(key, match);
+        }
+      } finally {
+        lock.unlock();
+      }
+      spillEvicted(evicted, generation);
+    }
+    return match;
+  }
+
+  private NameUsageMatch load(MatchKey key, String scientificName, @Nullable Rank rank,
+    @Nullable LinneanClassification classification, boolean strict, boolean verbose) {
+    long generation = this.generation;
+    long start = System.nanoTime();
+    NameUsageMatch match;
+    try {
+      match = service.match(scientificName, rank, classification, strict, verbose);
+    } catch (RuntimeException e) {
+      failed(1, System.nanoTime() - start);
+      throw e;
+    }
+    loaded(ImmutableMap.of(key, match), generation, System.nanoTime() - start);
+    return match;
+  }
+
+  /**
+   * Records a load and caches the matches unless the cache was invalidated since the load started.
+   */
+  private void loaded(Map<MatchKey, NameUsageMatch> matches, long generation, long nanos) {
+    misses.add(matches.size());
+    loadSuccesses.add(matches.size());
+    loadTime.add(nanos);
+    List<Map.Entry<MatchKey, NameUsageMatch>> evicted = Lists.newArrayList();
+    lock.lock();
+    try {
+      if (generation == this.generation) {
+        for (Map.Entry<MatchKey, NameUsageMatch> entry : matches.entrySet()) {
+          Map.Entry<MatchKey, NameUsageMatch> e = admit(entry.getKey(), entry.getValue());
+          if (e != null) {
+            evicted.add(e);
+          }
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    for (Map.Entry<MatchKey, NameUsageMatch> e : evicted) {
+      spillEvicted(e, generation);
+    }
+  }
+
+  private void failed(int count, long nanos) {
+    misses.add(count);
+    loadFailures.increment();
+    loadTime.add(nanos);
+  }
+
+  /**
+   * Replays the recorded reads on the policy, so that it knows about them before deciding what to evict.
+   */
+  @GuardedBy("lock")
+  private void drainReads() {
+    reads.drainTo(cache::get);
+  }
+
+  @GuardedBy("lock")
+  private Map.Entry<MatchKey, NameUsageMatch> admit(MatchKey key, NameUsageMatch match) {
+    drainReads();
+    Map.Entry<MatchKey, NameUsageMatch> evicted = cache.put(key, match);
+    data.put(key, match);
+    if (evicted != null) {
+      data.remove(evicted.getKey(), evicted.getValue());
+      evictions.increment();
+    }
+    return evicted;
+  }
+
+  private void spillEvicted(@Nullable Map.Entry<MatchKey, NameUsageMatch> evicted, long generation) {
+    if (evicted != null && spill != null) {
+      spill.put(evicted.getKey(), evicted.getValue(), generation);
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package org.gbif.api.util.checklistbank;
+
+import java.util.Arrays;
+
+/**
+ * A count-min sketch estimating how often keys have been seen recently, using 4 bit counters packed into longs.
+ * <br/>
+ * Each key increments one counter in each of 4 longs, the estimate is the smallest of these counters.
+ * Once as many increments as 10 times the capacity happened all counters are halved, so that the estimates
+ * follow changes in popularity.
+ * Not thread safe.
+ */
+class FrequencySketch {
+
+  private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+    0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(int capacity) {
+    int length = Integer.highestOneBit(Math.max(16, Math.min(capacity, 1 << 28)) - 1) << 1;
+    table = new long[length];
+    tableMask = length - 1;
+    sampleSize = 10 * length;
+  }
+
+  /**
+   * @return the estimated number of recent occurrences of the key, at most 15
+   */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int count = (int) ((table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xFL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  void clear() {
+    Arrays.fill(table, 0);
+    size = 0;
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xFL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Halves all counters.
+   */
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size >>> 1) - (odd >>> 2);
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return (int) h & tableMask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+}
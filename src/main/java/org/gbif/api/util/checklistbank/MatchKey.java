@@ -0,0 +1,85 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.common.LinneanClassification;
+import org.gbif.api.util.ClassificationUtils;
+import org.gbif.api.util.UnicodeUtils;
+import org.gbif.api.vocabulary.Rank;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The normalized parameters of a name match, used as a cache key.
+ * Names are trimmed, have their whitespace collapsed and are folded to ASCII, so that names differing only in
+ * these respects share a single match. Empty names are treated as missing.
+ */
+final class MatchKey {
+
+  private final String scientificName;
+  private final Rank rank;
+  // the names of Rank.DWC_RANKS
+  private final String[] classification;
+  private final boolean strict;
+  private final boolean verbose;
+  private final int hash;
+
+  MatchKey(String scientificName, @Nullable Rank rank, @Nullable LinneanClassification classification,
+    boolean strict, boolean verbose) {
+    this.scientificName = normalize(scientificName);
+    this.rank = rank;
+    this.classification = new String[Rank.DWC_RANKS.size()];
+    if (classification != null) {
+      for (int i = 0; i < this.classification.length; i++) {
+        this.classification[i] = normalize(ClassificationUtils.getHigherRank(classification, Rank.DWC_RANKS.get(i)));
+      }
+    }
+    this.strict = strict;
+    this.verbose = verbose;
+    hash = Objects.hashCode(this.scientificName, rank, strict, verbose) * 31 + Arrays.hashCode(this.classification);
+  }
+
+  @Nullable
+  static String normalize(@Nullable String name) {
+    if (name == null) {
+      return null;
+    }
+    String normalized = StringUtils.normalizeSpace(name);
+    return normalized.isEmpty() ? null : UnicodeUtils.ascii(normalized);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof MatchKey)) {
+      return false;
+    }
+    MatchKey that = (MatchKey) obj;
+    return hash == that.hash
+           && strict == that.strict
+           && verbose == that.verbose
+           && rank == that.rank
+           && Objects.equal(scientificName, that.scientificName)
+           && Arrays.equals(classification, that.classification);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(this)
+      .add("scientificName", scientificName)
+      .add("rank", rank)
+      .add("classification", Arrays.toString(classification))
+      .add("strict", strict)
+      .add("verbose", verbose)
+      .toString();
+  }
+}
@@ -0,0 +1,145 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsageMatch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps serialized matches in a fixed size direct buffer outside of the Java heap.
+ * <br/>
+ * The buffer is used as a ring: new matches are appended after the previous one, wrapping around at the end and
+ * overwriting the oldest matches. Only the keys and buffer positions stay on the heap.
+ * <br/>
+ * Matches are stored for a generation of the owning cache, and matches of older generations are ignored once the
+ * store has been cleared for a newer one.
+ */
+@ThreadSafe
+class OffHeapMatchStore {
+
+  private static class Slot {
+    private final MatchKey key;
+    private final int offset;
+    private final int length;
+
+    private Slot(MatchKey key, int offset, int length) {
+      this.key = key;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  private final ByteBuffer buffer;
+  private final Map<MatchKey, Slot> index = Maps.newHashMap();
+  // slots in the order written, oldest first
+  private final ArrayDeque<Slot> slots = new ArrayDeque<Slot>();
+  private int position;
+  private long generation;
+
+  OffHeapMatchStore(int capacity) {
+    Preconditions.checkArgument(capacity > 0, "capacity must be positive");
+    buffer = ByteBuffer.allocateDirect(capacity);
+  }
+
+  /**
+   * Stores a match, replacing any previous one and dropping it if it is larger than the whole buffer.
+   */
+  void put(MatchKey key, NameUsageMatch match, long generation) {
+    byte[] data = serialize(match);
+    synchronized (this) {
+      if (generation < this.generation) {
+        return;
+      }
+      if (data.length > buffer.capacity()) {
+        index.remove(key);
+        return;
+      }
+      if (position + data.length > buffer.capacity()) {
+        release(position, buffer.capacity());
+        position = 0;
+      }
+      release(position, position + data.length);
+      buffer.position(position);
+      buffer.put(data);
+      Slot slot = new Slot(key, position, data.length);
+      slots.addLast(slot);
+      index.put(key, slot);
+      position += data.length;
+    }
+  }
+
+  @Nullable
+  NameUsageMatch get(MatchKey key) {
+    byte[] data;
+    synchronized (this) {
+      Slot slot = index.get(key);
+      if (slot == null) {
+        return null;
+      }
+      data = new byte[slot.length];
+      buffer.position(slot.offset);
+      buffer.get(data);
+    }
+    return deserialize(data);
+  }
+
+  synchronized int size() {
+    return index.size();
+  }
+
+  /**
+   * Removes all matches and ignores matches of generations before the given one from now on.
+   */
+  synchronized void clear(long generation) {
+    this.generation = Math.max(this.generation, generation);
+    index.clear();
+    slots.clear();
+    position = 0;
+  }
+
+  /**
+   * Removes the oldest slots overlapping the given range, which are always the first ones.
+   */
+  private void release(int start, int end) {
+    while (!slots.isEmpty() && slots.peekFirst().offset < end
+           && start < slots.peekFirst().offset + slots.peekFirst().length) {
+      Slot slot = slots.removeFirst();
+      if (index.get(slot.key) == slot) {
+        index.remove(slot.key);
+      }
+    }
+  }
+
+  private static byte[] serialize(NameUsageMatch match) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+      ObjectOutputStream out = new ObjectOutputStream(bytes);
+      out.writeObject(match);
+      out.close();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot serialize match " + match, e);
+    }
+  }
+
+  private static NameUsageMatch deserialize(byte[] data) {
+    try {
+      return (NameUsageMatch) new ObjectInputStream(new ByteArrayInputStream(data)).readObject();
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot deserialize match", e);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Cannot deserialize match", e);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package org.gbif.api.util.checklistbank;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lossy buffer of the keys read from a cache, so that readers record their accesses without taking the lock
+ * guarding the eviction policy. The accesses are replayed on the policy in batches by {@link #drainTo(Consumer)}.
+ * <br/>
+ * Threads are spread over several stripes, each a ring of fixed size. Accesses are dropped while the stripe of a
+ * thread is full, which only makes the frequency estimates of the policy a little less exact.
+ * Recording is thread safe, draining must be done by one thread at a time.
+ *
+ * @param <K> the key type
+ */
+class ReadBuffer<K> {
+
+  private static final int STRIPES = Integer.highestOneBit(4 * Runtime.getRuntime().availableProcessors() - 1) << 1;
+  private static final int STRIPE_SIZE = 32;
+  private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+  private final Stripe<K>[] stripes;
+
+  @SuppressWarnings("unchecked")
+  ReadBuffer() {
+    stripes = new Stripe[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe<K>();
+    }
+  }
+
+  /**
+   * Records an access unless the stripe of the current thread is full.
+   *
+   * @return true if the stripe is full and should be drained
+   */
+  boolean record(K key) {
+    Stripe<K> stripe = stripes[stripeIndex()];
+    long tail = stripe.tail.get();
+    long size = tail - stripe.head;
+    if (size < STRIPE_SIZE && stripe.tail.compareAndSet(tail, tail + 1)) {
+      stripe.slots.lazySet((int) tail & STRIPE_MASK, key);
+      return size + 1 >= STRIPE_SIZE;
+    }
+    return size >= STRIPE_SIZE;
+  }
+
+  /**
+   * Passes the recorded accesses to the consumer in the order they were recorded in each stripe.
+   */
+  void drainTo(Consumer<K> consumer) {
+    for (Stripe<K> stripe : stripes) {
+      long head = stripe.head;
+      long tail = stripe.tail.get();
+      while (head < tail) {
+        int index = (int) head & STRIPE_MASK;
+        K key = stripe.slots.get(index);
+        if (key == null) {
+          // claimed, but not written yet
+          break;
+        }
+        stripe.slots.lazySet(index, null);
+        consumer.accept(key);
+        head++;
+      }
+      stripe.head = head;
+    }
+  }
+
+  private static int stripeIndex() {
+    long id = Thread.currentThread().getId();
+    int hash = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+    return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+  }
+
+  private static class Stripe<K> {
+    private final AtomicReferenceArray<K> slots = new AtomicReferenceArray<K>(STRIPE_SIZE);
+    private final AtomicLong tail = new AtomicLong();
+    // only written while draining
+    private volatile long head;
+  }
+}
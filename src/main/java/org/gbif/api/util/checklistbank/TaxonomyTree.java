@@ -0,0 +1,585 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.util.ClassificationUtils;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.TaxonomicStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The parent child hierarchy and synonymy of a checklist, held in primitive int arrays for classification lookups
+ * without calls to the checklistbank services.
+ * <br/>
+ * Usages are ordered by their key and refer to their parent, accepted usage, first child and next sibling by their
+ * position. Accepted usages are numbered in the order of a depth first traversal, so that all descendants of a usage
+ * follow it in a single range of that order. Besides keys, ranks and taxonomic status only the scientific and
+ * canonical names are kept.
+ * <br/>
+ * A tree can be written to a file with {@link #write(File)} and mapped into memory with {@link #open(File)},
+ * which reads nothing up front. Ranks and taxonomic status are kept as ordinals, so the file also holds the names of
+ * all constants of both vocabularies and files written with different vocabularies are rejected.
+ * Trees are immutable and can be used by many threads.
+ */
+@ThreadSafe
+public class TaxonomyTree {
+
+  private static final int MAGIC = 0x47425454;
+  private static final int VERSION = 2;
+  private static final int HEADER_BYTES = 16;
+  private static final Rank[] RANKS = Rank.values();
+  private static final TaxonomicStatus[] STATUSES = TaxonomicStatus.values();
+
+  private final int size;
+  private final IntBuffer keys;
+  // positions of the related usages, -1 for none
+  private final IntBuffer parents;
+  private final IntBuffer accepted;
+  private final IntBuffer firstChild;
+  private final IntBuffer nextSibling;
+  private final IntBuffer firstSynonym;
+  private final IntBuffer nextSynonym;
+  // ordinals, -1 for none
+  private final IntBuffer ranks;
+  private final IntBuffer statuses;
+  // the depth first order of a usage and the end of its descendants in that order, -1 for synonyms
+  private final IntBuffer enter;
+  private final IntBuffer exit;
+  // the usages in depth first order
+  private final IntBuffer order;
+  // the scientific and canonical name of usage i are the bytes from offsets 2i to 2i+1 and 2i+1 to 2i+2
+  private final IntBuffer nameOffsets;
+  private final ByteBuffer names;
+
+  private TaxonomyTree(int size, IntBuffer keys, IntBuffer parents, IntBuffer accepted, IntBuffer firstChild,
+    IntBuffer nextSibling, IntBuffer firstSynonym, IntBuffer nextSynonym, IntBuffer ranks, IntBuffer statuses,
+    IntBuffer enter, IntBuffer exit, IntBuffer order, IntBuffer nameOffsets, ByteBuffer names) {
+    this.size = size;
+    this.keys = keys;
+    this.parents = parents;
+    this.accepted = accepted;
+    this.firstChild = firstChild;
+    this.nextSibling = nextSibling;
+    this.firstSynonym = firstSynonym;
+    this.nextSynonym = nextSynonym;
+    this.ranks = ranks;
+    this.statuses = statuses;
+    this.enter = enter;
+    this.exit = exit;
+    this.order = order;
+    this.nameOffsets = nameOffsets;
+    this.names = names;
+  }
+
+  /**
+   * Builds a tree from the usages of a checklist in any order.
+   * Parent and accepted keys of usages not given are ignored.
+   * Usages with an accepted key or a synonym status are synonyms, all others are accepted. Synonyms keep their
+   * parent but are no children of it.
+   * Usages that are not reachable from a root through their parents, e.g. because of cycles, keep their parents
+   * but have no descendants.
+   *
+   * @throws IllegalArgumentException if a usage has no key or a key is used twice
+   */
+  public static TaxonomyTree build(Iterator<? extends NameUsage> usages) {
+    int n = 0;
+    int[] keys = new int[1024];
+    int[] parentKeys = new int[1024];
+    int[] acceptedKeys = new int[1024];
+    int[] ranks = new int[1024];
+    int[] statuses = new int[1024];
+    int[] nameOffsets = new int[2048];
+    ByteArrayOutputStream nameBytes = new ByteArrayOutputStream();
+    while (usages.hasNext()) {
+      NameUsage u = usages.next();
+      Preconditions.checkArgument(u.getKey() != null, "Usage without key: %s", u);
+      if (n == keys.length) {
+        keys = Arrays.copyOf(keys, n * 2);
+        parentKeys = Arrays.copyOf(parentKeys, n * 2);
+        acceptedKeys = Arrays.copyOf(acceptedKeys, n * 2);
+        ranks = Arrays.copyOf(ranks, n * 2);
+        statuses = Arrays.copyOf(statuses, n * 2);
+        nameOffsets = Arrays.copyOf(nameOffsets, n * 4);
+      }
+      keys[n] = u.getKey();
+      // a usage is never its own parent or accepted usage, so the own key stands for none
+      parentKeys[n] = u.getParentKey() == null ? u.getKey() : u.getParentKey();
+      acceptedKeys[n] = u.getAcceptedKey() == null ? u.getKey() : u.getAcceptedKey();
+      ranks[n] = u.getRank() == null ? -1 : u.getRank().ordinal();
+      statuses[n] = u.getTaxonomicStatus() == null ? -1 : u.getTaxonomicStatus().ordinal();
+      nameOffsets[2 * n] = nameBytes.size();
+      writeName(nameBytes, u.getScientificName());
+      nameOffsets[2 * n + 1] = nameBytes.size();
+      writeName(nameBytes, u.getCanonicalName());
+      n++;
+    }
+    byte[] unsortedNames = nameBytes.toByteArray();
+
+    // order by key, keeping the original position in the lower bits
+    long[] sorted = new long[n];
+    for (int i = 0; i < n; i++) {
+      sorted[i] = (long) keys[i] << 32 | i;
+    }
+    Arrays.sort(sorted);
+    int[] sortedKeys = new int[n];
+    for (int i = 0; i < n; i++) {
+      sortedKeys[i] = (int) (sorted[i] >> 32);
+      Preconditions.checkArgument(i == 0 || sortedKeys[i] != sortedKeys[i - 1], "Duplicate usage key %s",
+        sortedKeys[i]);
+    }
+
+    int[] parents = new int[n];
+    int[] accepted = new int[n];
+    int[] sortedRanks = new int[n];
+    int[] sortedStatuses = new int[n];
+    int[] sortedOffsets = new int[2 * n + 1];
+    byte[] names = new byte[unsortedNames.length];
+    int pos = 0;
+    for (int i = 0; i < n; i++) {
+      int j = (int) sorted[i];
+      parents[i] = position(sortedKeys, parentKeys[j], i);
+      accepted[i] = position(sortedKeys, acceptedKeys[j], i);
+      sortedRanks[i] = ranks[j];
+      sortedStatuses[i] = statuses[j];
+      int end = j + 1 < n ? nameOffsets[2 * j + 2] : unsortedNames.length;
+      System.arraycopy(unsortedNames, nameOffsets[2 * j], names, pos, end - nameOffsets[2 * j]);
+      sortedOffsets[2 * i] = pos;
+      sortedOffsets[2 * i + 1] = pos + nameOffsets[2 * j + 1] - nameOffsets[2 * j];
+      pos += end - nameOffsets[2 * j];
+    }
+    sortedOffsets[2 * n] = pos;
+
+    // link children and synonyms in the order of their keys, and collect the roots
+    int[] firstChild = new int[n];
+    int[] nextSibling = new int[n];
+    int[] firstSynonym = new int[n];
+    int[] nextSynonym = new int[n];
+    Arrays.fill(firstChild, -1);
+    Arrays.fill(nextSibling, -1);
+    Arrays.fill(firstSynonym, -1);
+    Arrays.fill(nextSynonym, -1);
+    int firstRoot = -1;
+    for (int i = n - 1; i >= 0; i--) {
+      if (isSynonym(accepted[i], sortedStatuses[i])) {
+        if (accepted[i] >= 0) {
+          nextSynonym[i] = firstSynonym[accepted[i]];
+          firstSynonym[accepted[i]] = i;
+        }
+      } else if (parents[i] >= 0) {
+        nextSibling[i] = firstChild[parents[i]];
+        firstChild[parents[i]] = i;
+      } else {
+        nextSibling[i] = firstRoot;
+        firstRoot = i;
+      }
+    }
+
+    // number the accepted usages depth first
+    int[] enter = new int[n];
+    int[] exit = new int[n];
+    int[] order = new int[n];
+    Arrays.fill(enter, -1);
+    Arrays.fill(exit, -1);
+    int count = 0;
+    int node = firstRoot;
+    while (node >= 0) {
+      enter[node] = count;
+      order[count++] = node;
+      if (firstChild[node] >= 0) {
+        node = firstChild[node];
+      } else {
+        while (node >= 0 && nextSibling[node] < 0) {
+          exit[node] = count;
+          node = parents[node];
+        }
+        if (node >= 0) {
+          exit[node] = count;
+          node = nextSibling[node];
+        }
+      }
+    }
+
+    return new TaxonomyTree(n, IntBuffer.wrap(sortedKeys), IntBuffer.wrap(parents), IntBuffer.wrap(accepted),
+      IntBuffer.wrap(firstChild), IntBuffer.wrap(nextSibling), IntBuffer.wrap(firstSynonym),
+      IntBuffer.wrap(nextSynonym), IntBuffer.wrap(sortedRanks), IntBuffer.wrap(sortedStatuses), IntBuffer.wrap(enter),
+      IntBuffer.wrap(exit), IntBuffer.wrap(Arrays.copyOf(order, count)), IntBuffer.wrap(sortedOffsets),
+      ByteBuffer.wrap(names, 0, pos).slice());
+  }
+
+  /**
+   * Builds a tree from the usages of a checklist in any order, see {@link #build(Iterator)}.
+   */
+  public static TaxonomyTree build(Iterable<? extends NameUsage> usages) {
+    return build(usages.iterator());
+  }
+
+  private static void writeName(ByteArrayOutputStream out, @Nullable String name) {
+    if (name != null) {
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      out.write(bytes, 0, bytes.length);
+    }
+  }
+
+  private static int position(int[] keys, int key, int self) {
+    int i = Arrays.binarySearch(keys, key);
+    return i < 0 || i == self ? -1 : i;
+  }
+
+  private static boolean isSynonym(int accepted, int status) {
+    return accepted >= 0 || status >= 0 && STATUSES[status].isSynonym();
+  }
+
+  /**
+   * Maps a tree written by {@link #write(File)} into memory. The file must not be modified while the tree is used.
+   *
+   * @throws IllegalArgumentException if the file is no tree or larger than 2GB
+   */
+  public static TaxonomyTree open(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    ByteBuffer buffer;
+    try {
+      Preconditions.checkArgument(raf.length() <= Integer.MAX_VALUE, "File too large: %s", file);
+      buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+    } finally {
+      raf.close();
+    }
+    Preconditions.checkArgument(buffer.capacity() >= HEADER_BYTES && buffer.getInt(0) == MAGIC,
+      "Not a taxonomy tree: %s", file);
+    Preconditions.checkArgument(buffer.getInt(4) == VERSION, "Unsupported taxonomy tree version %s",
+      buffer.getInt(4));
+    int n = buffer.getInt(8);
+    int ordered = buffer.getInt(12);
+    int pos = checkVocabulary(buffer, HEADER_BYTES, RANKS, file);
+    pos = checkVocabulary(buffer, pos, STATUSES, file);
+    IntBuffer[] arrays = new IntBuffer[11];
+    for (int i = 0; i < arrays.length; i++) {
+      arrays[i] = ints(buffer, pos, n);
+      pos += 4 * n;
+    }
+    IntBuffer order = ints(buffer, pos, ordered);
+    pos += 4 * ordered;
+    IntBuffer nameOffsets = ints(buffer, pos, 2 * n + 1);
+    pos += 4 * (2 * n + 1);
+    Preconditions.checkArgument(pos + nameOffsets.get(2 * n) == buffer.capacity(), "Truncated taxonomy tree: %s",
+      file);
+    return new TaxonomyTree(n, arrays[0], arrays[1], arrays[2], arrays[3], arrays[4], arrays[5], arrays[6],
+      arrays[7], arrays[8], arrays[9], arrays[10], order, nameOffsets, slice(buffer, pos, buffer.capacity() - pos));
+  }
+
+  /**
+   * Verifies that the names of the constants written at the offset are the ones of the given vocabulary.
+   *
+   * @return the offset following the names
+   * @throws IllegalArgumentException if the constants differ
+   */
+  private static int checkVocabulary(ByteBuffer buffer, int offset, Enum<?>[] values, File file) {
+    String type = values.getClass().getComponentType().getSimpleName();
+    IntBuffer header = ints(buffer, offset, 2);
+    int count = header.get(0);
+    int length = header.get(1);
+    Preconditions.checkArgument(length >= 0 && offset + 8L + length <= buffer.capacity(), "Truncated taxonomy tree");
+    byte[] bytes = new byte[length];
+    ByteBuffer names = slice(buffer, offset + 8, length);
+    names.get(bytes);
+    Preconditions.checkArgument(count == values.length && new String(bytes, StandardCharsets.UTF_8).equals(
+      vocabulary(values)), "Taxonomy tree %s was written with a different %s vocabulary", file, type);
+    // names are padded to keep the following ints aligned
+    return offset + 8 + (length + 3 & ~3);
+  }
+
+  /**
+   * @return the names of all constants in the order of their ordinals, separated by commas
+   */
+  private static String vocabulary(Enum<?>[] values) {
+    StringBuilder sb = new StringBuilder();
+    for (Enum<?> value : values) {
+      if (sb.length() > 0) {
+        sb.append(',');
+      }
+      sb.append(value.name());
+    }
+    return sb.toString();
+  }
+
+  private static void writeVocabulary(DataOutputStream out, Enum<?>[] values) throws IOException {
+    byte[] names = vocabulary(values).getBytes(StandardCharsets.UTF_8);
+    out.writeInt(values.length);
+    out.writeInt(names.length);
+    out.write(names);
+    out.write(new byte[-names.length & 3]);
+  }
+
+  private static IntBuffer ints(ByteBuffer buffer, int offset, int length) {
+    Preconditions.checkArgument(offset + 4L * length <= buffer.capacity(), "Truncated taxonomy tree");
+    return slice(buffer, offset, 4 * length).asIntBuffer();
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+    ByteBuffer b = buffer.duplicate();
+    b.position(offset);
+    b.limit(offset + length);
+    return b.slice();
+  }
+
+  /**
+   * Writes the tree to a file for {@link #open(File)}.
+   */
+  public void write(File file) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(size);
+      out.writeInt(order.limit());
+      writeVocabulary(out, RANKS);
+      writeVocabulary(out, STATUSES);
+      for (IntBuffer ints : new IntBuffer[] {keys, parents, accepted, firstChild, nextSibling, firstSynonym,
+        nextSynonym, ranks, statuses, enter, exit, order, nameOffsets}) {
+        for (int i = 0; i < ints.limit(); i++) {
+          out.writeInt(ints.get(i));
+        }
+      }
+      for (int i = 0; i < names.limit(); i++) {
+        out.write(names.get(i));
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * @return the number of usages in the tree
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean contains(int key) {
+    return index(key) >= 0;
+  }
+
+  /**
+   * @return the parent key or null if the usage is a root or not in the tree
+   */
+  @Nullable
+  public Integer getParentKey(int key) {
+    int i = index(key);
+    return i < 0 || parents.get(i) < 0 ? null : keys.get(parents.get(i));
+  }
+
+  /**
+   * @return the accepted key of a synonym or null if the usage is accepted or not in the tree
+   */
+  @Nullable
+  public Integer getAcceptedKey(int key) {
+    int i = index(key);
+    return i < 0 || accepted.get(i) < 0 ? null : keys.get(accepted.get(i));
+  }
+
+  @Nullable
+  public Rank getRank(int key) {
+    int i = index(key);
+    return i < 0 || ranks.get(i) < 0 ? null : RANKS[ranks.get(i)];
+  }
+
+  @Nullable
+  public TaxonomicStatus getTaxonomicStatus(int key) {
+    int i = index(key);
+    return i < 0 || statuses.get(i) < 0 ? null : STATUSES[statuses.get(i)];
+  }
+
+  @Nullable
+  public String getScientificName(int key) {
+    int i = index(key);
+    return i < 0 ? null : name(2 * i);
+  }
+
+  @Nullable
+  public String getCanonicalName(int key) {
+    int i = index(key);
+    return i < 0 ? null : name(2 * i + 1);
+  }
+
+  /**
+   * @return the keys of all parents with the root first and the direct parent last,
+   *   empty for roots and unknown usages
+   */
+  public int[] getAncestors(int key) {
+    int i = index(key);
+    if (i < 0) {
+      return new int[0];
+    }
+    int[] ancestors = new int[16];
+    int n = 0;
+    for (int p = parents.get(i); p >= 0; p = parents.get(p)) {
+      // parents of usages not reachable from a root may form a cycle
+      if (enter.get(p) < 0 && (p == i || indexOf(ancestors, n, keys.get(p)) >= 0)) {
+        break;
+      }
+      if (n == ancestors.length) {
+        ancestors = Arrays.copyOf(ancestors, n * 2);
+      }
+      ancestors[n++] = keys.get(p);
+    }
+    int[] result = new int[n];
+    for (int j = 0; j < n; j++) {
+      result[j] = ancestors[n - 1 - j];
+    }
+    return result;
+  }
+
+  /**
+   * @return the keys of the accepted children ordered by key, empty for unknown usages
+   */
+  public int[] getChildren(int key) {
+    int i = index(key);
+    return i < 0 ? new int[0] : chain(firstChild, nextSibling, i);
+  }
+
+  /**
+   * @return the keys of the synonyms of an accepted usage ordered by key, empty for synonyms and unknown usages
+   */
+  public int[] getSynonyms(int key) {
+    int i = index(key);
+    return i < 0 ? new int[0] : chain(firstSynonym, nextSynonym, i);
+  }
+
+  /**
+   * @return the keys of all accepted descendants in depth first order, empty for synonyms and unknown usages
+   */
+  public int[] getDescendants(int key) {
+    int i = index(key);
+    if (i < 0 || enter.get(i) < 0) {
+      return new int[0];
+    }
+    int from = enter.get(i) + 1;
+    int[] result = new int[exit.get(i) - from];
+    for (int j = 0; j < result.length; j++) {
+      result[j] = keys.get(order.get(from + j));
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of accepted descendants, 0 for synonyms and unknown usages
+   */
+  public int countDescendants(int key) {
+    int i = index(key);
+    return i < 0 || enter.get(i) < 0 ? 0 : exit.get(i) - enter.get(i) - 1;
+  }
+
+  /**
+   * @return true if the usage is an accepted descendant of the ancestor, false for the ancestor itself
+   */
+  public boolean isDescendant(int ancestorKey, int key) {
+    int a = index(ancestorKey);
+    int i = index(key);
+    return a >= 0 && i >= 0 && enter.get(a) >= 0 && enter.get(i) > enter.get(a) && enter.get(i) < exit.get(a);
+  }
+
+  /**
+   * Creates a name usage with the key, names, rank, taxonomic status, parent and accepted usage,
+   * the number of descendants and the Linnean classification of the accepted usage as found in the tree.
+   *
+   * @return the usage or null if not in the tree
+   */
+  @Nullable
+  public NameUsage getUsage(int key) {
+    int i = index(key);
+    if (i < 0) {
+      return null;
+    }
+    NameUsage u = new NameUsage();
+    u.setKey(key);
+    u.setScientificName(name(2 * i));
+    u.setCanonicalName(name(2 * i + 1));
+    u.setRank(ranks.get(i) < 0 ? null : RANKS[ranks.get(i)]);
+    u.setTaxonomicStatus(statuses.get(i) < 0 ? null : STATUSES[statuses.get(i)]);
+    if (parents.get(i) >= 0) {
+      u.setParentKey(keys.get(parents.get(i)));
+      u.setParent(name(2 * parents.get(i) + 1));
+    }
+    if (accepted.get(i) >= 0) {
+      u.setAcceptedKey(keys.get(accepted.get(i)));
+      u.setAccepted(name(2 * accepted.get(i)));
+    }
+    u.setNumDescendants(enter.get(i) < 0 ? 0 : exit.get(i) - enter.get(i) - 1);
+    int node = accepted.get(i) >= 0 ? accepted.get(i) : i;
+    for (int depth = 0; node >= 0 && depth < size; depth++, node = parents.get(node)) {
+      Rank rank = ranks.get(node) < 0 ? null : RANKS[ranks.get(node)];
+      if (rank != null && ClassificationUtils.getHigherRankKey(u, rank) == null) {
+        ClassificationUtils.setHigherRank(u, rank, name(2 * node + 1), keys.get(node));
+      }
+    }
+    return u;
+  }
+
+  private static int indexOf(int[] values, int length, int value) {
+    for (int i = 0; i < length; i++) {
+      if (values[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int[] chain(IntBuffer first, IntBuffer next, int i) {
+    int n = 0;
+    for (int c = first.get(i); c >= 0; c = next.get(c)) {
+      n++;
+    }
+    int[] result = new int[n];
+    n = 0;
+    for (int c = first.get(i); c >= 0; c = next.get(c)) {
+      result[n++] = keys.get(c);
+    }
+    return result;
+  }
+
+  @Nullable
+  private String name(int offset) {
+    int from = nameOffsets.get(offset);
+    int length = nameOffsets.get(offset + 1) - from;
+    if (length == 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    ByteBuffer b = names.duplicate();
+    b.position(from);
+    b.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private int index(int key) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int k = keys.get(mid);
+      if (k < key) {
+        low = mid + 1;
+      } else if (k > key) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,131 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.model.checklistbank.NameUsageMetrics;
+import org.gbif.api.model.checklistbank.ParsedName;
+import org.gbif.api.model.checklistbank.VerbatimNameUsage;
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.service.checklistbank.NameUsageService;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+/**
+ * A {@link NameUsageService} answering {@link #listParents}, {@link #listChildren} and {@link #listSynonyms} from a
+ * {@link TaxonomyTree} and passing all other calls, and the ones for usages not in the tree, to the wrapped service.
+ * <br/>
+ * The usages listed from the tree are created by {@link TaxonomyTree#getUsage(int)} and only contain what the tree
+ * keeps: keys, names, rank, taxonomic status, the number of descendants and the classification.
+ * Vernacular names are never included.
+ */
+@ThreadSafe
+public class TaxonomyTreeNameUsageService implements NameUsageService {
+
+  private final TaxonomyTree tree;
+  private final NameUsageService service;
+
+  public TaxonomyTreeNameUsageService(TaxonomyTree tree, NameUsageService service) {
+    this.tree = Preconditions.checkNotNull(tree, "tree can't be null");
+    this.service = Preconditions.checkNotNull(service, "service can't be null");
+  }
+
+  @Nullable
+  @Override
+  public NameUsage get(int taxonKey, @Nullable Locale locale) {
+    return service.get(taxonKey, locale);
+  }
+
+  @Nullable
+  @Override
+  public ParsedName getParsedName(int taxonKey) {
+    return service.getParsedName(taxonKey);
+  }
+
+  @Nullable
+  @Override
+  public NameUsageMetrics getMetrics(int taxonKey) {
+    return service.getMetrics(taxonKey);
+  }
+
+  @Nullable
+  @Override
+  public VerbatimNameUsage getVerbatim(int taxonKey) {
+    return service.getVerbatim(taxonKey);
+  }
+
+  @Override
+  public PagingResponse<NameUsage> list(Locale locale, @Nullable UUID datasetKey, @Nullable String sourceId,
+    @Nullable Pageable page) {
+    return service.list(locale, datasetKey, sourceId, page);
+  }
+
+  @Override
+  public PagingResponse<NameUsage> listByCanonicalName(Locale locale, String canonicalName, @Nullable Pageable page,
+    @Nullable UUID... datasetKey) {
+    return service.listByCanonicalName(locale, canonicalName, page, datasetKey);
+  }
+
+  @Override
+  public PagingResponse<NameUsage> listChildren(int parentKey, Locale locale, @Nullable Pageable page) {
+    if (!tree.contains(parentKey)) {
+      return service.listChildren(parentKey, locale, page);
+    }
+    return page(tree.getChildren(parentKey), page);
+  }
+
+  @Override
+  public List<NameUsage> listParents(int taxonKey, Locale locale) {
+    if (!tree.contains(taxonKey)) {
+      return service.listParents(taxonKey, locale);
+    }
+    int[] keys = tree.getAncestors(taxonKey);
+    List<NameUsage> parents = Lists.newArrayListWithCapacity(keys.length);
+    for (int key : keys) {
+      parents.add(tree.getUsage(key));
+    }
+    return parents;
+  }
+
+  @Override
+  public PagingResponse<NameUsage> listRelated(int taxonKey, Locale locale, @Nullable Pageable page,
+    @Nullable UUID... datasetKey) {
+    return service.listRelated(taxonKey, locale, page, datasetKey);
+  }
+
+  @Override
+  public PagingResponse<NameUsage> listRoot(UUID datasetKey, Locale locale, @Nullable Pageable page) {
+    return service.listRoot(datasetKey, locale, page);
+  }
+
+  @Override
+  public PagingResponse<NameUsage> listSynonyms(int taxonKey, Locale locale, @Nullable Pageable page) {
+    if (!tree.contains(taxonKey)) {
+      return service.listSynonyms(taxonKey, locale, page);
+    }
+    return page(tree.getSynonyms(taxonKey), page);
+  }
+
+  @Override
+  public List<NameUsage> listCombinations(int basionymKey, Locale locale) {
+    return service.listCombinations(basionymKey, locale);
+  }
+
+  private PagingResponse<NameUsage> page(int[] keys, @Nullable Pageable page) {
+    if (page == null) {
+      page = new PagingRequest();
+    }
+    List<NameUsage> results = Lists.newArrayList();
+    for (long i = page.getOffset(); i < keys.length && results.size() < page.getLimit(); i++) {
+      results.add(tree.getUsage(keys[(int) i]));
+    }
+    return new PagingResponse<NameUsage>(page, (long) keys.length, results);
+  }
+}
@@ -0,0 +1,131 @@
+package org.gbif.api.util.checklistbank;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A size bounded cache with the W-TinyLFU eviction policy, which keeps frequently used entries even if they have
+ * not been used for a while, so that a scan over many rare keys does not flush the popular ones.
+ * <br/>
+ * New entries enter a small LRU window. Entries leaving the window only replace the least recently used entry of
+ * the main space if they have been used more often recently, as estimated by a {@link FrequencySketch}.
+ * The main space is a segmented LRU with a probation segment for entries used once and a protected segment for
+ * entries used again.
+ * Not thread safe.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+class TinyLfuCache<K, V> {
+
+  private final int windowSize;
+  private final int mainSize;
+  private final int protectedSize;
+  private final FrequencySketch sketch;
+  // access ordered, eldest first
+  private final LinkedHashMap<K, V> window = new LinkedHashMap<K, V>(16, 0.75f, true);
+  private final LinkedHashMap<K, V> probation = new LinkedHashMap<K, V>(16, 0.75f, true);
+  private final LinkedHashMap<K, V> protectd = new LinkedHashMap<K, V>(16, 0.75f, true);
+
+  TinyLfuCache(int maximumSize) {
+    Preconditions.checkArgument(maximumSize > 0, "maximumSize must be positive");
+    windowSize = Math.max(1, maximumSize / 100);
+    mainSize = maximumSize - windowSize;
+    protectedSize = (int) (mainSize * 0.8);
+    sketch = new FrequencySketch(maximumSize);
+  }
+
+  /**
+   * Gets a cached value and records the access for both hits and misses.
+   */
+  @Nullable
+  V get(K key) {
+    sketch.increment(key);
+    V value = window.get(key);
+    if (value != null) {
+      return value;
+    }
+    value = protectd.get(key);
+    if (value != null) {
+      return value;
+    }
+    value = probation.remove(key);
+    if (value != null) {
+      // used again, so promote it
+      protectd.put(key, value);
+      if (protectd.size() > protectedSize) {
+        Map.Entry<K, V> demoted = removeEldest(protectd);
+        probation.put(demoted.getKey(), demoted.getValue());
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Adds or replaces a value.
+   *
+   * @return the entry evicted to make space, which can be the added entry itself, or null if none was evicted
+   */
+  @Nullable
+  Map.Entry<K, V> put(K key, V value) {
+    Preconditions.checkNotNull(value);
+    if (window.containsKey(key)) {
+      window.put(key, value);
+      return null;
+    }
+    if (protectd.containsKey(key)) {
+      protectd.put(key, value);
+      return null;
+    }
+    if (probation.containsKey(key)) {
+      probation.put(key, value);
+      return null;
+    }
+    window.put(key, value);
+    if (window.size() <= windowSize) {
+      return null;
+    }
+    Map.Entry<K, V> candidate = removeEldest(window);
+    if (probation.size() + protectd.size() < mainSize) {
+      probation.put(candidate.getKey(), candidate.getValue());
+      return null;
+    }
+    if (mainSize == 0) {
+      return candidate;
+    }
+    LinkedHashMap<K, V> segment = probation.isEmpty() ? protectd : probation;
+    K victim = segment.keySet().iterator().next();
+    if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim)) {
+      probation.put(candidate.getKey(), candidate.getValue());
+      return new AbstractMap.SimpleImmutableEntry<K, V>(victim, segment.remove(victim));
+    }
+    return candidate;
+  }
+
+  int size() {
+    return window.size() + probation.size() + protectd.size();
+  }
+
+  /**
+   * Removes all entries and forgets their frequencies.
+   */
+  void clear() {
+    window.clear();
+    probation.clear();
+    protectd.clear();
+    sketch.clear();
+  }
+
+  private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> map) {
+    Iterator<Map.Entry<K, V>> iter = map.entrySet().iterator();
+    Map.Entry<K, V> eldest = iter.next();
+    Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<K, V>(eldest.getKey(), eldest.getValue());
+    iter.remove();
+    return entry;
+  }
+}
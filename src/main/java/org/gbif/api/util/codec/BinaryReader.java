@@ -0,0 +1,167 @@
+package org.gbif.api.util.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the values written by a {@link BinaryWriter} from a byte array.
+ * Reading beyond the end of the array or of a nested value fails with an {@link IllegalArgumentException}.
+ */
+class BinaryReader {
+
+  private final byte[] buf;
+  private int pos;
+  private int limit;
+
+  BinaryReader(byte[] buf) {
+    this.buf = buf;
+    limit = buf.length;
+  }
+
+  boolean hasMore() {
+    return pos < limit;
+  }
+
+  int readByte() {
+    require(1);
+    return buf[pos++] & 0xFF;
+  }
+
+  long readVarint() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint at position " + pos);
+  }
+
+  int readInt() {
+    long value = readVarint();
+    if (value < 0 || value > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Value " + value + " out of range at position " + pos);
+    }
+    return (int) value;
+  }
+
+  long readSignedVarint() {
+    long value = readVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  int readSignedInt() {
+    return (int) readSignedVarint();
+  }
+
+  long readFixed64() {
+    require(8);
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value |= (buf[pos++] & 0xFFL) << (8 * i);
+    }
+    return value;
+  }
+
+  double readDouble() {
+    return Double.longBitsToDouble(readFixed64());
+  }
+
+  String readString() {
+    int length = readInt();
+    require(length);
+    String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+    pos += length;
+    return value;
+  }
+
+  UUID readUuid() {
+    if (readInt() != 16) {
+      throw new IllegalArgumentException("Malformed UUID at position " + pos);
+    }
+    return new UUID(readFixed64(), readFixed64());
+  }
+
+  @Nullable
+  String readNullableString() {
+    return readInt() == 0 ? null : readString();
+  }
+
+  /**
+   * Reads a constant written by {@link BinaryWriter#writeEnumField(int, StableIds, Enum)}.
+   *
+   * @return the constant or null if it is unknown to this version of the vocabulary
+   */
+  @Nullable
+  <E extends Enum<E>> E readEnumField(StableIds<E> ids, int wireType) {
+    switch (wireType) {
+      case BinaryWriter.VARINT:
+        return ids.constant(readInt());
+      case BinaryWriter.BYTES:
+        return ids.constant(readString());
+      default:
+        throw new IllegalArgumentException("Unexpected wire type " + wireType + " of a "
+                                           + ids.type().getSimpleName() + " at position " + pos);
+    }
+  }
+
+  /**
+   * Reads a constant written by {@link BinaryWriter#writeEnum(StableIds, Enum)}.
+   *
+   * @return the constant or null if it is unknown to this version of the vocabulary
+   */
+  @Nullable
+  <E extends Enum<E>> E readEnum(StableIds<E> ids) {
+    int id = readInt();
+    return id == 0 ? ids.constant(readString()) : ids.constant(id);
+  }
+
+  /**
+   * Limits reading to a nested length delimited value.
+   *
+   * @return the previous limit to pass to {@link #popLimit(int)}
+   */
+  int pushLimit() {
+    int length = readInt();
+    require(length);
+    int previous = limit;
+    limit = pos + length;
+    return previous;
+  }
+
+  void popLimit(int previous) {
+    pos = limit;
+    limit = previous;
+  }
+
+  /**
+   * Skips the value of a field not known to this version of the format.
+   */
+  void skip(int wireType) {
+    switch (wireType) {
+      case BinaryWriter.VARINT:
+        readVarint();
+        break;
+      case BinaryWriter.FIXED64:
+        require(8);
+        pos += 8;
+        break;
+      case BinaryWriter.BYTES:
+        int length = readInt();
+        require(length);
+        pos += length;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown wire type " + wireType + " at position " + pos);
+    }
+  }
+
+  private void require(int bytes) {
+    if (bytes > limit - pos) {
+      throw new IllegalArgumentException("Unexpected end of data at position " + pos);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package org.gbif.api.util.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Appends tagged fields to a growing byte array, see {@link OccurrenceCodec} for the format.
+ */
+class BinaryWriter {
+
+  static final int VARINT = 0;
+  static final int FIXED64 = 1;
+  static final int BYTES = 2;
+
+  private byte[] buf;
+  private int pos;
+
+  BinaryWriter(int capacity) {
+    buf = new byte[capacity];
+  }
+
+  byte[] toByteArray() {
+    return Arrays.copyOf(buf, pos);
+  }
+
+  int position() {
+    return pos;
+  }
+
+  void writeByte(int b) {
+    ensure(1);
+    buf[pos++] = (byte) b;
+  }
+
+  void writeVarint(long value) {
+    ensure(10);
+    while ((value & ~0x7FL) != 0) {
+      buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buf[pos++] = (byte) value;
+  }
+
+  /**
+   * Writes a signed value with zig zag encoding, so that small negative values stay short.
+   */
+  void writeSignedVarint(long value) {
+    writeVarint((value << 1) ^ (value >> 63));
+  }
+
+  void writeFixed64(long value) {
+    ensure(8);
+    for (int i = 0; i < 8; i++) {
+      buf[pos++] = (byte) (value >>> (8 * i));
+    }
+  }
+
+  void writeTag(int field, int wireType) {
+    writeVarint((field << 3) | wireType);
+  }
+
+  /**
+   * Writes the length of a string followed by its UTF-8 bytes.
+   */
+  void writeString(String value) {
+    int length = value.length();
+    boolean ascii = true;
+    for (int i = 0; i < length && ascii; i++) {
+      ascii = value.charAt(i) < 0x80;
+    }
+    if (ascii) {
+      writeVarint(length);
+      ensure(length);
+      for (int i = 0; i < length; i++) {
+        buf[pos++] = (byte) value.charAt(i);
+      }
+    } else {
+      writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Writes 0 for null, or 1 followed by the string.
+   */
+  void writeNullableString(String value) {
+    if (value == null) {
+      writeVarint(0);
+    } else {
+      writeVarint(1);
+      writeString(value);
+    }
+  }
+
+  void writeBytes(byte[] value) {
+    writeVarint(value.length);
+    ensure(value.length);
+    System.arraycopy(value, 0, buf, pos, value.length);
+    pos += value.length;
+  }
+
+  /**
+   * Starts a length delimited field whose length is only known once its content has been written.
+   * A single byte is reserved for the length, which is enough for most nested values.
+   *
+   * @return the start position to pass to {@link #endLength(int)}
+   */
+  int startLength() {
+    writeByte(0);
+    return pos;
+  }
+
+  void endLength(int start) {
+    int length = pos - start;
+    int size = varintSize(length);
+    if (size > 1) {
+      ensure(size - 1);
+      System.arraycopy(buf, start, buf, start + size - 1, length);
+      pos += size - 1;
+    }
+    int p = start - 1;
+    long value = length;
+    while ((value & ~0x7FL) != 0) {
+      buf[p++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buf[p] = (byte) value;
+  }
+
+  void writeStringField(int field, String value) {
+    if (value != null) {
+      writeTag(field, BYTES);
+      writeString(value);
+    }
+  }
+
+  void writeIntField(int field, Integer value) {
+    if (value != null) {
+      writeTag(field, VARINT);
+      writeSignedVarint(value);
+    }
+  }
+
+  void writeLongField(int field, long value) {
+    writeTag(field, VARINT);
+    writeSignedVarint(value);
+  }
+
+  void writeDoubleField(int field, Double value) {
+    if (value != null) {
+      writeTag(field, FIXED64);
+      writeFixed64(Double.doubleToRawLongBits(value));
+    }
+  }
+
+  /**
+   * Writes the stable id of the constant, or its name if it has none.
+   */
+  <E extends Enum<E>> void writeEnumField(int field, StableIds<E> ids, E value) {
+    if (value != null) {
+      int id = ids.id(value);
+      if (id > 0) {
+        writeTag(field, VARINT);
+        writeVarint(id);
+      } else {
+        writeTag(field, BYTES);
+        writeString(value.name());
+      }
+    }
+  }
+
+  /**
+   * Writes the stable id of the constant, or 0 followed by its name if it has none.
+   */
+  void writeEnum(StableIds<?> ids, Enum<?> value) {
+    int id = ids.id(value);
+    writeVarint(id);
+    if (id == 0) {
+      writeString(value.name());
+    }
+  }
+
+  void writeUuidField(int field, UUID value) {
+    if (value != null) {
+      writeTag(field, BYTES);
+      writeVarint(16);
+      writeFixed64(value.getMostSignificantBits());
+      writeFixed64(value.getLeastSignificantBits());
+    }
+  }
+
+  private static int varintSize(long value) {
+    int size = 1;
+    while ((value & ~0x7FL) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  private void ensure(int bytes) {
+    if (pos + bytes > buf.length) {
+      buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + bytes));
+    }
+  }
+}
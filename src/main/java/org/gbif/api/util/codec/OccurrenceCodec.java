@@ -0,0 +1,872 @@
+package org.gbif.api.util.codec;
+
+import org.gbif.api.model.common.Identifier;
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.occurrence.FactOrMeasurment;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.OccurrenceRelation;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.terms.TermFactory;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * A compact binary format for occurrences and their parts, much smaller and faster to read and write than JSON.
+ * <br/>
+ * Every encoded value starts with a header of a magic byte, the format version and the kind of value.
+ * The header is followed by the fields that are not null, each prefixed by its field number and wire type in the
+ * style of protocol buffers:
+ * <ul>
+ *   <li>integers and dates as zig zag varints, dates in milliseconds since the epoch</li>
+ *   <li>doubles as 8 little endian bytes</li>
+ *   <li>enumerations as the varint id of their {@link StableIds} table, or by name if they have no id</li>
+ *   <li>strings as the length followed by the UTF-8 bytes, UUIDs as 16 bytes, nested values length delimited</li>
+ * </ul>
+ * Readers skip fields they do not know, so fields can be added without changing the version. Field numbers
+ * must never be reused. Vocabulary constants and terms that are unknown to a reader, e.g. because they were added
+ * to a later version of the vocabulary, are read as null and left out of lists and maps.
+ * <br/>
+ * Values decode to the same objects as their JSON representation: empty and null lists of identifiers, media, facts
+ * and relations are both read as empty lists and verbatim fields that are null or empty are left out.
+ * Decoding malformed data throws an {@link IllegalArgumentException}.
+ */
+public final class OccurrenceCodec {
+
+  static final int MAGIC = 0xB7;
+  static final int VERSION = 1;
+
+  static final int VERBATIM = 1;
+  static final int OCCURRENCE = 2;
+  static final int MEDIA = 3;
+  static final int IDENTIFIER = 4;
+  static final int FACT = 5;
+
+  private static final Map<Class<?>, Integer> TERM_VOCABULARY_INDEX = Maps.newHashMap();
+
+  static {
+    for (StableIds<?> vocabulary : VocabularyIds.TERM_VOCABULARIES) {
+      TERM_VOCABULARY_INDEX.put(vocabulary.type(), TERM_VOCABULARY_INDEX.size() + 1);
+    }
+  }
+
+  private OccurrenceCodec() {
+  }
+
+  public static byte[] encode(Occurrence occ) {
+    BinaryWriter w = header(OCCURRENCE, 1024);
+    writeVerbatim(w, occ);
+    writeOccurrence(w, occ);
+    return w.toByteArray();
+  }
+
+  /**
+   * Encodes the verbatim data only, also for interpreted occurrences.
+   */
+  public static byte[] encodeVerbatim(VerbatimOccurrence verbatim) {
+    BinaryWriter w = header(VERBATIM, 1024);
+    writeVerbatim(w, verbatim);
+    return w.toByteArray();
+  }
+
+  public static byte[] encode(MediaObject media) {
+    BinaryWriter w = header(MEDIA, 256);
+    writeMedia(w, media);
+    return w.toByteArray();
+  }
+
+  public static byte[] encode(Identifier identifier) {
+    BinaryWriter w = header(IDENTIFIER, 64);
+    writeIdentifier(w, identifier);
+    return w.toByteArray();
+  }
+
+  public static byte[] encode(FactOrMeasurment fact) {
+    BinaryWriter w = header(FACT, 128);
+    writeFact(w, fact);
+    return w.toByteArray();
+  }
+
+  public static Occurrence decodeOccurrence(byte[] data) {
+    BinaryReader r = readHeader(data, OCCURRENCE);
+    Occurrence occ = new Occurrence();
+    while (r.hasMore()) {
+      int tag = r.readInt();
+      if (!readVerbatimField(r, tag, occ) && !readOccurrenceField(r, tag, occ)) {
+        r.skip(tag & 7);
+      }
+    }
+    return occ;
+  }
+
+  /**
+   * Decodes verbatim data, also from encoded interpreted occurrences whose interpreted fields are ignored.
+   */
+  public static VerbatimOccurrence decodeVerbatim(byte[] data) {
+    BinaryReader r = readHeader(data, VERBATIM, OCCURRENCE);
+    VerbatimOccurrence verbatim = new VerbatimOccurrence();
+    while (r.hasMore()) {
+      int tag = r.readInt();
+      if (!readVerbatimField(r, tag, verbatim)) {
+        r.skip(tag & 7);
+      }
+    }
+    return verbatim;
+  }
+
+  public static MediaObject decodeMediaObject(byte[] data) {
+    return readMedia(readHeader(data, MEDIA));
+  }
+
+  public static Identifier decodeIdentifier(byte[] data) {
+    return readIdentifier(readHeader(data, IDENTIFIER));
+  }
+
+  public static FactOrMeasurment decodeFactOrMeasurment(byte[] data) {
+    return readFact(readHeader(data, FACT));
+  }
+
+  private static BinaryWriter header(int kind, int capacity) {
+    BinaryWriter w = new BinaryWriter(capacity);
+    w.writeByte(MAGIC);
+    w.writeVarint(VERSION);
+    w.writeVarint(kind);
+    return w;
+  }
+
+  private static BinaryReader readHeader(byte[] data, int... kinds) {
+    BinaryReader r = new BinaryReader(data);
+    if (r.readByte() != MAGIC) {
+      throw new IllegalArgumentException("Not a binary encoded value");
+    }
+    int version = r.readInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported format version " + version);
+    }
+    int kind = r.readInt();
+    boolean expected = false;
+    for (int k : kinds) {
+      expected |= k == kind;
+    }
+    if (!expected) {
+      throw new IllegalArgumentException("Unexpected kind of value " + kind);
+    }
+    return r;
+  }
+
+  private static void writeDate(BinaryWriter w, int field, Date date) {
+    if (date != null) {
+      w.writeLongField(field, date.getTime());
+    }
+  }
+
+  private static void writeUri(BinaryWriter w, int field, URI uri) {
+    if (uri != null) {
+      w.writeStringField(field, uri.toString());
+    }
+  }
+
+  /**
+   * Writes the stable index of the term vocabulary followed by the term as in
+   * {@link BinaryWriter#writeEnum(StableIds, Enum)}, or 0 followed by the qualified name for other terms.
+   */
+  private static void writeTerm(BinaryWriter w, Term term) {
+    Integer vocabulary = TERM_VOCABULARY_INDEX.get(term.getClass());
+    if (vocabulary == null) {
+      w.writeVarint(0);
+      w.writeString(term.qualifiedName());
+    } else {
+      w.writeVarint(vocabulary);
+      w.writeEnum(VocabularyIds.TERM_VOCABULARIES.get(vocabulary - 1), (Enum<?>) term);
+    }
+  }
+
+  /**
+   * @return the term or null if it is unknown to this version of its vocabulary
+   */
+  @Nullable
+  private static Term readTerm(BinaryReader r) {
+    int vocabulary = r.readInt();
+    if (vocabulary == 0) {
+      return TermFactory.instance().findTerm(r.readString());
+    }
+    int id = r.readInt();
+    String name = id == 0 ? r.readString() : null;
+    if (vocabulary > VocabularyIds.TERM_VOCABULARIES.size()) {
+      return null;
+    }
+    StableIds<?> terms = VocabularyIds.TERM_VOCABULARIES.get(vocabulary - 1);
+    return (Term) (name == null ? terms.constant(id) : terms.constant(name));
+  }
+
+  /**
+   * Writes the verbatim fields with a value as the number of fields followed by the term and value of each field.
+   * Fields that are null or empty are left out, as they are when read from JSON.
+   */
+  private static void writeVerbatimFields(BinaryWriter w, Map<Term, String> fields) {
+    int size = 0;
+    for (String value : fields.values()) {
+      if (!Strings.isNullOrEmpty(value)) {
+        size++;
+      }
+    }
+    w.writeVarint(size);
+    for (Map.Entry<Term, String> field : fields.entrySet()) {
+      if (!Strings.isNullOrEmpty(field.getValue())) {
+        writeTerm(w, field.getKey());
+        w.writeString(field.getValue());
+      }
+    }
+  }
+
+  private static void readVerbatimFields(BinaryReader r, VerbatimOccurrence v) {
+    int size = r.readInt();
+    for (int i = 0; i < size; i++) {
+      Term term = readTerm(r);
+      String value = r.readString();
+      if (term != null) {
+        v.setVerbatimField(term, value);
+      }
+    }
+  }
+
+  /**
+   * Writes the rows of an extension as the extension, the terms used by any of the rows and the rows.
+   * Rows refer to their terms by index, so every term is written only once. Each value is written as a 0 for null
+   * or a 1 followed by the length prefixed string.
+   */
+  private static void writeExtension(BinaryWriter w, Extension extension, List<Map<Term, String>> rows) {
+    w.writeEnum(VocabularyIds.EXTENSION, extension);
+    Map<Term, Integer> index = Maps.newLinkedHashMap();
+    for (Map<Term, String> row : rows) {
+      for (Term term : row.keySet()) {
+        if (!index.containsKey(term)) {
+          index.put(term, index.size());
+        }
+      }
+    }
+    w.writeVarint(index.size());
+    for (Term term : index.keySet()) {
+      writeTerm(w, term);
+    }
+    w.writeVarint(rows.size());
+    for (Map<Term, String> row : rows) {
+      w.writeVarint(row.size());
+      for (Map.Entry<Term, String> entry : row.entrySet()) {
+        w.writeVarint(index.get(entry.getKey()));
+        w.writeNullableString(entry.getValue());
+      }
+    }
+  }
+
+  private static void readExtension(BinaryReader r, VerbatimOccurrence v) {
+    Extension extension = r.readEnum(VocabularyIds.EXTENSION);
+    int size = r.readInt();
+    List<Term> terms = Lists.newArrayListWithCapacity(Math.min(size, 1024));
+    for (int i = 0; i < size; i++) {
+      terms.add(readTerm(r));
+    }
+    size = r.readInt();
+    List<Map<Term, String>> rows = Lists.newArrayListWithCapacity(Math.min(size, 1024));
+    for (int i = 0; i < size; i++) {
+      Map<Term, String> row = new HashMap<Term, String>();
+      int entries = r.readInt();
+      for (int j = 0; j < entries; j++) {
+        int term = r.readInt();
+        if (term >= terms.size()) {
+          throw new IllegalArgumentException("Unknown term index " + term);
+        }
+        String value = r.readNullableString();
+        if (terms.get(term) != null) {
+          row.put(terms.get(term), value);
+        }
+      }
+      rows.add(row);
+    }
+    if (extension != null) {
+      v.getExtensions().put(extension, rows);
+    }
+  }
+
+  private static void writeVerbatim(BinaryWriter w, VerbatimOccurrence v) {
+    w.writeIntField(1, v.getKey());
+    w.writeUuidField(2, v.getDatasetKey());
+    w.writeUuidField(3, v.getPublishingOrgKey());
+    if (v.getNetworkKeys() != null) {
+      // packed, so that an empty list is kept
+      w.writeTag(4, BinaryWriter.BYTES);
+      w.writeVarint(16 * v.getNetworkKeys().size());
+      for (UUID key : v.getNetworkKeys()) {
+        w.writeFixed64(key.getMostSignificantBits());
+        w.writeFixed64(key.getLeastSignificantBits());
+      }
+    }
+    w.writeUuidField(5, v.getInstallationKey());
+    w.writeEnumField(6, VocabularyIds.COUNTRY, v.getPublishingCountry());
+    w.writeEnumField(7, VocabularyIds.ENDPOINT_TYPE, v.getProtocol());
+    writeDate(w, 8, v.getLastCrawled());
+    writeDate(w, 9, v.getLastParsed());
+    w.writeIntField(10, v.getCrawlId());
+    if (v.getVerbatimFields() != null && !v.getVerbatimFields().isEmpty()) {
+      w.writeTag(11, BinaryWriter.BYTES);
+      int start = w.startLength();
+      writeVerbatimFields(w, v.getVerbatimFields());
+      w.endLength(start);
+    }
+    if (v.getExtensions() != null) {
+      for (Map.Entry<Extension, List<Map<Term, String>>> ext : v.getExtensions().entrySet()) {
+        w.writeTag(12, BinaryWriter.BYTES);
+        int start = w.startLength();
+        writeExtension(w, ext.getKey(),
+          ext.getValue() == null ? ImmutableList.<Map<Term, String>>of() : ext.getValue());
+        w.endLength(start);
+      }
+    }
+  }
+
+  private static boolean readVerbatimField(BinaryReader r, int tag, VerbatimOccurrence v) {
+    switch (tag >>> 3) {
+      case 1:
+        v.setKey(r.readSignedInt());
+        return true;
+      case 2:
+        v.setDatasetKey(r.readUuid());
+        return true;
+      case 3:
+        v.setPublishingOrgKey(r.readUuid());
+        return true;
+      case 4:
+        int limit = r.pushLimit();
+        List<UUID> networkKeys = Lists.newArrayList();
+        while (r.hasMore()) {
+          networkKeys.add(new UUID(r.readFixed64(), r.readFixed64()));
+        }
+        v.setNetworkKeys(networkKeys);
+        r.popLimit(limit);
+        return true;
+      case 5:
+        v.setInstallationKey(r.readUuid());
+        return true;
+      case 6:
+        v.setPublishingCountry(r.readEnumField(VocabularyIds.COUNTRY, tag & 7));
+        return true;
+      case 7:
+        v.setProtocol(r.readEnumField(VocabularyIds.ENDPOINT_TYPE, tag & 7));
+        return true;
+      case 8:
+        v.setLastCrawled(new Date(r.readSignedVarint()));
+        return true;
+      case 9:
+        v.setLastParsed(new Date(r.readSignedVarint()));
+        return true;
+      case 10:
+        v.setCrawlId(r.readSignedInt());
+        return true;
+      case 11:
+        limit = r.pushLimit();
+        readVerbatimFields(r, v);
+        r.popLimit(limit);
+        return true;
+      case 12:
+        limit = r.pushLimit();
+        readExtension(r, v);
+        r.popLimit(limit);
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static void writeOccurrence(BinaryWriter w, Occurrence o) {
+    w.writeEnumField(20, VocabularyIds.BASIS_OF_RECORD, o.getBasisOfRecord());
+    w.writeIntField(21, o.getIndividualCount());
+    w.writeEnumField(22, VocabularyIds.SEX, o.getSex());
+    w.writeEnumField(23, VocabularyIds.LIFE_STAGE, o.getLifeStage());
+    w.writeEnumField(24, VocabularyIds.ESTABLISHMENT_MEANS, o.getEstablishmentMeans());
+    w.writeIntField(25, o.getTaxonKey());
+    w.writeIntField(26, o.getKingdomKey());
+    w.writeIntField(27, o.getPhylumKey());
+    w.writeIntField(28, o.getClassKey());
+    w.writeIntField(29, o.getOrderKey());
+    w.writeIntField(30, o.getFamilyKey());
+    w.writeIntField(31, o.getGenusKey());
+    w.writeIntField(32, o.getSubgenusKey());
+    w.writeIntField(33, o.getSpeciesKey());
+    w.writeStringField(34, o.getScientificName());
+    w.writeStringField(35, o.getKingdom());
+    w.writeStringField(36, o.getPhylum());
+    w.writeStringField(37, o.getClazz());
+    w.writeStringField(38, o.getOrder());
+    w.writeStringField(39, o.getFamily());
+    w.writeStringField(40, o.getGenus());
+    w.writeStringField(41, o.getSubgenus());
+    w.writeStringField(42, o.getSpecies());
+    w.writeStringField(43, o.getGenericName());
+    w.writeStringField(44, o.getSpecificEpithet());
+    w.writeStringField(45, o.getInfraspecificEpithet());
+    w.writeEnumField(46, VocabularyIds.RANK, o.getTaxonRank());
+    writeDate(w, 47, o.getDateIdentified());
+    w.writeDoubleField(48, o.getDecimalLongitude());
+    w.writeDoubleField(49, o.getDecimalLatitude());
+    w.writeDoubleField(50, o.getCoordinatePrecision());
+    w.writeDoubleField(51, o.getCoordinateUncertaintyInMeters());
+    w.writeDoubleField(52, o.getCoordinateAccuracy());
+    w.writeDoubleField(53, o.getElevation());
+    w.writeDoubleField(54, o.getElevationAccuracy());
+    w.writeDoubleField(55, o.getDepth());
+    w.writeDoubleField(56, o.getDepthAccuracy());
+    w.writeEnumField(57, VocabularyIds.CONTINENT, o.getContinent());
+    w.writeEnumField(58, VocabularyIds.COUNTRY, o.getCountry());
+    w.writeStringField(59, o.getStateProvince());
+    w.writeStringField(60, o.getWaterBody());
+    w.writeIntField(61, o.getYear());
+    w.writeIntField(62, o.getMonth());
+    w.writeIntField(63, o.getDay());
+    writeDate(w, 64, o.getEventDate());
+    w.writeEnumField(65, VocabularyIds.TYPE_STATUS, o.getTypeStatus());
+    w.writeStringField(66, o.getTypifiedName());
+    if (o.getIssues() != null && !o.getIssues().isEmpty()) {
+      w.writeTag(67, BinaryWriter.BYTES);
+      int start = w.startLength();
+      for (OccurrenceIssue issue : o.getIssues()) {
+        w.writeEnum(VocabularyIds.OCCURRENCE_ISSUE, issue);
+      }
+      w.endLength(start);
+    }
+    writeDate(w, 68, o.getModified());
+    writeDate(w, 69, o.getLastInterpreted());
+    writeUri(w, 70, o.getReferences());
+    w.writeEnumField(71, VocabularyIds.LICENSE, o.getLicense());
+    if (o.getIdentifiers() != null) {
+      for (Identifier identifier : o.getIdentifiers()) {
+        w.writeTag(72, BinaryWriter.BYTES);
+        int start = w.startLength();
+        writeIdentifier(w, identifier);
+        w.endLength(start);
+      }
+    }
+    if (o.getMedia() != null) {
+      for (MediaObject media : o.getMedia()) {
+        w.writeTag(73, BinaryWriter.BYTES);
+        int start = w.startLength();
+        writeMedia(w, media);
+        w.endLength(start);
+      }
+    }
+    if (o.getFacts() != null) {
+      for (FactOrMeasurment fact : o.getFacts()) {
+        w.writeTag(74, BinaryWriter.BYTES);
+        int start = w.startLength();
+        writeFact(w, fact);
+        w.endLength(start);
+      }
+    }
+    if (o.getRelations() != null) {
+      for (OccurrenceRelation relation : o.getRelations()) {
+        w.writeTag(75, BinaryWriter.BYTES);
+        int start = w.startLength();
+        writeRelation(w, relation);
+        w.endLength(start);
+      }
+    }
+  }
+
+  private static boolean readOccurrenceField(BinaryReader r, int tag, Occurrence o) {
+    switch (tag >>> 3) {
+      case 20:
+        o.setBasisOfRecord(r.readEnumField(VocabularyIds.BASIS_OF_RECORD, tag & 7));
+        return true;
+      case 21:
+        o.setIndividualCount(r.readSignedInt());
+        return true;
+      case 22:
+        o.setSex(r.readEnumField(VocabularyIds.SEX, tag & 7));
+        return true;
+      case 23:
+        o.setLifeStage(r.readEnumField(VocabularyIds.LIFE_STAGE, tag & 7));
+        return true;
+      case 24:
+        o.setEstablishmentMeans(r.readEnumField(VocabularyIds.ESTABLISHMENT_MEANS, tag & 7));
+        return true;
+      case 25:
+        o.setTaxonKey(r.readSignedInt());
+        return true;
+      case 26:
+        o.setKingdomKey(r.readSignedInt());
+        return true;
+      case 27:
+        o.setPhylumKey(r.readSignedInt());
+        return true;
+      case 28:
+        o.setClassKey(r.readSignedInt());
+        return true;
+      case 29:
+        o.setOrderKey(r.readSignedInt());
+        return true;
+      case 30:
+        o.setFamilyKey(r.readSignedInt());
+        return true;
+      case 31:
+        o.setGenusKey(r.readSignedInt());
+        return true;
+      case 32:
+        o.setSubgenusKey(r.readSignedInt());
+        return true;
+      case 33:
+        o.setSpeciesKey(r.readSignedInt());
+        return true;
+      case 34:
+        o.setScientificName(r.readString());
+        return true;
+      case 35:
+        o.setKingdom(r.readString());
+        return true;
+      case 36:
+        o.setPhylum(r.readString());
+        return true;
+      case 37:
+        o.setClazz(r.readString());
+        return true;
+      case 38:
+        o.setOrder(r.readString());
+        return true;
+      case 39:
+        o.setFamily(r.readString());
+        return true;
+      case 40:
+        o.setGenus(r.readString());
+        return true;
+      case 41:
+        o.setSubgenus(r.readString());
+        return true;
+      case 42:
+        o.setSpecies(r.readString());
+        return true;
+      case 43:
+        o.setGenericName(r.readString());
+        return true;
+      case 44:
+        o.setSpecificEpithet(r.readString());
+        return true;
+      case 45:
+        o.setInfraspecificEpithet(r.readString());
+        return true;
+      case 46:
+        o.setTaxonRank(r.readEnumField(VocabularyIds.RANK, tag & 7));
+        return true;
+      case 47:
+        o.setDateIdentified(new Date(r.readSignedVarint()));
+        return true;
+      case 48:
+        o.setDecimalLongitude(r.readDouble());
+        return true;
+      case 49:
+        o.setDecimalLatitude(r.readDouble());
+        return true;
+      case 50:
+        o.setCoordinatePrecision(r.readDouble());
+        return true;
+      case 51:
+        o.setCoordinateUncertaintyInMeters(r.readDouble());
+        return true;
+      case 52:
+        o.setCoordinateAccuracy(r.readDouble());
+        return true;
+      case 53:
+        o.setElevation(r.readDouble());
+        return true;
+      case 54:
+        o.setElevationAccuracy(r.readDouble());
+        return true;
+      case 55:
+        o.setDepth(r.readDouble());
+        return true;
+      case 56:
+        o.setDepthAccuracy(r.readDouble());
+        return true;
+      case 57:
+        o.setContinent(r.readEnumField(VocabularyIds.CONTINENT, tag & 7));
+        return true;
+      case 58:
+        o.setCountry(r.readEnumField(VocabularyIds.COUNTRY, tag & 7));
+        return true;
+      case 59:
+        o.setStateProvince(r.readString());
+        return true;
+      case 60:
+        o.setWaterBody(r.readString());
+        return true;
+      case 61:
+        o.setYear(r.readSignedInt());
+        return true;
+      case 62:
+        o.setMonth(r.readSignedInt());
+        return true;
+      case 63:
+        o.setDay(r.readSignedInt());
+        return true;
+      case 64:
+        o.setEventDate(new Date(r.readSignedVarint()));
+        return true;
+      case 65:
+        o.setTypeStatus(r.readEnumField(VocabularyIds.TYPE_STATUS, tag & 7));
+        return true;
+      case 66:
+        o.setTypifiedName(r.readString());
+        return true;
+      case 67:
+        int limit = r.pushLimit();
+        Set<OccurrenceIssue> issues = EnumSet.noneOf(OccurrenceIssue.class);
+        while (r.hasMore()) {
+          OccurrenceIssue issue = r.readEnum(VocabularyIds.OCCURRENCE_ISSUE);
+          if (issue != null) {
+            issues.add(issue);
+          }
+        }
+        o.setIssues(issues);
+        r.popLimit(limit);
+        return true;
+      case 68:
+        o.setModified(new Date(r.readSignedVarint()));
+        return true;
+      case 69:
+        o.setLastInterpreted(new Date(r.readSignedVarint()));
+        return true;
+      case 70:
+        o.setReferences(URI.create(r.readString()));
+        return true;
+      case 71:
+        o.setLicense(r.readEnumField(VocabularyIds.LICENSE, tag & 7));
+        return true;
+      case 72:
+        limit = r.pushLimit();
+        o.getIdentifiers().add(readIdentifier(r));
+        r.popLimit(limit);
+        return true;
+      case 73:
+        limit = r.pushLimit();
+        o.getMedia().add(readMedia(r));
+        r.popLimit(limit);
+        return true;
+      case 74:
+        limit = r.pushLimit();
+        o.getFacts().add(readFact(r));
+        r.popLimit(limit);
+        return true;
+      case 75:
+        limit = r.pushLimit();
+        o.getRelations().add(readRelation(r));
+        r.popLimit(limit);
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static void writeMedia(BinaryWriter w, MediaObject m) {
+    w.writeEnumField(1, VocabularyIds.MEDIA_TYPE, m.getType());
+    w.writeStringField(2, m.getFormat());
+    writeUri(w, 3, m.getIdentifier());
+    writeUri(w, 4, m.getReferences());
+    w.writeStringField(5, m.getTitle());
+    w.writeStringField(6, m.getDescription());
+    w.writeStringField(7, m.getSource());
+    w.writeStringField(8, m.getAudience());
+    writeDate(w, 9, m.getCreated());
+    w.writeStringField(10, m.getCreator());
+    w.writeStringField(11, m.getContributor());
+    w.writeStringField(12, m.getPublisher());
+    w.writeStringField(13, m.getLicense());
+    w.writeStringField(14, m.getRightsHolder());
+  }
+
+  private static MediaObject readMedia(BinaryReader r) {
+    MediaObject m = new MediaObject();
+    while (r.hasMore()) {
+      int tag = r.readInt();
+      switch (tag >>> 3) {
+        case 1:
+          m.setType(r.readEnumField(VocabularyIds.MEDIA_TYPE, tag & 7));
+          break;
+        case 2:
+          m.setFormat(r.readString());
+          break;
+        case 3:
+          m.setIdentifier(URI.create(r.readString()));
+          break;
+        case 4:
+          m.setReferences(URI.create(r.readString()));
+          break;
+        case 5:
+          m.setTitle(r.readString());
+          break;
+        case 6:
+          m.setDescription(r.readString());
+          break;
+        case 7:
+          m.setSource(r.readString());
+          break;
+        case 8:
+          m.setAudience(r.readString());
+          break;
+        case 9:
+          m.setCreated(new Date(r.readSignedVarint()));
+          break;
+        case 10:
+          m.setCreator(r.readString());
+          break;
+        case 11:
+          m.setContributor(r.readString());
+          break;
+        case 12:
+          m.setPublisher(r.readString());
+          break;
+        case 13:
+          m.setLicense(r.readString());
+          break;
+        case 14:
+          m.setRightsHolder(r.readString());
+          break;
+        default:
+          r.skip(tag & 7);
+      }
+    }
+    return m;
+  }
+
+  private static void writeIdentifier(BinaryWriter w, Identifier identifier) {
+    w.writeStringField(1, identifier.getIdentifier());
+    w.writeStringField(2, identifier.getTitle());
+    w.writeEnumField(3, VocabularyIds.IDENTIFIER_TYPE, identifier.getType());
+  }
+
+  private static Identifier readIdentifier(BinaryReader r) {
+    Identifier identifier = new Identifier();
+    while (r.hasMore()) {
+      int tag = r.readInt();
+      switch (tag >>> 3) {
+        case 1:
+          identifier.setIdentifier(r.readString());
+          break;
+        case 2:
+          identifier.setTitle(r.readString());
+          break;
+        case 3:
+          identifier.setType(r.readEnumField(VocabularyIds.IDENTIFIER_TYPE, tag & 7));
+          break;
+        default:
+          r.skip(tag & 7);
+      }
+    }
+    return identifier;
+  }
+
+  private static void writeFact(BinaryWriter w, FactOrMeasurment fact) {
+    w.writeStringField(1, fact.getId());
+    w.writeStringField(2, fact.getType());
+    w.writeStringField(3, fact.getValue());
+    w.writeStringField(4, fact.getUnit());
+    w.writeStringField(5, fact.getAccuracy());
+    w.writeStringField(6, fact.getMethod());
+    w.writeStringField(7, fact.getDeterminedBy());
+    w.writeStringField(8, fact.getDeterminedDate());
+    w.writeStringField(9, fact.getRemarks());
+  }
+
+  private static FactOrMeasurment readFact(BinaryReader r) {
+    FactOrMeasurment fact = new FactOrMeasurment();
+    while (r.hasMore()) {
+      int tag = r.readInt();
+      switch (tag >>> 3) {
+        case 1:
+          fact.setId(r.readString());
+          break;
+        case 2:
+          fact.setType(r.readString());
+          break;
+        case 3:
+          fact.setValue(r.readString());
+          break;
+        case 4:
+          fact.setUnit(r.readString());
+          break;
+        case 5:
+          fact.setAccuracy(r.readString());
+          break;
+        case 6:
+          fact.setMethod(r.readString());
+          break;
+        case 7:
+          fact.setDeterminedBy(r.readString());
+          break;
+        case 8:
+          fact.setDeterminedDate(r.readString());
+          break;
+        case 9:
+          fact.setRemarks(r.readString());
+          break;
+        default:
+          r.skip(tag & 7);
+      }
+    }
+    return fact;
+  }
+
+  private static void writeRelation(BinaryWriter w, OccurrenceRelation relation) {
+    w.writeStringField(1, relation.getId());
+    w.writeLongField(2, relation.getOccurrenceId());
+    w.writeLongField(3, relation.getRelatedOccurrenceId());
+    w.writeStringField(4, relation.getType());
+    w.writeStringField(5, relation.getAccordingTo());
+    w.writeStringField(6, relation.getEstablishedDate());
+    w.writeStringField(7, relation.getRemarks());
+  }
+
+  private static OccurrenceRelation readRelation(BinaryReader r) {
+    OccurrenceRelation relation = new OccurrenceRelation();
+    while (r.hasMore()) {
+      int tag = r.readInt();
+      switch (tag >>> 3) {
+        case 1:
+          relation.setId(r.readString());
+          break;
+        case 2:
+          relation.setOccurrenceId(r.readSignedInt());
+          break;
+        case 3:
+          relation.setRelatedOccurrenceId(r.readSignedInt());
+          break;
+        case 4:
+          relation.setType(r.readString());
+          break;
+        case 5:
+          relation.setAccordingTo(r.readString());
+          break;
+        case 6:
+          relation.setEstablishedDate(r.readString());
+          break;
+        case 7:
+          relation.setRemarks(r.readString());
+          break;
+        default:
+          r.skip(tag & 7);
+      }
+    }
+    return relation;
+  }
+}
@@ -0,0 +1,77 @@
+package org.gbif.api.util.codec;
+
+import java.util.Arrays;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+/**
+ * An append-only table of the ids a vocabulary is encoded with, so that values stay readable when constants are
+ * added to or reordered in the enumeration.
+ * <br/>
+ * The id of a constant is the position of its name in the table, starting at 1. Ids must never change: new
+ * constants are appended to the end of the table and the names of removed constants stay in place. Constants
+ * missing from the table have no id and are written by name instead.
+ */
+final class StableIds<E extends Enum<E>> {
+
+  private final Class<E> type;
+  // the id of each constant by ordinal, 0 for constants missing from the table
+  private final int[] ids;
+  // the constant of each id, null for ids of removed constants
+  private final E[] constants;
+  private final Map<String, E> byName = Maps.newHashMap();
+
+  private StableIds(Class<E> type, String... names) {
+    this.type = type;
+    for (E constant : type.getEnumConstants()) {
+      byName.put(constant.name(), constant);
+    }
+    ids = new int[type.getEnumConstants().length];
+    constants = Arrays.copyOf(type.getEnumConstants(), names.length + 1);
+    Arrays.fill(constants, null);
+    for (int i = 0; i < names.length; i++) {
+      E constant = byName.get(names[i]);
+      if (constant != null) {
+        Preconditions.checkArgument(ids[constant.ordinal()] == 0, "Duplicate %s %s", type.getSimpleName(), names[i]);
+        ids[constant.ordinal()] = i + 1;
+        constants[i + 1] = constant;
+      }
+    }
+  }
+
+  static <E extends Enum<E>> StableIds<E> of(Class<E> type, String... names) {
+    return new StableIds<E>(type, names);
+  }
+
+  Class<E> type() {
+    return type;
+  }
+
+  /**
+   * @param constant a constant of this vocabulary
+   *
+   * @return the id of the constant or 0 if it is not in the table
+   */
+  int id(Enum<?> constant) {
+    return ids[constant.ordinal()];
+  }
+
+  /**
+   * @return the constant with the given id or null if the id is unknown to this version of the vocabulary
+   */
+  @Nullable
+  E constant(int id) {
+    return id > 0 && id < constants.length ? constants[id] : null;
+  }
+
+  /**
+   * @return the constant with the given name or null if there is none
+   */
+  @Nullable
+  E constant(String name) {
+    return byName.get(name);
+  }
+}
@@ -0,0 +1,216 @@
+package org.gbif.api.util.codec;
+
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Continent;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.api.vocabulary.EstablishmentMeans;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.IdentifierType;
+import org.gbif.api.vocabulary.License;
+import org.gbif.api.vocabulary.LifeStage;
+import org.gbif.api.vocabulary.MediaType;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.Sex;
+import org.gbif.api.vocabulary.TypeStatus;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.GbifInternalTerm;
+import org.gbif.dwc.terms.GbifTerm;
+import org.gbif.dwc.terms.IucnTerm;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The {@link StableIds} of all vocabularies encoded by the {@link OccurrenceCodec}.
+ * Only ever append to these tables, see {@link StableIds}.
+ */
+final class VocabularyIds {
+
+  /*
+   * The terms belong to the dwc-api, so terms added by a later version of it have no id and are written by name
+   * until they are appended here.
+   */
+  static final StableIds<DwcTerm> DWC_TERM = StableIds.of(DwcTerm.class,
+    "Occurrence", "Organism", "MaterialSample", "Event", "Location", "GeologicalContext", "Identification", "Taxon",
+    "ResourceRelationship", "MeasurementOrFact", "institutionID", "collectionID", "datasetID", "institutionCode",
+    "collectionCode", "datasetName", "ownerInstitutionCode", "basisOfRecord", "informationWithheld",
+    "dataGeneralizations", "dynamicProperties", "occurrenceID", "catalogNumber", "recordNumber", "recordedBy",
+    "individualCount", "organismQuantity", "organismQuantityType", "sex", "lifeStage", "reproductiveCondition",
+    "behavior", "establishmentMeans", "occurrenceStatus", "preparations", "disposition", "associatedMedia",
+    "associatedReferences", "associatedSequences", "associatedTaxa", "otherCatalogNumbers", "occurrenceRemarks",
+    "organismID", "organismName", "organismScope", "associatedOccurrences", "associatedOrganisms",
+    "previousIdentifications", "organismRemarks", "materialSampleID", "eventID", "parentEventID", "fieldNumber",
+    "eventDate", "eventTime", "startDayOfYear", "endDayOfYear", "year", "month", "day", "verbatimEventDate",
+    "habitat", "samplingProtocol", "sampleSizeValue", "sampleSizeUnit", "samplingEffort", "fieldNotes",
+    "eventRemarks", "locationID", "higherGeographyID", "higherGeography", "continent", "waterBody", "islandGroup",
+    "island", "country", "countryCode", "stateProvince", "county", "municipality", "locality", "verbatimLocality",
+    "minimumElevationInMeters", "maximumElevationInMeters", "verbatimElevation", "minimumDepthInMeters",
+    "maximumDepthInMeters", "verbatimDepth", "minimumDistanceAboveSurfaceInMeters",
+    "maximumDistanceAboveSurfaceInMeters", "locationAccordingTo", "locationRemarks", "decimalLatitude",
+    "decimalLongitude", "geodeticDatum", "coordinateUncertaintyInMeters", "coordinatePrecision",
+    "pointRadiusSpatialFit", "verbatimCoordinates", "verbatimLatitude", "verbatimLongitude",
+    "verbatimCoordinateSystem", "verbatimSRS", "footprintWKT", "footprintSRS", "footprintSpatialFit",
+    "georeferencedBy", "georeferencedDate", "georeferenceProtocol", "georeferenceSources",
+    "georeferenceVerificationStatus", "georeferenceRemarks", "geologicalContextID", "earliestEonOrLowestEonothem",
+    "latestEonOrHighestEonothem", "earliestEraOrLowestErathem", "latestEraOrHighestErathem",
+    "earliestPeriodOrLowestSystem", "latestPeriodOrHighestSystem", "earliestEpochOrLowestSeries",
+    "latestEpochOrHighestSeries", "earliestAgeOrLowestStage", "latestAgeOrHighestStage", "lowestBiostratigraphicZone",
+    "highestBiostratigraphicZone", "lithostratigraphicTerms", "group", "formation", "member", "bed",
+    "identificationID", "identificationQualifier", "typeStatus", "identifiedBy", "dateIdentified",
+    "identificationReferences", "identificationVerificationStatus", "identificationRemarks", "taxonID",
+    "scientificNameID", "acceptedNameUsageID", "parentNameUsageID", "originalNameUsageID", "nameAccordingToID",
+    "namePublishedInID", "taxonConceptID", "scientificName", "acceptedNameUsage", "parentNameUsage",
+    "originalNameUsage", "nameAccordingTo", "namePublishedIn", "namePublishedInYear", "higherClassification",
+    "kingdom", "phylum", "class_", "order", "family", "genus", "subgenus", "specificEpithet", "infraspecificEpithet",
+    "taxonRank", "verbatimTaxonRank", "scientificNameAuthorship", "vernacularName", "nomenclaturalCode",
+    "taxonomicStatus", "nomenclaturalStatus", "taxonRemarks", "measurementID", "measurementType", "measurementValue",
+    "measurementAccuracy", "measurementUnit", "measurementDeterminedBy", "measurementDeterminedDate",
+    "measurementMethod", "measurementRemarks", "resourceRelationshipID", "resourceID", "relatedResourceID",
+    "relationshipOfResource", "relationshipAccordingTo", "relationshipEstablishedDate", "relationshipRemarks",
+    "individualID", "occurrenceDetails");
+
+  static final StableIds<DcTerm> DC_TERM = StableIds.of(DcTerm.class,
+    "abstract_", "accessRights", "accrualMethod", "accrualPeriodicity", "accrualPolicy", "alternative", "audience",
+    "available", "bibliographicCitation", "conformsTo", "contributor", "coverage", "created", "creator", "date",
+    "dateAccepted", "dateCopyrighted", "dateSubmitted", "description", "educationLevel", "extent", "format",
+    "hasFormat", "hasPart", "hasVersion", "identifier", "instructionalMethod", "isFormatOf", "isPartOf",
+    "isReferencedBy", "isReplacedBy", "isRequiredBy", "issued", "isVersionOf", "language", "license", "mediator",
+    "medium", "modified", "provenance", "publisher", "references", "relation", "replaces", "requires", "rights",
+    "rightsHolder", "source", "spatial", "subject", "tableOfContents", "temporal", "title", "type", "valid");
+
+  static final StableIds<GbifTerm> GBIF_TERM = StableIds.of(GbifTerm.class,
+    "Description", "Distribution", "Identifier", "Image", "Multimedia", "Reference", "SpeciesProfile",
+    "TypesAndSpecimen", "VernacularName", "gbifID", "datasetKey", "publishingCountry", "lastInterpreted",
+    "lastParsed", "lastCrawled", "coordinateAccuracy", "elevation", "elevationAccuracy", "depth", "depthAccuracy",
+    "distanceAboveSurface", "distanceAboveSurfaceAccuracy", "issue", "mediaType", "hasCoordinate",
+    "hasGeospatialIssues", "taxonKey", "acceptedTaxonKey", "kingdomKey", "phylumKey", "classKey", "orderKey",
+    "familyKey", "genusKey", "subgenusKey", "speciesKey", "species", "genericName", "acceptedScientificName",
+    "verbatimScientificName", "typifiedName", "protocol", "repatriated", "canonicalName", "nameType", "isExtinct",
+    "isMarine", "isFreshwater", "isTerrestrial", "isHybrid", "isPlural", "isPreferredName", "isSequenced",
+    "livingPeriod", "lifeForm", "ageInDays", "sizeInMillimeter", "massInGram", "organismPart", "appendixCITES",
+    "numberOfOccurrences", "sourceID", "datasetID", "datasetName");
+
+  static final StableIds<GbifInternalTerm> GBIF_INTERNAL_TERM = StableIds.of(GbifInternalTerm.class,
+    "identifierCount", "crawlId", "fragment", "fragmentHash", "fragmentCreated", "xmlSchema", "publishingOrgKey",
+    "unitQualifier", "networkKey", "installationKey", "programmeAcronym", "hostingOrganizationKey");
+
+  static final StableIds<IucnTerm> IUCN_TERM = StableIds.of(IucnTerm.class,
+    "threatStatus");
+
+  /**
+   * The term vocabularies in the order of their stable index starting at 1.
+   */
+  static final List<StableIds<?>> TERM_VOCABULARIES =
+    ImmutableList.<StableIds<?>>of(DWC_TERM, DC_TERM, GBIF_TERM, GBIF_INTERNAL_TERM, IUCN_TERM);
+
+  static final StableIds<Country> COUNTRY = StableIds.of(Country.class,
+    "AFGHANISTAN", "ALAND_ISLANDS", "ALBANIA", "ALGERIA", "AMERICAN_SAMOA", "ANDORRA", "ANGOLA", "ANGUILLA",
+    "ANTARCTICA", "ANTIGUA_BARBUDA", "ARGENTINA", "ARMENIA", "ARUBA", "AUSTRALIA", "AUSTRIA", "AZERBAIJAN", "BAHAMAS",
+    "BAHRAIN", "BANGLADESH", "BARBADOS", "BELARUS", "BELGIUM", "BELIZE", "BENIN", "BERMUDA", "BHUTAN", "BOLIVIA",
+    "BONAIRE_SINT_EUSTATIUS_SABA", "BOSNIA_HERZEGOVINA", "BOTSWANA", "BOUVET_ISLAND", "BRAZIL",
+    "BRITISH_INDIAN_OCEAN_TERRITORY", "BRUNEI_DARUSSALAM", "BULGARIA", "BURKINA_FASO", "BURUNDI", "CAMBODIA",
+    "CAMEROON", "CANADA", "CAPE_VERDE", "CAYMAN_ISLANDS", "CENTRAL_AFRICAN_REPUBLIC", "CHAD", "CHILE", "CHINA",
+    "CHRISTMAS_ISLAND", "COCOS_ISLANDS", "COLOMBIA", "COMOROS", "CONGO_DEMOCRATIC_REPUBLIC", "CONGO", "COOK_ISLANDS",
+    "COSTA_RICA", "C\u00d4TE_DIVOIRE", "CROATIA", "CUBA", "CURA\u00c7AO", "CYPRUS", "CZECH_REPUBLIC", "DENMARK",
+    "DJIBOUTI", "DOMINICA", "DOMINICAN_REPUBLIC", "ECUADOR", "EGYPT", "EL_SALVADOR", "EQUATORIAL_GUINEA", "ERITREA",
+    "ESTONIA", "ETHIOPIA", "FALKLAND_ISLANDS", "FAROE_ISLANDS", "FIJI", "FINLAND", "FRANCE", "FRENCH_GUIANA",
+    "FRENCH_POLYNESIA", "FRENCH_SOUTHERN_TERRITORIES", "GABON", "GAMBIA", "GEORGIA", "GERMANY", "GHANA", "GIBRALTAR",
+    "GREECE", "GREENLAND", "GRENADA", "GUADELOUPE", "GUAM", "GUATEMALA", "GUERNSEY", "GUINEA", "GUINEA_BISSAU",
+    "GUYANA", "HAITI", "HEARD_MCDONALD_ISLANDS", "VATICAN", "HONDURAS", "HONG_KONG", "HUNGARY", "ICELAND", "INDIA",
+    "INDONESIA", "IRAN", "IRAQ", "IRELAND", "ISLE_OF_MAN", "ISRAEL", "ITALY", "JAMAICA", "JAPAN", "JERSEY", "JORDAN",
+    "KAZAKHSTAN", "KENYA", "KIRIBATI", "KOREA_NORTH", "KOREA_SOUTH", "KUWAIT", "KYRGYZSTAN", "LAO", "LATVIA",
+    "LEBANON", "LESOTHO", "LIBERIA", "LIBYA", "LIECHTENSTEIN", "LITHUANIA", "LUXEMBOURG", "MACAO", "MACEDONIA",
+    "MADAGASCAR", "MALAWI", "MALAYSIA", "MALDIVES", "MALI", "MALTA", "MARSHALL_ISLANDS", "MARTINIQUE", "MAURITANIA",
+    "MAURITIUS", "MAYOTTE", "MEXICO", "MICRONESIA", "MOLDOVA", "MONACO", "MONGOLIA", "MONTENEGRO", "MONTSERRAT",
+    "MOROCCO", "MOZAMBIQUE", "MYANMAR", "NAMIBIA", "NAURU", "NEPAL", "NETHERLANDS", "NEW_CALEDONIA", "NEW_ZEALAND",
+    "NICARAGUA", "NIGER", "NIGERIA", "NIUE", "NORFOLK_ISLAND", "NORTHERN_MARIANA_ISLANDS", "NORWAY", "OMAN",
+    "PAKISTAN", "PALAU", "PALESTINIAN_TERRITORY", "PANAMA", "PAPUA_NEW_GUINEA", "PARAGUAY", "PERU", "PHILIPPINES",
+    "PITCAIRN", "POLAND", "PORTUGAL", "PUERTO_RICO", "QATAR", "R\u00c9UNION", "ROMANIA", "RUSSIAN_FEDERATION",
+    "RWANDA", "SAINT_BARTH\u00c9LEMY", "SAINT_HELENA_ASCENSION_TRISTAN_DA_CUNHA", "SAINT_KITTS_NEVIS", "SAINT_LUCIA",
+    "SAINT_MARTIN_FRENCH", "SAINT_PIERRE_MIQUELON", "SAINT_VINCENT_GRENADINES", "SAMOA", "SAN_MARINO",
+    "SAO_TOME_PRINCIPE", "SAUDI_ARABIA", "SENEGAL", "SERBIA", "SEYCHELLES", "SIERRA_LEONE", "SINGAPORE",
+    "SINT_MAARTEN", "SLOVAKIA", "SLOVENIA", "SOLOMON_ISLANDS", "SOMALIA", "SOUTH_AFRICA",
+    "SOUTH_GEORGIA_SANDWICH_ISLANDS", "SOUTH_SUDAN", "SPAIN", "SRI_LANKA", "SUDAN", "SURINAME", "SVALBARD_JAN_MAYEN",
+    "SWAZILAND", "SWEDEN", "SWITZERLAND", "SYRIA", "TAIWAN", "TAJIKISTAN", "TANZANIA", "THAILAND", "TIMOR_LESTE",
+    "TOGO", "TOKELAU", "TONGA", "TRINIDAD_TOBAGO", "TUNISIA", "TURKEY", "TURKMENISTAN", "TURKS_CAICOS_ISLANDS",
+    "TUVALU", "UGANDA", "UKRAINE", "UNITED_ARAB_EMIRATES", "UNITED_KINGDOM", "UNITED_STATES",
+    "UNITED_STATES_OUTLYING_ISLANDS", "URUGUAY", "UZBEKISTAN", "VANUATU", "VENEZUELA", "VIETNAM",
+    "VIRGIN_ISLANDS_BRITISH", "VIRGIN_ISLANDS", "WALLIS_FUTUNA", "WESTERN_SAHARA", "YEMEN", "ZAMBIA", "ZIMBABWE",
+    "USER_DEFINED", "KOSOVO", "INTERNATIONAL_WATERS", "UNKNOWN");
+
+  static final StableIds<EndpointType> ENDPOINT_TYPE = StableIds.of(EndpointType.class,
+    "EML", "FEED", "WFS", "WMS", "TCS_RDF", "TCS_XML", "DWC_ARCHIVE", "DIGIR", "DIGIR_MANIS", "TAPIR", "BIOCASE",
+    "BIOCASE_XML_ARCHIVE", "OAI_PMH", "OTHER");
+
+  static final StableIds<Extension> EXTENSION = StableIds.of(Extension.class,
+    "AUDUBON", "DESCRIPTION", "DISTRIBUTION", "EOL_MEDIA", "EOL_REFERENCE", "GERMPLASM_ACCESSION",
+    "GERMPLASM_MEASUREMENT_SCORE", "GERMPLASM_MEASUREMENT_TRAIT", "GERMPLASM_MEASUREMENT_TRIAL", "IDENTIFICATION",
+    "IDENTIFIER", "IMAGE", "MEASUREMENT_OR_FACT", "MULTIMEDIA", "REFERENCE", "RESOURCE_RELATIONSHIP",
+    "SPECIES_PROFILE", "TYPES_AND_SPECIMEN", "VERNACULAR_NAME");
+
+  static final StableIds<BasisOfRecord> BASIS_OF_RECORD = StableIds.of(BasisOfRecord.class,
+    "PRESERVED_SPECIMEN", "FOSSIL_SPECIMEN", "LIVING_SPECIMEN", "OBSERVATION", "HUMAN_OBSERVATION",
+    "MACHINE_OBSERVATION", "MATERIAL_SAMPLE", "LITERATURE", "UNKNOWN");
+
+  static final StableIds<Sex> SEX = StableIds.of(Sex.class,
+    "NONE", "MALE", "FEMALE", "HERMAPHRODITE");
+
+  static final StableIds<LifeStage> LIFE_STAGE = StableIds.of(LifeStage.class,
+    "ZYGOTE", "EMRYO", "LARVA", "JUVENILE", "ADULT", "SPOROPHYTE", "SPORE", "GAMETOPHYTE", "GAMETE");
+
+  static final StableIds<EstablishmentMeans> ESTABLISHMENT_MEANS = StableIds.of(EstablishmentMeans.class,
+    "NATIVE", "INTRODUCED", "NATURALISED", "INVASIVE", "MANAGED", "UNCERTAIN");
+
+  static final StableIds<Rank> RANK = StableIds.of(Rank.class,
+    "DOMAIN", "SUPERKINGDOM", "KINGDOM", "SUBKINGDOM", "INFRAKINGDOM", "SUPERPHYLUM", "PHYLUM", "SUBPHYLUM",
+    "INFRAPHYLUM", "SUPERCLASS", "CLASS", "SUBCLASS", "INFRACLASS", "PARVCLASS", "SUPERLEGION", "LEGION", "SUBLEGION",
+    "INFRALEGION", "SUPERCOHORT", "COHORT", "SUBCOHORT", "INFRACOHORT", "MAGNORDER", "SUPERORDER", "GRANDORDER",
+    "ORDER", "SUBORDER", "INFRAORDER", "PARVORDER", "SUPERFAMILY", "FAMILY", "SUBFAMILY", "INFRAFAMILY", "SUPERTRIBE",
+    "TRIBE", "SUBTRIBE", "INFRATRIBE", "SUPRAGENERIC_NAME", "GENUS", "SUBGENUS", "INFRAGENUS", "SECTION", "SUBSECTION",
+    "SERIES", "SUBSERIES", "INFRAGENERIC_NAME", "SPECIES_AGGREGATE", "SPECIES", "INFRASPECIFIC_NAME", "GREX",
+    "SUBSPECIES", "CULTIVAR_GROUP", "CONVARIETY", "INFRASUBSPECIFIC_NAME", "PROLES", "RACE", "NATIO", "ABERRATION",
+    "MORPH", "VARIETY", "SUBVARIETY", "FORM", "SUBFORM", "PATHOVAR", "BIOVAR", "CHEMOVAR", "MORPHOVAR", "PHAGOVAR",
+    "SEROVAR", "CHEMOFORM", "FORMA_SPECIALIS", "CULTIVAR", "STRAIN", "OTHER", "UNRANKED");
+
+  static final StableIds<Continent> CONTINENT = StableIds.of(Continent.class,
+    "AFRICA", "ANTARCTICA", "ASIA", "OCEANIA", "EUROPE", "NORTH_AMERICA", "SOUTH_AMERICA");
+
+  static final StableIds<TypeStatus> TYPE_STATUS = StableIds.of(TypeStatus.class,
+    "TYPE", "TYPE_SPECIES", "TYPE_GENUS", "ALLOLECTOTYPE", "ALLONEOTYPE", "ALLOTYPE", "COTYPE", "EPITYPE", "EXEPITYPE",
+    "EXHOLOTYPE", "EXISOTYPE", "EXLECTOTYPE", "EXNEOTYPE", "EXPARATYPE", "EXSYNTYPE", "EXTYPE", "HAPANTOTYPE",
+    "HOLOTYPE", "ICONOTYPE", "ISOLECTOTYPE", "ISONEOTYPE", "ISOSYNTYPE", "ISOTYPE", "LECTOTYPE", "NEOTYPE", "NOTATYPE",
+    "ORIGINALMATERIAL", "PARALECTOTYPE", "PARANEOTYPE", "PARATYPE", "PLASTOHOLOTYPE", "PLASTOISOTYPE",
+    "PLASTOLECTOTYPE", "PLASTONEOTYPE", "PLASTOPARATYPE", "PLASTOSYNTYPE", "PLASTOTYPE", "SECONDARYTYPE",
+    "SUPPLEMENTARYTYPE", "SYNTYPE", "TOPOTYPE");
+
+  static final StableIds<OccurrenceIssue> OCCURRENCE_ISSUE = StableIds.of(OccurrenceIssue.class,
+    "ZERO_COORDINATE", "COORDINATE_OUT_OF_RANGE", "COORDINATE_INVALID", "COORDINATE_ROUNDED", "GEODETIC_DATUM_INVALID",
+    "GEODETIC_DATUM_ASSUMED_WGS84", "COORDINATE_REPROJECTED", "COORDINATE_REPROJECTION_FAILED",
+    "COORDINATE_REPROJECTION_SUSPICIOUS", "COORDINATE_ACCURACY_INVALID", "COORDINATE_PRECISION_INVALID",
+    "COORDINATE_UNCERTAINTY_METERS_INVALID", "COORDINATE_PRECISION_UNCERTAINTY_MISMATCH",
+    "COUNTRY_COORDINATE_MISMATCH", "COUNTRY_MISMATCH", "COUNTRY_INVALID", "COUNTRY_DERIVED_FROM_COORDINATES",
+    "CONTINENT_COUNTRY_MISMATCH", "CONTINENT_INVALID", "CONTINENT_DERIVED_FROM_COORDINATES",
+    "PRESUMED_SWAPPED_COORDINATE", "PRESUMED_NEGATED_LONGITUDE", "PRESUMED_NEGATED_LATITUDE", "RECORDED_DATE_MISMATCH",
+    "RECORDED_DATE_INVALID", "RECORDED_DATE_UNLIKELY", "TAXON_MATCH_FUZZY", "TAXON_MATCH_HIGHERRANK",
+    "TAXON_MATCH_NONE", "DEPTH_NOT_METRIC", "DEPTH_UNLIKELY", "DEPTH_MIN_MAX_SWAPPED", "DEPTH_NON_NUMERIC",
+    "ELEVATION_UNLIKELY", "ELEVATION_MIN_MAX_SWAPPED", "ELEVATION_NOT_METRIC", "ELEVATION_NON_NUMERIC",
+    "MODIFIED_DATE_INVALID", "MODIFIED_DATE_UNLIKELY", "IDENTIFIED_DATE_UNLIKELY", "IDENTIFIED_DATE_INVALID",
+    "BASIS_OF_RECORD_INVALID", "TYPE_STATUS_INVALID", "MULTIMEDIA_DATE_INVALID", "MULTIMEDIA_URI_INVALID",
+    "REFERENCES_URI_INVALID", "INTERPRETATION_ERROR", "INDIVIDUAL_COUNT_INVALID");
+
+  static final StableIds<License> LICENSE = StableIds.of(License.class,
+    "CC0_1_0", "CC_BY_4_0", "CC_BY_NC_4_0", "UNSPECIFIED", "UNSUPPORTED");
+
+  static final StableIds<MediaType> MEDIA_TYPE = StableIds.of(MediaType.class,
+    "StillImage", "MovingImage", "Sound");
+
+  static final StableIds<IdentifierType> IDENTIFIER_TYPE = StableIds.of(IdentifierType.class,
+    "URL", "LSID", "HANDLER", "DOI", "UUID", "FTP", "URI", "UNKNOWN", "GBIF_PORTAL", "GBIF_NODE", "GBIF_PARTICIPANT");
+
+  private VocabularyIds() {
+  }
+}
@@ -0,0 +1,217 @@
+package org.gbif.api.util.cube;
+
+import org.gbif.api.model.metrics.cube.Address;
+import org.gbif.api.model.metrics.cube.AddressEncoder;
+import org.gbif.api.model.metrics.cube.Dimension;
+import org.gbif.api.model.metrics.cube.DimensionCodec;
+import org.gbif.api.model.metrics.cube.ReadBuilder;
+import org.gbif.api.model.metrics.cube.Rollup;
+import org.gbif.api.service.metrics.CubeService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+
+/**
+ * A cube held entirely in memory which maintains the counts of all rollups of a given schema.
+ * <br/>
+ * Records are added as a multimap of dimension values. A dimension can have several values for a single record,
+ * e.g. all taxon keys of the classification, in which case every combination of values is counted.
+ * Rollups with a dimension not given for a record are not incremented.
+ * <br/>
+ * Addresses are encoded into a few longs by an {@link AddressEncoder} and every address is counted by its own
+ * {@link LongAdder}, so that concurrent writers hardly contend and reads are a single hash lookup.
+ */
+@ThreadSafe
+public class InMemoryCube implements CubeService {
+
+  private final List<Rollup> schema;
+  private final Map<Dimension<?>, Integer> dimensionIndex;
+  private final DimensionCodec[] codecs;
+  // rollups by the bitmask of their dimension indices
+  private final Map<Long, RollupCounts> rollups;
+
+  /**
+   * @param schema the rollups to maintain, using at most 64 distinct dimensions
+   * @throws IllegalArgumentException if a dimension type is not supported
+   */
+  public InMemoryCube(List<Rollup> schema) {
+    this.schema = ImmutableList.copyOf(schema);
+    Map<Dimension<?>, Integer> index = Maps.newLinkedHashMap();
+    Map<Dimension<?>, DimensionCodec> codecMap = Maps.newHashMap();
+    Map<Long, RollupCounts> rollupMap = Maps.newLinkedHashMap();
+    for (Rollup rollup : schema) {
+      long mask = 0;
+      for (Dimension<?> dim : rollup.getDimensions()) {
+        Integer idx = index.get(dim);
+        if (idx == null) {
+          idx = index.size();
+          Preconditions.checkArgument(idx < 64, "Cubes with more than 64 dimensions are not supported");
+          index.put(dim, idx);
+          codecMap.put(dim, DimensionCodec.of(dim));
+        }
+        mask |= 1L << idx;
+      }
+      if (!rollupMap.containsKey(mask)) {
+        rollupMap.put(mask, new RollupCounts(rollup, index, codecMap));
+      }
+    }
+    this.dimensionIndex = ImmutableMap.copyOf(index);
+    this.codecs = new DimensionCodec[index.size()];
+    for (Map.Entry<Dimension<?>, Integer> dim : index.entrySet()) {
+      codecs[dim.getValue()] = codecMap.get(dim.getKey());
+    }
+    this.rollups = ImmutableMap.copyOf(rollupMap);
+  }
+
+  /**
+   * Counts a single record.
+   *
+   * @param record the dimension values of the record, dimensions not part of the cube being ignored
+   * @throws IllegalArgumentException if a value does not match the type of its dimension
+   */
+  public void increment(Multimap<Dimension<?>, ?> record) {
+    increment(record, 1);
+  }
+
+  /**
+   * Adds the given amount to all addresses of the record.
+   *
+   * @param record the dimension values of the record, dimensions not part of the cube being ignored
+   * @param amount the amount to add, negative to remove a previously counted record
+   * @throws IllegalArgumentException if a value does not match the type of its dimension
+   */
+  public void increment(Multimap<Dimension<?>, ?> record, long amount) {
+    // encode all values once, concatenated per dimension
+    long[][] encoded = new long[codecs.length][];
+    for (Map.Entry<Dimension<?>, Integer> dim : dimensionIndex.entrySet()) {
+      Collection<?> values = record.get(dim.getKey());
+      if (!values.isEmpty()) {
+        DimensionCodec codec = codecs[dim.getValue()];
+        long[] vals = new long[values.size() * codec.width()];
+        int offset = 0;
+        for (Object value : values) {
+          Preconditions.checkNotNull(value, "Dimension values cannot be null");
+          codec.encode(value, vals, offset);
+          offset += codec.width();
+        }
+        encoded[dim.getValue()] = vals;
+      }
+    }
+    for (RollupCounts rollup : rollups.values()) {
+      rollup.increment(encoded, amount);
+    }
+  }
+
+  /**
+   * Looks up the count of an address in O(1).
+   *
+   * @return the count, 0 for addresses never counted
+   * @throws IllegalArgumentException if no rollup exists for the dimensions of the address or a value is invalid
+   */
+  @Override
+  public long get(ReadBuilder addressBuilder) throws IllegalArgumentException {
+    long mask = 0;
+    for (Dimension<?> dim : addressBuilder.getDimensions()) {
+      Integer idx = dimensionIndex.get(dim);
+      if (idx == null) {
+        throw new IllegalArgumentException("Dimension " + dim.getKey() + " does not exist in the cube");
+      }
+      mask |= 1L << idx;
+    }
+    RollupCounts rollup = rollups.get(mask);
+    if (rollup == null) {
+      throw new IllegalArgumentException("No rollup exists for dimensions " + addressBuilder.getDimensions());
+    }
+    return rollup.get(rollup.encoder.encode(addressBuilder));
+  }
+
+  @Override
+  public List<Rollup> getSchema() {
+    return schema;
+  }
+
+  /**
+   * The counts of a single rollup keyed by the concatenated encoded values of its dimensions.
+   */
+  private static final class RollupCounts {
+
+    private final AddressEncoder encoder;
+    private final int[] indices;
+    private final DimensionCodec[] codecs;
+    private final ConcurrentMap<Address, LongAdder> counts = Maps.newConcurrentMap();
+
+    private RollupCounts(Rollup rollup, Map<Dimension<?>, Integer> index, Map<Dimension<?>, DimensionCodec> allCodecs) {
+      encoder = new AddressEncoder(rollup, allCodecs);
+      int size = rollup.getDimensions().size();
+      indices = new int[size];
+      codecs = new DimensionCodec[size];
+      int i = 0;
+      for (Dimension<?> dim : rollup.getDimensions()) {
+        indices[i] = index.get(dim);
+        codecs[i] = allCodecs.get(dim);
+        i++;
+      }
+    }
+
+    /**
+     * Increments the address of every combination of the dimension values.
+     */
+    private void increment(long[][] encoded, long amount) {
+      for (int idx : indices) {
+        if (encoded[idx] == null) {
+          return;
+        }
+      }
+      // position of the value currently used for each dimension
+      int[] pos = new int[indices.length];
+      while (true) {
+        long[] key = new long[encoder.getWidth()];
+        int offset = 0;
+        for (int i = 0; i < indices.length; i++) {
+          int w = codecs[i].width();
+          System.arraycopy(encoded[indices[i]], pos[i] * w, key, offset, w);
+          offset += w;
+        }
+        counter(new Address(key)).add(amount);
+
+        // advance to the next combination
+        int i = indices.length - 1;
+        while (i >= 0 && ++pos[i] * codecs[i].width() == encoded[indices[i]].length) {
+          pos[i] = 0;
+          i--;
+        }
+        if (i < 0) {
+          return;
+        }
+      }
+    }
+
+    private LongAdder counter(Address address) {
+      LongAdder counter = counts.get(address);
+      if (counter == null) {
+        LongAdder newCounter = new LongAdder();
+        counter = counts.putIfAbsent(address, newCounter);
+        if (counter == null) {
+          counter = newCounter;
+        }
+      }
+      return counter;
+    }
+
+    private long get(@Nullable Address address) {
+      LongAdder counter = address == null ? null : counts.get(address);
+      return counter == null ? 0 : counter.sum();
+    }
+  }
+}
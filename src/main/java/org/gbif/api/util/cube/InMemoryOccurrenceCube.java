@@ -0,0 +1,63 @@
+package org.gbif.api.util.cube;
+
+import org.gbif.api.model.metrics.cube.Dimension;
+import org.gbif.api.model.metrics.cube.OccurrenceCube;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
+/**
+ * An {@link InMemoryCube} for the {@link OccurrenceCube} schema which is populated from interpreted occurrences.
+ */
+@ThreadSafe
+public class InMemoryOccurrenceCube extends InMemoryCube {
+
+  public InMemoryOccurrenceCube() {
+    super(OccurrenceCube.ROLLUPS);
+  }
+
+  /**
+   * Counts an occurrence for its taxon and all higher taxa and for each of its issues.
+   */
+  public void add(Occurrence occ) {
+    increment(dimensions(occ));
+  }
+
+  /**
+   * Removes a previously added occurrence, e.g. before adding its updated version.
+   */
+  public void remove(Occurrence occ) {
+    increment(dimensions(occ), -1);
+  }
+
+  private static SetMultimap<Dimension<?>, Object> dimensions(Occurrence occ) {
+    SetMultimap<Dimension<?>, Object> dims = HashMultimap.create();
+    put(dims, OccurrenceCube.DATASET_KEY, occ.getDatasetKey());
+    put(dims, OccurrenceCube.BASIS_OF_RECORD, occ.getBasisOfRecord());
+    put(dims, OccurrenceCube.COUNTRY, occ.getCountry());
+    put(dims, OccurrenceCube.PUBLISHING_COUNTRY, occ.getPublishingCountry());
+    put(dims, OccurrenceCube.YEAR, occ.getYear());
+    put(dims, OccurrenceCube.PROTOCOL, occ.getProtocol());
+    put(dims, OccurrenceCube.TYPE_STATUS, occ.getTypeStatus());
+    put(dims, OccurrenceCube.IS_GEOREFERENCED,
+        occ.getDecimalLatitude() != null && occ.getDecimalLongitude() != null && !occ.hasSpatialIssue());
+    for (Integer key : new Integer[] {occ.getTaxonKey(), occ.getKingdomKey(), occ.getPhylumKey(), occ.getClassKey(),
+      occ.getOrderKey(), occ.getFamilyKey(), occ.getGenusKey(), occ.getSubgenusKey(), occ.getSpeciesKey()}) {
+      put(dims, OccurrenceCube.TAXON_KEY, key);
+    }
+    for (OccurrenceIssue issue : occ.getIssues()) {
+      put(dims, OccurrenceCube.ISSUE, issue);
+    }
+    return dims;
+  }
+
+  private static <T> void put(SetMultimap<Dimension<?>, Object> dims, Dimension<T> dim, T value) {
+    if (value != null) {
+      dims.put(dim, value);
+    }
+  }
+}
@@ -4,18 +4,42 @@ import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.registry.NetworkEntity;
 
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Iterator over registry entities from paging responses that filters out deleted entities.
+ * <br/>
+ * By default pages are loaded one after the other by the consuming thread.
+ * With {@link #readAhead(int, ExecutorService)} the following pages are loaded in the background while the current
+ * page is being consumed, keeping the order of the entities.
+ * <br/>
+ * Long iterations can be resumed after a failure from a {@link PagerCheckpoint} taken from
+ * {@link ResponseIterator#checkpoint()} and passed to {@link #iterator(PagerCheckpoint)}.
  */
-abstract class EntityPager<T extends NetworkEntity> implements Iterable<T> {
+public abstract class EntityPager<T extends NetworkEntity> implements Iterable<T> {
     private static final Logger LOG = LoggerFactory.getLogger(EntityPager.class);
     private final int pageSize;
+    private final PagerMetrics metrics = new PagerMetrics();
+    private int readAhead;
+    private ExecutorService executor;
 
     /**
      * @param pageSize to use when talking to the registry
@@ -25,17 +49,66 @@ abstract class EntityPager<T extends NetworkEntity> implements Iterable<T> {
         this.pageSize = pageSize;
     }
 
-    class ResponseIterator implements Iterator<T>{
-        private final PagingRequest page = new PagingRequest(0, pageSize);
+    /**
+     * Loads up to the given number of pages in advance for all iterators created afterwards.
+     * The executor should be bounded, e.g. a fixed thread pool shared by all pagers, and is never shut down
+     * by the pager. Iterators which are abandoned before their end should be closed to cancel pending page loads.
+     *
+     * @param pages number of pages to load ahead, 0 to load pages sequentially
+     * @param executor executing the page loads, can be null to load pages sequentially
+     * @return this pager
+     */
+    public EntityPager<T> readAhead(int pages, @Nullable ExecutorService executor) {
+        Preconditions.checkArgument(pages >= 0, "read ahead pages cannot be negative");
+        this.readAhead = executor == null ? 0 : pages;
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @return the page load statistics of all iterators of this pager
+     */
+    public PagerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * An iterator over all entities which can be closed to stop loading pages in advance
+     * and which provides checkpoints to resume a later iteration from.
+     */
+    public class ResponseIterator implements Iterator<T>, Closeable {
+        private final PageLoader loader;
         private PagingResponse<T> resp = null;
         private Iterator<T> iter;
+        private long pageOffset;
         private T next;
+        private long nextOffset;
+        private PagerCheckpoint checkpoint;
 
-        public ResponseIterator() {
+        ResponseIterator(PageLoader loader, PagerCheckpoint from) {
+            this.loader = loader;
+            this.checkpoint = from;
             loadPage();
+            if (from.getLastKey() != null) {
+                skipTo(from.getLastKey());
+            }
             next = nextEntity();
         }
 
+        /**
+         * Skips all entities of the current page up to and including the given key if it exists on the page.
+         */
+        private void skipTo(UUID lastKey) {
+            List<T> results = resp.getResults();
+            for (int i = 0; i < results.size(); i++) {
+                if (lastKey.equals(results.get(i).getKey())) {
+                    iter = results.subList(i + 1, results.size()).iterator();
+                    return;
+                }
+            }
+            LOG.info("Entity {} not found on page {}, resume with the entire page", lastKey, pageOffset);
+        }
+
         @Override
         public boolean hasNext() {
             return next != null;
@@ -44,39 +117,278 @@ abstract class EntityPager<T extends NetworkEntity> implements Iterable<T> {
         @Override
         public T next() {
             T entity = next;
+            if (entity != null) {
+                checkpoint = new PagerCheckpoint(nextOffset, entity.getKey());
+            }
             next = nextEntity();
             return entity;
         }
 
+        /**
+         * @return the position after the last entity returned by {@link #next()}
+         */
+        public PagerCheckpoint checkpoint() {
+            return checkpoint;
+        }
+
         @Override
         public void remove() {
             throw new UnsupportedOperationException();
         }
 
+        /**
+         * Cancels all pages still being loaded in advance.
+         */
+        @Override
+        public void close() {
+            next = null;
+            loader.cancel();
+        }
+
         private T nextEntity() {
             while (true) {
                 if (!iter.hasNext()) {
                     if (resp.isEndOfRecords()) {
                         // no more records to load, stop!
+                        loader.cancel();
                         return null;
                     } else {
                         loadPage();
+                        continue;
                     }
                 }
                 T entity = iter.next();
-                if (entity.getDeleted() != null) {
-                    LOG.debug("Ignore deleted entity {}: {}", entity.getKey(), entity.getTitle().replaceAll("\n", " "));
-                } else if (!exclude(entity)) {
+                if (include(entity)) {
+                    nextOffset = pageOffset;
                     return entity;
                 }
             }
         }
 
         private void loadPage() {
-            LOG.debug("Loading page {}-{}", page.getOffset(), page.getOffset()+page.getLimit());
-            resp = nextPage(page);
+            long start = System.nanoTime();
+            pageOffset = loader.offset;
+            resp = loader.next();
+            metrics.waited(System.nanoTime() - start);
+            iter = resp.getResults().iterator();
+        }
+    }
+
+    /**
+     * @return true if the entity is neither deleted nor excluded
+     */
+    private boolean include(T entity) {
+        if (entity.getDeleted() != null) {
+            LOG.debug("Ignore deleted entity {}: {}", entity.getKey(), entity.getTitle().replaceAll("\n", " "));
+            return false;
+        }
+        return !exclude(entity);
+    }
+
+    /**
+     * Loads a single page and records its latency.
+     */
+    private PagingResponse<T> load(PagingRequest page) {
+        LOG.debug("Loading page {}-{}", page.getOffset(), page.getOffset()+page.getLimit());
+        long start = System.nanoTime();
+        PagingResponse<T> resp = nextPage(page);
+        long latency = System.nanoTime() - start;
+        metrics.pageLoaded(latency);
+        LOG.debug("Loaded page {}-{} in {}ms", page.getOffset(), page.getOffset()+page.getLimit(), latency / 1000000);
+        return resp;
+    }
+
+    /**
+     * Source of the consecutive pages for a single iterator.
+     */
+    private abstract class PageLoader {
+        // offset of the page returned next
+        long offset;
+
+        PageLoader(long offset) {
+            this.offset = offset;
+        }
+
+        abstract PagingResponse<T> next();
+
+        void cancel() {
+        }
+    }
+
+    private class SequentialLoader extends PageLoader {
+
+        SequentialLoader(long offset) {
+            super(offset);
+        }
+
+        @Override
+        PagingResponse<T> next() {
+            PagingResponse<T> resp = load(new PagingRequest(offset, pageSize));
+            offset += pageSize;
+            return resp;
+        }
+    }
+
+    /**
+     * Keeps a fixed number of page loads running ahead of the consumer.
+     * Loads submitted for pages beyond the last one are cancelled once the last page is known.
+     */
+    private class ReadAheadLoader extends PageLoader {
+        private final int pages;
+        private final ExecutorService executor;
+        private final Deque<Future<PagingResponse<T>>> pending = new ArrayDeque<Future<PagingResponse<T>>>();
+        // offset of the next page to submit
+        private long submitOffset;
+        private boolean cancelled;
+
+        ReadAheadLoader(long offset, int pages, ExecutorService executor) {
+            super(offset);
+            this.submitOffset = offset;
+            this.pages = pages;
+            this.executor = executor;
+        }
+
+        @Override
+        PagingResponse<T> next() {
+            if (cancelled) {
+                throw new CancellationException("Pager has been closed");
+            }
+            // the page to be returned plus the ones loaded ahead
+            while (pending.size() <= pages) {
+                final PagingRequest page = new PagingRequest(submitOffset, pageSize);
+                pending.add(executor.submit(new Callable<PagingResponse<T>>() {
+                    @Override
+                    public PagingResponse<T> call() throws Exception {
+                        return load(page);
+                    }
+                }));
+                submitOffset += pageSize;
+            }
+            try {
+                PagingResponse<T> resp = pending.poll().get();
+                offset += pageSize;
+                return resp;
+
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while loading pages");
+
+            } catch (ExecutionException e) {
+                cancel();
+                throw Throwables.propagate(e.getCause());
+
+            } catch (RuntimeException e) {
+                cancel();
+                throw e;
+            }
+        }
+
+        @Override
+        void cancel() {
+            cancelled = true;
+            Future<PagingResponse<T>> f;
+            while ((f = pending.poll()) != null) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Splits on page boundaries so that parallel workers load disjoint pages, see {@link PageSpliterator}.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new PageSpliterator(0, Long.MAX_VALUE, null, null);
+    }
+
+    /**
+     * A spliterator over a range of page aligned offsets.
+     * <br/>
+     * The total number of entities is taken from {@link PagingResponse#getCount()} of the first page loaded. A split
+     * hands the first half of the remaining pages to a new spliterator, so that each spliterator only ever loads its
+     * own pages. The last spliterator is open ended and continues until the end of records, so that entities added
+     * to the registry while iterating are not missed. Without a count the spliterator cannot be split.
+     * Pages are always loaded by the thread consuming the spliterator, ignoring any read ahead configuration.
+     */
+    private class PageSpliterator implements Spliterator<T> {
+        // next offset to load
+        private long offset;
+        // end offset exclusive, Long.MAX_VALUE for the last open ended range
+        private final long end;
+        // the total number of records if known
+        private Long count;
+        // entities of the loaded page not yet consumed
+        private Iterator<T> iter;
+        private boolean endOfRecords;
+
+        private PageSpliterator(long offset, long end, @Nullable Long count, @Nullable Iterator<T> iter) {
+            this.offset = offset;
+            this.end = end;
+            this.count = count;
+            this.iter = iter;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (true) {
+                while (iter != null && iter.hasNext()) {
+                    T entity = iter.next();
+                    if (include(entity)) {
+                        action.accept(entity);
+                        return true;
+                    }
+                }
+                if (endOfRecords || offset >= end) {
+                    return false;
+                }
+                loadPage();
+            }
+        }
+
+        private void loadPage() {
+            PagingResponse<T> resp = load(new PagingRequest(offset, pageSize));
+            offset += pageSize;
+            if (count == null) {
+                count = resp.getCount();
+            }
+            endOfRecords = resp.isEndOfRecords();
             iter = resp.getResults().iterator();
-            page.nextPage();
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (count == null && !endOfRecords && offset == 0) {
+                // load the first page to learn about the total count
+                loadPage();
+            }
+            if (count == null || endOfRecords) {
+                return null;
+            }
+            long last = Math.min(end, count);
+            long pages = (last - offset + pageSize - 1) / pageSize;
+            if (pages < 2) {
+                return null;
+            }
+            long mid = offset + pages / 2 * pageSize;
+            // the prefix takes over the entities already loaded
+            PageSpliterator prefix = new PageSpliterator(offset, mid, count, iter);
+            offset = mid;
+            iter = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            if (count == null) {
+                return endOfRecords && (iter == null || !iter.hasNext()) ? 0 : Long.MAX_VALUE;
+            }
+            return Math.max(0, Math.min(end, count) - offset) + (iter != null && iter.hasNext() ? pageSize : 0);
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL;
         }
     }
 
@@ -90,8 +402,23 @@ abstract class EntityPager<T extends NetworkEntity> implements Iterable<T> {
     }
 
     @Override
-    public Iterator<T> iterator() {
-        return new ResponseIterator();
+    public ResponseIterator iterator() {
+        return iterator(PagerCheckpoint.START);
+    }
+
+    /**
+     * Resumes iterating after the last entity seen by a previous iteration.
+     *
+     * @param from a checkpoint taken from a previous iterator of the same pager type and filters
+     */
+    public ResponseIterator iterator(PagerCheckpoint from) {
+        Preconditions.checkNotNull(from, "checkpoint required");
+        Preconditions.checkArgument(from.getOffset() % pageSize == 0, "checkpoint offset %s is no page boundary",
+                                    from.getOffset());
+        PageLoader loader = readAhead > 0
+          ? new ReadAheadLoader(from.getOffset(), readAhead, executor)
+          : new SequentialLoader(from.getOffset());
+        return new ResponseIterator(loader, from);
     }
 
 }
@@ -2,6 +2,7 @@ package org.gbif.api.util.iterables;
 
 import org.gbif.api.model.common.paging.PagingConstants;
 import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.NetworkEntity;
 import org.gbif.api.model.registry.Node;
 import org.gbif.api.model.registry.Organization;
 import org.gbif.api.service.registry.DatasetService;
@@ -13,6 +14,9 @@ import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.DatasetType;
 
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
 
 import com.google.common.collect.ImmutableList;
@@ -33,6 +37,9 @@ public class Iterables {
     }
 
     /**
+     * Creates a new {@link RegistryKeyResolver} on each call, see
+     * {@link #datasets(UUID, DatasetType, RegistryKeyResolver, int)} for iterating the datasets of many keys.
+     *
      * @param key a valid dataset, organization or installation key. If null all datasets will be iterated over
      * @throws IllegalArgumentException if given key is not existing
      */
@@ -45,6 +52,10 @@ public class Iterables {
     /**
      * Returns a dataset iterable by testing the given registry key first to see whether it is a dataset, organization or installation.
      * In case of an organization key the published datasets will be returned.
+     * <br/>
+     * A new {@link RegistryKeyResolver} is created on each call, so nothing is cached between calls.
+     * Callers iterating the datasets of many keys should create one resolver for their services and pass it to
+     * {@link #datasets(UUID, DatasetType, RegistryKeyResolver, int)} instead.
      *
      * @param key a valid dataset, organization or installation key. If null all datasets will be iterated over
      * @param pageSize to use when talking to the registry
@@ -53,31 +64,52 @@ public class Iterables {
     public static Iterable<Dataset> datasets(@Nullable UUID key, @Nullable DatasetType type,
                                              DatasetService ds, OrganizationService os, InstallationService is,
                                              NetworkService ns, NodeService nos, int pageSize) {
+        return datasets(key, type, new RegistryKeyResolver(ds, os, is, nos, ns), pageSize);
+    }
+
+    /**
+     * Same as {@link #datasets(UUID, DatasetType, DatasetService, OrganizationService, InstallationService,
+     * NetworkService, NodeService, int)} but detecting the kind of key with a shared resolver,
+     * which avoids calling the registry for keys resolved before.
+     *
+     * @param key a valid dataset, organization, installation, node or network key. If null all datasets will be iterated over
+     * @param pageSize to use when talking to the registry
+     * @throws IllegalArgumentException if given key is not existing
+     */
+    public static Iterable<Dataset> datasets(@Nullable UUID key, @Nullable DatasetType type,
+                                             RegistryKeyResolver resolver, int pageSize) {
         if (key == null) {
             LOG.info("Iterate over all {} datasets", type == null ? "" : type);
-            return new DatasetPager(ds, type, pageSize);
-
-        } else if (isDataset(key, ds)) {
-            LOG.info("Iterate over dataset {}", key);
-            return ImmutableList.of(ds.get(key));
-
-        } else if (isOrganization(key, os)) {
-            LOG.info("Iterate over all {} datasets published by {}", type == null ? "" : type, key);
-            return new OrgPublishingPager(os, key, type, pageSize);
-
-        } else if (isInstallation(key, is)) {
-            LOG.info("Iterate over all {} datasets hosted by installation {}", type == null ? "" : type, key);
-            return new InstallationPager(is, key, type, pageSize);
-
-        } else if (isNode(key, nos)) {
-            LOG.info("Iterate over all {} datasets endorsed by node {}", type == null ? "" : type, key);
-            return new NetworkPager(ns, key, type, pageSize);
+            return new DatasetPager(resolver.getDatasetService(), type, pageSize);
+        }
 
-        } else if (isNetwork(key, ns)) {
-            LOG.info("Iterate over all {} datasets belonging to network {}", type == null ? "" : type, key);
-            return new NodeDatasetPager(nos, key, type, pageSize);
+        // resolving an uncached key gets the entity, so keep it for datasets instead of getting them again
+        NetworkEntity entity = resolver.cached(key) == null ? resolver.get(key) : null;
+        RegistryKeyResolver.EntityType keyType = resolver.resolve(key);
+        if (keyType == null) {
+            throw new IllegalArgumentException("Given key is no valid GBIF registry key: " + key);
+        }
+        switch (keyType) {
+            case DATASET:
+                LOG.info("Iterate over dataset {}", key);
+                return ImmutableList.of(entity == null ? resolver.getDatasetService().get(key) : (Dataset) entity);
+
+            case ORGANIZATION:
+                LOG.info("Iterate over all {} datasets published by {}", type == null ? "" : type, key);
+                return new OrgPublishingPager(resolver.getOrganizationService(), key, type, pageSize);
+
+            case INSTALLATION:
+                LOG.info("Iterate over all {} datasets hosted by installation {}", type == null ? "" : type, key);
+                return new InstallationPager(resolver.getInstallationService(), key, type, pageSize);
+
+            case NODE:
+                LOG.info("Iterate over all {} datasets endorsed by node {}", type == null ? "" : type, key);
+                return new NodeDatasetPager(resolver.getNodeService(), key, type, pageSize);
+
+            default:
+                LOG.info("Iterate over all {} datasets belonging to network {}", type == null ? "" : type, key);
+                return new NetworkPager(resolver.getNetworkService(), key, type, pageSize);
         }
-        throw new IllegalArgumentException("Given key is no valid GBIF registry key: " + key);
     }
 
     /**
@@ -166,23 +198,39 @@ public class Iterables {
         return new NodePager(service, PagingConstants.DEFAULT_PARAM_LIMIT);
     }
 
-    private static boolean isDataset(UUID key, DatasetService ds) {
-        return ds.get(key) != null;
-    }
-
-    private static boolean isOrganization(UUID key, OrganizationService os) {
-        return os.get(key) != null;
-    }
-
-    private static boolean isInstallation(UUID key, InstallationService is) {
-        return is.get(key) != null;
+    /**
+     * Loads pages of the given pager in advance, so that the registry is called while the current page is consumed.
+     * Iterables which are not paging, e.g. a single dataset, are returned unchanged.
+     * Iterators abandoned before their end should be closed, see {@link EntityPager.ResponseIterator#close()}.
+     *
+     * @param iterable as returned by the other methods of this class
+     * @param pages number of pages to load ahead
+     * @param executor a bounded executor loading the pages, e.g. a fixed thread pool
+     */
+    public static <T> Iterable<T> readAhead(Iterable<T> iterable, int pages, ExecutorService executor) {
+        if (iterable instanceof EntityPager) {
+            ((EntityPager<?>) iterable).readAhead(pages, executor);
+        }
+        return iterable;
     }
 
-    private static boolean isNetwork(UUID key, NetworkService ns) {
-        return ns.get(key) != null;
+    /**
+     * Streams sequentially over the entities of the given iterable.
+     *
+     * @param iterable as returned by the other methods of this class
+     */
+    public static <T> Stream<T> stream(Iterable<T> iterable) {
+        return StreamSupport.stream(iterable.spliterator(), false);
     }
 
-    private static boolean isNode(UUID key, NodeService ns) {
-        return ns.get(key) != null;
+    /**
+     * Streams in parallel over the entities of the given iterable.
+     * Pagers are split on page boundaries using the total count of the first page, so that every worker loads and
+     * processes its own pages concurrently.
+     *
+     * @param iterable as returned by the other methods of this class
+     */
+    public static <T> Stream<T> parallelStream(Iterable<T> iterable) {
+        return StreamSupport.stream(iterable.spliterator(), true);
     }
 }
@@ -0,0 +1,97 @@
+package org.gbif.api.util.iterables;
+
+import java.io.Serializable;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+/**
+ * The position of an {@link EntityPager} iterator, allowing a later iteration to resume after the last entity seen.
+ * <br/>
+ * A checkpoint consists of the offset of the page holding the last entity returned and the key of that entity.
+ * When resuming, the page at the offset is loaded again and all entities up to and including the last key are
+ * skipped. Should the key not be found on that page anymore, e.g. because entities have been deleted in the
+ * meantime, the whole page is returned again. Resuming therefore never misses entities but might repeat a few.
+ * <br/>
+ * Checkpoints are immutable and can be persisted either as java serialized objects or as a simple string, see
+ * {@link #toString()} and {@link #fromString(String)}.
+ */
+public final class PagerCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = -2873153928474720563L;
+
+    /**
+     * The checkpoint of a new iteration from the very beginning.
+     */
+    public static final PagerCheckpoint START = new PagerCheckpoint(0, null);
+
+    private final long offset;
+    private final UUID lastKey;
+
+    /**
+     * @param offset of the page holding the last entity seen
+     * @param lastKey the key of the last entity seen, null if no entity on the page has been seen yet
+     */
+    public PagerCheckpoint(long offset, @Nullable UUID lastKey) {
+        Preconditions.checkArgument(offset >= 0, "offset cannot be negative");
+        this.offset = offset;
+        this.lastKey = lastKey;
+    }
+
+    /**
+     * Parses a checkpoint created by {@link #toString()}.
+     *
+     * @throws IllegalArgumentException if the value is no valid checkpoint
+     */
+    public static PagerCheckpoint fromString(String value) {
+        Preconditions.checkNotNull(value, "checkpoint cannot be null");
+        int sep = value.indexOf(':');
+        if (sep < 0) {
+            return new PagerCheckpoint(Long.parseLong(value.trim()), null);
+        }
+        return new PagerCheckpoint(Long.parseLong(value.substring(0, sep).trim()),
+                                   UUID.fromString(value.substring(sep + 1).trim()));
+    }
+
+    /**
+     * @return the offset of the page holding the last entity seen
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the key of the last entity seen or null
+     */
+    @Nullable
+    public UUID getLastKey() {
+        return lastKey;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PagerCheckpoint)) {
+            return false;
+        }
+        PagerCheckpoint that = (PagerCheckpoint) obj;
+        return offset == that.offset && Objects.equal(lastKey, that.lastKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(offset, lastKey);
+    }
+
+    /**
+     * @return the offset and last key separated by a colon, e.g. 200:9a1ee4f0-4b0d-4b5c-8b4e-1a9d2f6b1c3e
+     */
+    @Override
+    public String toString() {
+        return lastKey == null ? String.valueOf(offset) : offset + ":" + lastKey;
+    }
+}
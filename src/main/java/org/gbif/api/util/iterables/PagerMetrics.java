@@ -0,0 +1,83 @@
+package org.gbif.api.util.iterables;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Objects;
+
+/**
+ * Page load statistics of an {@link EntityPager}, aggregated over all its iterators.
+ * <br/>
+ * The latency is the time spent calling the registry for a single page. The waiting time is the time the
+ * consumer of an iterator was blocked waiting for the next page, which is lower than the latency when pages
+ * are read ahead.
+ */
+@ThreadSafe
+public class PagerMetrics {
+
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder latency = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+    private final LongAdder waiting = new LongAdder();
+
+    void pageLoaded(long latencyNanos) {
+        pages.increment();
+        latency.add(latencyNanos);
+        long max = maxLatency.get();
+        while (latencyNanos > max && !maxLatency.compareAndSet(max, latencyNanos)) {
+            max = maxLatency.get();
+        }
+    }
+
+    void waited(long nanos) {
+        waiting.add(nanos);
+    }
+
+    /**
+     * @return the number of pages loaded
+     */
+    public long getPages() {
+        return pages.sum();
+    }
+
+    /**
+     * @return the summed up latency of all page loads
+     */
+    public long getTotalLatency(TimeUnit unit) {
+        return unit.convert(latency.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the average latency of a single page load or 0 if no page was loaded yet
+     */
+    public long getMeanLatency(TimeUnit unit) {
+        long count = pages.sum();
+        return count == 0 ? 0 : unit.convert(latency.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the highest latency of a single page load
+     */
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(maxLatency.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the total time consumers were blocked waiting for pages
+     */
+    public long getWaitingTime(TimeUnit unit) {
+        return unit.convert(waiting.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this)
+          .add("pages", getPages())
+          .add("meanLatencyMs", getMeanLatency(TimeUnit.MILLISECONDS))
+          .add("maxLatencyMs", getMaxLatency(TimeUnit.MILLISECONDS))
+          .add("waitingMs", getWaitingTime(TimeUnit.MILLISECONDS))
+          .toString();
+    }
+}
@@ -0,0 +1,236 @@
+package org.gbif.api.util.iterables;
+
+import org.gbif.api.model.registry.NetworkEntity;
+import org.gbif.api.service.registry.DatasetService;
+import org.gbif.api.service.registry.InstallationService;
+import org.gbif.api.service.registry.NetworkEntityService;
+import org.gbif.api.service.registry.NetworkService;
+import org.gbif.api.service.registry.NodeService;
+import org.gbif.api.service.registry.OrganizationService;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects the kind of registry entity a key belongs to, caching the results for a limited time.
+ * <br/>
+ * A single key is resolved by trying to get a dataset, organization, installation, node and network in this order.
+ * Many keys are resolved in a batch with at most one {@link NetworkEntityService#getTitles(Collection)} call
+ * per entity type. Unknown keys are cached too, so that repeated lookups of invalid keys do not call the registry.
+ */
+@ThreadSafe
+public class RegistryKeyResolver {
+    private static final Logger LOG = LoggerFactory.getLogger(RegistryKeyResolver.class);
+    private static final long DEFAULT_SIZE = 10000;
+    private static final long DEFAULT_TTL_MINUTES = 60;
+
+    /**
+     * The types of registry entities, in the order they are tested.
+     */
+    public enum EntityType {
+        DATASET, ORGANIZATION, INSTALLATION, NODE, NETWORK
+    }
+
+    private final DatasetService ds;
+    private final OrganizationService os;
+    private final InstallationService is;
+    private final NodeService nos;
+    private final NetworkService ns;
+    private final Map<EntityType, NetworkEntityService<? extends NetworkEntity>> services;
+    private final LoadingCache<UUID, Optional<EntityType>> cache;
+
+    /**
+     * Creates a resolver caching up to 10000 keys for an hour.
+     */
+    public RegistryKeyResolver(DatasetService ds, OrganizationService os, InstallationService is,
+                               NodeService nos, NetworkService ns) {
+        this(ds, os, is, nos, ns, DEFAULT_SIZE, DEFAULT_TTL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @param maximumSize the maximum number of keys to cache
+     * @param ttl the time a resolved key is cached
+     */
+    public RegistryKeyResolver(DatasetService ds, OrganizationService os, InstallationService is,
+                               NodeService nos, NetworkService ns, long maximumSize, long ttl, TimeUnit unit) {
+        this.ds = Preconditions.checkNotNull(ds);
+        this.os = Preconditions.checkNotNull(os);
+        this.is = Preconditions.checkNotNull(is);
+        this.nos = Preconditions.checkNotNull(nos);
+        this.ns = Preconditions.checkNotNull(ns);
+        services = ImmutableMap.<EntityType, NetworkEntityService<? extends NetworkEntity>>builder()
+          .put(EntityType.DATASET, ds)
+          .put(EntityType.ORGANIZATION, os)
+          .put(EntityType.INSTALLATION, is)
+          .put(EntityType.NODE, nos)
+          .put(EntityType.NETWORK, ns)
+          .build();
+        cache = CacheBuilder.newBuilder()
+          .maximumSize(maximumSize)
+          .expireAfterWrite(ttl, unit)
+          .build(new CacheLoader<UUID, Optional<EntityType>>() {
+              @Override
+              public Optional<EntityType> load(UUID key) {
+                  return Optional.fromNullable(probe(key));
+              }
+
+              @Override
+              public Map<UUID, Optional<EntityType>> loadAll(Iterable<? extends UUID> keys) {
+                  return probeAll(keys);
+              }
+          });
+    }
+
+    /**
+     * @return the type of entity the key belongs to or null if the key is unknown to the registry
+     */
+    @Nullable
+    public EntityType resolve(UUID key) {
+        Preconditions.checkNotNull(key, "key required");
+        try {
+            return cache.getUnchecked(key).orNull();
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Resolves many keys at once, calling the registry only for keys not cached yet.
+     *
+     * @return the types of all known keys, unknown keys being left out
+     */
+    public Map<UUID, EntityType> resolveAll(Collection<UUID> keys) {
+        Map<UUID, Optional<EntityType>> resolved;
+        try {
+            resolved = cache.getAll(keys);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        Map<UUID, EntityType> types = Maps.newHashMap();
+        for (Map.Entry<UUID, Optional<EntityType>> entry : resolved.entrySet()) {
+            if (entry.getValue().isPresent()) {
+                types.put(entry.getKey(), entry.getValue().get());
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Resolves the key and gets the entity from the matching service.
+     * Keys not cached yet are resolved by getting the entity, which is returned without getting it again.
+     *
+     * @return the entity or null if the key is unknown to the registry
+     */
+    @Nullable
+    public NetworkEntity get(UUID key) {
+        Optional<EntityType> type = cached(key);
+        if (type != null) {
+            return type.isPresent() ? services.get(type.get()).get(key) : null;
+        }
+        Map.Entry<EntityType, NetworkEntity> found = find(key);
+        cache.put(key, Optional.fromNullable(found == null ? null : found.getKey()));
+        return found == null ? null : found.getValue();
+    }
+
+    /**
+     * @return the cached type of the key, absent for cached unknown keys or null if the key is not cached
+     */
+    @Nullable
+    Optional<EntityType> cached(UUID key) {
+        return cache.getIfPresent(Preconditions.checkNotNull(key, "key required"));
+    }
+
+    /**
+     * Removes a key from the cache, e.g. after the entity has been deleted or created.
+     */
+    public void invalidate(UUID key) {
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    DatasetService getDatasetService() {
+        return ds;
+    }
+
+    OrganizationService getOrganizationService() {
+        return os;
+    }
+
+    InstallationService getInstallationService() {
+        return is;
+    }
+
+    NodeService getNodeService() {
+        return nos;
+    }
+
+    NetworkService getNetworkService() {
+        return ns;
+    }
+
+    private EntityType probe(UUID key) {
+        Map.Entry<EntityType, NetworkEntity> found = find(key);
+        return found == null ? null : found.getKey();
+    }
+
+    /**
+     * Gets the entity from each service in the order of the entity types.
+     *
+     * @return the type and entity found or null if the key is unknown to the registry
+     */
+    @Nullable
+    private Map.Entry<EntityType, NetworkEntity> find(UUID key) {
+        for (Map.Entry<EntityType, NetworkEntityService<? extends NetworkEntity>> service : services.entrySet()) {
+            NetworkEntity entity = service.getValue().get(key);
+            if (entity != null) {
+                return Maps.immutableEntry(service.getKey(), entity);
+            }
+        }
+        LOG.debug("Key {} is unknown to the registry", key);
+        return null;
+    }
+
+    private Map<UUID, Optional<EntityType>> probeAll(Iterable<? extends UUID> keys) {
+        Set<UUID> remaining = Sets.newLinkedHashSet(keys);
+        Map<UUID, Optional<EntityType>> types = Maps.newHashMap();
+        for (Map.Entry<EntityType, NetworkEntityService<? extends NetworkEntity>> service : services.entrySet()) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            for (UUID key : service.getValue().getTitles(remaining).keySet()) {
+                if (remaining.remove(key)) {
+                    types.put(key, Optional.of(service.getKey()));
+                }
+            }
+        }
+        for (UUID key : remaining) {
+            types.put(key, Optional.<EntityType>absent());
+        }
+        LOG.debug("Resolved {} keys, {} unknown", types.size(), remaining.size());
+        return types;
+    }
+}
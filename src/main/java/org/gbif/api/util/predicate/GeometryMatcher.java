@@ -0,0 +1,123 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+
+import com.google.common.base.Preconditions;
+import com.vividsolutions.jts.algorithm.locate.IndexedPointInAreaLocator;
+import com.vividsolutions.jts.algorithm.locate.PointOnGeometryLocator;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Location;
+import com.vividsolutions.jts.geom.Polygonal;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+
+/**
+ * Tests coordinates against a single geometry, optimized for testing many points against large polygons.
+ * <br/>
+ * Points are first checked against the bounding box of the geometry. For polygons the bounding box is divided into
+ * a grid of cells, each of which is classified on first use as lying completely inside, completely outside or on the
+ * border of the polygon. Only points falling into a border cell are located exactly, using an index over the polygon
+ * edges, so that each test takes logarithmic time in the number of vertices.
+ * <br/>
+ * Points on the boundary of the geometry match, as with {@link Geometry#intersects(Geometry)}.
+ * Instances are thread safe: the edge index, which JTS builds on first use without synchronization, is built by the
+ * constructor and cells are classified one at a time.
+ */
+public final class GeometryMatcher {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+  private static final int MAX_GRID_SIZE = 128;
+  private static final double CELL_MARGIN = 1e-6;
+
+  private static final byte UNKNOWN = 0;
+  private static final byte INSIDE = 1;
+  private static final byte OUTSIDE = 2;
+  private static final byte BORDER = 3;
+
+  private final Envelope envelope;
+  private final PreparedGeometry prepared;
+  // null for geometries without an area, which are matched by the prepared geometry only
+  private final PointOnGeometryLocator locator;
+  private final int gridSize;
+  private final double cellWidth;
+  private final double cellHeight;
+  // lazily classified cells, concurrent writes always store the same value
+  private final byte[] cells;
+
+  public GeometryMatcher(Geometry geometry) {
+    Preconditions.checkNotNull(geometry, "Geometry required");
+    envelope = geometry.getEnvelopeInternal();
+    prepared = PreparedGeometryFactory.prepare(geometry);
+    if (geometry instanceof Polygonal && envelope.getWidth() > 0 && envelope.getHeight() > 0) {
+      locator = new IndexedPointInAreaLocator(geometry);
+      // builds the edge index before the matcher is shared
+      locator.locate(envelope.centre());
+      gridSize = Math.max(1, Math.min(MAX_GRID_SIZE, (int) Math.sqrt(geometry.getNumPoints())));
+      cellWidth = envelope.getWidth() / gridSize;
+      cellHeight = envelope.getHeight() / gridSize;
+      cells = new byte[gridSize * gridSize];
+    } else {
+      locator = null;
+      gridSize = 0;
+      cellWidth = 0;
+      cellHeight = 0;
+      cells = null;
+    }
+  }
+
+  /**
+   * Creates a matcher for the geometry of a within predicate.
+   */
+  public static GeometryMatcher of(WithinPredicate predicate) {
+    return new GeometryMatcher(predicate.getParsedGeometry());
+  }
+
+  /**
+   * @return true if the coordinate lies within or on the boundary of the geometry
+   */
+  public boolean matches(double decimalLatitude, double decimalLongitude) {
+    if (!envelope.intersects(decimalLongitude, decimalLatitude)) {
+      return false;
+    }
+    if (locator == null) {
+      return prepared.intersects(GEOMETRY_FACTORY.createPoint(new Coordinate(decimalLongitude, decimalLatitude)));
+    }
+
+    int x = Math.min(gridSize - 1, (int) ((decimalLongitude - envelope.getMinX()) / cellWidth));
+    int y = Math.min(gridSize - 1, (int) ((decimalLatitude - envelope.getMinY()) / cellHeight));
+    int idx = y * gridSize + x;
+    byte cell = cells[idx];
+    if (cell == UNKNOWN) {
+      cell = classify(x, y);
+      cells[idx] = cell;
+    }
+    switch (cell) {
+      case INSIDE:
+        return true;
+      case OUTSIDE:
+        return false;
+      default:
+        return locator.locate(new Coordinate(decimalLongitude, decimalLatitude)) != Location.EXTERIOR;
+    }
+  }
+
+  /**
+   * Classifies the cell, slightly enlarged so that points on its edges are not affected by rounding.
+   * Synchronized, as the prepared geometry also builds its indices on first use.
+   */
+  private synchronized byte classify(int x, int y) {
+    double marginX = cellWidth * CELL_MARGIN;
+    double marginY = cellHeight * CELL_MARGIN;
+    double minX = envelope.getMinX() + x * cellWidth;
+    double minY = envelope.getMinY() + y * cellHeight;
+    Geometry cell = GEOMETRY_FACTORY.toGeometry(new Envelope(minX - marginX, minX + cellWidth + marginX,
+                                                             minY - marginY, minY + cellHeight + marginY));
+    if (prepared.covers(cell)) {
+      return INSIDE;
+    }
+    return prepared.intersects(cell) ? BORDER : OUTSIDE;
+  }
+}
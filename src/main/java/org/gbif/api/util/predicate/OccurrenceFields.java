@@ -0,0 +1,335 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Accessors reading the value of an {@link OccurrenceSearchParameter} from an occurrence record.
+ * All accessors return the values held by the record itself, so reading them does not allocate.
+ */
+final class OccurrenceFields {
+
+  /**
+   * A test applied to a single, non null field value.
+   */
+  interface ValueTest {
+
+    boolean test(Object value);
+  }
+
+  /**
+   * Reads the value(s) of a single search parameter from a record.
+   */
+  abstract static class Field {
+
+    /**
+     * @return true if any of the field values of the record passes the given test
+     */
+    abstract boolean anyMatch(VerbatimOccurrence occurrence, ValueTest test);
+
+    /**
+     * @return true if the record has at least one non empty value for the field
+     */
+    abstract boolean isPresent(VerbatimOccurrence occurrence);
+  }
+
+  /**
+   * A field holding at most one value.
+   */
+  abstract static class SingleValueField extends Field {
+
+    @Nullable
+    abstract Object get(VerbatimOccurrence occurrence);
+
+    @Override
+    final boolean anyMatch(VerbatimOccurrence occurrence, ValueTest test) {
+      Object value = get(occurrence);
+      return value != null && test.test(value);
+    }
+
+    @Override
+    final boolean isPresent(VerbatimOccurrence occurrence) {
+      Object value = get(occurrence);
+      return value != null && !(value instanceof String && ((String) value).isEmpty());
+    }
+  }
+
+  /**
+   * A verbatim field stored in {@link VerbatimOccurrence#getVerbatimFields()}.
+   */
+  private static class TermField extends SingleValueField {
+
+    private final Term term;
+
+    TermField(Term term) {
+      this.term = term;
+    }
+
+    @Override
+    Object get(VerbatimOccurrence occurrence) {
+      return occurrence.getVerbatimField(term);
+    }
+  }
+
+  /**
+   * A property common to verbatim and interpreted records.
+   */
+  private static class VerbatimProperty extends SingleValueField {
+
+    private final Function<VerbatimOccurrence, Object> getter;
+
+    VerbatimProperty(Function<VerbatimOccurrence, Object> getter) {
+      this.getter = getter;
+    }
+
+    @Override
+    Object get(VerbatimOccurrence occurrence) {
+      return getter.apply(occurrence);
+    }
+  }
+
+  /**
+   * A property only found on interpreted records, always null for verbatim ones.
+   */
+  private static class InterpretedProperty extends SingleValueField {
+
+    private final Function<Occurrence, Object> getter;
+
+    InterpretedProperty(Function<Occurrence, Object> getter) {
+      this.getter = getter;
+    }
+
+    @Override
+    Object get(VerbatimOccurrence occurrence) {
+      return occurrence instanceof Occurrence ? getter.apply((Occurrence) occurrence) : null;
+    }
+  }
+
+  /**
+   * The taxon key matches the key of the taxon itself or any of its higher taxa.
+   */
+  private static class TaxonKeyField extends Field {
+
+    @Override
+    boolean anyMatch(VerbatimOccurrence occurrence, ValueTest test) {
+      if (!(occurrence instanceof Occurrence)) {
+        return false;
+      }
+      Occurrence occ = (Occurrence) occurrence;
+      return matches(occ.getTaxonKey(), test)
+             || matches(occ.getKingdomKey(), test)
+             || matches(occ.getPhylumKey(), test)
+             || matches(occ.getClassKey(), test)
+             || matches(occ.getOrderKey(), test)
+             || matches(occ.getFamilyKey(), test)
+             || matches(occ.getGenusKey(), test)
+             || matches(occ.getSubgenusKey(), test)
+             || matches(occ.getSpeciesKey(), test);
+    }
+
+    private static boolean matches(@Nullable Integer key, ValueTest test) {
+      return key != null && test.test(key);
+    }
+
+    @Override
+    boolean isPresent(VerbatimOccurrence occurrence) {
+      return occurrence instanceof Occurrence && ((Occurrence) occurrence).getTaxonKey() != null;
+    }
+  }
+
+  private static class IssueField extends Field {
+
+    private static final OccurrenceIssue[] ISSUES = OccurrenceIssue.values();
+
+    @Override
+    boolean anyMatch(VerbatimOccurrence occurrence, ValueTest test) {
+      if (occurrence instanceof Occurrence) {
+        Set<OccurrenceIssue> issues = ((Occurrence) occurrence).getIssues();
+        if (issues != null && !issues.isEmpty()) {
+          for (OccurrenceIssue issue : ISSUES) {
+            if (issues.contains(issue) && test.test(issue)) {
+              return true;
+            }
+          }
+        }
+      }
+      return false;
+    }
+
+    @Override
+    boolean isPresent(VerbatimOccurrence occurrence) {
+      if (occurrence instanceof Occurrence) {
+        Set<OccurrenceIssue> issues = ((Occurrence) occurrence).getIssues();
+        return issues != null && !issues.isEmpty();
+      }
+      return false;
+    }
+  }
+
+  private static class MediaTypeField extends Field {
+
+    @Override
+    boolean anyMatch(VerbatimOccurrence occurrence, ValueTest test) {
+      if (occurrence instanceof Occurrence) {
+        List<MediaObject> media = ((Occurrence) occurrence).getMedia();
+        if (media != null) {
+          for (int idx = 0; idx < media.size(); idx++) {
+            MediaObject m = media.get(idx);
+            if (m != null && m.getType() != null && test.test(m.getType())) {
+              return true;
+            }
+          }
+        }
+      }
+      return false;
+    }
+
+    @Override
+    boolean isPresent(VerbatimOccurrence occurrence) {
+      if (occurrence instanceof Occurrence) {
+        List<MediaObject> media = ((Occurrence) occurrence).getMedia();
+        if (media != null) {
+          for (int idx = 0; idx < media.size(); idx++) {
+            if (media.get(idx) != null && media.get(idx).getType() != null) {
+              return true;
+            }
+          }
+        }
+      }
+      return false;
+    }
+  }
+
+  private static class NetworkKeyField extends Field {
+
+    @Override
+    boolean anyMatch(VerbatimOccurrence occurrence, ValueTest test) {
+      List<?> keys = occurrence.getNetworkKeys();
+      if (keys != null) {
+        for (int idx = 0; idx < keys.size(); idx++) {
+          Object key = keys.get(idx);
+          if (key != null && test.test(key)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    @Override
+    boolean isPresent(VerbatimOccurrence occurrence) {
+      return occurrence.getNetworkKeys() != null && !occurrence.getNetworkKeys().isEmpty();
+    }
+  }
+
+  private static final Map<OccurrenceSearchParameter, Field> FIELDS = buildFields();
+
+  private OccurrenceFields() {
+    // static utils class
+  }
+
+  /**
+   * @return the accessor for the given parameter
+   *
+   * @throws IllegalArgumentException if the parameter cannot be read from an occurrence record
+   */
+  static Field of(OccurrenceSearchParameter param) {
+    Field field = FIELDS.get(param);
+    if (field == null) {
+      throw new IllegalArgumentException("Search parameter " + param + " is not supported for occurrence matching");
+    }
+    return field;
+  }
+
+  /**
+   * @return true if the given parameter can be read from an occurrence record
+   */
+  static boolean isSupported(OccurrenceSearchParameter param) {
+    return FIELDS.containsKey(param);
+  }
+
+  /**
+   * @return true if a record can hold several values for the given parameter, e.g. issues or taxon keys
+   */
+  static boolean isMultiValued(OccurrenceSearchParameter param) {
+    return !(FIELDS.get(param) instanceof SingleValueField);
+  }
+
+  private static Map<OccurrenceSearchParameter, Field> buildFields() {
+    Map<OccurrenceSearchParameter, Field> fields = new EnumMap<OccurrenceSearchParameter, Field>(OccurrenceSearchParameter.class);
+    // common properties
+    fields.put(OccurrenceSearchParameter.DATASET_KEY, new VerbatimProperty(VerbatimOccurrence::getDatasetKey));
+    fields.put(OccurrenceSearchParameter.PUBLISHING_COUNTRY, new VerbatimProperty(VerbatimOccurrence::getPublishingCountry));
+    fields.put(OccurrenceSearchParameter.PUBLISHING_ORG, new VerbatimProperty(VerbatimOccurrence::getPublishingOrgKey));
+    fields.put(OccurrenceSearchParameter.INSTALLATION_KEY, new VerbatimProperty(VerbatimOccurrence::getInstallationKey));
+    fields.put(OccurrenceSearchParameter.PROTOCOL, new VerbatimProperty(VerbatimOccurrence::getProtocol));
+    fields.put(OccurrenceSearchParameter.NETWORK_KEY, new NetworkKeyField());
+
+    // verbatim terms
+    fields.put(OccurrenceSearchParameter.EVENT_ID, new TermField(DwcTerm.eventID));
+    fields.put(OccurrenceSearchParameter.PARENT_EVENT_ID, new TermField(DwcTerm.parentEventID));
+    fields.put(OccurrenceSearchParameter.SAMPLING_PROTOCOL, new TermField(DwcTerm.samplingProtocol));
+    fields.put(OccurrenceSearchParameter.INSTITUTION_CODE, new TermField(DwcTerm.institutionCode));
+    fields.put(OccurrenceSearchParameter.COLLECTION_CODE, new TermField(DwcTerm.collectionCode));
+    fields.put(OccurrenceSearchParameter.CATALOG_NUMBER, new TermField(DwcTerm.catalogNumber));
+    fields.put(OccurrenceSearchParameter.RECORDED_BY, new TermField(DwcTerm.recordedBy));
+    fields.put(OccurrenceSearchParameter.RECORD_NUMBER, new TermField(DwcTerm.recordNumber));
+    fields.put(OccurrenceSearchParameter.OCCURRENCE_ID, new TermField(DwcTerm.occurrenceID));
+    fields.put(OccurrenceSearchParameter.ORGANISM_ID, new TermField(DwcTerm.organismID));
+    fields.put(OccurrenceSearchParameter.LOCALITY, new TermField(DwcTerm.locality));
+
+    // interpreted properties
+    fields.put(OccurrenceSearchParameter.YEAR, new InterpretedProperty(Occurrence::getYear));
+    fields.put(OccurrenceSearchParameter.MONTH, new InterpretedProperty(Occurrence::getMonth));
+    fields.put(OccurrenceSearchParameter.EVENT_DATE, new InterpretedProperty(Occurrence::getEventDate));
+    fields.put(OccurrenceSearchParameter.LAST_INTERPRETED, new InterpretedProperty(Occurrence::getLastInterpreted));
+    fields.put(OccurrenceSearchParameter.DECIMAL_LATITUDE, new InterpretedProperty(Occurrence::getDecimalLatitude));
+    fields.put(OccurrenceSearchParameter.DECIMAL_LONGITUDE, new InterpretedProperty(Occurrence::getDecimalLongitude));
+    fields.put(OccurrenceSearchParameter.COUNTRY, new InterpretedProperty(Occurrence::getCountry));
+    fields.put(OccurrenceSearchParameter.CONTINENT, new InterpretedProperty(Occurrence::getContinent));
+    fields.put(OccurrenceSearchParameter.ELEVATION, new InterpretedProperty(Occurrence::getElevation));
+    fields.put(OccurrenceSearchParameter.DEPTH, new InterpretedProperty(Occurrence::getDepth));
+    fields.put(OccurrenceSearchParameter.BASIS_OF_RECORD, new InterpretedProperty(Occurrence::getBasisOfRecord));
+    fields.put(OccurrenceSearchParameter.KINGDOM_KEY, new InterpretedProperty(Occurrence::getKingdomKey));
+    fields.put(OccurrenceSearchParameter.PHYLUM_KEY, new InterpretedProperty(Occurrence::getPhylumKey));
+    fields.put(OccurrenceSearchParameter.CLASS_KEY, new InterpretedProperty(Occurrence::getClassKey));
+    fields.put(OccurrenceSearchParameter.ORDER_KEY, new InterpretedProperty(Occurrence::getOrderKey));
+    fields.put(OccurrenceSearchParameter.FAMILY_KEY, new InterpretedProperty(Occurrence::getFamilyKey));
+    fields.put(OccurrenceSearchParameter.GENUS_KEY, new InterpretedProperty(Occurrence::getGenusKey));
+    fields.put(OccurrenceSearchParameter.SUBGENUS_KEY, new InterpretedProperty(Occurrence::getSubgenusKey));
+    fields.put(OccurrenceSearchParameter.SPECIES_KEY, new InterpretedProperty(Occurrence::getSpeciesKey));
+    fields.put(OccurrenceSearchParameter.SCIENTIFIC_NAME, new InterpretedProperty(Occurrence::getScientificName));
+    fields.put(OccurrenceSearchParameter.TYPE_STATUS, new InterpretedProperty(Occurrence::getTypeStatus));
+    fields.put(OccurrenceSearchParameter.ESTABLISHMENT_MEANS, new InterpretedProperty(Occurrence::getEstablishmentMeans));
+    fields.put(OccurrenceSearchParameter.STATE_PROVINCE, new InterpretedProperty(Occurrence::getStateProvince));
+    fields.put(OccurrenceSearchParameter.WATER_BODY, new InterpretedProperty(Occurrence::getWaterBody));
+    fields.put(OccurrenceSearchParameter.LICENSE, new InterpretedProperty(Occurrence::getLicense));
+    fields.put(OccurrenceSearchParameter.HAS_COORDINATE, new InterpretedProperty(
+      occ -> occ.getDecimalLatitude() != null && occ.getDecimalLongitude() != null));
+    fields.put(OccurrenceSearchParameter.HAS_GEOSPATIAL_ISSUE, new InterpretedProperty(Occurrence::hasSpatialIssue));
+    fields.put(OccurrenceSearchParameter.REPATRIATED, new InterpretedProperty(
+      occ -> occ.getCountry() == null || occ.getPublishingCountry() == null
+        ? null
+        : occ.getCountry() != occ.getPublishingCountry()));
+
+    // multi valued properties
+    fields.put(OccurrenceSearchParameter.TAXON_KEY, new TaxonKeyField());
+    fields.put(OccurrenceSearchParameter.ISSUE, new IssueField());
+    fields.put(OccurrenceSearchParameter.MEDIA_TYPE, new MediaTypeField());
+
+    // GEOMETRY is handled by the WithinPredicate and CRAWL_ID is declared as a UUID, but records hold an integer id
+    return fields;
+  }
+}
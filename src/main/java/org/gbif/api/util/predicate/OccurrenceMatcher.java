@@ -0,0 +1,24 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+
+/**
+ * A compiled, immutable form of an occurrence {@link org.gbif.api.model.occurrence.predicate.Predicate} that can be
+ * evaluated against any number of records.
+ * Instances are created by {@link PredicateCompiler} and are safe to share between threads.
+ */
+public interface OccurrenceMatcher {
+
+  /**
+   * Tests a single record against the compiled predicate.
+   * Interpreted search parameters never match a plain {@link VerbatimOccurrence} as the record does not carry
+   * interpreted values.
+   *
+   * @param occurrence the record to test, either a {@link VerbatimOccurrence} or an interpreted
+   *                   {@link org.gbif.api.model.occurrence.Occurrence}
+   *
+   * @return true if the record satisfies the predicate
+   */
+  boolean matches(VerbatimOccurrence occurrence);
+
+}
@@ -0,0 +1,534 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.model.occurrence.predicate.CompoundPredicate;
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.IsNotNullPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanPredicate;
+import org.gbif.api.model.occurrence.predicate.LikePredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.SimplePredicate;
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.util.IsoDateParsingUtils;
+import org.gbif.api.util.SearchTypeValidator;
+import org.gbif.api.util.VocabularyUtils;
+import org.gbif.api.util.predicate.OccurrenceFields.Field;
+import org.gbif.api.util.predicate.OccurrenceFields.ValueTest;
+import org.gbif.api.vocabulary.Country;
+
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+
+import static org.gbif.api.model.common.search.SearchConstants.QUERY_WILDCARD;
+
+/**
+ * Compiles an occurrence {@link Predicate} tree into an {@link OccurrenceMatcher} that evaluates records in memory.
+ * <br/>
+ * All predicate values are parsed once into their typed form (UUIDs, enums, numbers and date ranges) when compiling,
+ * so that testing a record only compares values already held by the record and does not allocate.
+ * The semantics follow the occurrence search:
+ * <ul>
+ *   <li>numerical and date values can be given as ranges, e.g. 1990,2000 or 2001-02,*</li>
+ *   <li>dates are matched according to their precision, i.e. 2001-02 matches any time in February 2001</li>
+ *   <li>TAXON_KEY matches the taxon itself and all its included taxa</li>
+ *   <li>LIKE uses the Hive syntax with % for any number of and _ for a single arbitrary character</li>
+ *   <li>the wildcard value * matches any existing value</li>
+ * </ul>
+ */
+public final class PredicateCompiler {
+
+  private static final OccurrenceMatcher MATCH_ALL = new OccurrenceMatcher() {
+    @Override
+    public boolean matches(VerbatimOccurrence occurrence) {
+      return true;
+    }
+  };
+
+  private static final ValueTest ANY_VALUE = new ValueTest() {
+    @Override
+    public boolean test(Object value) {
+      return true;
+    }
+  };
+
+  private PredicateCompiler() {
+    // static utils class
+  }
+
+  /**
+   * Compiles the given predicate into a reusable, thread safe matcher.
+   *
+   * @param predicate the predicate to compile, null matching all records as in an unfiltered download
+   *
+   * @return the compiled matcher
+   *
+   * @throws IllegalArgumentException if the predicate uses a search parameter that cannot be matched in memory
+   */
+  public static OccurrenceMatcher compile(@Nullable Predicate predicate) {
+    return predicate == null ? MATCH_ALL : compileNode(predicate);
+  }
+
+  private static OccurrenceMatcher compileNode(Predicate predicate) {
+    if (predicate instanceof ConjunctionPredicate) {
+      return new ConjunctionMatcher(compileAll((CompoundPredicate) predicate));
+
+    } else if (predicate instanceof DisjunctionPredicate) {
+      return new DisjunctionMatcher(compileAll((CompoundPredicate) predicate));
+
+    } else if (predicate instanceof NotPredicate) {
+      return new NotMatcher(compileNode(((NotPredicate) predicate).getPredicate()));
+
+    } else if (predicate instanceof IsNotNullPredicate) {
+      return new PresenceMatcher(OccurrenceFields.of(((IsNotNullPredicate) predicate).getParameter()));
+
+    } else if (predicate instanceof WithinPredicate) {
+      return new WithinMatcher(GeometryMatcher.of((WithinPredicate) predicate));
+
+    } else if (predicate instanceof InPredicate) {
+      InPredicate in = (InPredicate) predicate;
+      return fieldMatcher(in.getKey(), inTest(in.getKey(), in.getValues()));
+
+    } else if (predicate instanceof SimplePredicate) {
+      return compileSimple((SimplePredicate) predicate);
+    }
+    throw new IllegalArgumentException("Unsupported predicate type " + predicate.getClass().getSimpleName());
+  }
+
+  private static OccurrenceMatcher[] compileAll(CompoundPredicate predicate) {
+    Collection<Predicate> predicates = predicate.getPredicates();
+    OccurrenceMatcher[] matchers = new OccurrenceMatcher[predicates.size()];
+    int idx = 0;
+    for (Predicate p : predicates) {
+      matchers[idx++] = compileNode(p);
+    }
+    return matchers;
+  }
+
+  private static OccurrenceMatcher compileSimple(SimplePredicate predicate) {
+    OccurrenceSearchParameter key = predicate.getKey();
+    String value = predicate.getValue();
+
+    if (predicate instanceof EqualsPredicate) {
+      if (QUERY_WILDCARD.equals(value.trim())) {
+        return new PresenceMatcher(OccurrenceFields.of(key));
+      }
+      return fieldMatcher(key, equalsTest(key, value));
+
+    } else if (predicate instanceof LikePredicate) {
+      return fieldMatcher(key, new LikeTest(value));
+
+    } else if (predicate instanceof GreaterThanPredicate) {
+      return fieldMatcher(key, comparisonTest(key, value, true, false));
+
+    } else if (predicate instanceof GreaterThanOrEqualsPredicate) {
+      return fieldMatcher(key, comparisonTest(key, value, true, true));
+
+    } else if (predicate instanceof LessThanPredicate) {
+      return fieldMatcher(key, comparisonTest(key, value, false, false));
+
+    } else if (predicate instanceof LessThanOrEqualsPredicate) {
+      return fieldMatcher(key, comparisonTest(key, value, false, true));
+    }
+    throw new IllegalArgumentException("Unsupported predicate type " + predicate.getClass().getSimpleName());
+  }
+
+  private static OccurrenceMatcher fieldMatcher(OccurrenceSearchParameter key, ValueTest test) {
+    return new FieldMatcher(OccurrenceFields.of(key), test);
+  }
+
+  /**
+   * Builds the test for an equals comparison. Numbers and dates also accept ranges.
+   */
+  private static ValueTest equalsTest(OccurrenceSearchParameter key, String value) {
+    if (QUERY_WILDCARD.equals(value.trim())) {
+      return ANY_VALUE;
+    }
+    if (isNumber(key)) {
+      try {
+        double d = Double.parseDouble(value);
+        return new NumberRangeTest(d, true, d, true);
+      } catch (NumberFormatException e) {
+        Range<Double> range = SearchTypeValidator.parseDecimalRange(value);
+        return new NumberRangeTest(range.hasLowerBound() ? range.lowerEndpoint() : Double.NEGATIVE_INFINITY, true,
+                                   range.hasUpperBound() ? range.upperEndpoint() : Double.POSITIVE_INFINITY, true);
+      }
+    }
+    if (isDate(key)) {
+      if (value.indexOf(',') >= 0) {
+        Range<Date> range = IsoDateParsingUtils.parseDateRange(value);
+        return new DateRangeTest(range.hasLowerBound() ? range.lowerEndpoint().getTime() : Long.MIN_VALUE,
+                                 // the upper bound is the first instant of the last day included
+                                 range.hasUpperBound() ? nextDay(range.upperEndpoint()) : Long.MAX_VALUE);
+      }
+      return new DateRangeTest(IsoDateParsingUtils.parseDate(value).getTime(), periodEnd(value));
+    }
+    return new EqualsTest(parseValue(key, value));
+  }
+
+  /**
+   * Builds the test for a greater/less than comparison, which is only allowed on numbers and dates.
+   */
+  private static ValueTest comparisonTest(OccurrenceSearchParameter key, String value, boolean greater,
+    boolean inclusive) {
+    if (isNumber(key)) {
+      double d;
+      try {
+        d = Double.parseDouble(value);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Comparisons require a single number, but got " + value, e);
+      }
+      return greater
+        ? new NumberRangeTest(d, inclusive, Double.POSITIVE_INFINITY, true)
+        : new NumberRangeTest(Double.NEGATIVE_INFINITY, true, d, inclusive);
+    }
+    if (isDate(key)) {
+      // a date covers the entire period of its precision, e.g. a whole month
+      long start = IsoDateParsingUtils.parseDate(value).getTime();
+      long end = periodEnd(value);
+      return greater
+        ? new DateRangeTest(inclusive ? start : end, Long.MAX_VALUE)
+        : new DateRangeTest(Long.MIN_VALUE, inclusive ? end : start);
+    }
+    throw new IllegalArgumentException("Only equals comparisons are allowed for search parameter " + key);
+  }
+
+  private static ValueTest inTest(OccurrenceSearchParameter key, Collection<String> values) {
+    List<ValueTest> tests = Lists.newArrayList();
+    ImmutableSet.Builder<Object> expected = ImmutableSet.builder();
+    boolean allEquals = true;
+    for (String value : values) {
+      ValueTest test = equalsTest(key, value);
+      if (test instanceof EqualsTest) {
+        expected.add(((EqualsTest) test).expected);
+      } else {
+        allEquals = false;
+      }
+      tests.add(test);
+    }
+    // use a single hash lookup unless ranges are involved
+    return allEquals ? new InTest(expected.build()) : new AnyOfTest(tests.toArray(new ValueTest[tests.size()]));
+  }
+
+  /**
+   * Parses a plain, non range value into the type expected for the search parameter.
+   */
+  private static Object parseValue(OccurrenceSearchParameter key, String value) {
+    Class<?> type = key.type();
+    if (UUID.class.isAssignableFrom(type)) {
+      return UUID.fromString(value);
+
+    } else if (Boolean.class.isAssignableFrom(type)) {
+      return Boolean.valueOf(value.trim());
+
+    } else if (Country.class.isAssignableFrom(type)) {
+      Country country = Country.fromIsoCode(value);
+      if (country == null) {
+        throw new IllegalArgumentException("Value " + value + " invalid for filter parameter " + key);
+      }
+      return country;
+
+    } else if (Enum.class.isAssignableFrom(type)) {
+      @SuppressWarnings("unchecked")
+      Class<? extends Enum<?>> eType = (Class<? extends Enum<?>>) type;
+      return VocabularyUtils.lookupEnum(value, eType);
+    }
+    return value;
+  }
+
+  private static boolean isNumber(OccurrenceSearchParameter key) {
+    return Number.class.isAssignableFrom(key.type());
+  }
+
+  private static boolean isDate(OccurrenceSearchParameter key) {
+    return Date.class.isAssignableFrom(key.type());
+  }
+
+  /**
+   * @return the first instant after the period covered by the given ISO date according to its precision
+   */
+  private static long periodEnd(String value) {
+    IsoDateParsingUtils.IsoDateFormat format = IsoDateParsingUtils.getFirstDateFormatMatch(value);
+    Calendar cal = Calendar.getInstance();
+    cal.setTime(IsoDateParsingUtils.parseDate(value));
+    switch (format) {
+      case YEAR:
+        cal.add(Calendar.YEAR, 1);
+        break;
+      case YEAR_MONTH:
+        cal.add(Calendar.MONTH, 1);
+        break;
+      default:
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+    }
+    return cal.getTimeInMillis();
+  }
+
+  private static long nextDay(Date date) {
+    Calendar cal = Calendar.getInstance();
+    cal.setTime(date);
+    cal.add(Calendar.DAY_OF_MONTH, 1);
+    return cal.getTimeInMillis();
+  }
+
+  private static final class ConjunctionMatcher implements OccurrenceMatcher {
+
+    private final OccurrenceMatcher[] matchers;
+
+    private ConjunctionMatcher(OccurrenceMatcher[] matchers) {
+      this.matchers = matchers;
+    }
+
+    @Override
+    public boolean matches(VerbatimOccurrence occurrence) {
+      for (OccurrenceMatcher m : matchers) {
+        if (!m.matches(occurrence)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class DisjunctionMatcher implements OccurrenceMatcher {
+
+    private final OccurrenceMatcher[] matchers;
+
+    private DisjunctionMatcher(OccurrenceMatcher[] matchers) {
+      this.matchers = matchers;
+    }
+
+    @Override
+    public boolean matches(VerbatimOccurrence occurrence) {
+      for (OccurrenceMatcher m : matchers) {
+        if (m.matches(occurrence)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class NotMatcher implements OccurrenceMatcher {
+
+    private final OccurrenceMatcher matcher;
+
+    private NotMatcher(OccurrenceMatcher matcher) {
+      this.matcher = matcher;
+    }
+
+    @Override
+    public boolean matches(VerbatimOccurrence occurrence) {
+      return !matcher.matches(occurrence);
+    }
+  }
+
+  private static final class PresenceMatcher implements OccurrenceMatcher {
+
+    private final Field field;
+
+    private PresenceMatcher(Field field) {
+      this.field = field;
+    }
+
+    @Override
+    public boolean matches(VerbatimOccurrence occurrence) {
+      return field.isPresent(occurrence);
+    }
+  }
+
+  private static final class FieldMatcher implements OccurrenceMatcher {
+
+    private final Field field;
+    private final ValueTest test;
+
+    private FieldMatcher(Field field, ValueTest test) {
+      this.field = field;
+      this.test = test;
+    }
+
+    @Override
+    public boolean matches(VerbatimOccurrence occurrence) {
+      return field.anyMatch(occurrence, test);
+    }
+  }
+
+  /**
+   * Matches the interpreted coordinate against a geometry.
+   */
+  private static final class WithinMatcher implements OccurrenceMatcher {
+
+    private final GeometryMatcher geometry;
+
+    private WithinMatcher(GeometryMatcher geometry) {
+      this.geometry = geometry;
+    }
+
+    @Override
+    public boolean matches(VerbatimOccurrence occurrence) {
+      if (!(occurrence instanceof Occurrence)) {
+        return false;
+      }
+      Occurrence occ = (Occurrence) occurrence;
+      Double lat = occ.getDecimalLatitude();
+      Double lng = occ.getDecimalLongitude();
+      return lat != null && lng != null && geometry.matches(lat, lng);
+    }
+  }
+
+  private static final class EqualsTest implements ValueTest {
+
+    private final Object expected;
+
+    private EqualsTest(Object expected) {
+      this.expected = expected;
+    }
+
+    @Override
+    public boolean test(Object value) {
+      return expected.equals(value);
+    }
+  }
+
+  private static final class InTest implements ValueTest {
+
+    private final Set<Object> expected;
+
+    private InTest(Set<Object> expected) {
+      this.expected = expected;
+    }
+
+    @Override
+    public boolean test(Object value) {
+      return expected.contains(value);
+    }
+  }
+
+  private static final class AnyOfTest implements ValueTest {
+
+    private final ValueTest[] tests;
+
+    private AnyOfTest(ValueTest[] tests) {
+      this.tests = tests;
+    }
+
+    @Override
+    public boolean test(Object value) {
+      for (ValueTest t : tests) {
+        if (t.test(value)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class NumberRangeTest implements ValueTest {
+
+    private final double lower;
+    private final boolean lowerInclusive;
+    private final double upper;
+    private final boolean upperInclusive;
+
+    private NumberRangeTest(double lower, boolean lowerInclusive, double upper, boolean upperInclusive) {
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    @Override
+    public boolean test(Object value) {
+      if (!(value instanceof Number)) {
+        return false;
+      }
+      double d = ((Number) value).doubleValue();
+      return (lowerInclusive ? d >= lower : d > lower) && (upperInclusive ? d <= upper : d < upper);
+    }
+  }
+
+  /**
+   * Tests a date to be within a half open interval of epoch milliseconds.
+   */
+  private static final class DateRangeTest implements ValueTest {
+
+    private final long fromInclusive;
+    private final long toExclusive;
+
+    private DateRangeTest(long fromInclusive, long toExclusive) {
+      this.fromInclusive = fromInclusive;
+      this.toExclusive = toExclusive;
+    }
+
+    @Override
+    public boolean test(Object value) {
+      if (!(value instanceof Date)) {
+        return false;
+      }
+      long time = ((Date) value).getTime();
+      return time >= fromInclusive && (toExclusive == Long.MAX_VALUE || time < toExclusive);
+    }
+  }
+
+  /**
+   * Matches strings with the Hive LIKE syntax without compiling a regular expression.
+   */
+  private static final class LikeTest implements ValueTest {
+
+    private final String pattern;
+
+    private LikeTest(String pattern) {
+      this.pattern = pattern;
+    }
+
+    @Override
+    public boolean test(Object value) {
+      return value instanceof String && like((String) value, pattern);
+    }
+
+    /**
+     * Greedy wildcard matching that backtracks to the last % only, so it runs in O(n*m) worst case.
+     */
+    private static boolean like(String s, String p) {
+      int si = 0;
+      int pi = 0;
+      int star = -1;
+      int mark = 0;
+      while (si < s.length()) {
+        if (pi < p.length() && p.charAt(pi) != '%' && (p.charAt(pi) == '_' || p.charAt(pi) == s.charAt(si))) {
+          si++;
+          pi++;
+        } else if (pi < p.length() && p.charAt(pi) == '%') {
+          star = pi++;
+          mark = si;
+        } else if (star >= 0) {
+          pi = star + 1;
+          si = ++mark;
+        } else {
+          return false;
+        }
+      }
+      while (pi < p.length() && p.charAt(pi) == '%') {
+        pi++;
+      }
+      return pi == p.length();
+    }
+  }
+}
@@ -0,0 +1,495 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.predicate.CompoundPredicate;
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.IsNotNullPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanPredicate;
+import org.gbif.api.model.occurrence.predicate.LikePredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.SimplePredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.util.SearchTypeValidator;
+import org.gbif.api.util.VocabularyUtils;
+import org.gbif.api.vocabulary.Country;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+
+import static org.gbif.api.model.common.search.SearchConstants.QUERY_WILDCARD;
+
+/**
+ * Rewrites occurrence predicates into a canonical, usually smaller form that selects exactly the same records.
+ * <br/>
+ * The normalizer
+ * <ul>
+ *   <li>flattens nested conjunctions and disjunctions and removes double negations</li>
+ *   <li>normalizes values, e.g. ISO country codes, enumeration names, UUIDs and numbers</li>
+ *   <li>collapses equals and in predicates on the same parameter of a disjunction into a single in predicate</li>
+ *   <li>merges numerical bounds on the same parameter of a conjunction into a single range</li>
+ *   <li>removes duplicate branches and sorts all branches and values into a stable order</li>
+ *   <li>replaces branches that can never be satisfied with {@link #ALWAYS_FALSE}</li>
+ * </ul>
+ * Equal inputs, regardless of the order of their branches and values, result in equal canonical predicates
+ * with the same hash code across JVMs, so the canonical form can be used as a key to detect identical downloads.
+ * Date values and parameters which can hold several values per record, like the taxon key, are only collapsed
+ * within disjunctions, as the bounds of these cannot be merged by value.
+ */
+public final class PredicateNormalizer {
+
+  /**
+   * A predicate that cannot be satisfied, as every occurrence has a dataset key.
+   * It is returned for unsatisfiable predicates and can still be serialized and evaluated by any backend.
+   */
+  public static final Predicate ALWAYS_FALSE =
+    new NotPredicate(new IsNotNullPredicate(OccurrenceSearchParameter.DATASET_KEY));
+
+  private static final Ordering<Object> CANONICAL_ORDER = Ordering.usingToString();
+
+  private PredicateNormalizer() {
+    // static utils class
+  }
+
+  /**
+   * Rewrites the given predicate into its canonical form.
+   *
+   * @param predicate the predicate to normalize, null for none
+   *
+   * @return the canonical predicate, {@link #ALWAYS_FALSE} if it can never be satisfied or null if none was given
+   */
+  @Nullable
+  public static Predicate normalize(@Nullable Predicate predicate) {
+    return predicate == null ? null : normalizeNode(predicate);
+  }
+
+  /**
+   * @return true if the predicate can never be satisfied by any record
+   */
+  public static boolean isAlwaysFalse(@Nullable Predicate predicate) {
+    return ALWAYS_FALSE.equals(normalize(predicate));
+  }
+
+  private static Predicate normalizeNode(Predicate predicate) {
+    if (predicate instanceof ConjunctionPredicate) {
+      return normalizeConjunction(normalizeChildren((CompoundPredicate) predicate, ConjunctionPredicate.class));
+
+    } else if (predicate instanceof DisjunctionPredicate) {
+      return normalizeDisjunction(normalizeChildren((CompoundPredicate) predicate, DisjunctionPredicate.class));
+
+    } else if (predicate instanceof NotPredicate) {
+      Predicate negated = normalizeNode(((NotPredicate) predicate).getPredicate());
+      if (negated instanceof NotPredicate) {
+        return ((NotPredicate) negated).getPredicate();
+      }
+      return new NotPredicate(negated);
+
+    } else if (predicate instanceof InPredicate) {
+      InPredicate in = (InPredicate) predicate;
+      return equalsOrIn(in.getKey(), canonicalValues(in.getKey(), in.getValues()));
+
+    } else if (predicate instanceof EqualsPredicate) {
+      EqualsPredicate eq = (EqualsPredicate) predicate;
+      return new EqualsPredicate(eq.getKey(), canonicalValue(eq.getKey(), eq.getValue()));
+
+    } else if (predicate instanceof GreaterThanPredicate) {
+      GreaterThanPredicate p = (GreaterThanPredicate) predicate;
+      return new GreaterThanPredicate(p.getKey(), canonicalValue(p.getKey(), p.getValue()));
+
+    } else if (predicate instanceof GreaterThanOrEqualsPredicate) {
+      GreaterThanOrEqualsPredicate p = (GreaterThanOrEqualsPredicate) predicate;
+      return new GreaterThanOrEqualsPredicate(p.getKey(), canonicalValue(p.getKey(), p.getValue()));
+
+    } else if (predicate instanceof LessThanPredicate) {
+      LessThanPredicate p = (LessThanPredicate) predicate;
+      return new LessThanPredicate(p.getKey(), canonicalValue(p.getKey(), p.getValue()));
+
+    } else if (predicate instanceof LessThanOrEqualsPredicate) {
+      LessThanOrEqualsPredicate p = (LessThanOrEqualsPredicate) predicate;
+      return new LessThanOrEqualsPredicate(p.getKey(), canonicalValue(p.getKey(), p.getValue()));
+    }
+    // like, within and isNotNull predicates are already canonical
+    return predicate;
+  }
+
+  /**
+   * Normalizes all children and inlines children of the same compound type.
+   */
+  private static List<Predicate> normalizeChildren(CompoundPredicate predicate,
+    Class<? extends CompoundPredicate> type) {
+    List<Predicate> children = Lists.newArrayList();
+    for (Predicate child : predicate.getPredicates()) {
+      Predicate normalized = normalizeNode(child);
+      if (type.isInstance(normalized)) {
+        children.addAll(((CompoundPredicate) normalized).getPredicates());
+      } else {
+        children.add(normalized);
+      }
+    }
+    return children;
+  }
+
+  private static Predicate normalizeDisjunction(List<Predicate> children) {
+    Map<OccurrenceSearchParameter, SortedSet<String>> values =
+      new EnumMap<OccurrenceSearchParameter, SortedSet<String>>(OccurrenceSearchParameter.class);
+    Set<Predicate> result = new LinkedHashSet<Predicate>();
+    for (Predicate p : children) {
+      if (ALWAYS_FALSE.equals(p)) {
+        continue;
+      }
+      if (p instanceof EqualsPredicate) {
+        valuesOf(values, ((EqualsPredicate) p).getKey()).add(((EqualsPredicate) p).getValue());
+      } else if (p instanceof InPredicate) {
+        valuesOf(values, ((InPredicate) p).getKey()).addAll(((InPredicate) p).getValues());
+      } else {
+        result.add(p);
+      }
+    }
+    for (Map.Entry<OccurrenceSearchParameter, SortedSet<String>> entry : values.entrySet()) {
+      result.add(equalsOrIn(entry.getKey(), entry.getValue()));
+    }
+    if (result.isEmpty()) {
+      return ALWAYS_FALSE;
+    }
+    return result.size() == 1 ? result.iterator().next() : new DisjunctionPredicate(sorted(result));
+  }
+
+  private static Predicate normalizeConjunction(List<Predicate> children) {
+    Map<OccurrenceSearchParameter, List<SimplePredicateOrIn>> mergeable =
+      new EnumMap<OccurrenceSearchParameter, List<SimplePredicateOrIn>>(OccurrenceSearchParameter.class);
+    Set<Predicate> result = new LinkedHashSet<Predicate>();
+    for (Predicate p : children) {
+      if (ALWAYS_FALSE.equals(p)) {
+        return ALWAYS_FALSE;
+      }
+      OccurrenceSearchParameter key = mergeableKey(p);
+      if (key != null) {
+        List<SimplePredicateOrIn> group = mergeable.get(key);
+        if (group == null) {
+          group = Lists.newArrayList();
+          mergeable.put(key, group);
+        }
+        group.add(new SimplePredicateOrIn(p));
+      } else {
+        result.add(p);
+      }
+    }
+
+    for (Map.Entry<OccurrenceSearchParameter, List<SimplePredicateOrIn>> entry : mergeable.entrySet()) {
+      Collection<Predicate> merged = Number.class.isAssignableFrom(entry.getKey().type())
+        ? mergeBounds(entry.getKey(), entry.getValue())
+        : intersectValues(entry.getKey(), entry.getValue());
+      if (merged.contains(ALWAYS_FALSE)) {
+        return ALWAYS_FALSE;
+      }
+      result.addAll(merged);
+    }
+    return result.size() == 1 ? result.iterator().next() : new ConjunctionPredicate(sorted(result));
+  }
+
+  /**
+   * @return the key of a predicate that can be merged with others on the same key within a conjunction or null
+   */
+  @Nullable
+  private static OccurrenceSearchParameter mergeableKey(Predicate p) {
+    OccurrenceSearchParameter key;
+    if (p instanceof InPredicate) {
+      key = ((InPredicate) p).getKey();
+      if (((InPredicate) p).getValues().contains(QUERY_WILDCARD)) {
+        return null;
+      }
+    } else if (p instanceof SimplePredicate && !(p instanceof LikePredicate)) {
+      key = ((SimplePredicate) p).getKey();
+      if (QUERY_WILDCARD.equals(((SimplePredicate) p).getValue())) {
+        return null;
+      }
+    } else {
+      return null;
+    }
+    // values of multi valued fields can each satisfy a different predicate and dates have a precision
+    if (OccurrenceFields.isMultiValued(key) || !OccurrenceFields.isSupported(key)
+        || Date.class.isAssignableFrom(key.type())) {
+      return null;
+    }
+    return key;
+  }
+
+  /**
+   * Intersects the values of equals and in predicates. Other comparisons are kept as they are.
+   */
+  private static Collection<Predicate> intersectValues(OccurrenceSearchParameter key,
+    List<SimplePredicateOrIn> predicates) {
+    Set<Predicate> result = new LinkedHashSet<Predicate>();
+    Set<String> allowed = null;
+    for (SimplePredicateOrIn p : predicates) {
+      if (p.values == null) {
+        result.add(p.predicate);
+      } else {
+        allowed = allowed == null ? Sets.newTreeSet(p.values) : Sets.newTreeSet(Sets.intersection(allowed, p.values));
+      }
+    }
+    if (allowed != null) {
+      if (allowed.isEmpty()) {
+        return Lists.newArrayList(ALWAYS_FALSE);
+      }
+      result.add(equalsOrIn(key, allowed));
+    }
+    return result;
+  }
+
+  /**
+   * Merges all numerical comparisons and equals predicates into a single value, a single range or a pair of bounds.
+   */
+  private static Collection<Predicate> mergeBounds(OccurrenceSearchParameter key,
+    List<SimplePredicateOrIn> predicates) {
+    Bounds bounds = new Bounds();
+    List<Predicate> unmerged = Lists.newArrayList();
+    for (SimplePredicateOrIn p : predicates) {
+      if (!bounds.add(p.predicate)) {
+        unmerged.add(p.predicate);
+      }
+    }
+    List<Predicate> result = Lists.newArrayList(unmerged);
+    result.addAll(bounds.toPredicates(key));
+    return result;
+  }
+
+  /**
+   * Wraps an equals, comparison or in predicate giving access to the set of equal values if there are any.
+   */
+  private static class SimplePredicateOrIn {
+
+    private final Predicate predicate;
+    @Nullable
+    private final Set<String> values;
+
+    private SimplePredicateOrIn(Predicate predicate) {
+      this.predicate = predicate;
+      if (predicate instanceof InPredicate) {
+        values = Sets.newTreeSet(((InPredicate) predicate).getValues());
+      } else if (predicate instanceof EqualsPredicate) {
+        values = Sets.newTreeSet(Lists.newArrayList(((EqualsPredicate) predicate).getValue()));
+      } else {
+        values = null;
+      }
+    }
+  }
+
+  /**
+   * The tightest lower and upper bound of a numerical parameter together with an optional exact value.
+   */
+  private static class Bounds {
+
+    private Double lower;
+    private boolean lowerInclusive;
+    private Double upper;
+    private boolean upperInclusive;
+    private Double exact;
+    private boolean contradiction;
+
+    /**
+     * @return false if the predicate cannot be expressed as bounds
+     */
+    private boolean add(Predicate p) {
+      if (p instanceof InPredicate) {
+        Collection<String> values = ((InPredicate) p).getValues();
+        return values.size() == 1 && addEquals(values.iterator().next());
+      }
+      String value = ((SimplePredicate) p).getValue();
+      if (p instanceof EqualsPredicate) {
+        return addEquals(value);
+      }
+      Double d = parseFinite(value);
+      if (d == null) {
+        return false;
+      }
+      if (p instanceof GreaterThanPredicate) {
+        addLower(d, false);
+      } else if (p instanceof GreaterThanOrEqualsPredicate) {
+        addLower(d, true);
+      } else if (p instanceof LessThanPredicate) {
+        addUpper(d, false);
+      } else if (p instanceof LessThanOrEqualsPredicate) {
+        addUpper(d, true);
+      } else {
+        return false;
+      }
+      return true;
+    }
+
+    private boolean addEquals(String value) {
+      Double d = parseFinite(value);
+      if (d != null) {
+        if (exact != null && !exact.equals(d)) {
+          contradiction = true;
+        }
+        exact = d;
+        return true;
+      }
+      try {
+        Range<Double> range = SearchTypeValidator.parseDecimalRange(value);
+        if (range.hasLowerBound()) {
+          addLower(range.lowerEndpoint(), true);
+        }
+        if (range.hasUpperBound()) {
+          addUpper(range.upperEndpoint(), true);
+        }
+        return true;
+      } catch (IllegalArgumentException e) {
+        return false;
+      }
+    }
+
+    private void addLower(double value, boolean inclusive) {
+      if (lower == null || value > lower || (value == lower && !inclusive)) {
+        lower = value;
+        lowerInclusive = inclusive;
+      }
+    }
+
+    private void addUpper(double value, boolean inclusive) {
+      if (upper == null || value < upper || (value == upper && !inclusive)) {
+        upper = value;
+        upperInclusive = inclusive;
+      }
+    }
+
+    private boolean isEmpty() {
+      if (contradiction) {
+        return true;
+      }
+      if (exact != null) {
+        return lower != null && (lowerInclusive ? exact < lower : exact <= lower)
+               || upper != null && (upperInclusive ? exact > upper : exact >= upper);
+      }
+      return lower != null && upper != null
+             && (lower > upper || lower.equals(upper) && !(lowerInclusive && upperInclusive));
+    }
+
+    private List<Predicate> toPredicates(OccurrenceSearchParameter key) {
+      List<Predicate> result = Lists.newArrayList();
+      if (isEmpty()) {
+        result.add(ALWAYS_FALSE);
+
+      } else if (exact != null) {
+        result.add(new EqualsPredicate(key, format(exact)));
+
+      } else if (lower != null && upper != null && lowerInclusive && upperInclusive) {
+        result.add(new EqualsPredicate(key, lower.equals(upper) ? format(lower) : format(lower) + ',' + format(upper)));
+
+      } else {
+        if (lower != null) {
+          result.add(lowerInclusive
+                       ? new GreaterThanOrEqualsPredicate(key, format(lower))
+                       : new GreaterThanPredicate(key, format(lower)));
+        }
+        if (upper != null) {
+          result.add(upperInclusive
+                       ? new LessThanOrEqualsPredicate(key, format(upper))
+                       : new LessThanPredicate(key, format(upper)));
+        }
+      }
+      return result;
+    }
+  }
+
+  private static SortedSet<String> valuesOf(Map<OccurrenceSearchParameter, SortedSet<String>> values,
+    OccurrenceSearchParameter key) {
+    SortedSet<String> set = values.get(key);
+    if (set == null) {
+      set = Sets.newTreeSet();
+      values.put(key, set);
+    }
+    return set;
+  }
+
+  private static Predicate equalsOrIn(OccurrenceSearchParameter key, Collection<String> values) {
+    if (values.size() == 1) {
+      return new EqualsPredicate(key, values.iterator().next());
+    }
+    return new InPredicate(key, Lists.newArrayList(values));
+  }
+
+  private static List<Predicate> sorted(Collection<Predicate> predicates) {
+    return CANONICAL_ORDER.sortedCopy(predicates);
+  }
+
+  private static SortedSet<String> canonicalValues(OccurrenceSearchParameter key, Collection<String> values) {
+    SortedSet<String> canonical = Sets.newTreeSet();
+    for (String value : values) {
+      canonical.add(canonicalValue(key, value));
+    }
+    return canonical;
+  }
+
+  /**
+   * Converts a valid value into its canonical string representation, leaving free text and dates untouched.
+   */
+  private static String canonicalValue(OccurrenceSearchParameter key, String value) {
+    Class<?> type = key.type();
+    if (String.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)) {
+      return value;
+    }
+    String v = value.trim();
+    if (QUERY_WILDCARD.equals(v)) {
+      return v;
+    }
+    if (UUID.class.isAssignableFrom(type)) {
+      return UUID.fromString(v).toString();
+
+    } else if (Boolean.class.isAssignableFrom(type)) {
+      return v.toLowerCase();
+
+    } else if (Country.class.isAssignableFrom(type)) {
+      Country country = Country.fromIsoCode(v);
+      return country == null ? value : country.getIso2LetterCode();
+
+    } else if (Enum.class.isAssignableFrom(type)) {
+      @SuppressWarnings("unchecked")
+      Class<? extends Enum<?>> eType = (Class<? extends Enum<?>>) type;
+      Enum<?> val = VocabularyUtils.lookupEnum(v, eType);
+      return val == null ? value : val.name();
+
+    } else if (Number.class.isAssignableFrom(type)) {
+      Double d = parseFinite(v);
+      return d == null ? value : format(d);
+    }
+    return value;
+  }
+
+  @Nullable
+  private static Double parseFinite(String value) {
+    try {
+      double d = Double.parseDouble(value);
+      return Double.isInfinite(d) || Double.isNaN(d) ? null : d;
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Formats a number without exponent and trailing zeros, e.g. 10.0 as 10.
+   */
+  private static String format(double value) {
+    return value == 0 ? "0" : BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+  }
+}
@@ -0,0 +1,123 @@
+package org.gbif.api.util.registry;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.Metadata;
+import org.gbif.api.model.registry.Network;
+import org.gbif.api.service.registry.DatasetService;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.DatasetType;
+import org.gbif.api.vocabulary.MetadataType;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link DatasetService} caching datasets and their titles, see {@link CachingNetworkEntityService}.
+ * <br/>
+ * Inserting metadata removes the dataset from the cache. As the dataset of a metadata key is not known,
+ * deleting metadata clears the entire cache.
+ */
+@ThreadSafe
+public class CachingDatasetService extends CachingNetworkEntityService<Dataset> implements DatasetService {
+
+  private final DatasetService service;
+
+  public CachingDatasetService(DatasetService service) {
+    super(service);
+    this.service = service;
+  }
+
+  public CachingDatasetService(DatasetService service, long maximumSize, long ttl, TimeUnit unit) {
+    super(service, maximumSize, ttl, unit);
+    this.service = service;
+  }
+
+  @Override
+  public PagingResponse<Dataset> listConstituents(UUID datasetKey, @Nullable Pageable page) {
+    return service.listConstituents(datasetKey, page);
+  }
+
+  @Override
+  public PagingResponse<Dataset> listConstituents(@Nullable Pageable page) {
+    return service.listConstituents(page);
+  }
+
+  @Override
+  public PagingResponse<Dataset> listByCountry(Country country, @Nullable DatasetType type, @Nullable Pageable page) {
+    return service.listByCountry(country, type, page);
+  }
+
+  @Override
+  public PagingResponse<Dataset> listByType(DatasetType type, @Nullable Pageable page) {
+    return service.listByType(type, page);
+  }
+
+  @Override
+  public List<Metadata> listMetadata(UUID datasetKey, @Nullable MetadataType type) {
+    return service.listMetadata(datasetKey, type);
+  }
+
+  @Override
+  public List<Network> listNetworks(UUID datasetKey) {
+    return service.listNetworks(datasetKey);
+  }
+
+  @Override
+  public Metadata getMetadata(int metadataKey) {
+    return service.getMetadata(metadataKey);
+  }
+
+  @Override
+  public void deleteMetadata(int metadataKey) {
+    try {
+      service.deleteMetadata(metadataKey);
+    } finally {
+      invalidateAll();
+    }
+  }
+
+  @Override
+  public Metadata insertMetadata(UUID datasetKey, InputStream document) {
+    try {
+      return service.insertMetadata(datasetKey, document);
+    } finally {
+      invalidate(datasetKey);
+    }
+  }
+
+  @Override
+  public InputStream getMetadataDocument(UUID datasetKey) {
+    return service.getMetadataDocument(datasetKey);
+  }
+
+  @Override
+  public InputStream getMetadataDocument(int metadataKey) {
+    return service.getMetadataDocument(metadataKey);
+  }
+
+  @Override
+  public PagingResponse<Dataset> listDeleted(@Nullable Pageable page) {
+    return service.listDeleted(page);
+  }
+
+  @Override
+  public PagingResponse<Dataset> listDuplicates(@Nullable Pageable page) {
+    return service.listDuplicates(page);
+  }
+
+  @Override
+  public PagingResponse<Dataset> listDatasetsWithNoEndpoint(@Nullable Pageable page) {
+    return service.listDatasetsWithNoEndpoint(page);
+  }
+
+  @Override
+  public PagingResponse<Dataset> listByDOI(String doi, @Nullable Pageable page) {
+    return service.listByDOI(doi, page);
+  }
+}
@@ -0,0 +1,420 @@
+package org.gbif.api.util.registry;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.registry.Comment;
+import org.gbif.api.model.registry.Contact;
+import org.gbif.api.model.registry.Endpoint;
+import org.gbif.api.model.registry.Identifier;
+import org.gbif.api.model.registry.MachineTag;
+import org.gbif.api.model.registry.NetworkEntity;
+import org.gbif.api.model.registry.Tag;
+import org.gbif.api.service.registry.NetworkEntityService;
+import org.gbif.api.vocabulary.IdentifierType;
+import org.gbif.api.vocabulary.TagName;
+import org.gbif.api.vocabulary.TagNamespace;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * A {@link NetworkEntityService} caching the results of {@link #get(UUID)} and {@link #getTitles(Collection)}
+ * and passing on all other calls to the wrapped service.
+ * <br/>
+ * Entities and titles are cached separately with a maximum size and a time to live. Unknown keys are cached too.
+ * Concurrent misses for the same key wait for a single load, and concurrent title misses are loaded together in
+ * bulk {@link NetworkEntityService#getTitles(Collection)} calls.
+ * <br/>
+ * Any change made through this service, including tags, contacts and the other sub entities, removes the affected
+ * entity from the cache. Changes made elsewhere only become visible once the cached entry expires
+ * or after calling {@link #invalidate(UUID)}.
+ * Cached entities are shared between callers and must not be modified.
+ *
+ * @param <T> the type of entity
+ */
+@ThreadSafe
+public class CachingNetworkEntityService<T extends NetworkEntity> implements NetworkEntityService<T> {
+  private static final long DEFAULT_SIZE = 10000;
+  private static final long DEFAULT_TTL_MINUTES = 60;
+
+  private final NetworkEntityService<T> service;
+  private final LoadingCache<UUID, Optional<T>> entities;
+  private final LoadingCache<UUID, Optional<String>> titles;
+  private final TitleBatcher batcher;
+
+  /**
+   * Creates a service caching up to 10000 entities and titles each for an hour.
+   */
+  public CachingNetworkEntityService(NetworkEntityService<T> service) {
+    this(service, DEFAULT_SIZE, DEFAULT_TTL_MINUTES, TimeUnit.MINUTES);
+  }
+
+  /**
+   * @param maximumSize the maximum number of entities and of titles to cache
+   * @param ttl the time an entity or title is cached after being loaded
+   */
+  public CachingNetworkEntityService(NetworkEntityService<T> service, long maximumSize, long ttl, TimeUnit unit) {
+    this.service = Preconditions.checkNotNull(service, "service required");
+    batcher = new TitleBatcher(service);
+    entities = CacheBuilder.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(ttl, unit)
+      .build(new CacheLoader<UUID, Optional<T>>() {
+        @Override
+        public Optional<T> load(UUID key) {
+          return Optional.fromNullable(CachingNetworkEntityService.this.service.get(key));
+        }
+      });
+    titles = CacheBuilder.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(ttl, unit)
+      .build(new CacheLoader<UUID, Optional<String>>() {
+        @Override
+        public Optional<String> load(UUID key) throws InterruptedException {
+          return Optional.fromNullable(batcher.getTitles(ImmutableSet.of(key)).get(key));
+        }
+
+        @Override
+        public Map<UUID, Optional<String>> loadAll(Iterable<? extends UUID> keys) throws InterruptedException {
+          ImmutableSet<UUID> missing = ImmutableSet.copyOf(keys);
+          Map<UUID, String> loaded = batcher.getTitles(missing);
+          Map<UUID, Optional<String>> result = Maps.newHashMapWithExpectedSize(missing.size());
+          for (UUID key : missing) {
+            result.put(key, Optional.fromNullable(loaded.get(key)));
+          }
+          return result;
+        }
+      });
+  }
+
+  /**
+   * Removes an entity and its title from the cache.
+   */
+  public void invalidate(UUID key) {
+    entities.invalidate(key);
+    titles.invalidate(key);
+  }
+
+  public void invalidateAll() {
+    entities.invalidateAll();
+    titles.invalidateAll();
+  }
+
+  /**
+   * @return the number of bulk title calls made to the wrapped service
+   */
+  long getTitleCalls() {
+    return batcher.getCalls();
+  }
+
+  @Override
+  public UUID create(T entity) {
+    UUID key = service.create(entity);
+    // the key might have been looked up before
+    if (key != null) {
+      invalidate(key);
+    }
+    return key;
+  }
+
+  @Override
+  public void delete(UUID key) {
+    try {
+      service.delete(key);
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  @Override
+  public T get(UUID key) {
+    Preconditions.checkNotNull(key, "key required");
+    try {
+      return entities.getUnchecked(key).orNull();
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  @Override
+  public Map<UUID, String> getTitles(Collection<UUID> keys) {
+    Map<UUID, Optional<String>> cached;
+    try {
+      cached = titles.getAll(keys);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+    Map<UUID, String> result = Maps.newHashMapWithExpectedSize(cached.size());
+    for (Map.Entry<UUID, Optional<String>> entry : cached.entrySet()) {
+      if (entry.getValue().isPresent()) {
+        result.put(entry.getKey(), entry.getValue().get());
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public PagingResponse<T> list(@Nullable Pageable page) {
+    return service.list(page);
+  }
+
+  @Override
+  public PagingResponse<T> search(String query, @Nullable Pageable page) {
+    return service.search(query, page);
+  }
+
+  @Override
+  public PagingResponse<T> listByIdentifier(IdentifierType type, String identifier, @Nullable Pageable page) {
+    return service.listByIdentifier(type, identifier, page);
+  }
+
+  @Override
+  public PagingResponse<T> listByIdentifier(String identifier, @Nullable Pageable page) {
+    return service.listByIdentifier(identifier, page);
+  }
+
+  @Override
+  public PagingResponse<T> listByMachineTag(String namespace, @Nullable String name, @Nullable String value,
+                                            @Nullable Pageable page) {
+    return service.listByMachineTag(namespace, name, value, page);
+  }
+
+  @Override
+  public void update(T entity) {
+    try {
+      service.update(entity);
+    } finally {
+      if (entity != null && entity.getKey() != null) {
+        invalidate(entity.getKey());
+      }
+    }
+  }
+
+  @Override
+  public int addMachineTag(UUID targetEntityKey, MachineTag machineTag) {
+    try {
+      return service.addMachineTag(targetEntityKey, machineTag);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public int addMachineTag(UUID targetEntityKey, TagName tagName, String value) {
+    try {
+      return service.addMachineTag(targetEntityKey, tagName, value);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public int addMachineTag(UUID targetEntityKey, String namespace, String name, String value) {
+    try {
+      return service.addMachineTag(targetEntityKey, namespace, name, value);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public void deleteMachineTag(UUID targetEntityKey, int machineTagKey) {
+    try {
+      service.deleteMachineTag(targetEntityKey, machineTagKey);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public void deleteMachineTags(UUID targetEntityKey, TagNamespace tagNamespace) {
+    try {
+      service.deleteMachineTags(targetEntityKey, tagNamespace);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public void deleteMachineTags(UUID targetEntityKey, String namespace) {
+    try {
+      service.deleteMachineTags(targetEntityKey, namespace);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public void deleteMachineTags(UUID targetEntityKey, TagName tagName) {
+    try {
+      service.deleteMachineTags(targetEntityKey, tagName);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public void deleteMachineTags(UUID targetEntityKey, String namespace, String name) {
+    try {
+      service.deleteMachineTags(targetEntityKey, namespace, name);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public List<MachineTag> listMachineTags(UUID targetEntityKey) {
+    return service.listMachineTags(targetEntityKey);
+  }
+
+  @Override
+  public int addTag(UUID targetEntityKey, String value) {
+    try {
+      return service.addTag(targetEntityKey, value);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public int addTag(UUID targetEntityKey, Tag tag) {
+    try {
+      return service.addTag(targetEntityKey, tag);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public void deleteTag(UUID taggedEntityKey, int tagKey) {
+    try {
+      service.deleteTag(taggedEntityKey, tagKey);
+    } finally {
+      invalidate(taggedEntityKey);
+    }
+  }
+
+  @Override
+  public List<Tag> listTags(UUID taggedEntityKey, @Nullable String owner) {
+    return service.listTags(taggedEntityKey, owner);
+  }
+
+  @Override
+  public int addComment(UUID targetEntityKey, Comment comment) {
+    try {
+      return service.addComment(targetEntityKey, comment);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public void deleteComment(UUID targetEntityKey, int commentKey) {
+    try {
+      service.deleteComment(targetEntityKey, commentKey);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public List<Comment> listComments(UUID targetEntityKey) {
+    return service.listComments(targetEntityKey);
+  }
+
+  @Override
+  public int addIdentifier(UUID targetEntityKey, Identifier identifier) {
+    try {
+      return service.addIdentifier(targetEntityKey, identifier);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public void deleteIdentifier(UUID targetEntityKey, int identifierKey) {
+    try {
+      service.deleteIdentifier(targetEntityKey, identifierKey);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public List<Identifier> listIdentifiers(UUID targetEntityKey) {
+    return service.listIdentifiers(targetEntityKey);
+  }
+
+  @Override
+  public int addEndpoint(UUID targetEntityKey, Endpoint endpoint) {
+    try {
+      return service.addEndpoint(targetEntityKey, endpoint);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public void deleteEndpoint(UUID targetEntityKey, int endpointKey) {
+    try {
+      service.deleteEndpoint(targetEntityKey, endpointKey);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public List<Endpoint> listEndpoints(UUID targetEntityKey) {
+    return service.listEndpoints(targetEntityKey);
+  }
+
+  @Override
+  public int addContact(UUID targetEntityKey, Contact contact) {
+    try {
+      return service.addContact(targetEntityKey, contact);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public void deleteContact(UUID targetEntityKey, int contactKey) {
+    try {
+      service.deleteContact(targetEntityKey, contactKey);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+
+  @Override
+  public List<Contact> listContacts(UUID targetEntityKey) {
+    return service.listContacts(targetEntityKey);
+  }
+
+  @Override
+  public void updateContact(UUID targetEntityKey, Contact contact) {
+    try {
+      service.updateContact(targetEntityKey, contact);
+    } finally {
+      invalidate(targetEntityKey);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package org.gbif.api.util.registry;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.Installation;
+import org.gbif.api.model.registry.Organization;
+import org.gbif.api.model.registry.search.KeyTitleResult;
+import org.gbif.api.service.registry.OrganizationService;
+import org.gbif.api.vocabulary.Country;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * An {@link OrganizationService} caching organizations and their titles, see {@link CachingNetworkEntityService}.
+ * <br/>
+ * Confirming an endorsement removes the organization from the cache.
+ */
+@ThreadSafe
+public class CachingOrganizationService extends CachingNetworkEntityService<Organization>
+  implements OrganizationService {
+
+  private final OrganizationService service;
+
+  public CachingOrganizationService(OrganizationService service) {
+    super(service);
+    this.service = service;
+  }
+
+  public CachingOrganizationService(OrganizationService service, long maximumSize, long ttl, TimeUnit unit) {
+    super(service, maximumSize, ttl, unit);
+    this.service = service;
+  }
+
+  @Override
+  public PagingResponse<Dataset> hostedDatasets(UUID organizationKey, @Nullable Pageable page) {
+    return service.hostedDatasets(organizationKey, page);
+  }
+
+  @Override
+  public PagingResponse<Dataset> publishedDatasets(UUID organizationKey, @Nullable Pageable page) {
+    return service.publishedDatasets(organizationKey, page);
+  }
+
+  @Override
+  public PagingResponse<Installation> installations(UUID organizationKey, @Nullable Pageable page) {
+    return service.installations(organizationKey, page);
+  }
+
+  @Override
+  public PagingResponse<Organization> listByCountry(Country country, @Nullable Pageable page) {
+    return service.listByCountry(country, page);
+  }
+
+  @Override
+  public PagingResponse<Organization> listDeleted(@Nullable Pageable page) {
+    return service.listDeleted(page);
+  }
+
+  @Override
+  public PagingResponse<Organization> listPendingEndorsement(@Nullable Pageable page) {
+    return service.listPendingEndorsement(page);
+  }
+
+  @Override
+  public PagingResponse<Organization> listNonPublishing(@Nullable Pageable page) {
+    return service.listNonPublishing(page);
+  }
+
+  @Override
+  public List<KeyTitleResult> suggest(@Nullable String q) {
+    return service.suggest(q);
+  }
+
+  @Override
+  public boolean confirmEndorsement(UUID organizationKey, UUID confirmationKey) {
+    try {
+      return service.confirmEndorsement(organizationKey, confirmationKey);
+    } finally {
+      invalidate(organizationKey);
+    }
+  }
+}
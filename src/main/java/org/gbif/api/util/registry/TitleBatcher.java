@@ -0,0 +1,115 @@
+package org.gbif.api.util.registry;
+
+import org.gbif.api.service.registry.NetworkEntityService;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Coalesces concurrent title lookups into bulk {@link NetworkEntityService#getTitles(Collection)} calls.
+ * <br/>
+ * At most one bulk call runs at a time. Keys requested while a call is running are collected into a single next
+ * batch which is loaded by one of the waiting threads as soon as the running call returns. An uncontended lookup is
+ * therefore passed on immediately, while many concurrent single key lookups end up in very few bulk calls.
+ */
+@ThreadSafe
+class TitleBatcher {
+
+  private final NetworkEntityService<?> service;
+  private final Object lock = new Object();
+  @GuardedBy("lock")
+  private Batch next;
+  @GuardedBy("lock")
+  private boolean running;
+  @GuardedBy("lock")
+  private long calls;
+
+  private static class Batch {
+    private final Set<UUID> keys = Sets.newHashSet();
+    private boolean done;
+    private Map<UUID, String> titles;
+    private Throwable error;
+  }
+
+  TitleBatcher(NetworkEntityService<?> service) {
+    this.service = service;
+  }
+
+  /**
+   * Loads the titles of the given keys, possibly together with the keys of other threads.
+   *
+   * @return the titles of all keys known to the service
+   */
+  Map<UUID, String> getTitles(Collection<UUID> keys) throws InterruptedException {
+    Batch batch;
+    synchronized (lock) {
+      if (next == null) {
+        next = new Batch();
+      }
+      batch = next;
+      batch.keys.addAll(keys);
+      while (running && !batch.done) {
+        lock.wait();
+      }
+      if (batch.done) {
+        return result(batch, keys);
+      }
+      // nobody loads this batch yet, so we do
+      running = true;
+      next = null;
+      calls++;
+    }
+
+    Map<UUID, String> titles = null;
+    Throwable error = null;
+    try {
+      titles = service.getTitles(ImmutableSet.copyOf(batch.keys));
+    } catch (RuntimeException e) {
+      error = e;
+    } catch (Error e) {
+      error = e;
+    } finally {
+      synchronized (lock) {
+        batch.titles = titles == null ? ImmutableMap.<UUID, String>of() : titles;
+        batch.error = error;
+        batch.done = true;
+        running = false;
+        lock.notifyAll();
+      }
+    }
+    return result(batch, keys);
+  }
+
+  /**
+   * @return the number of bulk calls made so far
+   */
+  long getCalls() {
+    synchronized (lock) {
+      return calls;
+    }
+  }
+
+  private static Map<UUID, String> result(Batch batch, Collection<UUID> keys) {
+    if (batch.error != null) {
+      throw Throwables.propagate(batch.error);
+    }
+    Map<UUID, String> titles = Maps.newHashMapWithExpectedSize(keys.size());
+    for (UUID key : keys) {
+      String title = batch.titles.get(key);
+      if (title != null) {
+        titles.put(key, title);
+      }
+    }
+    return titles;
+  }
+}
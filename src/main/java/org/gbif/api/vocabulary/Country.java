@@ -12,16 +12,17 @@
  */
 package org.gbif.api.vocabulary;
 
+import org.gbif.api.util.IsoCodeIndex;
+
 import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
-import javax.annotation.Nullable;
-
-import com.google.common.base.Function;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -1347,6 +1348,12 @@ public enum Country {
   public static final Set<String> CUSTOM_CODES;
   public static final List<Country> OFFICIAL_COUNTRIES;
 
+  private static final int MAX_NUMERICAL_CODE = 999;
+  private static final IsoCodeIndex<Country> ISO_CODES;
+  private static final Country[] NUMERICAL_CODES = new Country[MAX_NUMERICAL_CODE + 1];
+  private static final Map<String, Country> TITLES;
+  private static final Map<String, Country> TITLES_LOWER_CASE;
+
   private final String alpha2;
   private final String alpha3;
   private final int numericalCode;
@@ -1362,6 +1369,25 @@ public enum Country {
     }
     OFFICIAL_COUNTRIES = ImmutableList.copyOf(officials);
 
+    IsoCodeIndex.Builder<Country> isoCodes = IsoCodeIndex.builder(Country.class);
+    Map<String, Country> titles = Maps.newHashMap();
+    Map<String, Country> titlesLowerCase = Maps.newHashMap();
+    for (Country c : Country.values()) {
+      isoCodes.add(c.alpha2, c).add(c.alpha3, c);
+      if (c.numericalCode >= 0 && c.numericalCode <= MAX_NUMERICAL_CODE && NUMERICAL_CODES[c.numericalCode] == null) {
+        NUMERICAL_CODES[c.numericalCode] = c;
+      }
+      if (!titles.containsKey(c.title)) {
+        titles.put(c.title, c);
+      }
+      if (!titlesLowerCase.containsKey(c.title.toLowerCase(Locale.ENGLISH))) {
+        titlesLowerCase.put(c.title.toLowerCase(Locale.ENGLISH), c);
+      }
+    }
+    ISO_CODES = isoCodes.build();
+    TITLES = ImmutableMap.copyOf(titles);
+    TITLES_LOWER_CASE = ImmutableMap.copyOf(titlesLowerCase);
+
     Set<String> custom = Sets.newHashSet("AA", "ZZ");
     // QM-QZ
     for (char c = 'M'; c <= 'Z'; c++) {
@@ -1397,15 +1423,30 @@ public enum Country {
    * @return the matching country or null
    */
   public static Country fromIsoCode(String code) {
-    if (!Strings.isNullOrEmpty(code)) {
-      String codeUpper = code.toUpperCase().trim();
-      for (Country c : Country.values()) {
-        if (codeUpper.equals(c.getIso2LetterCode()) || codeUpper.equals(c.getIso3LetterCode())) {
-          return c;
-        }
-      }
+    return ISO_CODES.get(code);
+  }
+
+  /**
+   * @param code the numerical ISO 3166-1 code
+   * @return the matching country or null
+   */
+  public static Country fromIsoNumericalCode(Integer code) {
+    if (code == null || code < 0 || code > MAX_NUMERICAL_CODE) {
+      return null;
     }
-    return null;
+    return NUMERICAL_CODES[code];
+  }
+
+  /**
+   * @param title the case insensitive english country title as given by {@link #getTitle()}
+   * @return the matching country or null
+   */
+  public static Country fromTitle(String title) {
+    if (Strings.isNullOrEmpty(title)) {
+      return null;
+    }
+    Country c = TITLES.get(title);
+    return c != null ? c : TITLES_LOWER_CASE.get(title.trim().toLowerCase(Locale.ENGLISH));
   }
 
   /**
@@ -1538,19 +1579,11 @@ public enum Country {
    * Deserializes the value from an english country title exactly as given by the enumeration.
    */
   public static class TitleDeserializer extends JsonDeserializer<Country> {
-    private static Map<String, Country> TITLE_LOOKUP = Maps.uniqueIndex(Lists.newArrayList(Country.values()),
-                                                                       new Function<Country, String>() {
-      @Nullable
-      @Override
-      public String apply(@Nullable Country c) {
-        return c.title;
-      }
-    });
 
     @Override
     public Country deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
       try {
-        return TITLE_LOOKUP.get(jp.getText());
+        return TITLES.get(jp.getText());
       } catch (Exception e) {
         throw new IOException("Unable to deserialize country from provided title : " + jp.getText());
       }
@@ -15,12 +15,13 @@
  */
 package org.gbif.api.vocabulary;
 
+import org.gbif.api.util.IsoCodeIndex;
+
 import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.JsonGenerator;
@@ -977,8 +978,18 @@ public enum Language {
 
   private final String code;
 
+  private static final IsoCodeIndex<Language> ISO_CODES;
+
   static {
     LANGUAGES = ImmutableList.copyOf(Language.values());
+
+    IsoCodeIndex.Builder<Language> isoCodes = IsoCodeIndex.builder(Language.class);
+    for (Language language : Language.values()) {
+      if (language != UNKNOWN) {
+        isoCodes.add(language.getIso2LetterCode(), language).add(language.getIso3LetterCode(), language);
+      }
+    }
+    ISO_CODES = isoCodes.build();
   }
 
   /**
@@ -987,23 +998,8 @@ public enum Language {
    * @return the matching language or UNKNOWN
    */
   public static Language fromIsoCode(String code) {
-    if (!Strings.isNullOrEmpty(code)) {
-      String codeLower = code.toLowerCase().trim();
-      if (codeLower.length() == 2){
-        for (Language language : Language.values()) {
-          if (codeLower.equals(language.getIso2LetterCode())) {
-            return language;
-          }
-        }
-      } else if (codeLower.length() == 3) {
-        for (Language language : Language.values()) {
-          if (codeLower.equals(language.getIso3LetterCode())) {
-            return language;
-          }
-        }
-      }
-    }
-    return UNKNOWN;
+    Language language = ISO_CODES.get(code);
+    return language == null ? UNKNOWN : language;
   }
 
   Language(String code) {
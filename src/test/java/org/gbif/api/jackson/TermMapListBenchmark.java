@@ -0,0 +1,187 @@
+package org.gbif.api.jackson;
+
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.terms.TermFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.DeserializationConfig.Feature;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.annotate.JsonDeserialize;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the throughput of the streaming extension serde with the previous implementation, which deserialized
+ * into string maps first, on records with many measurement and multimedia extension rows.
+ * Run the main method from within an IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TermMapListBenchmark {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Param({"10", "1000"})
+  public int rows;
+
+  private Extensions record;
+  private LegacyExtensions legacyRecord;
+  private String json;
+
+  @Setup
+  public void setup() throws IOException {
+    record = new Extensions();
+    List<Map<Term, String>> measurements = Lists.newArrayList();
+    List<Map<Term, String>> images = Lists.newArrayList();
+    for (int i = 0; i < rows; i++) {
+      Map<Term, String> m = new HashMap<Term, String>();
+      m.put(DwcTerm.measurementID, "m-" + i);
+      m.put(DwcTerm.measurementType, i % 2 == 0 ? "total length" : "body mass");
+      m.put(DwcTerm.measurementValue, String.valueOf(i * 1.5));
+      m.put(DwcTerm.measurementAccuracy, "0.1");
+      m.put(DwcTerm.measurementUnit, i % 2 == 0 ? "mm" : "g");
+      m.put(DwcTerm.measurementDeterminedDate, "2017-06-21");
+      m.put(DwcTerm.measurementDeterminedBy, "Jane Doe");
+      m.put(DwcTerm.measurementMethod, "caliper");
+      m.put(DwcTerm.measurementRemarks, "measured after preservation");
+      measurements.add(m);
+      if (i % 10 == 0) {
+        Map<Term, String> image = new HashMap<Term, String>();
+        image.put(DcTerm.identifier, "http://images.example.org/" + i + ".jpg");
+        image.put(DcTerm.format, "image/jpeg");
+        image.put(DcTerm.title, "Specimen photo " + i);
+        image.put(DcTerm.creator, "John Doe");
+        image.put(DcTerm.license, "http://creativecommons.org/licenses/by/4.0/");
+        images.add(image);
+      }
+    }
+    record.extensions.put(Extension.MEASUREMENT_OR_FACT, measurements);
+    record.extensions.put(Extension.MULTIMEDIA, images);
+    legacyRecord = new LegacyExtensions();
+    legacyRecord.extensions = record.extensions;
+    json = MAPPER.writeValueAsString(record);
+  }
+
+  @Benchmark
+  public Extensions deserialize() throws IOException {
+    return MAPPER.readValue(json, Extensions.class);
+  }
+
+  @Benchmark
+  public LegacyExtensions deserializeLegacy() throws IOException {
+    return MAPPER.readValue(json, LegacyExtensions.class);
+  }
+
+  @Benchmark
+  public String serialize() throws IOException {
+    return MAPPER.writeValueAsString(record);
+  }
+
+  @Benchmark
+  public String serializeLegacy() throws IOException {
+    return MAPPER.writeValueAsString(legacyRecord);
+  }
+
+  public static class Extensions {
+    @JsonSerialize(keyUsing = ExtensionSerializer.class, contentUsing = TermMapListSerializer.class)
+    @JsonDeserialize(keyUsing = ExtensionKeyDeserializer.class, contentUsing = TermMapListDeserializer.class)
+    public Map<Extension, List<Map<Term, String>>> extensions = Maps.newHashMap();
+  }
+
+  public static class LegacyExtensions {
+    @JsonSerialize(keyUsing = ExtensionSerializer.class, contentUsing = LegacySerializer.class)
+    @JsonDeserialize(keyUsing = ExtensionKeyDeserializer.class, contentUsing = LegacyDeserializer.class)
+    public Map<Extension, List<Map<Term, String>>> extensions = Maps.newHashMap();
+  }
+
+  /**
+   * The previous serializer, building the qualified name of each term for every value.
+   */
+  public static class LegacySerializer extends JsonSerializer<List<Map<Term, String>>> {
+
+    @Override
+    public void serialize(List<Map<Term, String>> value, JsonGenerator jgen, SerializerProvider provider)
+      throws IOException {
+      jgen.writeStartArray();
+      for (Map<Term, String> extension : value) {
+        jgen.writeStartObject();
+        for (Entry<Term, String> entry : extension.entrySet()) {
+          jgen.writeStringField(entry.getKey().qualifiedName(), entry.getValue());
+        }
+        jgen.writeEndObject();
+      }
+      jgen.writeEndArray();
+    }
+  }
+
+  /**
+   * The previous deserializer, reading all rows into string maps before converting them.
+   */
+  public static class LegacyDeserializer extends JsonDeserializer<List<Map<Term, String>>> {
+
+    private final TermFactory termFactory = TermFactory.instance();
+
+    @Override
+    public List<Map<Term, String>> deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+      if (jp.getCurrentToken() == JsonToken.START_ARRAY) {
+        JsonDeserializer<Object> deserializer =
+          ctxt.getDeserializerProvider().findTypedValueDeserializer(ctxt.getConfig(),
+                                                                    ctxt.constructType(List.class), null);
+        List<Map<String, String>> verbatimTerms = (List<Map<String, String>>) deserializer.deserialize(jp, ctxt);
+        List<Map<Term, String>> interpretedTerms = Lists.newArrayList();
+        for (Map<String, String> verbExtension : verbatimTerms) {
+          Map<Term, String> extension = new HashMap<Term, String>();
+          for (Entry<String, String> entry : verbExtension.entrySet()) {
+            Term term = termFactory.findTerm(entry.getKey());
+            if (term == null && ctxt.getConfig().isEnabled(Feature.FAIL_ON_UNKNOWN_PROPERTIES)) {
+              throw ctxt.mappingException("Term not found " + entry.getKey());
+            }
+            extension.put(term, entry.getValue());
+          }
+          interpretedTerms.add(extension);
+        }
+        return interpretedTerms;
+      }
+      throw ctxt.mappingException("Expected JSON String");
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(TermMapListBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,81 @@
+package org.gbif.api.jackson;
+
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.annotate.JsonDeserialize;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test extension serde using {@link TermMapListSerializer} and {@link TermMapListDeserializer}.
+ */
+public class TermMapListSerdeTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  public void testRoundtrip() throws IOException {
+    ExtensionsWrapper ext = new ExtensionsWrapper();
+    List<Map<Term, String>> measurements = Lists.newArrayList();
+    for (int i = 0; i < 100; i++) {
+      Map<Term, String> m = new HashMap<Term, String>();
+      m.put(DwcTerm.measurementType, "length");
+      m.put(DwcTerm.measurementValue, String.valueOf(i));
+      m.put(DwcTerm.measurementUnit, "cm \"metric\"");
+      m.put(DwcTerm.measurementRemarks, null);
+      measurements.add(m);
+    }
+    ext.extensions.put(Extension.MEASUREMENT_OR_FACT, measurements);
+    Map<Term, String> image = new HashMap<Term, String>();
+    image.put(DcTerm.title, "\u00D6land");
+    ext.extensions.put(Extension.MULTIMEDIA, Lists.newArrayList(image));
+    ext.extensions.put(Extension.IDENTIFICATION, Lists.<Map<Term, String>>newArrayList());
+
+    String json = MAPPER.writeValueAsString(ext);
+    assertEquals(ext.extensions, MAPPER.readValue(json, ExtensionsWrapper.class).extensions);
+  }
+
+  @Test
+  public void testScalarValues() throws IOException {
+    String json = "{\"extensions\":{\"http://rs.tdwg.org/dwc/terms/MeasurementOrFact\":["
+                  + "{\"http://rs.tdwg.org/dwc/terms/measurementValue\":12.5,"
+                  + "\"http://rs.tdwg.org/dwc/terms/measurementAccuracy\":3,"
+                  + "\"http://rs.tdwg.org/dwc/terms/measurementDeterminedBy\":true,"
+                  + "\"http://rs.tdwg.org/dwc/terms/measurementRemarks\":null}, {}]}}";
+    List<Map<Term, String>> records =
+      MAPPER.readValue(json, ExtensionsWrapper.class).extensions.get(Extension.MEASUREMENT_OR_FACT);
+    assertEquals(2, records.size());
+    assertEquals("12.5", records.get(0).get(DwcTerm.measurementValue));
+    assertEquals("3", records.get(0).get(DwcTerm.measurementAccuracy));
+    assertEquals("true", records.get(0).get(DwcTerm.measurementDeterminedBy));
+    assertTrue(records.get(0).containsKey(DwcTerm.measurementRemarks));
+    assertTrue(records.get(1).isEmpty());
+  }
+
+  @Test(expected = JsonMappingException.class)
+  public void testNestedValue() throws IOException {
+    MAPPER.readValue("{\"extensions\":{\"http://rs.tdwg.org/dwc/terms/MeasurementOrFact\":["
+                     + "{\"http://rs.tdwg.org/dwc/terms/measurementValue\":[1, 2]}]}}", ExtensionsWrapper.class);
+  }
+
+  public static class ExtensionsWrapper {
+    @JsonSerialize(keyUsing = ExtensionSerializer.class, contentUsing = TermMapListSerializer.class)
+    @JsonDeserialize(keyUsing = ExtensionKeyDeserializer.class, contentUsing = TermMapListDeserializer.class)
+    public Map<Extension, List<Map<Term, String>>> extensions = Maps.newHashMap();
+  }
+}
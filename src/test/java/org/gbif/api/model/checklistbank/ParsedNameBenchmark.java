@@ -0,0 +1,119 @@
+package org.gbif.api.model.checklistbank;
+
+import org.gbif.api.vocabulary.Rank;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares building names of {@link ParsedName} as new strings with appending them to a reused StringBuilder,
+ * and repeated calls of the cached canonical names.
+ * Run the main method from within an IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsedNameBenchmark {
+
+  private ParsedName[] names;
+  private final StringBuilder sb = new StringBuilder(256);
+
+  @Setup
+  public void setup() {
+    names = new ParsedName[] {
+      name("Abies", "alba", null, Rank.SPECIES, "Mill.", null, null),
+      name("Puma", "concolor", "couguar", Rank.SUBSPECIES, "Kerr", "1792", null),
+      name("Aeschna", "grandis", null, Rank.SPECIES, "Linnaeus", "1758", null),
+      name("Carex", "fulva", null, Rank.SPECIES, "Goodenough", null, null),
+      name("Coelacanthus", "granulatus", null, Rank.SPECIES, "Agassiz", "1839", "M\u00fcnster"),
+      name("Poa", "annua", "annua", Rank.VARIETY, null, null, "L.")
+    };
+  }
+
+  private static ParsedName name(String genus, String species, String infraspecies, Rank rank, String authorship,
+    String year, String bracketAuthorship) {
+    ParsedName pn = new ParsedName();
+    pn.setGenusOrAbove(genus);
+    pn.setSpecificEpithet(species);
+    pn.setInfraSpecificEpithet(infraspecies);
+    pn.setRank(rank);
+    pn.setAuthorship(authorship);
+    pn.setYear(year);
+    pn.setBracketAuthorship(bracketAuthorship);
+    return pn;
+  }
+
+  @Benchmark
+  public void buildCanonical(Blackhole bh) {
+    for (ParsedName pn : names) {
+      bh.consume(pn.buildName(ParsedName.Flags.CANONICAL));
+    }
+  }
+
+  @Benchmark
+  public void buildCanonicalWithMarker(Blackhole bh) {
+    for (ParsedName pn : names) {
+      bh.consume(pn.buildName(ParsedName.Flags.CANONICAL_WITH_MARKER));
+    }
+  }
+
+  @Benchmark
+  public void buildCanonicalComplete(Blackhole bh) {
+    for (ParsedName pn : names) {
+      bh.consume(pn.canonicalNameComplete());
+    }
+  }
+
+  @Benchmark
+  public void buildFull(Blackhole bh) {
+    for (ParsedName pn : names) {
+      bh.consume(pn.fullName());
+    }
+  }
+
+  @Benchmark
+  public void appendCanonicalWithMarker(Blackhole bh) {
+    for (ParsedName pn : names) {
+      sb.setLength(0);
+      bh.consume(pn.appendName(sb, ParsedName.Flags.CANONICAL_WITH_MARKER).length());
+    }
+  }
+
+  @Benchmark
+  public void appendFull(Blackhole bh) {
+    for (ParsedName pn : names) {
+      sb.setLength(0);
+      bh.consume(pn.appendName(sb, ParsedName.Flags.FULL).length());
+    }
+  }
+
+  @Benchmark
+  public void cachedCanonical(Blackhole bh) {
+    for (ParsedName pn : names) {
+      bh.consume(pn.canonicalName());
+      bh.consume(pn.canonicalNameWithMarker());
+      bh.consume(pn.authorshipComplete());
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ParsedNameBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -266,6 +266,41 @@ public class ParsedNameTest {
     }
   }
 
+  @Test
+  public void testAppendName() throws Exception {
+    ParsedName pn = new ParsedName();
+    pn.setGenusOrAbove("\u00c6schna");
+    pn.setSpecificEpithet("grandis");
+    pn.setInfraSpecificEpithet("b\u00f6hmi");
+    pn.setRank(Rank.SUBSPECIES);
+    pn.setAuthorship("M\u00fcller");
+
+    StringBuilder sb = new StringBuilder("name: ");
+    assertSame(sb, pn.appendName(sb, ParsedName.Flags.CANONICAL_WITH_MARKER));
+    assertEquals("name: Aeschna grandis subsp. bohmi", sb.toString());
+    assertEquals("Aeschna grandis subsp. bohmi", pn.canonicalNameWithMarker());
+    assertEquals("Aeschna grandis subsp. b\u00f6hmi M\u00fcller",
+      pn.appendName(new StringBuffer(), ParsedName.Flags.CANONICAL_COMPLETE).toString());
+    assertEquals("\u00c6. grandis b\u00f6hmi",
+      pn.buildName(ParsedName.Flags.ABBREVIATE_GENUS | ParsedName.Flags.SHOW_INDET));
+    assertEquals(pn.buildName(true, true, true, false, true, false, true, false, true, false, false, false, true, true),
+      pn.canonicalNameComplete());
+
+    // cached names are rebuilt after changes
+    assertEquals("Aeschna grandis bohmi", pn.canonicalName());
+    assertEquals("M\u00fcller", pn.authorshipComplete());
+    pn.setInfraSpecificEpithet(null);
+    pn.setAuthorship("L.");
+    assertEquals("Aeschna grandis subsp.", pn.canonicalName());
+    assertEquals("Aeschna grandis subsp.", pn.canonicalNameWithMarker());
+    assertEquals("L.", pn.authorshipComplete());
+
+    sb = new StringBuilder("x");
+    new ParsedName().appendName(sb, ParsedName.Flags.FULL);
+    assertEquals("x", sb.toString());
+    assertNull(new ParsedName().buildName(ParsedName.Flags.FULL));
+  }
+
   @Test
   public void testJsonSerde() throws IOException {
     ParsedName pn = new ParsedName();
@@ -0,0 +1,123 @@
+package org.gbif.api.model.common.search;
+
+import org.gbif.api.model.checklistbank.search.NameUsageSearchParameter;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.common.paging.StreamingPagingResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingSearchResponseTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final List<String> RESULTS = ImmutableList.of("r1", "r2", "r3");
+
+  private static List<Facet<NameUsageSearchParameter>> facets() {
+    Facet<NameUsageSearchParameter> rank = new Facet<NameUsageSearchParameter>(NameUsageSearchParameter.RANK,
+      ImmutableList.of(new Facet.Count("SPECIES", 12L), new Facet.Count("GENUS", 3L)));
+    Facet<NameUsageSearchParameter> status = new Facet<NameUsageSearchParameter>(NameUsageSearchParameter.STATUS,
+      ImmutableList.of(new Facet.Count("ACCEPTED", 15L)));
+    return ImmutableList.of(rank, status);
+  }
+
+  @Test
+  public void testPagingResponse() throws IOException {
+    PagingResponse<String> response = new PagingResponse<String>(20, 3, 100L, RESULTS);
+    StreamingPagingResponse<String> streaming = new StreamingPagingResponse<String>(20, 3, 100L, RESULTS.iterator());
+    assertEquals(MAPPER.writeValueAsString(response), MAPPER.writeValueAsString(streaming));
+  }
+
+  @Test
+  public void testEndOfRecords() throws IOException {
+    PagingResponse<String> response = new PagingResponse<String>(new PagingRequest(0, 5), null, RESULTS);
+    StreamingPagingResponse<String> streaming =
+      new StreamingPagingResponse<String>(new PagingRequest(0, 5), null, RESULTS.iterator());
+    assertTrue(streaming.isEndOfRecords());
+    assertEquals(MAPPER.writeValueAsString(response), MAPPER.writeValueAsString(streaming));
+
+    response = new PagingResponse<String>(new PagingRequest(0, 2), null, RESULTS.subList(0, 2));
+    streaming = new StreamingPagingResponse<String>(new PagingRequest(0, 2), null, RESULTS.subList(0, 2).iterator());
+    assertFalse(streaming.isEndOfRecords());
+    assertEquals(MAPPER.writeValueAsString(response), MAPPER.writeValueAsString(streaming));
+  }
+
+  @Test
+  public void testSearchResponse() throws IOException {
+    SearchResponse<String, NameUsageSearchParameter> response =
+      new SearchResponse<String, NameUsageSearchParameter>(0, 10, 3L, RESULTS, facets());
+    StreamingSearchResponse<String, NameUsageSearchParameter> streaming =
+      new StreamingSearchResponse<String, NameUsageSearchParameter>(0, 10, 3L, RESULTS.iterator());
+    streaming.setFacets(facets().iterator());
+    assertEquals(MAPPER.writeValueAsString(response), MAPPER.writeValueAsString(streaming));
+
+    SpellCheckResponse spellCheck = new SpellCheckResponse();
+    SpellCheckResponse.Suggestion suggestion = new SpellCheckResponse.Suggestion();
+    suggestion.setNumFound(4);
+    suggestion.setAlternatives(ImmutableList.of("abies"));
+    spellCheck.setSuggestions(ImmutableMap.of("abis", suggestion));
+    response.setSpellCheckResponse(spellCheck);
+    streaming = new StreamingSearchResponse<String, NameUsageSearchParameter>(0, 10, 3L, RESULTS.iterator());
+    streaming.setFacets(facets().iterator());
+    streaming.setSpellCheckResponse(spellCheck);
+    assertEquals(MAPPER.writeValueAsString(response), MAPPER.writeValueAsString(streaming));
+  }
+
+  @Test
+  public void testNonNullInclusion() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.setSerializationInclusion(JsonSerialize.Inclusion.NON_NULL);
+    SearchResponse<String, NameUsageSearchParameter> response =
+      new SearchResponse<String, NameUsageSearchParameter>(new PagingRequest(0, 10));
+    response.setResults(RESULTS);
+    StreamingSearchResponse<String, NameUsageSearchParameter> streaming =
+      new StreamingSearchResponse<String, NameUsageSearchParameter>(new PagingRequest(0, 10), null, RESULTS.iterator());
+    assertEquals(mapper.writeValueAsString(response), mapper.writeValueAsString(streaming));
+  }
+
+  @Test
+  public void testNonEmptyInclusion() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.setSerializationInclusion(JsonSerialize.Inclusion.NON_EMPTY);
+    SearchResponse<String, NameUsageSearchParameter> response =
+      new SearchResponse<String, NameUsageSearchParameter>(new PagingRequest(0, 10));
+    StreamingSearchResponse<String, NameUsageSearchParameter> streaming =
+      new StreamingSearchResponse<String, NameUsageSearchParameter>(new PagingRequest(0, 10), null,
+        ImmutableList.<String>of().iterator());
+    String json = mapper.writeValueAsString(response);
+    assertFalse(json.contains("results"));
+    assertFalse(json.contains("facets"));
+    assertEquals(json, mapper.writeValueAsString(streaming));
+
+    response = new SearchResponse<String, NameUsageSearchParameter>(0, 10, 3L, RESULTS, facets());
+    streaming = new StreamingSearchResponse<String, NameUsageSearchParameter>(0, 10, 3L, RESULTS.iterator());
+    streaming.setFacets(facets().iterator());
+    assertEquals(mapper.writeValueAsString(response), mapper.writeValueAsString(streaming));
+  }
+
+  @Test
+  public void testNonDefaultInclusion() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.setSerializationInclusion(JsonSerialize.Inclusion.NON_DEFAULT);
+    SearchResponse<String, NameUsageSearchParameter> response = new SearchResponse<String, NameUsageSearchParameter>();
+    StreamingSearchResponse<String, NameUsageSearchParameter> streaming =
+      new StreamingSearchResponse<String, NameUsageSearchParameter>(new PagingRequest(), null,
+        ImmutableList.<String>of().iterator());
+    assertEquals(mapper.writeValueAsString(response), mapper.writeValueAsString(streaming));
+
+    response = new SearchResponse<String, NameUsageSearchParameter>(20, 3, 100L, RESULTS, facets());
+    streaming = new StreamingSearchResponse<String, NameUsageSearchParameter>(20, 3, 100L, RESULTS.iterator());
+    streaming.setFacets(facets().iterator());
+    assertEquals(mapper.writeValueAsString(response), mapper.writeValueAsString(streaming));
+  }
+}
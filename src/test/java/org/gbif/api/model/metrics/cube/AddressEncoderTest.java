@@ -0,0 +1,102 @@
+package org.gbif.api.model.metrics.cube;
+
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.TypeStatus;
+
+import java.util.UUID;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class AddressEncoderTest {
+
+  private static final Dimension<String> NAME = new Dimension<String>("name", String.class);
+
+  /**
+   * Populates all dimensions used by the rollup.
+   */
+  private static ReadBuilder address(Rollup rollup, UUID datasetKey) {
+    ReadBuilder b = new ReadBuilder();
+    for (Dimension<?> dim : rollup.getDimensions()) {
+      if (dim.equals(OccurrenceCube.DATASET_KEY)) {
+        b.at(OccurrenceCube.DATASET_KEY, datasetKey);
+      } else if (dim.equals(OccurrenceCube.TAXON_KEY)) {
+        b.at(OccurrenceCube.TAXON_KEY, 212);
+      } else if (dim.equals(OccurrenceCube.YEAR)) {
+        b.at(OccurrenceCube.YEAR, -12);
+      } else if (dim.equals(OccurrenceCube.BASIS_OF_RECORD)) {
+        b.at(OccurrenceCube.BASIS_OF_RECORD, BasisOfRecord.FOSSIL_SPECIMEN);
+      } else if (dim.equals(OccurrenceCube.IS_GEOREFERENCED)) {
+        b.at(OccurrenceCube.IS_GEOREFERENCED, true);
+      } else if (dim.equals(OccurrenceCube.COUNTRY)) {
+        b.at(OccurrenceCube.COUNTRY, Country.DENMARK);
+      } else if (dim.equals(OccurrenceCube.PUBLISHING_COUNTRY)) {
+        b.at(OccurrenceCube.PUBLISHING_COUNTRY, Country.ALAND_ISLANDS);
+      } else if (dim.equals(OccurrenceCube.PROTOCOL)) {
+        b.at(OccurrenceCube.PROTOCOL, EndpointType.DWC_ARCHIVE);
+      } else if (dim.equals(OccurrenceCube.TYPE_STATUS)) {
+        b.at(OccurrenceCube.TYPE_STATUS, TypeStatus.HOLOTYPE);
+      } else if (dim.equals(OccurrenceCube.ISSUE)) {
+        b.at(OccurrenceCube.ISSUE, OccurrenceIssue.ZERO_COORDINATE);
+      }
+    }
+    return b;
+  }
+
+  @Test
+  public void testTypedAndStringAddresses() {
+    UUID datasetKey = UUID.randomUUID();
+    for (Rollup rollup : OccurrenceCube.ROLLUPS) {
+      AddressEncoder encoder = new AddressEncoder(rollup);
+      ReadBuilder b = address(rollup, datasetKey);
+      Address typed = encoder.encode(b);
+      assertNotNull(typed);
+      assertEquals(rollup.toString(), typed, encoder.encode(b.build()));
+      assertEquals(typed.hashCode(), encoder.encode(b.build()).hashCode());
+      if (rollup.getDimensions().contains(OccurrenceCube.DATASET_KEY)) {
+        assertNotEquals(typed, encoder.encode(address(rollup, UUID.randomUUID())));
+      }
+    }
+  }
+
+  @Test
+  public void testWidth() {
+    assertEquals(3, new AddressEncoder(new Rollup(OccurrenceCube.DATASET_KEY, OccurrenceCube.ISSUE)).getWidth());
+    assertEquals(1, new AddressEncoder(new Rollup(OccurrenceCube.COUNTRY)).getWidth());
+  }
+
+  @Test
+  public void testStrings() {
+    DimensionCodec codec = DimensionCodec.of(NAME);
+    long[] key = new long[1];
+    assertEquals(false, codec.encodeExisting("Abies", key, 0));
+    codec.encode("Abies", key, 0);
+    codec.encode("Picea", key, 0);
+    assertEquals(1, key[0]);
+
+    AddressEncoder encoder = new AddressEncoder(new Rollup(NAME), ImmutableMap.<Dimension<?>, DimensionCodec>of(NAME, codec));
+    assertEquals(new Address(new long[] {0}), encoder.encode(new ReadBuilder().at(NAME, "Abies")));
+    assertNull(encoder.encode(new ReadBuilder().at(NAME, "Larix")));
+    assertNull(new AddressEncoder(new Rollup(NAME)).encode(new ReadBuilder().at(NAME, "Abies")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingDimension() {
+    new AddressEncoder(new Rollup(OccurrenceCube.COUNTRY, OccurrenceCube.YEAR))
+      .encode(new ReadBuilder().at(OccurrenceCube.YEAR, 1900));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidString() {
+    new AddressEncoder(new Rollup(OccurrenceCube.COUNTRY))
+      .encode(new ReadBuilder().at(OccurrenceCube.YEAR, 1900).build());
+  }
+}
@@ -9,6 +9,7 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * Tests the type safety of the builder, and illustrates usage.
@@ -116,4 +117,15 @@ public class ReadBuilderTest {
     assertEquals(8, b.build().size());
     assertEquals("DE", b.build().get(new CountryDimension()));
   }
+
+  @Test
+  public void testTypedValues() {
+    ReadBuilder b = new ReadBuilder().at(new IntDimension(), 1).at(new CountryDimension(), Country.GERMANY);
+    b.at(new IntDimension(), 2);
+    assertEquals(2, b.getDimensions().size());
+    assertEquals(2, b.getValue(new IntDimension()));
+    assertEquals(Country.GERMANY, b.getValue(new CountryDimension()));
+    assertNull(b.getValue(new StringDimension()));
+    assertEquals("2", b.build().get(new IntDimension()));
+  }
 }
@@ -0,0 +1,144 @@
+package org.gbif.api.model.occurrence;
+
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.dwc.terms.DwcTerm;
+
+import java.net.URI;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OccurrenceBatchTest {
+
+  private static final UUID DATASET = UUID.randomUUID();
+
+  private static Occurrence occurrence(Random rnd, int key) {
+    Occurrence o = new Occurrence();
+    o.setKey(key);
+    o.setDatasetKey(rnd.nextBoolean() ? DATASET : UUID.randomUUID());
+    o.setCrawlId(rnd.nextBoolean() ? null : rnd.nextInt(10));
+    o.setLastCrawled(rnd.nextBoolean() ? null : new Date(rnd.nextInt()));
+    o.setVerbatimField(DwcTerm.catalogNumber, "cat-" + key);
+    o.setBasisOfRecord(rnd.nextBoolean() ? null : BasisOfRecord.values()[rnd.nextInt(BasisOfRecord.values().length)]);
+    o.setTaxonKey(rnd.nextBoolean() ? null : rnd.nextInt(1000));
+    o.setKingdomKey(rnd.nextInt(8));
+    o.setKingdom(rnd.nextBoolean() ? "Animalia" : "Plantae");
+    o.setScientificName(rnd.nextBoolean() ? null : "Abies alba " + rnd.nextInt(5));
+    o.setTaxonRank(Rank.SPECIES);
+    o.setDecimalLatitude(rnd.nextBoolean() ? null : rnd.nextDouble() * 180 - 90);
+    o.setDecimalLongitude(rnd.nextBoolean() ? null : rnd.nextDouble() * 360 - 180);
+    o.setElevation(rnd.nextBoolean() ? null : -0.0);
+    o.setCountry(rnd.nextBoolean() ? null : Country.values()[rnd.nextInt(Country.values().length)]);
+    o.setYear(rnd.nextBoolean() ? null : 1900 + rnd.nextInt(120));
+    o.setEventDate(rnd.nextBoolean() ? null : new Date(rnd.nextLong() / 1000));
+    o.setReferences(rnd.nextBoolean() ? null : URI.create("http://www.gbif.org/" + rnd.nextInt(3)));
+    for (OccurrenceIssue issue : OccurrenceIssue.values()) {
+      if (rnd.nextInt(10) == 0) {
+        o.addIssue(issue);
+      }
+    }
+    if (rnd.nextBoolean()) {
+      o.getMedia().add(new MediaObject());
+    }
+    return o;
+  }
+
+  private static List<Occurrence> occurrences(int size) {
+    Random rnd = new Random(5);
+    List<Occurrence> occurrences = Lists.newArrayList();
+    for (int i = 0; i < size; i++) {
+      occurrences.add(occurrence(rnd, i));
+    }
+    return occurrences;
+  }
+
+  @Test
+  public void testRoundtrip() {
+    List<Occurrence> occurrences = occurrences(5000);
+    OccurrenceBatch batch = OccurrenceBatch.of(occurrences);
+    assertEquals(5000, batch.size());
+    assertEquals(occurrences, batch.toOccurrences());
+  }
+
+  @Test
+  public void testGrow() {
+    List<Occurrence> occurrences = occurrences(100);
+    OccurrenceBatch batch = new OccurrenceBatch(0);
+    for (Occurrence o : occurrences) {
+      batch.add(o);
+    }
+    assertEquals(occurrences, batch.toOccurrences());
+  }
+
+  @Test
+  public void testEmptyOccurrence() {
+    OccurrenceBatch batch = new OccurrenceBatch();
+    batch.add(new Occurrence());
+    assertEquals(new Occurrence(), batch.get(0));
+    assertTrue(batch.getDecimalLatitude().isNull(0));
+    assertTrue(Double.isNaN(batch.getDecimalLatitude().get(0)));
+    assertNull(batch.getCountry().get(0));
+    assertEquals(-1, batch.getScientificName().getCode(0));
+    assertTrue(batch.getIssues().get(0).isEmpty());
+  }
+
+  @Test
+  public void testColumns() {
+    Occurrence o = new Occurrence();
+    o.setKingdom("Plantae");
+    o.setCountry(Country.DENMARK);
+    o.setYear(2017);
+    OccurrenceIssue last = OccurrenceIssue.values()[OccurrenceIssue.values().length - 1];
+    o.setIssues(EnumSet.of(OccurrenceIssue.ZERO_COORDINATE, last));
+    Occurrence o2 = new Occurrence();
+    o2.setKingdom("Plantae");
+
+    OccurrenceBatch batch = OccurrenceBatch.of(ImmutableList.of(o, o2));
+    assertEquals(ImmutableList.of("Plantae"), batch.getKingdom().getDictionary());
+    assertEquals(0, batch.getKingdom().getCode(1));
+    assertEquals(2017, batch.getYear().get(0));
+    assertTrue(batch.getYear().isNull(1));
+    assertEquals(Country.DENMARK.ordinal(), batch.getCountry().getOrdinal(0));
+    assertTrue(batch.getIssues().contains(0, OccurrenceIssue.ZERO_COORDINATE));
+    assertFalse(batch.getIssues().contains(1, OccurrenceIssue.ZERO_COORDINATE));
+    assertEquals(o.getIssues(), batch.getIssues().get(0));
+  }
+
+  @Test
+  public void testFilter() {
+    List<Occurrence> occurrences = occurrences(2000);
+    OccurrenceBatch batch = OccurrenceBatch.of(occurrences);
+
+    // georeferenced records without a zero coordinate
+    BitSet rows = batch.getIssues().rows(OccurrenceIssue.ZERO_COORDINATE, batch.size());
+    rows.flip(0, batch.size());
+    rows.andNot(batch.getDecimalLatitude().getNulls());
+    rows.andNot(batch.getDecimalLongitude().getNulls());
+
+    List<Occurrence> expected = Lists.newArrayList();
+    for (Occurrence o : occurrences) {
+      if (o.getDecimalLatitude() != null && o.getDecimalLongitude() != null
+          && !o.getIssues().contains(OccurrenceIssue.ZERO_COORDINATE)) {
+        expected.add(o);
+      }
+    }
+    assertFalse(expected.isEmpty());
+    assertEquals(expected, batch.filter(rows).toOccurrences());
+  }
+}
@@ -0,0 +1,169 @@
+package org.gbif.api.model.occurrence;
+
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TermRecordTest {
+
+  @Test
+  public void testPutGet() {
+    TermRecord r = new TermSchema().newRecord();
+    assertTrue(r.isEmpty());
+    assertNull(r.put(DwcTerm.scientificName, "Abies alba"));
+    assertNull(r.put(DwcTerm.country, null));
+    assertEquals("Abies alba", r.put(DwcTerm.scientificName, "Abies alba Mill."));
+    assertEquals(2, r.size());
+    assertEquals("Abies alba Mill.", r.get(DwcTerm.scientificName));
+    assertNull(r.get(DwcTerm.country));
+    assertTrue(r.containsKey(DwcTerm.country));
+    assertFalse(r.containsKey(DwcTerm.countryCode));
+    assertFalse(r.containsKey("country"));
+    assertNull(r.get(null));
+
+    assertNull(r.remove(DwcTerm.country));
+    assertFalse(r.containsKey(DwcTerm.country));
+    assertEquals(1, r.size());
+  }
+
+  @Test
+  public void testSharedSchema() {
+    TermSchema schema = new TermSchema(ImmutableList.of(DwcTerm.occurrenceID, DwcTerm.scientificName));
+    TermRecord r1 = schema.newRecord();
+    TermRecord r2 = schema.newRecord();
+    r1.put(DcTerm.modified, "2017");
+    r2.put(DwcTerm.scientificName, "Abies");
+    assertEquals(3, schema.size());
+    assertEquals(2, schema.ordinal(DcTerm.modified));
+    assertEquals(-1, schema.find(DcTerm.title));
+    assertNull(r2.get(DcTerm.modified));
+    assertNull(r1.get(DwcTerm.scientificName));
+    assertEquals("2017", r1.get(DcTerm.modified));
+  }
+
+  @Test
+  public void testEquality() {
+    Map<Term, String> map = Maps.newHashMap();
+    map.put(DwcTerm.scientificName, "Abies alba");
+    map.put(DwcTerm.country, null);
+    map.put(DcTerm.modified, "2017-06-21");
+    TermRecord r = new TermRecord(new TermSchema(), map);
+    assertEquals(map, r);
+    assertEquals(r, map);
+    assertEquals(map.hashCode(), r.hashCode());
+    assertEquals(map.entrySet(), r.entrySet());
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    TermRecord r = new TermSchema().newRecord();
+    r.put(DwcTerm.scientificName, "Abies alba");
+    r.put(DwcTerm.country, "DE");
+    r.put(DcTerm.modified, "2017");
+    Iterator<Map.Entry<Term, String>> iter = r.entrySet().iterator();
+    while (iter.hasNext()) {
+      if (iter.next().getKey() == DwcTerm.country) {
+        iter.remove();
+      }
+    }
+    assertEquals(2, r.size());
+    assertFalse(r.containsKey(DwcTerm.country));
+
+    for (Map.Entry<Term, String> entry : r.entrySet()) {
+      entry.setValue(entry.getValue().toUpperCase());
+    }
+    assertEquals("ABIES ALBA", r.get(DwcTerm.scientificName));
+  }
+
+  /**
+   * Applies the same random operations to a record and a hash map.
+   */
+  @Test
+  public void testLikeHashMap() {
+    Random rnd = new Random(3);
+    TermSchema schema = new TermSchema();
+    List<Term> terms = Lists.<Term>newArrayList(DwcTerm.values());
+    String[] values = {"a", "b", "", null};
+    for (int run = 0; run < 100; run++) {
+      TermRecord record = schema.newRecord();
+      Map<Term, String> map = Maps.newHashMap();
+      for (int i = 0; i < 200; i++) {
+        Term term = terms.get(rnd.nextInt(terms.size()));
+        switch (rnd.nextInt(4)) {
+          case 0:
+          case 1:
+            String value = values[rnd.nextInt(values.length)];
+            assertEquals(map.put(term, value), record.put(term, value));
+            break;
+          case 2:
+            assertEquals(map.remove(term), record.remove(term));
+            break;
+          default:
+            assertEquals(map.containsKey(term), record.containsKey(term));
+            assertEquals(map.get(term), record.get(term));
+        }
+        assertEquals(map.size(), record.size());
+      }
+      assertEquals(map, record);
+      assertEquals(map.hashCode(), record.hashCode());
+    }
+  }
+
+  @Test
+  public void testVerbatimOccurrence() {
+    TermSchema schema = new TermSchema();
+    VerbatimOccurrence v = new VerbatimOccurrence(schema);
+    v.setVerbatimField(DwcTerm.scientificName, "Abies alba");
+    v.setVerbatimField(DwcTerm.country, "");
+    assertTrue(v.hasVerbatimField(DwcTerm.scientificName));
+    assertFalse(v.hasVerbatimField(DwcTerm.country));
+    assertEquals("Abies alba", v.getVerbatimField(DwcTerm.scientificName));
+    assertTrue(v.getVerbatimFields() instanceof TermRecord);
+
+    VerbatimOccurrence v2 = new VerbatimOccurrence();
+    v2.setVerbatimFields(Maps.newHashMap(v.getVerbatimFields()));
+    assertEquals(v, v2);
+    assertEquals(v.hashCode(), v2.hashCode());
+
+    // the given map is kept as it is
+    Map<Term, String> fields = Maps.newHashMap();
+    v.setVerbatimFields(fields);
+    fields.put(DwcTerm.country, "Denmark");
+    assertSame(fields, v.getVerbatimFields());
+    assertEquals("Denmark", v.getVerbatimField(DwcTerm.country));
+  }
+
+  @Test
+  public void testOccurrence() {
+    TermSchema schema = new TermSchema();
+    Occurrence o = Occurrence.withSchema(schema);
+    o.setVerbatimField(DwcTerm.scientificName, "Abies alba");
+    assertTrue(o.getVerbatimFields() instanceof TermRecord);
+
+    VerbatimOccurrence v = new VerbatimOccurrence(schema);
+    v.setVerbatimField(DwcTerm.scientificName, "Abies alba");
+    Occurrence copy = new Occurrence(v);
+    assertTrue(copy.getVerbatimFields() instanceof TermRecord);
+    assertEquals(schema, ((TermRecord) copy.getVerbatimFields()).getSchema());
+    assertEquals(v.getVerbatimFields(), copy.getVerbatimFields());
+    // the copy does not share the record of the verbatim occurrence
+    copy.setVerbatimField(DwcTerm.country, "Denmark");
+    assertNull(v.getVerbatimField(DwcTerm.country));
+  }
+}
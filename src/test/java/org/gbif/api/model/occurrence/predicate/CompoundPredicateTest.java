@@ -92,13 +92,17 @@ public class CompoundPredicateTest {
     List<Predicate> mocks = Lists.newArrayList(mock(Predicate.class), mock(Predicate.class));
 
     Predicate p1 = new ConjunctionPredicate(mocks);
-    Predicate p2 = new DisjunctionPredicate(mocks);
-
+    Predicate p2 = new ConjunctionPredicate(mocks);
     assertThat(p1.hashCode(), equalTo(p2.hashCode()));
 
-    mocks.add(mock(Predicate.class));
+    // the same predicates combined differently must not collide
     p2 = new DisjunctionPredicate(mocks);
     assertThat(p1.hashCode(), not(equalTo(p2.hashCode())));
+    assertThat(new NotPredicate(p1).hashCode(), not(equalTo(p1.hashCode())));
+
+    mocks.add(mock(Predicate.class));
+    p2 = new ConjunctionPredicate(mocks);
+    assertThat(p1.hashCode(), not(equalTo(p2.hashCode())));
   }
 
   @Test(expected = NullPointerException.class)
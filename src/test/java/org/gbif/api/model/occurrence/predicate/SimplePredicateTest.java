@@ -86,7 +86,7 @@ public class SimplePredicateTest {
 
     assertThat(sp1.hashCode(), equalTo(sp2.hashCode()));
     assertThat(sp1.hashCode(), not(equalTo(sp3.hashCode())));
-    assertThat(sp3.hashCode(), equalTo(sp4.hashCode()));
+    assertThat(sp3.hashCode(), not(equalTo(sp4.hashCode())));
   }
 
   @Test(expected = NullPointerException.class)
@@ -3,6 +3,9 @@ package org.gbif.api.model.occurrence.predicate;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
 public class WithinPredicateTest {
 
   @Test(expected = IllegalArgumentException.class)
@@ -25,6 +28,13 @@ public class WithinPredicateTest {
     new WithinPredicate("POLYGON ((30 10, 10 20, 20 40, 40 40, 30 10))");
   }
 
+  @Test
+  public void testParsedGeometry() {
+    WithinPredicate p = new WithinPredicate("POLYGON ((30 10, 10 20, 20 40, 40 40, 30 10))");
+    assertEquals(5, p.getParsedGeometry().getNumPoints());
+    assertSame(p.getParsedGeometry(), p.getParsedGeometry());
+  }
+
   @Test
   @Ignore("Not fixed yet, see http://dev.gbif.org/issues/browse/POR-3042")
   public void testGoodComplexConstructor() {
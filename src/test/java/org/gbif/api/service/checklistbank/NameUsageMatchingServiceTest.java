@@ -0,0 +1,97 @@
+package org.gbif.api.service.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsageMatch;
+import org.gbif.api.model.checklistbank.NameUsageMatchQuery;
+import org.gbif.api.model.common.LinneanClassification;
+import org.gbif.api.vocabulary.Rank;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NameUsageMatchingServiceTest {
+
+  /**
+   * Matches names to their hash code and counts the calls.
+   */
+  private static class CountingService implements NameUsageMatchingService {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public NameUsageMatch match(String scientificName, @Nullable Rank rank,
+      @Nullable LinneanClassification classification, boolean strict, boolean verbose) {
+      calls.incrementAndGet();
+      if (scientificName == null) {
+        throw new IllegalArgumentException("scientificName required");
+      }
+      NameUsageMatch match = new NameUsageMatch();
+      match.setUsageKey(scientificName.hashCode());
+      match.setScientificName(scientificName);
+      match.setRank(rank);
+      match.setKingdom(classification == null ? null : classification.getKingdom());
+      return match;
+    }
+  }
+
+  private static List<NameUsageMatchQuery> queries() {
+    NameUsageMatch classification = new NameUsageMatch();
+    classification.setKingdom("Plantae");
+    classification.setFamily("Pinaceae");
+    List<NameUsageMatchQuery> queries = Lists.newArrayList();
+    for (int i = 0; i < 100; i++) {
+      queries.add(new NameUsageMatchQuery("Abies alba", Rank.SPECIES, classification, false));
+      queries.add(new NameUsageMatchQuery("Abies alba", null, classification, false));
+      queries.add(new NameUsageMatchQuery("Abies", Rank.GENUS, null, i % 2 == 0));
+    }
+    return queries;
+  }
+
+  @Test
+  public void testMatchBatch() {
+    CountingService service = new CountingService();
+    List<NameUsageMatchQuery> queries = queries();
+    List<NameUsageMatch> matches = service.matchBatch(queries, false);
+    assertEquals(4, service.calls.get());
+    assertEquals(queries.size(), matches.size());
+    for (int i = 0; i < queries.size(); i++) {
+      assertEquals(queries.get(i).getScientificName(), matches.get(i).getScientificName());
+      assertEquals(queries.get(i).getRank(), matches.get(i).getRank());
+      assertEquals(queries.get(i).getKingdom(), matches.get(i).getKingdom());
+    }
+    assertSame(matches.get(0), matches.get(3));
+  }
+
+  @Test
+  public void testMatchAsync() throws Exception {
+    CountingService service = new CountingService();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<NameUsageMatchQuery> queries = queries();
+      List<NameUsageMatch> matches = service.matchAsync(queries, false, executor).get();
+      assertEquals(service.matchBatch(queries, false), matches);
+      assertEquals(8, service.calls.get());
+      assertSame(matches.get(0), matches.get(3));
+
+      try {
+        service.matchAsync(ImmutableList.of(new NameUsageMatchQuery()), false, executor).get();
+        fail();
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package org.gbif.api.util;
+
+import java.text.DateFormat;
+import java.text.ParsePosition;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the scanning date parser with parsing by trying each date format in turn, as done previously.
+ * Run the main method from within an IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IsoDateParsingBenchmark {
+
+  private static final Pattern SIMPLE_ISO_PATTERN = Pattern.compile("\\d{4}(?:-\\d{2}(?:-\\d{2})?)?");
+
+  private final String[] dates = {"2017", "2017-06", "2017-06-21", "1999-12-31"};
+  private final String[] ranges = {"2000,2010", "2000-01,2010-06", "1999-10-01,*", "*,2017-06-21"};
+
+  @Benchmark
+  public void parseDate(Blackhole bh) {
+    for (String date : dates) {
+      bh.consume(IsoDateParsingUtils.parseDate(date));
+    }
+  }
+
+  @Benchmark
+  public void parseDateWithFormats(Blackhole bh) {
+    for (String date : dates) {
+      bh.consume(parseWithFormats(date));
+    }
+  }
+
+  @Benchmark
+  public void parseDateRange(Blackhole bh) {
+    for (String range : ranges) {
+      bh.consume(IsoDateParsingUtils.parseDateRange(range));
+    }
+  }
+
+  /**
+   * The previous parsing, trying all date formats with a new DateFormat instance each.
+   */
+  private static Date parseWithFormats(String value) {
+    if (SIMPLE_ISO_PATTERN.matcher(value).find()) {
+      for (IsoDateParsingUtils.IsoDateFormat format : IsoDateParsingUtils.IsoDateFormat.values()) {
+        DateFormat dateFormat = format.getDateFormat();
+        ParsePosition position = new ParsePosition(0);
+        Date date = dateFormat.parse(value, position);
+        if (date != null && position.getIndex() == value.length()) {
+          return date;
+        }
+      }
+    }
+    throw new IllegalArgumentException(value + " is not a valid date");
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(IsoDateParsingBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -1,12 +1,15 @@
 package org.gbif.api.util;
 
+import java.text.DateFormat;
 import java.util.Calendar;
 import java.util.Date;
 
+import com.google.common.collect.Range;
 import org.junit.Assert;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 /**
  * Test case for class OccurrenceDateParsingUtils.
@@ -124,4 +127,47 @@ public class IsoDateParsingUtilsTest {
     assertEquals(11, lastDayOfMonthCal.get(Calendar.MONTH)); // December is 11, months start at index 0
     assertEquals(31, lastDayOfMonthCal.get(Calendar.DAY_OF_MONTH));
   }
+
+  /**
+   * Compares the scanned dates with the results of the date formats.
+   */
+  @Test
+  public void parseDateLikeDateFormatsTest() throws Exception {
+    String[] values = {"1583", "1900", "2000", "2017-1", "2017-01", "2017-12", "2016-02-29", "2017-2-28", "2017-12-31",
+      "2017-1-1", "1601-06-15", "9999-12-31", "1582", "1000-01-01", "0999"};
+    for (String value : values) {
+      IsoDateParsingUtils.IsoDateFormat format = IsoDateParsingUtils.getFirstDateFormatMatch(value);
+      DateFormat dateFormat = format.getDateFormat();
+      assertEquals(value, dateFormat.parse(value), IsoDateParsingUtils.parseDate(value));
+      assertEquals(value, dateFormat.parse(value), format.parseDate(value));
+    }
+
+    Calendar cal = Calendar.getInstance();
+    cal.clear();
+    cal.set(1990, Calendar.JANUARY, 1);
+    DateFormat dateFormat = IsoDateParsingUtils.IsoDateFormat.FULL.getDateFormat();
+    for (int day = 0; day < 365 * 12; day++) {
+      String value = dateFormat.format(cal.getTime());
+      assertEquals(value, dateFormat.parse(value), IsoDateParsingUtils.parseDate(value));
+      cal.add(Calendar.DAY_OF_MONTH, 1);
+    }
+  }
+
+  @Test
+  public void parseDateRangeUpperBoundTest() {
+    Range<Date> range = IsoDateParsingUtils.parseDateRange("2000,2001-02");
+    assertEquals(IsoDateParsingUtils.parseDate("2000-01-01"), range.lowerEndpoint());
+    assertEquals(IsoDateParsingUtils.parseDate("2001-02-28"), range.upperEndpoint());
+
+    range = IsoDateParsingUtils.parseDateRange("*,2004");
+    assertFalse(range.hasLowerBound());
+    assertEquals(IsoDateParsingUtils.parseDate("2004-12-31"), range.upperEndpoint());
+
+    assertEquals(Range.<Date>all(), IsoDateParsingUtils.parseDateRange("*,*"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void parseInvertedDateRangeTest() {
+    IsoDateParsingUtils.parseDateRange("2001,2000");
+  }
 }
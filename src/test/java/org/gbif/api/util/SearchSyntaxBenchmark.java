@@ -0,0 +1,117 @@
+package org.gbif.api.util;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the WKT syntax check of {@link SearchSyntax} with the regular expression used previously.
+ * The regular expression recurses for every vertex and overflows the default stack long before 50000 vertices,
+ * so it is only measured for smaller polygons.
+ * Run the main method from within an IDE or with the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchSyntaxBenchmark {
+
+  private static final String DEC = "(-?\\d+(?:\\.\\d+)?)";
+  private static final String WKT_COORD = "\\s*" + DEC + "\\s+" + DEC + "\\s*";
+  private static final String WKT_LINE = "\\s*\\(" + WKT_COORD + "(?:," + WKT_COORD + ")*\\)\\s*";
+  private static final Pattern WKT_POLYGON = Pattern.compile(
+    "^POLYGON\\s*\\(" + WKT_LINE + "(?:," + WKT_LINE + ")*\\)$", Pattern.CASE_INSENSITIVE);
+  private static final Pattern DECIMAL_RANGE = Pattern.compile(
+    "^(" + DEC + "|\\*)\\s*,\\s*(" + DEC + "|\\*)$", Pattern.CASE_INSENSITIVE);
+
+  private static final String[] RANGES = {"1,2", "-10.5 , 20.25", "*,100", "0.001,*"};
+
+  @State(Scope.Benchmark)
+  public static class Polygon {
+
+    @Param({"100", "1000", "50000"})
+    int vertices;
+
+    String wkt;
+
+    @Setup
+    public void setup() {
+      wkt = polygon(vertices);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class SmallPolygon {
+
+    @Param({"100", "1000"})
+    int vertices;
+
+    String wkt;
+
+    @Setup
+    public void setup() {
+      wkt = polygon(vertices);
+    }
+  }
+
+  private static String polygon(int vertices) {
+    StringBuilder sb = new StringBuilder("POLYGON ((");
+    for (int i = 0; i < vertices; i++) {
+      double angle = 2 * Math.PI * i / vertices;
+      sb.append(String.format(Locale.ROOT, "%.6f %.6f, ", Math.cos(angle) * 10, Math.sin(angle) * 10));
+    }
+    return sb.append("10.000000 0.000000))").toString();
+  }
+
+  @Benchmark
+  public boolean wkt(Polygon state) {
+    return SearchSyntax.isSimpleWkt(state.wkt);
+  }
+
+  @Benchmark
+  public boolean wktRegex(SmallPolygon state) {
+    return WKT_POLYGON.matcher(state.wkt).find();
+  }
+
+  @Benchmark
+  public int decimalRange() {
+    int found = 0;
+    for (String range : RANGES) {
+      if (SearchSyntax.parseDecimalRange(range) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int decimalRangeRegex() {
+    int found = 0;
+    for (String range : RANGES) {
+      if (DECIMAL_RANGE.matcher(range).find()) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(SearchSyntaxBenchmark.class.getSimpleName()).build()).run();
+  }
+}
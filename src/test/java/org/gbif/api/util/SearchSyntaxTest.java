@@ -0,0 +1,138 @@
+package org.gbif.api.util;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares {@link SearchSyntax} with the regular expressions previously used by {@link SearchTypeValidator}.
+ */
+public class SearchSyntaxTest {
+
+  private static final String DEC = "-?\\d+(?:\\.\\d+)?";
+  private static final String DECIMAL = "(" + DEC + ")";
+  private static final String DECIMAL_OR_WILDCARD = "(" + DEC + "|\\*)";
+  private static final Pattern DECIMAL_RANGE_PATTERN = Pattern.compile(
+    "^" + DECIMAL_OR_WILDCARD + "\\s*,\\s*" + DECIMAL_OR_WILDCARD + "$", Pattern.CASE_INSENSITIVE);
+  private static final String WKT_COORD = "\\s*" + DECIMAL + "\\s+" + DECIMAL + "\\s*";
+  private static final String WKT_LINE = "\\s*\\(" + WKT_COORD + "(?:," + WKT_COORD + ")*\\)\\s*";
+  private static final String WKT_POLYGON = "\\(" + WKT_LINE + "(?:," + WKT_LINE + ")*\\)";
+  private static final List<Pattern> WKT_PATTERNS = ImmutableList.of(
+    Pattern.compile("^POINT\\s*\\(" + WKT_COORD + "\\)$", Pattern.CASE_INSENSITIVE),
+    Pattern.compile("^(?:LINESTRING|LINEARRING)\\s*" + WKT_LINE + "$", Pattern.CASE_INSENSITIVE),
+    Pattern.compile("^POLYGON\\s*" + WKT_POLYGON + "$", Pattern.CASE_INSENSITIVE),
+    Pattern.compile("^MULTIPOLYGON\\s*\\(" + WKT_POLYGON + "(?:," + WKT_POLYGON + ")*\\)$", Pattern.CASE_INSENSITIVE));
+
+  private static final String[] RANGE_TOKENS = {"1", "23", "-", ".", "5", "*", ",", " ", "\t", "\n", "\r", "\u2028",
+    "a", "+", "e"};
+  private static final String[] WKT_TOKENS = {"POINT", "point", "LINESTRING", "LINEARRING", "POLYGON", "polygon",
+    "MULTIPOLYGON", "POLYGONZ", "(", "(", ")", ")", ",", ",", " ", " ", "\t", "\n", "\r", "\u0085", "\u2029", "1", "23",
+    "-", ".", "5", "10 20", "1.5 -2.5", "x"};
+
+  private static String[] regexRange(String value) {
+    Matcher m = DECIMAL_RANGE_PATTERN.matcher(value);
+    return m.find() ? new String[] {m.group(1), m.group(2)} : null;
+  }
+
+  private static boolean regexWkt(String value) {
+    for (Pattern regex : WKT_PATTERNS) {
+      if (regex.matcher(value).find()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String random(Random rnd, String[] tokens, int maxTokens) {
+    StringBuilder sb = new StringBuilder();
+    int size = rnd.nextInt(maxTokens);
+    for (int i = 0; i < size; i++) {
+      sb.append(tokens[rnd.nextInt(tokens.length)]);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Randomly inserts, removes or replaces a single character of a valid value.
+   */
+  private static String mutate(Random rnd, String value, String[] tokens) {
+    int pos = rnd.nextInt(value.length() + 1);
+    switch (rnd.nextInt(3)) {
+      case 0:
+        return value.substring(0, pos) + tokens[rnd.nextInt(tokens.length)] + value.substring(pos);
+      case 1:
+        return pos == value.length() ? value : value.substring(0, pos) + value.substring(pos + 1);
+      default:
+        return pos == value.length()
+          ? value
+          : value.substring(0, pos) + tokens[rnd.nextInt(tokens.length)] + value.substring(pos + 1);
+    }
+  }
+
+  @Test
+  public void testDecimalRange() {
+    assertArrayEquals(new String[] {"1.5", "*"}, SearchSyntax.parseDecimalRange("1.5 , *"));
+    assertArrayEquals(new String[] {"-10", "20"}, SearchSyntax.parseDecimalRange("-10,20\n"));
+    assertNull(SearchSyntax.parseDecimalRange("1.,2"));
+    assertNull(SearchSyntax.parseDecimalRange("1,2 "));
+    assertNull(SearchSyntax.parseDecimalRange(null));
+  }
+
+  @Test
+  public void testDecimalRangeLikeRegex() {
+    Random rnd = new Random(7);
+    String[] valid = {"1,2", "*,*", "-1.5 ,\t2", "10.25,*", "*,-3"};
+    for (int i = 0; i < 200000; i++) {
+      String value = i % 2 == 0
+        ? random(rnd, RANGE_TOKENS, 10)
+        : mutate(rnd, valid[rnd.nextInt(valid.length)], RANGE_TOKENS);
+      assertArrayEquals(value, regexRange(value), SearchSyntax.parseDecimalRange(value));
+    }
+  }
+
+  @Test
+  public void testWkt() {
+    assertTrue(SearchSyntax.isSimpleWkt("POINT (30 10)"));
+    assertTrue(SearchSyntax.isSimpleWkt("linestring(30 10, 10 30, 40 40)"));
+    assertTrue(SearchSyntax.isSimpleWkt("POLYGON ((30 10, 40 40, 20 40, 10 20, 30 10), (1 2, 3 4, 5 6, 1 2))"));
+    assertTrue(SearchSyntax.isSimpleWkt("MULTIPOLYGON (((30 20, 45 40, 10 40, 30 20)),((15 5, 40 10, 10 20, 15 5)))"));
+    // no whitespace is allowed between the polygons of a multipolygon
+    assertEquals(regexWkt("MULTIPOLYGON (((1 2, 3 4)), ((1 2, 3 4)))"),
+                 SearchSyntax.isSimpleWkt("MULTIPOLYGON (((1 2, 3 4)), ((1 2, 3 4)))"));
+  }
+
+  @Test
+  public void testWktLikeRegex() {
+    Random rnd = new Random(11);
+    String[] valid = {"POINT (30 10)", "POINT(1.5 -2)\n", "LINESTRING (30 10, 10 30, 40 40)", "LINEARRING(1 2,3 4)",
+      "POLYGON ((30 10, 40 40, 20 40, 10 20, 30 10))", "POLYGON((1 2,3 4),(5 6,7 8))\r\n",
+      "MULTIPOLYGON (((30 20, 45 40, 10 40, 30 20)),((15 5, 40 10, 10 20, 15 5)))"};
+    for (int i = 0; i < 200000; i++) {
+      String value = i % 2 == 0
+        ? random(rnd, WKT_TOKENS, 20)
+        : mutate(rnd, valid[rnd.nextInt(valid.length)], WKT_TOKENS);
+      assertEquals(value, regexWkt(value), SearchSyntax.isSimpleWkt(value));
+    }
+  }
+
+  @Test
+  public void testLargePolygon() {
+    StringBuilder sb = new StringBuilder("POLYGON ((");
+    for (int i = 0; i < 50000; i++) {
+      double angle = 2 * Math.PI * i / 50000;
+      sb.append(String.format(Locale.ROOT, "%.6f %.6f, ", Math.cos(angle) * 10, Math.sin(angle) * 10));
+    }
+    sb.append("10.000000 0.000000))");
+    assertTrue(SearchSyntax.isSimpleWkt(sb.toString()));
+  }
+}
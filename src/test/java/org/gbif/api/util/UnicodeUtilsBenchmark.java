@@ -0,0 +1,94 @@
+package org.gbif.api.util;
+
+import java.text.Normalizer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the table driven folding of {@link UnicodeUtils} with the regex based replacements used previously.
+ * Run the main method from within an IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnicodeUtilsBenchmark {
+
+    private final String[] names = {"Abies alba Mill.", "Puma concolor (Linnaeus, 1771)", "Æschna grandis Fabricius",
+        "Carex ×fulva Goodenough", "Żubr Ørsted", "Cœlacanthus Müller & Hoffmannsegg"};
+
+    @Benchmark
+    public void ascii(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(UnicodeUtils.ascii(name));
+        }
+    }
+
+    @Benchmark
+    public void asciiRegex(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(legacyAscii(name));
+        }
+    }
+
+    @Benchmark
+    public void decompose(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(UnicodeUtils.decompose(name));
+        }
+    }
+
+    @Benchmark
+    public void decomposeRegex(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(legacyDecompose(name));
+        }
+    }
+
+    private static String legacyAscii(String x) {
+        x = StringUtils.replaceChars(x, "øØðÐ", "oOdD");
+        x = Normalizer.normalize(x, Normalizer.Form.NFD);
+        return x.replaceAll("\\p{M}", "");
+    }
+
+    private static String legacyDecompose(String x) {
+        return x.replaceAll("æ", "ae")
+                .replaceAll("Æ", "Ae")
+                .replaceAll("œ", "oe")
+                .replaceAll("Œ", "Oe")
+                .replaceAll("Ĳ", "Ij")
+                .replaceAll("ĳ", "ij")
+                .replaceAll("ǈ", "Lj")
+                .replaceAll("ǉ", "lj")
+                .replaceAll("ȸ", "db")
+                .replaceAll("ȹ", "qp")
+                .replaceAll("ß", "ss")
+                .replaceAll("ﬆ", "st")
+                .replaceAll("ﬅ", "ft")
+                .replaceAll("ﬀ", "ff")
+                .replaceAll("ﬁ", "fi")
+                .replaceAll("ﬂ", "fl")
+                .replaceAll("ﬃ", "ffi")
+                .replaceAll("ﬄ", "ffl");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UnicodeUtilsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,9 +1,14 @@
 package org.gbif.api.util;
 
+import java.text.Normalizer;
+import java.util.Random;
+
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class UnicodeUtilsTest {
 
@@ -24,4 +29,74 @@ public class UnicodeUtilsTest {
         assertEquals("fjaelje", UnicodeUtils.decompose("fjæǉe"));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testUnchangedInstance() throws Exception {
+        String x = "Abies alba Mill.";
+        assertSame(x, UnicodeUtils.ascii(x));
+        assertSame(x, UnicodeUtils.decompose(x));
+        String y = "Rosa × alba";
+        assertSame(y, UnicodeUtils.decompose(y));
+    }
+
+    /**
+     * Compares every single character of the basic multilingual plane with the regex based implementations
+     * used previously.
+     */
+    @Test
+    public void testBasicMultilingualPlane() throws Exception {
+        for (int i = 0; i < 0x10000; i++) {
+            String x = "a" + (char) i + "b";
+            assertEquals(Integer.toHexString(i), legacyAscii(x), UnicodeUtils.ascii(x));
+            assertEquals(Integer.toHexString(i), legacyDecompose(x), UnicodeUtils.decompose(x));
+        }
+    }
+
+    @Test
+    public void testRandomStrings() throws Exception {
+        Random rnd = new Random(17);
+        // latin letters, combining marks, hangul and supplementary characters
+        String pool = "aZ øðÐæßﬃǅǿÅ\u038F\u0327\u0308\u0345\u20DD\u0903\uAC00\uD7A3\u1100\u3131"
+                      + new String(Character.toChars(0x1D15E)) + new String(Character.toChars(0x1F600));
+        for (int i = 0; i < 100000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int size = rnd.nextInt(12);
+            for (int j = 0; j < size; j++) {
+                if (rnd.nextBoolean()) {
+                    sb.append(pool.charAt(rnd.nextInt(pool.length())));
+                } else {
+                    sb.append((char) rnd.nextInt(0x10000));
+                }
+            }
+            String x = sb.toString();
+            assertEquals(x, legacyAscii(x), UnicodeUtils.ascii(x));
+            assertEquals(x, legacyDecompose(x), UnicodeUtils.decompose(x));
+        }
+    }
+
+    private static String legacyAscii(String x) {
+        x = StringUtils.replaceChars(x, "øØðÐ", "oOdD");
+        x = Normalizer.normalize(x, Normalizer.Form.NFD);
+        return x.replaceAll("\\p{M}", "");
+    }
+
+    private static String legacyDecompose(String x) {
+        return x.replaceAll("æ", "ae")
+                .replaceAll("Æ", "Ae")
+                .replaceAll("œ", "oe")
+                .replaceAll("Œ", "Oe")
+                .replaceAll("Ĳ", "Ij")
+                .replaceAll("ĳ", "ij")
+                .replaceAll("ǈ", "Lj")
+                .replaceAll("ǉ", "lj")
+                .replaceAll("ȸ", "db")
+                .replaceAll("ȹ", "qp")
+                .replaceAll("ß", "ss")
+                .replaceAll("ﬆ", "st")
+                .replaceAll("ﬅ", "ft")
+                .replaceAll("ﬀ", "ff")
+                .replaceAll("ﬁ", "fi")
+                .replaceAll("ﬂ", "fl")
+                .replaceAll("ﬃ", "ffi")
+                .replaceAll("ﬄ", "ffl");
+    }
+}
@@ -12,6 +12,7 @@
  */
 package org.gbif.api.util;
 
+import org.gbif.api.vocabulary.BasisOfRecord;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.Kingdom;
 import org.gbif.api.vocabulary.TechnicalInstallationType;
@@ -78,6 +79,20 @@ public class VocabularyUtilsTest {
     assertEquals(Optional.absent(), VocabularyUtils.lookup(null, ContactType.class));
   }
 
+  @Test
+  public void testLookupNormalization() {
+    assertEquals(BasisOfRecord.PRESERVED_SPECIMEN, VocabularyUtils.lookupEnum("preserved specimen", BasisOfRecord.class));
+    assertEquals(BasisOfRecord.PRESERVED_SPECIMEN, VocabularyUtils.lookupEnum("Preserved-Specimen", BasisOfRecord.class));
+    assertEquals(BasisOfRecord.PRESERVED_SPECIMEN, VocabularyUtils.lookupEnum("PreservedSpecimen", BasisOfRecord.class));
+    assertEquals(BasisOfRecord.PRESERVED_SPECIMEN, VocabularyUtils.lookupEnum(".preserved._specimen", BasisOfRecord.class));
+    assertEquals(Optional.absent(), VocabularyUtils.lookup("preserved specimén", BasisOfRecord.class));
+    assertEquals(Optional.absent(), VocabularyUtils.lookup("preserved\tspecimen", BasisOfRecord.class));
+    // every member can be found by its own name
+    for (Country c : Country.values()) {
+      assertEquals(c, VocabularyUtils.lookupEnum(c.name().toLowerCase(), Country.class));
+    }
+  }
+
   @Test
   public void testListEnumerations(){
     Map<String, Enum<?>[]> enums = VocabularyUtils.listEnumerations(Kingdom.class.getPackage().getName());
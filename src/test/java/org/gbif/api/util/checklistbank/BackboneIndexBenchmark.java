@@ -0,0 +1,94 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.v2.RankedName;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.TaxonomicStatus;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the matches per second of a {@link BackboneIndex} with 100000 random species in 1000 genera,
+ * for exact names and for names with a single typo.
+ * Run the main method from within an IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackboneIndexBenchmark {
+  private static final int GENERA = 1000;
+  private static final int SPECIES = 100;
+
+  private BackboneIndex index;
+  private String[] exact;
+  private String[] misspelled;
+  private int i;
+
+  @Setup
+  public void setup() {
+    Random rnd = new Random(7);
+    BackboneIndex.Builder builder = BackboneIndex.builder();
+    builder.add(new RankedName(1, "Plantae", Rank.KINGDOM), null, null, TaxonomicStatus.ACCEPTED);
+    exact = new String[GENERA * SPECIES];
+    misspelled = new String[exact.length];
+    int key = 2;
+    for (int g = 0; g < GENERA; g++) {
+      String genus = word(rnd, true);
+      int genusKey = key++;
+      builder.add(new RankedName(genusKey, genus + " L.", Rank.GENUS), 1, null, TaxonomicStatus.ACCEPTED);
+      for (int s = 0; s < SPECIES; s++) {
+        String name = genus + " " + word(rnd, false);
+        builder.add(new RankedName(key++, name + " L.", Rank.SPECIES), genusKey, null, TaxonomicStatus.ACCEPTED);
+        exact[g * SPECIES + s] = name;
+        int pos = name.length() - 2;
+        misspelled[g * SPECIES + s] = name.substring(0, pos) + name.charAt(pos + 1) + name.charAt(pos);
+      }
+    }
+    index = builder.build();
+  }
+
+  private static String word(Random rnd, boolean capitalized) {
+    char[] chars = new char[6 + rnd.nextInt(6)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = (char) ('a' + rnd.nextInt(26));
+    }
+    if (capitalized) {
+      chars[0] = Character.toUpperCase(chars[0]);
+    }
+    return new String(chars);
+  }
+
+  @Benchmark
+  public void exact(Blackhole bh) {
+    i = (i + 1) % exact.length;
+    bh.consume(index.match(exact[i], Rank.SPECIES, null, false, false));
+  }
+
+  @Benchmark
+  public void fuzzy(Blackhole bh) {
+    i = (i + 1) % misspelled.length;
+    bh.consume(index.match(misspelled[i], Rank.SPECIES, null, false, false));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BackboneIndexBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,158 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.model.checklistbank.NameUsageMatch;
+import org.gbif.api.v2.NameUsageMatch2;
+import org.gbif.api.v2.RankedName;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.TaxonomicStatus;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BackboneIndexTest {
+
+  private static BackboneIndex index() {
+    BackboneIndex.Builder builder = BackboneIndex.builder();
+    add(builder, 6, "Plantae", Rank.KINGDOM, null, null);
+    add(builder, 7707728, "Tracheophyta", Rank.PHYLUM, 6, null);
+    add(builder, 194, "Pinopsida", Rank.CLASS, 7707728, null);
+    add(builder, 640, "Pinales", Rank.ORDER, 194, null);
+    add(builder, 3925, "Pinaceae", Rank.FAMILY, 640, null);
+    add(builder, 2684876, "Abies Mill.", Rank.GENUS, 3925, null);
+    add(builder, 2685484, "Abies alba Mill.", Rank.SPECIES, 2684876, null);
+    add(builder, 2685485, "Abies pectinata (Lam.) DC.", Rank.SPECIES, 2684876, 2685484);
+    add(builder, 2685494, "Abies nordmanniana (Steven) Spach", Rank.SPECIES, 2684876, null);
+    add(builder, 1, "Animalia", Rank.KINGDOM, null, null);
+    add(builder, 54, "Arthropoda", Rank.PHYLUM, 1, null);
+    add(builder, 216, "Insecta", Rank.CLASS, 54, null);
+    add(builder, 1470, "Coleoptera", Rank.ORDER, 216, null);
+    add(builder, 7829, "Carabidae", Rank.FAMILY, 1470, null);
+    add(builder, 1035167, "Abies Sch\u00f6nherr, 1840", Rank.GENUS, 7829, null);
+    return builder.build();
+  }
+
+  private static void add(BackboneIndex.Builder builder, int key, String name, Rank rank, Integer parentKey,
+    Integer acceptedKey) {
+    NameUsage u = new NameUsage();
+    u.setKey(key);
+    u.setScientificName(name);
+    u.setRank(rank);
+    u.setParentKey(parentKey);
+    u.setAcceptedKey(acceptedKey);
+    u.setTaxonomicStatus(acceptedKey == null ? TaxonomicStatus.ACCEPTED : TaxonomicStatus.HETEROTYPIC_SYNONYM);
+    builder.add(u);
+  }
+
+  private static NameUsageMatch classification(String kingdom, String family) {
+    NameUsageMatch classification = new NameUsageMatch();
+    classification.setKingdom(kingdom);
+    classification.setFamily(family);
+    return classification;
+  }
+
+  @Test
+  public void testExact() {
+    BackboneIndex index = index();
+    assertEquals(15, index.size());
+    NameUsageMatch m = index.match("Abies alba Mill.", Rank.SPECIES, null, true, false);
+    assertEquals(NameUsageMatch.MatchType.EXACT, m.getMatchType());
+    assertEquals(Integer.valueOf(2685484), m.getUsageKey());
+    assertEquals(Integer.valueOf(100), m.getConfidence());
+    assertEquals("Abies alba", m.getCanonicalName());
+    assertEquals(TaxonomicStatus.ACCEPTED, m.getStatus());
+    assertEquals("Plantae", m.getKingdom());
+    assertEquals(Integer.valueOf(3925), m.getFamilyKey());
+    assertEquals(Integer.valueOf(2684876), m.getGenusKey());
+    assertEquals(Integer.valueOf(2685484), m.getSpeciesKey());
+
+    m = index.match(" abies  ALBA", null, classification("Plantae", "Pinaceae"), true, false);
+    assertEquals(NameUsageMatch.MatchType.EXACT, m.getMatchType());
+    assertEquals(Integer.valueOf(2685484), m.getUsageKey());
+    assertTrue(m.getConfidence() >= 98);
+  }
+
+  @Test
+  public void testFuzzy() {
+    BackboneIndex index = index();
+    NameUsageMatch m = index.match("Abies nordmaniana", Rank.SPECIES, null, false, false);
+    assertEquals(NameUsageMatch.MatchType.FUZZY, m.getMatchType());
+    assertEquals(Integer.valueOf(2685494), m.getUsageKey());
+    assertTrue(m.getConfidence() < 100);
+
+    m = index.match("Abeis nordmanniana", Rank.SPECIES, null, false, false);
+    assertEquals(Integer.valueOf(2685494), m.getUsageKey());
+
+    // a transposition within a short name changes 4 of its 9 trigrams
+    m = index.match("Pianceae", Rank.FAMILY, null, false, false);
+    assertEquals(NameUsageMatch.MatchType.FUZZY, m.getMatchType());
+    assertEquals(Integer.valueOf(3925), m.getUsageKey());
+
+    assertEquals(0, BackboneIndex.distance("abies", "abies", 2));
+    assertEquals(1, BackboneIndex.distance("abies", "aibes", 2));
+    assertEquals(2, BackboneIndex.distance("abies", "aibse", 2));
+    assertEquals(3, BackboneIndex.distance("abies", "pinus", 2));
+    assertEquals(1, BackboneIndex.distance("abies nordmanniana", "abies nordmaniana", 2));
+    assertEquals(2, BackboneIndex.distance("abies nordmanniana", "abeis nordmaniana", 2));
+    assertEquals(3, BackboneIndex.distance("abies nordmanniana", "abeis nordmaniaan", 2));
+  }
+
+  @Test
+  public void testHomonyms() {
+    BackboneIndex index = index();
+    NameUsageMatch m = index.match("Abies", Rank.GENUS, null, true, true);
+    assertEquals(NameUsageMatch.MatchType.NONE, m.getMatchType());
+    assertNull(m.getUsageKey());
+    assertEquals(2, m.getAlternatives().size());
+
+    m = index.match("Abies", Rank.GENUS, classification("Animalia", null), true, false);
+    assertEquals(NameUsageMatch.MatchType.EXACT, m.getMatchType());
+    assertEquals(Integer.valueOf(1035167), m.getUsageKey());
+    assertEquals("Carabidae", m.getFamily());
+
+    m = index.match("Abies", null, classification(null, "Pinaceae"), true, false);
+    assertEquals(Integer.valueOf(2684876), m.getUsageKey());
+  }
+
+  @Test
+  public void testSynonym() {
+    NameUsageMatch m = index().match("Abies pectinata", Rank.SPECIES, null, true, false);
+    assertEquals(NameUsageMatch.MatchType.EXACT, m.getMatchType());
+    assertEquals(Integer.valueOf(2685485), m.getUsageKey());
+    assertEquals(TaxonomicStatus.SYNONYM, m.getStatus());
+    assertEquals(Integer.valueOf(2685484), m.getAcceptedUsageKey());
+    assertEquals(Integer.valueOf(2685484), m.getSpeciesKey());
+  }
+
+  @Test
+  public void testHigherRank() {
+    BackboneIndex index = index();
+    NameUsageMatch classification = classification("Plantae", "Pinaceae");
+    NameUsageMatch m = index.match("Larix decidua", Rank.SPECIES, classification, false, false);
+    assertEquals(NameUsageMatch.MatchType.HIGHERRANK, m.getMatchType());
+    assertEquals(Integer.valueOf(3925), m.getUsageKey());
+
+    m = index.match("Larix decidua", Rank.SPECIES, classification, true, false);
+    assertEquals(NameUsageMatch.MatchType.NONE, m.getMatchType());
+    assertNull(m.getUsageKey());
+    assertNotNull(m.getNote());
+  }
+
+  @Test
+  public void testMatch2() {
+    NameUsageMatch2 m = index().match2("Abies pectinata", Rank.SPECIES, null, true, true);
+    assertTrue(m.isSynonym());
+    assertEquals(new RankedName(2685485, "Abies pectinata (Lam.) DC.", Rank.SPECIES), m.getUsage());
+    assertEquals(2685484, m.getAcceptedUsage().getKey());
+    assertEquals(7, m.getClassification().size());
+    assertEquals("Plantae", m.getClassification().get(0).getName());
+    assertEquals(2685484, m.getClassification().get(6).getKey());
+    assertEquals(NameUsageMatch.MatchType.EXACT, m.getDiagnostics().getMatchType());
+    assertEquals(TaxonomicStatus.HETEROTYPIC_SYNONYM, m.getDiagnostics().getStatus());
+    assertTrue(m.getDiagnostics().getAlternatives().isEmpty());
+  }
+}
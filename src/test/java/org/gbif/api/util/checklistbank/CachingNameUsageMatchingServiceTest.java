@@ -0,0 +1,250 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsageMatch;
+import org.gbif.api.model.checklistbank.NameUsageMatchQuery;
+import org.gbif.api.model.common.LinneanClassification;
+import org.gbif.api.service.checklistbank.NameUsageMatchingService;
+import org.gbif.api.vocabulary.Rank;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CachingNameUsageMatchingServiceTest {
+
+  /**
+   * Matches names to their hash code and counts the names matched.
+   */
+  private static class CountingService implements NameUsageMatchingService {
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<Integer> batchSizes = Lists.newArrayList();
+    private volatile CountDownLatch gate;
+
+    @Override
+    public NameUsageMatch match(String scientificName, @Nullable Rank rank,
+      @Nullable LinneanClassification classification, boolean strict, boolean verbose) {
+      calls.incrementAndGet();
+      if (gate != null) {
+        Uninterruptibles.awaitUninterruptibly(gate);
+      }
+      NameUsageMatch match = new NameUsageMatch();
+      match.setUsageKey(scientificName.hashCode());
+      match.setScientificName(scientificName);
+      match.setRank(rank);
+      match.setConfidence(strict ? 100 : 90);
+      return match;
+    }
+
+    @Override
+    public List<NameUsageMatch> matchBatch(List<NameUsageMatchQuery> queries, boolean verbose) {
+      batchSizes.add(queries.size());
+      return NameUsageMatchingService.super.matchBatch(queries, verbose);
+    }
+  }
+
+  @Test
+  public void testNormalizedKey() {
+    CountingService service = new CountingService();
+    CachingNameUsageMatchingService cache = new CachingNameUsageMatchingService(service);
+    NameUsageMatch classification = new NameUsageMatch();
+    classification.setKingdom("Plantae");
+    classification.setFamily(" Pinaceae");
+
+    NameUsageMatch m = cache.match("Abies alba", Rank.SPECIES, classification, false, false);
+    assertSame(m, cache.match(" Abies  alba", Rank.SPECIES, classification, false, false));
+    assertSame(m, cache.match("Abi\u00e9s alba", Rank.SPECIES, classification, false, false));
+    classification.setFamily("Pinaceae ");
+    assertSame(m, cache.match("Abies alba", Rank.SPECIES, classification, false, false));
+    assertEquals(1, service.calls.get());
+
+    cache.match("Abies alba", null, classification, false, false);
+    cache.match("Abies alba", Rank.SPECIES, classification, true, false);
+    cache.match("Abies alba", Rank.SPECIES, classification, false, true);
+    cache.match("Abies alba", Rank.SPECIES, null, false, false);
+    classification.setGenus("Abies");
+    cache.match("Abies alba", Rank.SPECIES, classification, false, false);
+    assertEquals(6, service.calls.get());
+
+    CacheStats stats = cache.stats();
+    assertEquals(3, stats.hitCount());
+    assertEquals(6, stats.missCount());
+    assertEquals(6, stats.loadSuccessCount());
+    assertEquals(6, cache.size());
+  }
+
+  @Test
+  public void testSingleFlight() throws Exception {
+    final CountingService service = new CountingService();
+    final CachingNameUsageMatchingService cache = new CachingNameUsageMatchingService(service);
+    service.gate = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<NameUsageMatch>> futures = Lists.newArrayList();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(new Callable<NameUsageMatch>() {
+          @Override
+          public NameUsageMatch call() {
+            return cache.match("Abies alba", Rank.SPECIES, null, false, false);
+          }
+        }));
+      }
+      while (service.calls.get() == 0) {
+        Thread.sleep(1);
+      }
+      Thread.sleep(50);
+      service.gate.countDown();
+      NameUsageMatch m = futures.get(0).get(10, TimeUnit.SECONDS);
+      for (Future<NameUsageMatch> f : futures) {
+        assertSame(m, f.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1, service.calls.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testMatchBatch() {
+    CountingService service = new CountingService();
+    CachingNameUsageMatchingService cache = new CachingNameUsageMatchingService(service);
+    cache.match("Abies alba", Rank.SPECIES, null, false, false);
+
+    List<NameUsageMatchQuery> queries = Lists.newArrayList();
+    for (int i = 0; i < 10; i++) {
+      queries.add(new NameUsageMatchQuery("Abies alba", Rank.SPECIES, null, false));
+      queries.add(new NameUsageMatchQuery("Abies", Rank.GENUS, null, false));
+      queries.add(new NameUsageMatchQuery("Abies  ", Rank.GENUS, null, false));
+      queries.add(new NameUsageMatchQuery("Pinus", Rank.GENUS, null, i % 2 == 0));
+    }
+    List<NameUsageMatch> matches = cache.matchBatch(queries, false);
+    assertEquals(ImmutableList.of(3), service.batchSizes);
+    assertEquals(4, service.calls.get());
+    for (int i = 0; i < queries.size(); i++) {
+      assertEquals(queries.get(i).getScientificName().trim(), matches.get(i).getScientificName().trim());
+    }
+    assertSame(matches.get(1), matches.get(2));
+
+    cache.matchBatch(queries, false);
+    assertEquals(ImmutableList.of(3), service.batchSizes);
+  }
+
+  @Test
+  public void testUpdateVersion() {
+    CountingService service = new CountingService();
+    CachingNameUsageMatchingService cache = new CachingNameUsageMatchingService(service, 100, 10000);
+    assertTrue(cache.updateVersion("2017-01-01"));
+    cache.match("Abies alba", Rank.SPECIES, null, false, false);
+    assertFalse(cache.updateVersion("2017-01-01"));
+    cache.match("Abies alba", Rank.SPECIES, null, false, false);
+    assertEquals(1, service.calls.get());
+
+    assertTrue(cache.updateVersion("2017-02-01"));
+    assertEquals(0, cache.size());
+    cache.match("Abies alba", Rank.SPECIES, null, false, false);
+    assertEquals(2, service.calls.get());
+  }
+
+  @Test
+  public void testSpill() {
+    CountingService service = new CountingService();
+    CachingNameUsageMatchingService cache = new CachingNameUsageMatchingService(service, 10, 1000000);
+    for (int i = 0; i < 100; i++) {
+      cache.match("Abies alba " + i, Rank.SPECIES, null, false, false);
+    }
+    assertEquals(10, cache.size());
+    assertEquals(90, cache.stats().evictionCount());
+    for (int i = 0; i < 100; i++) {
+      NameUsageMatch m = cache.match("Abies alba " + i, Rank.SPECIES, null, false, false);
+      assertEquals("Abies alba " + i, m.getScientificName());
+    }
+    assertEquals(100, service.calls.get());
+    assertTrue(cache.getSpillHitCount() >= 90);
+
+    cache.invalidateAll();
+    cache.match("Abies alba 1", Rank.SPECIES, null, false, false);
+    assertEquals(101, service.calls.get());
+  }
+
+  @Test
+  public void testScanResistance() {
+    // 50 popular keys, each used once every 100 rare keys, which an LRU cache of 100 would always have evicted
+    TinyLfuCache<Integer, String> cache = new TinyLfuCache<Integer, String>(100);
+    int hits = 0;
+    for (int i = 0; i < 100000; i++) {
+      Integer cold = 1000 + i;
+      if (cache.get(cold) == null) {
+        cache.put(cold, "cold");
+      }
+      if (i % 2 == 0) {
+        Integer hot = (i / 2) % 50;
+        if (cache.get(hot) == null) {
+          cache.put(hot, "hot");
+        } else if (i > 10000) {
+          hits++;
+        }
+      }
+    }
+    assertEquals(100, cache.size());
+    assertTrue(hits > 40000);
+  }
+
+  @Test
+  public void testReadBuffer() {
+    ReadBuffer<Integer> buffer = new ReadBuffer<Integer>();
+    int recorded = 0;
+    while (!buffer.record(recorded)) {
+      recorded++;
+    }
+    recorded++;
+    // a full stripe drops further reads until it is drained
+    assertTrue(buffer.record(-1));
+    final List<Integer> drained = Lists.newArrayList();
+    buffer.drainTo(drained::add);
+    assertEquals(recorded, drained.size());
+    for (int i = 0; i < recorded; i++) {
+      assertEquals(Integer.valueOf(i), drained.get(i));
+    }
+    assertFalse(buffer.record(recorded));
+  }
+
+  @Test
+  public void testOffHeapStoreWraps() {
+    OffHeapMatchStore store = new OffHeapMatchStore(20000);
+    for (int i = 0; i < 1000; i++) {
+      NameUsageMatch m = new NameUsageMatch();
+      m.setUsageKey(i);
+      m.setScientificName("Abies alba " + i);
+      store.put(new MatchKey(m.getScientificName(), null, null, false, false), m, 0);
+    }
+    assertTrue(store.size() > 10);
+    assertTrue(store.size() < 1000);
+    assertNull(store.get(new MatchKey("Abies alba 0", null, null, false, false)));
+    NameUsageMatch last = store.get(new MatchKey("Abies alba 999", null, null, false, false));
+    assertNotNull(last);
+    assertEquals(Integer.valueOf(999), last.getUsageKey());
+
+    store.clear(1);
+    assertEquals(0, store.size());
+    store.put(new MatchKey("Abies", null, null, false, false), last, 0);
+    assertEquals(0, store.size());
+  }
+}
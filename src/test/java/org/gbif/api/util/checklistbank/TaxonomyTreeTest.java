@@ -0,0 +1,172 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.service.checklistbank.NameUsageService;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.TaxonomicStatus;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class TaxonomyTreeTest {
+
+  private static TaxonomyTree tree() {
+    List<NameUsage> usages = Lists.newArrayList();
+    // children before their parents and synonyms before their accepted usage
+    usages.add(usage(2685485, "Abies pectinata (Lam.) DC.", "Abies pectinata", Rank.SPECIES, 2684876, 2685484));
+    usages.add(usage(2685484, "Abies alba Mill.", "Abies alba", Rank.SPECIES, 2684876, null));
+    usages.add(usage(2685494, "Abies nordmanniana (Steven) Spach", "Abies nordmanniana", Rank.SPECIES, 2684876,
+      null));
+    usages.add(usage(2684876, "Abies Mill.", "Abies", Rank.GENUS, 3925, null));
+    usages.add(usage(3925, "Pinaceae", "Pinaceae", Rank.FAMILY, 640, null));
+    usages.add(usage(640, "Pinales", "Pinales", Rank.ORDER, 6, null));
+    usages.add(usage(6, "Plantae", "Plantae", Rank.KINGDOM, null, null));
+    usages.add(usage(1, "Animalia", "Animalia", Rank.KINGDOM, null, null));
+    usages.add(usage(7, "Felis Sch\u00f6nherr", "Felis", Rank.GENUS, 1, null));
+    // a cycle not reachable from any root
+    usages.add(usage(100, "Cyclus", "Cyclus", Rank.GENUS, 101, null));
+    usages.add(usage(101, "Cyclidae", "Cyclidae", Rank.FAMILY, 100, null));
+    return TaxonomyTree.build(usages);
+  }
+
+  private static NameUsage usage(int key, String name, String canonical, Rank rank, Integer parentKey,
+    Integer acceptedKey) {
+    NameUsage u = new NameUsage();
+    u.setKey(key);
+    u.setScientificName(name);
+    u.setCanonicalName(canonical);
+    u.setRank(rank);
+    u.setParentKey(parentKey);
+    u.setAcceptedKey(acceptedKey);
+    u.setTaxonomicStatus(acceptedKey == null ? TaxonomicStatus.ACCEPTED : TaxonomicStatus.HETEROTYPIC_SYNONYM);
+    return u;
+  }
+
+  private static void assertTree(TaxonomyTree tree) {
+    assertEquals(11, tree.size());
+    assertTrue(tree.contains(6));
+    assertFalse(tree.contains(5));
+
+    assertArrayEquals(new int[] {6, 640, 3925}, tree.getAncestors(2684876));
+    assertArrayEquals(new int[] {6, 640, 3925, 2684876}, tree.getAncestors(2685485));
+    assertArrayEquals(new int[0], tree.getAncestors(6));
+    assertArrayEquals(new int[0], tree.getAncestors(5));
+    assertArrayEquals(new int[] {101}, tree.getAncestors(100));
+
+    assertArrayEquals(new int[] {2685484, 2685494}, tree.getChildren(2684876));
+    assertArrayEquals(new int[] {2685485}, tree.getSynonyms(2685484));
+    assertArrayEquals(new int[0], tree.getSynonyms(2685485));
+
+    assertArrayEquals(new int[] {640, 3925, 2684876, 2685484, 2685494}, tree.getDescendants(6));
+    assertEquals(5, tree.countDescendants(6));
+    assertEquals(0, tree.countDescendants(2685485));
+    assertEquals(0, tree.countDescendants(100));
+    assertTrue(tree.isDescendant(6, 2685494));
+    assertTrue(tree.isDescendant(3925, 2684876));
+    assertFalse(tree.isDescendant(6, 6));
+    assertFalse(tree.isDescendant(1, 2685494));
+    assertFalse(tree.isDescendant(2684876, 3925));
+
+    assertEquals(Integer.valueOf(2684876), tree.getParentKey(2685484));
+    assertNull(tree.getParentKey(6));
+    assertEquals(Integer.valueOf(2685484), tree.getAcceptedKey(2685485));
+    assertNull(tree.getAcceptedKey(2685484));
+    assertEquals(Rank.GENUS, tree.getRank(7));
+    assertEquals(TaxonomicStatus.HETEROTYPIC_SYNONYM, tree.getTaxonomicStatus(2685485));
+    assertEquals("Felis Sch\u00f6nherr", tree.getScientificName(7));
+    assertEquals("Felis", tree.getCanonicalName(7));
+
+    NameUsage u = tree.getUsage(2685485);
+    assertEquals("Abies pectinata", u.getCanonicalName());
+    assertEquals(Integer.valueOf(2685484), u.getAcceptedKey());
+    assertEquals("Abies alba Mill.", u.getAccepted());
+    assertEquals("Abies", u.getParent());
+    assertEquals("Plantae", u.getKingdom());
+    assertEquals(Integer.valueOf(3925), u.getFamilyKey());
+    assertEquals(Integer.valueOf(2685484), u.getSpeciesKey());
+    assertEquals(2, tree.getUsage(2684876).getNumDescendants());
+  }
+
+  @Test
+  public void testBuild() {
+    assertTree(tree());
+  }
+
+  @Test
+  public void testMapped() throws Exception {
+    File file = File.createTempFile("taxonomy", ".tree");
+    try {
+      tree().write(file);
+      assertTree(TaxonomyTree.open(file));
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * A tree written with constants in another order, as by a different version of the vocabulary, must not load.
+   */
+  @Test
+  public void testChangedVocabulary() throws Exception {
+    File file = File.createTempFile("taxonomy", ".tree");
+    try {
+      tree().write(file);
+      String data = new String(Files.toByteArray(file), StandardCharsets.ISO_8859_1);
+      assertTrue(data.contains(",KINGDOM,"));
+      Files.write(data.replace(",KINGDOM,", ",SUBFORM,").getBytes(StandardCharsets.ISO_8859_1), file);
+      try {
+        TaxonomyTree.open(file);
+        fail();
+      } catch (IllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("Rank"));
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateKey() {
+    TaxonomyTree.build(Lists.newArrayList(usage(6, "Plantae", "Plantae", Rank.KINGDOM, null, null),
+      usage(6, "Animalia", "Animalia", Rank.KINGDOM, null, null)));
+  }
+
+  @Test
+  public void testService() {
+    NameUsageService service = new TaxonomyTreeNameUsageService(tree(), mock(NameUsageService.class));
+
+    List<NameUsage> parents = service.listParents(2685484, null);
+    assertEquals(4, parents.size());
+    assertEquals("Plantae", parents.get(0).getScientificName());
+    assertEquals(Integer.valueOf(2684876), parents.get(3).getKey());
+
+    PagingResponse<NameUsage> children = service.listChildren(2684876, null, new PagingRequest(1, 10));
+    assertEquals(Long.valueOf(2), children.getCount());
+    assertEquals(1, children.getResults().size());
+    assertEquals(Integer.valueOf(2685494), children.getResults().get(0).getKey());
+    assertTrue(children.isEndOfRecords());
+
+    PagingResponse<NameUsage> synonyms = service.listSynonyms(2685484, null, null);
+    assertEquals(1, synonyms.getResults().size());
+    assertEquals(Integer.valueOf(2685485), synonyms.getResults().get(0).getKey());
+
+    // usages not in the tree are passed on
+    assertNull(service.listChildren(5, null, null));
+    assertNull(service.listSynonyms(5, null, null));
+  }
+}
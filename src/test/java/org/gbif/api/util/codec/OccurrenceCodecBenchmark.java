@@ -0,0 +1,160 @@
+package org.gbif.api.util.codec;
+
+import org.gbif.api.model.common.Identifier;
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.occurrence.FactOrMeasurment;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.IdentifierType;
+import org.gbif.api.vocabulary.MediaType;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the encoding and decoding throughput of the binary occurrence codec with Jackson on a typical
+ * interpreted specimen record. The sizes of both encodings are printed during setup.
+ * Run the main method from within an IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccurrenceCodecBenchmark {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private Occurrence occurrence;
+  private byte[] binary;
+  private byte[] json;
+
+  @Setup
+  public void setup() throws IOException {
+    Occurrence o = new Occurrence();
+    o.setKey(1234567890);
+    o.setDatasetKey(UUID.randomUUID());
+    o.setPublishingOrgKey(UUID.randomUUID());
+    o.setInstallationKey(UUID.randomUUID());
+    o.setPublishingCountry(Country.DENMARK);
+    o.setLastCrawled(new Date());
+    o.setLastParsed(new Date());
+    o.setCrawlId(12);
+    o.setVerbatimField(DwcTerm.occurrenceID, "urn:catalog:NHMD:ZMUC:123456");
+    o.setVerbatimField(DwcTerm.catalogNumber, "ZMUC 123456");
+    o.setVerbatimField(DwcTerm.institutionCode, "NHMD");
+    o.setVerbatimField(DwcTerm.collectionCode, "ZMUC");
+    o.setVerbatimField(DwcTerm.basisOfRecord, "PreservedSpecimen");
+    o.setVerbatimField(DwcTerm.scientificName, "Abies alba Mill.");
+    o.setVerbatimField(DwcTerm.kingdom, "Plantae");
+    o.setVerbatimField(DwcTerm.country, "Denmark");
+    o.setVerbatimField(DwcTerm.locality, "Dyrehaven, north of Copenhagen");
+    o.setVerbatimField(DwcTerm.decimalLatitude, "55.7941");
+    o.setVerbatimField(DwcTerm.decimalLongitude, "12.5716");
+    o.setVerbatimField(DwcTerm.eventDate, "1998-06-21");
+    o.setVerbatimField(DwcTerm.recordedBy, "Jane Doe");
+    o.setVerbatimField(DcTerm.modified, "2016-11-02T10:12:00Z");
+    o.setBasisOfRecord(BasisOfRecord.PRESERVED_SPECIMEN);
+    o.setTaxonKey(2685484);
+    o.setKingdomKey(6);
+    o.setPhylumKey(7707728);
+    o.setClassKey(194);
+    o.setOrderKey(640);
+    o.setFamilyKey(3925);
+    o.setGenusKey(2685383);
+    o.setSpeciesKey(2685484);
+    o.setScientificName("Abies alba Mill.");
+    o.setKingdom("Plantae");
+    o.setPhylum("Tracheophyta");
+    o.setClazz("Pinopsida");
+    o.setOrder("Pinales");
+    o.setFamily("Pinaceae");
+    o.setGenus("Abies");
+    o.setSpecies("Abies alba");
+    o.setGenericName("Abies");
+    o.setSpecificEpithet("alba");
+    o.setTaxonRank(Rank.SPECIES);
+    o.setDecimalLatitude(55.7941);
+    o.setDecimalLongitude(12.5716);
+    o.setCoordinateUncertaintyInMeters(100d);
+    o.setCountry(Country.DENMARK);
+    o.setStateProvince("Hovedstaden");
+    o.setYear(1998);
+    o.setMonth(6);
+    o.setDay(21);
+    o.setEventDate(new Date(898387200000L));
+    o.setModified(new Date());
+    o.setLastInterpreted(new Date());
+    o.addIssue(OccurrenceIssue.GEODETIC_DATUM_ASSUMED_WGS84);
+    o.addIssue(OccurrenceIssue.COUNTRY_DERIVED_FROM_COORDINATES);
+    Identifier identifier = new Identifier();
+    identifier.setIdentifier("urn:catalog:NHMD:ZMUC:123456");
+    identifier.setType(IdentifierType.URI);
+    o.getIdentifiers().add(identifier);
+    MediaObject media = new MediaObject();
+    media.setType(MediaType.StillImage);
+    media.setFormat("image/jpeg");
+    media.setIdentifier(URI.create("http://images.example.org/123456.jpg"));
+    media.setCreator("John Doe");
+    media.setLicense("http://creativecommons.org/licenses/by/4.0/");
+    o.getMedia().add(media);
+    FactOrMeasurment fact = new FactOrMeasurment();
+    fact.setType("total length");
+    fact.setValue("123");
+    fact.setUnit("mm");
+    o.getFacts().add(fact);
+    occurrence = o;
+
+    binary = OccurrenceCodec.encode(occurrence);
+    json = MAPPER.writeValueAsBytes(occurrence);
+    System.out.println("Binary size " + binary.length + " bytes, JSON size " + json.length + " bytes");
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return OccurrenceCodec.encode(occurrence);
+  }
+
+  @Benchmark
+  public byte[] encodeJson() throws IOException {
+    return MAPPER.writeValueAsBytes(occurrence);
+  }
+
+  @Benchmark
+  public Occurrence decode() {
+    return OccurrenceCodec.decodeOccurrence(binary);
+  }
+
+  @Benchmark
+  public Occurrence decodeJson() throws IOException {
+    return MAPPER.readValue(json, Occurrence.class);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(OccurrenceCodecBenchmark.class.getSimpleName()).build()).run();
+  }
+}
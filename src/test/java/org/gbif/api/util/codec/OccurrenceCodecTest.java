@@ -0,0 +1,478 @@
+package org.gbif.api.util.codec;
+
+import org.gbif.api.model.common.Identifier;
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.occurrence.FactOrMeasurment;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.OccurrenceRelation;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.IdentifierType;
+import org.gbif.api.vocabulary.License;
+import org.gbif.api.vocabulary.LifeStage;
+import org.gbif.api.vocabulary.MediaType;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.Sex;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.GbifTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.terms.UnknownTerm;
+
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OccurrenceCodecTest {
+
+  private static final Term[] TERMS = {DwcTerm.catalogNumber, DwcTerm.recordedBy, DwcTerm.locality,
+    DcTerm.modified, GbifTerm.gbifID};
+
+  private static <E> E pick(Random rnd, E[] values) {
+    return rnd.nextBoolean() ? null : values[rnd.nextInt(values.length)];
+  }
+
+  private static String text(Random rnd) {
+    switch (rnd.nextInt(4)) {
+      case 0:
+        return null;
+      case 1:
+        return "";
+      case 2:
+        return "Fr\u00fchling \u00e6 \u4e2d " + rnd.nextInt();
+      default:
+        return "value " + rnd.nextInt();
+    }
+  }
+
+  private static Date date(Random rnd) {
+    return rnd.nextBoolean() ? null : new Date(rnd.nextLong() / 1000);
+  }
+
+  /**
+   * Verbatim fields with a value, as null and empty ones are left out like in JSON.
+   */
+  private static Map<Term, String> verbatim(Random rnd) {
+    Map<Term, String> map = Maps.newHashMap();
+    for (Term term : TERMS) {
+      if (rnd.nextBoolean()) {
+        map.put(term, "verbatim " + rnd.nextInt());
+      }
+    }
+    return map;
+  }
+
+  private static Map<Term, String> terms(Random rnd) {
+    Map<Term, String> map = Maps.newHashMap();
+    for (Term term : TERMS) {
+      if (rnd.nextBoolean()) {
+        map.put(term, text(rnd));
+      }
+    }
+    return map;
+  }
+
+  private static MediaObject media(Random rnd) {
+    MediaObject m = new MediaObject();
+    m.setType(pick(rnd, MediaType.values()));
+    m.setFormat(text(rnd));
+    m.setIdentifier(rnd.nextBoolean() ? null : URI.create("http://www.gbif.org/img/" + rnd.nextInt()));
+    m.setReferences(rnd.nextBoolean() ? null : URI.create("http://www.gbif.org/" + rnd.nextInt()));
+    m.setTitle(text(rnd));
+    m.setDescription(text(rnd));
+    m.setSource(text(rnd));
+    m.setAudience(text(rnd));
+    m.setCreated(date(rnd));
+    m.setCreator(text(rnd));
+    m.setContributor(text(rnd));
+    m.setPublisher(text(rnd));
+    m.setLicense(text(rnd));
+    m.setRightsHolder(text(rnd));
+    return m;
+  }
+
+  private static Identifier identifier(Random rnd) {
+    Identifier identifier = new Identifier();
+    identifier.setIdentifier(text(rnd));
+    identifier.setTitle(text(rnd));
+    identifier.setType(pick(rnd, IdentifierType.values()));
+    return identifier;
+  }
+
+  private static FactOrMeasurment fact(Random rnd) {
+    FactOrMeasurment fact = new FactOrMeasurment();
+    fact.setId(text(rnd));
+    fact.setType(text(rnd));
+    fact.setValue(text(rnd));
+    fact.setUnit(text(rnd));
+    fact.setAccuracy(text(rnd));
+    fact.setMethod(text(rnd));
+    fact.setDeterminedBy(text(rnd));
+    fact.setDeterminedDate(text(rnd));
+    fact.setRemarks(text(rnd));
+    return fact;
+  }
+
+  private static Occurrence occurrence(Random rnd) {
+    Occurrence o = new Occurrence();
+    o.setKey(rnd.nextBoolean() ? null : rnd.nextInt());
+    o.setDatasetKey(UUID.randomUUID());
+    o.setPublishingOrgKey(rnd.nextBoolean() ? null : UUID.randomUUID());
+    o.setNetworkKeys(rnd.nextBoolean() ? null : Lists.newArrayList(UUID.randomUUID(), UUID.randomUUID()));
+    o.setPublishingCountry(pick(rnd, Country.values()));
+    o.setProtocol(pick(rnd, EndpointType.values()));
+    o.setLastCrawled(date(rnd));
+    o.setCrawlId(rnd.nextBoolean() ? null : -rnd.nextInt(3));
+    o.setVerbatimFields(verbatim(rnd));
+    if (rnd.nextBoolean()) {
+      List<Map<Term, String>> rows = Lists.newArrayList();
+      for (int i = rnd.nextInt(3); i > 0; i--) {
+        rows.add(terms(rnd));
+      }
+      o.getExtensions().put(rnd.nextBoolean() ? Extension.MULTIMEDIA : Extension.AUDUBON, rows);
+    }
+    o.setBasisOfRecord(pick(rnd, BasisOfRecord.values()));
+    o.setIndividualCount(rnd.nextBoolean() ? null : rnd.nextInt(100));
+    o.setTaxonKey(rnd.nextBoolean() ? null : rnd.nextInt(Integer.MAX_VALUE));
+    o.setKingdomKey(rnd.nextInt(8));
+    o.setSpeciesKey(rnd.nextBoolean() ? null : Integer.MIN_VALUE);
+    o.setScientificName(text(rnd));
+    o.setKingdom(text(rnd));
+    o.setClazz(text(rnd));
+    o.setInfraspecificEpithet(text(rnd));
+    o.setTaxonRank(pick(rnd, Rank.values()));
+    o.setDecimalLatitude(rnd.nextBoolean() ? null : rnd.nextDouble() * 180 - 90);
+    o.setDecimalLongitude(rnd.nextBoolean() ? null : rnd.nextDouble() * 360 - 180);
+    o.setElevation(rnd.nextBoolean() ? null : -0.0);
+    o.setDepth(rnd.nextBoolean() ? null : Double.NaN);
+    o.setCountry(pick(rnd, Country.values()));
+    o.setWaterBody(text(rnd));
+    o.setYear(rnd.nextBoolean() ? null : 1900 + rnd.nextInt(120));
+    o.setMonth(rnd.nextBoolean() ? null : 1 + rnd.nextInt(12));
+    o.setEventDate(date(rnd));
+    o.setModified(date(rnd));
+    o.setReferences(rnd.nextBoolean() ? null : URI.create("http://www.gbif.org/" + rnd.nextInt(3)));
+    o.setLicense(pick(rnd, License.values()));
+    for (OccurrenceIssue issue : OccurrenceIssue.values()) {
+      if (rnd.nextInt(10) == 0) {
+        o.addIssue(issue);
+      }
+    }
+    for (int i = rnd.nextInt(3); i > 0; i--) {
+      o.getMedia().add(media(rnd));
+      o.getIdentifiers().add(identifier(rnd));
+      o.getFacts().add(fact(rnd));
+    }
+    if (rnd.nextBoolean()) {
+      OccurrenceRelation relation = new OccurrenceRelation();
+      relation.setId(text(rnd));
+      relation.setOccurrenceId(rnd.nextInt());
+      relation.setRelatedOccurrenceId(rnd.nextInt());
+      relation.setType(text(rnd));
+      o.getRelations().add(relation);
+    }
+    return o;
+  }
+
+  @Test
+  public void testRoundtrip() {
+    Random rnd = new Random(7);
+    for (int i = 0; i < 1000; i++) {
+      Occurrence o = occurrence(rnd);
+      assertEquals(o, OccurrenceCodec.decodeOccurrence(OccurrenceCodec.encode(o)));
+
+      VerbatimOccurrence v = OccurrenceCodec.decodeVerbatim(OccurrenceCodec.encodeVerbatim(o));
+      assertEquals(o.getVerbatimFields(), v.getVerbatimFields());
+      assertEquals(o.getExtensions(), v.getExtensions());
+      assertEquals(o.getNetworkKeys(), v.getNetworkKeys());
+      assertEquals(v, OccurrenceCodec.decodeVerbatim(OccurrenceCodec.encode(o)));
+
+      MediaObject m = media(rnd);
+      assertEquals(m, OccurrenceCodec.decodeMediaObject(OccurrenceCodec.encode(m)));
+      Identifier identifier = identifier(rnd);
+      assertEquals(identifier, OccurrenceCodec.decodeIdentifier(OccurrenceCodec.encode(identifier)));
+      FactOrMeasurment fact = fact(rnd);
+      assertEquals(fact, OccurrenceCodec.decodeFactOrMeasurment(OccurrenceCodec.encode(fact)));
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals(new Occurrence(), OccurrenceCodec.decodeOccurrence(OccurrenceCodec.encode(new Occurrence())));
+    assertEquals(new MediaObject(), OccurrenceCodec.decodeMediaObject(OccurrenceCodec.encode(new MediaObject())));
+
+    Occurrence o = new Occurrence();
+    o.setNetworkKeys(Lists.<UUID>newArrayList());
+    assertEquals(o, OccurrenceCodec.decodeOccurrence(OccurrenceCodec.encode(o)));
+
+    // verbatim fields without a value are left out
+    o.setVerbatimField(DwcTerm.catalogNumber, null);
+    o.setVerbatimField(DwcTerm.recordedBy, "");
+    assertTrue(OccurrenceCodec.decodeOccurrence(OccurrenceCodec.encode(o)).getVerbatimFields().isEmpty());
+  }
+
+  /**
+   * Values must decode to the same objects as when read from their JSON representation.
+   */
+  @Test
+  public void testSameAsJson() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.disable(SerializationConfig.Feature.WRITE_NULL_PROPERTIES);
+
+    Occurrence o = new Occurrence();
+    o.setKey(42);
+    o.setDatasetKey(UUID.fromString("c4e1d8d7-8a2a-4a4d-bf6e-5b1a3f2b9c10"));
+    o.setPublishingCountry(Country.DENMARK);
+    o.setProtocol(EndpointType.DWC_ARCHIVE);
+    o.setLastCrawled(new Date(1400000000000L));
+    o.setCrawlId(3);
+    o.setBasisOfRecord(BasisOfRecord.PRESERVED_SPECIMEN);
+    o.setTaxonKey(2684876);
+    o.setKingdomKey(6);
+    o.setScientificName("Abies Mill.");
+    o.setKingdom("Plantae");
+    o.setTaxonRank(Rank.GENUS);
+    o.setCountry(Country.DENMARK);
+    o.setDecimalLatitude(55.7);
+    o.setDecimalLongitude(12.6);
+    o.setYear(1987);
+    o.setEventDate(new Date(550000000000L));
+    o.addIssue(OccurrenceIssue.COORDINATE_ROUNDED);
+    setVerbatim(o);
+
+    MediaObject m = new MediaObject();
+    m.setType(MediaType.StillImage);
+    m.setIdentifier(URI.create("http://www.gbif.org/img/1.jpg"));
+    m.setTitle("Abies \u00e6");
+    m.setCreated(new Date(1300000000000L));
+    m.setLicense("http://creativecommons.org/publicdomain/zero/1.0/");
+    o.getMedia().add(m);
+
+    String json = mapper.writeValueAsString(o);
+    assertEquals(mapper.readValue(json, Occurrence.class), OccurrenceCodec.decodeOccurrence(OccurrenceCodec.encode(o)));
+
+    VerbatimOccurrence v = new VerbatimOccurrence();
+    v.setKey(42);
+    v.setDatasetKey(o.getDatasetKey());
+    v.setLastParsed(new Date(1400000000000L));
+    setVerbatim(v);
+
+    json = mapper.writeValueAsString(v);
+    assertEquals(mapper.readValue(json, VerbatimOccurrence.class),
+      OccurrenceCodec.decodeVerbatim(OccurrenceCodec.encodeVerbatim(v)));
+  }
+
+  /**
+   * Sets verbatim fields and extension rows with unknown terms and null or empty values.
+   */
+  private static void setVerbatim(VerbatimOccurrence v) {
+    v.setVerbatimField(DwcTerm.catalogNumber, "MD10782");
+    v.setVerbatimField(DwcTerm.recordedBy, "Fr\u00fchling");
+    v.setVerbatimField(DcTerm.modified, "2014-05-13");
+    v.setVerbatimField(UnknownTerm.build("http://rs.un.org/terms/temperatur"), "23.5");
+    v.setVerbatimField(DwcTerm.locality, null);
+    v.setVerbatimField(DwcTerm.habitat, "");
+
+    Map<Term, String> row = Maps.newHashMap();
+    row.put(DcTerm.title, "Abies");
+    row.put(DcTerm.identifier, "http://www.gbif.org/img/1.jpg");
+    row.put(DcTerm.creator, null);
+    row.put(UnknownTerm.build("http://rs.un.org/terms/camera"), "");
+    Map<Term, String> row2 = Maps.newHashMap();
+    row2.put(DcTerm.title, "Abies 2");
+    v.getExtensions().put(Extension.MULTIMEDIA, Lists.newArrayList(row, row2));
+  }
+
+  @Test
+  public void testLargeNestedValues() {
+    Occurrence o = new Occurrence();
+    o.setVerbatimField(DwcTerm.occurrenceRemarks, Strings.repeat("\u00e6", 100000));
+    FactOrMeasurment fact = new FactOrMeasurment();
+    fact.setRemarks(Strings.repeat("remarks ", 1000));
+    o.setFacts(ImmutableList.of(fact));
+    o.setScientificName("Abies alba");
+    assertEquals(o, OccurrenceCodec.decodeOccurrence(OccurrenceCodec.encode(o)));
+  }
+
+  @Test
+  public void testUnknownFields() {
+    Identifier identifier = new Identifier();
+    identifier.setIdentifier("doi:10.1234/5678");
+    byte[] data = OccurrenceCodec.encode(identifier);
+
+    // fields added by a later writer are skipped
+    BinaryWriter w = new BinaryWriter(64);
+    w.writeLongField(60, -5);
+    w.writeDoubleField(61, 1.5);
+    w.writeStringField(62, "ignored");
+    byte[] extra = w.toByteArray();
+    byte[] extended = Arrays.copyOf(data, data.length + extra.length);
+    System.arraycopy(extra, 0, extended, data.length, extra.length);
+    assertEquals(identifier, OccurrenceCodec.decodeIdentifier(extended));
+
+    // interpreted fields are ignored when reading verbatim data
+    Occurrence o = new Occurrence();
+    o.setKey(12);
+    o.setScientificName("Abies alba");
+    VerbatimOccurrence v = OccurrenceCodec.decodeVerbatim(OccurrenceCodec.encode(o));
+    assertEquals(Integer.valueOf(12), v.getKey());
+    assertInvalid(OccurrenceCodec.encodeVerbatim(o));
+  }
+
+  @Test
+  public void testUnknownVocabularyIds() {
+    // an occurrence written with constants and terms added to later versions of the vocabularies
+    BinaryWriter w = new BinaryWriter(128);
+    w.writeByte(OccurrenceCodec.MAGIC);
+    w.writeVarint(OccurrenceCodec.VERSION);
+    w.writeVarint(OccurrenceCodec.OCCURRENCE);
+    w.writeTag(20, BinaryWriter.VARINT);
+    w.writeVarint(1000);
+    w.writeTag(22, BinaryWriter.BYTES);
+    w.writeString("NEUTER");
+    w.writeEnumField(23, VocabularyIds.LIFE_STAGE, LifeStage.ADULT);
+    w.writeTag(58, BinaryWriter.BYTES);
+    w.writeString(Country.DENMARK.name());
+
+    w.writeTag(67, BinaryWriter.BYTES);
+    int start = w.startLength();
+    w.writeVarint(1000);
+    w.writeEnum(VocabularyIds.OCCURRENCE_ISSUE, OccurrenceIssue.ZERO_COORDINATE);
+    w.writeVarint(0);
+    w.writeString("NEW_ISSUE");
+    w.endLength(start);
+
+    w.writeTag(11, BinaryWriter.BYTES);
+    start = w.startLength();
+    w.writeVarint(3);
+    // a term of an unknown vocabulary, an unknown term and a known term
+    w.writeVarint(99);
+    w.writeVarint(1);
+    w.writeString("a");
+    w.writeVarint(1);
+    w.writeVarint(0);
+    w.writeString("futureTerm");
+    w.writeString("b");
+    w.writeVarint(1);
+    w.writeVarint(0);
+    w.writeString(DwcTerm.catalogNumber.name());
+    w.writeString("c");
+    w.endLength(start);
+
+    w.writeTag(12, BinaryWriter.BYTES);
+    start = w.startLength();
+    w.writeVarint(1000);
+    w.writeVarint(0);
+    w.writeVarint(0);
+    w.endLength(start);
+
+    Occurrence o = OccurrenceCodec.decodeOccurrence(w.toByteArray());
+    assertNull(o.getBasisOfRecord());
+    assertNull(o.getSex());
+    assertEquals(LifeStage.ADULT, o.getLifeStage());
+    assertEquals(Country.DENMARK, o.getCountry());
+    assertEquals(ImmutableSet.of(OccurrenceIssue.ZERO_COORDINATE), o.getIssues());
+    assertEquals(ImmutableMap.<Term, String>of(DwcTerm.catalogNumber, "c"), o.getVerbatimFields());
+    assertTrue(o.getExtensions().isEmpty());
+  }
+
+  @Test
+  public void testStableIds() {
+    StableIds<Sex> ids = StableIds.of(Sex.class, "MALE", "REMOVED", "FEMALE");
+    assertEquals(1, ids.id(Sex.MALE));
+    assertEquals(3, ids.id(Sex.FEMALE));
+    assertEquals(0, ids.id(Sex.NONE));
+    assertEquals(Sex.FEMALE, ids.constant(3));
+    assertNull(ids.constant(0));
+    assertNull(ids.constant(2));
+    assertNull(ids.constant(4));
+    assertEquals(Sex.NONE, ids.constant("NONE"));
+    assertNull(ids.constant("REMOVED"));
+  }
+
+  @Test
+  public void testTermIds() {
+    assertTrue(VocabularyIds.DWC_TERM.id(DwcTerm.scientificName) > 0);
+    assertTrue(VocabularyIds.DC_TERM.id(DcTerm.modified) > 0);
+    assertTrue(VocabularyIds.GBIF_TERM.id(GbifTerm.gbifID) > 0);
+
+    VerbatimOccurrence v = new VerbatimOccurrence();
+    v.setVerbatimField(DwcTerm.scientificName, "Abies alba");
+    byte[] data = OccurrenceCodec.encodeVerbatim(v);
+    // the term is written as its vocabulary and id, not by name
+    assertFalse(new String(data, Charsets.ISO_8859_1).contains(DwcTerm.scientificName.name()));
+    assertEquals(v, OccurrenceCodec.decodeVerbatim(data));
+  }
+
+  /**
+   * Constants added to a vocabulary must be appended to its table.
+   * Terms of the dwc-api are written by name until they are appended, so only the vocabularies of this API are
+   * checked.
+   */
+  @Test
+  public void testAllConstantsHaveIds() throws Exception {
+    for (Field field : VocabularyIds.class.getDeclaredFields()) {
+      if (field.getType() == StableIds.class && !VocabularyIds.TERM_VOCABULARIES.contains(field.get(null))) {
+        StableIds<?> ids = (StableIds<?>) field.get(null);
+        for (Enum<?> constant : ids.type().getEnumConstants()) {
+          assertTrue("No id for " + constant + " in " + field.getName(), ids.id(constant) > 0);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMalformed() {
+    Occurrence o = occurrence(new Random(3));
+    o.setScientificName("Abies alba");
+    byte[] data = OccurrenceCodec.encode(o);
+    // truncated data either fails or misses the trailing fields
+    for (int length = 0; length < data.length; length++) {
+      try {
+        assertNotEquals(o, OccurrenceCodec.decodeOccurrence(Arrays.copyOf(data, length)));
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+    assertInvalid(OccurrenceCodec.encode(new Identifier()));
+    byte[] version = OccurrenceCodec.encode(o);
+    version[1] = 2;
+    assertInvalid(version);
+  }
+
+  private static void assertInvalid(byte[] data) {
+    try {
+      OccurrenceCodec.decodeOccurrence(data);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage() != null);
+    }
+  }
+}
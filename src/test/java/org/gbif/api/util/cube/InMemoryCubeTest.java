@@ -0,0 +1,141 @@
+package org.gbif.api.util.cube;
+
+import org.gbif.api.model.metrics.cube.Dimension;
+import org.gbif.api.model.metrics.cube.OccurrenceCube;
+import org.gbif.api.model.metrics.cube.ReadBuilder;
+import org.gbif.api.model.metrics.cube.Rollup;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryCubeTest {
+
+  private static final Dimension<String> NAME = new Dimension<String>("name", String.class);
+  private static final Dimension<Double> SIZE = new Dimension<Double>("size", Double.class);
+
+  private static Occurrence occurrence(UUID datasetKey, Country country, Integer taxonKey, Integer kingdomKey) {
+    Occurrence occ = new Occurrence();
+    occ.setDatasetKey(datasetKey);
+    occ.setBasisOfRecord(BasisOfRecord.PRESERVED_SPECIMEN);
+    occ.setCountry(country);
+    occ.setTaxonKey(taxonKey);
+    occ.setKingdomKey(kingdomKey);
+    return occ;
+  }
+
+  @Test
+  public void testOccurrenceCube() {
+    InMemoryOccurrenceCube cube = new InMemoryOccurrenceCube();
+    UUID d1 = UUID.randomUUID();
+    UUID d2 = UUID.randomUUID();
+    cube.add(occurrence(d1, Country.DENMARK, 5, 1));
+    cube.add(occurrence(d1, Country.DENMARK, 1, 1));
+    Occurrence located = occurrence(d2, Country.GERMANY, 7, 1);
+    located.setDecimalLatitude(55.1);
+    located.setDecimalLongitude(12.3);
+    cube.add(located);
+    Occurrence flagged = occurrence(d2, null, 7, 1);
+    flagged.setDecimalLatitude(55.1);
+    flagged.setDecimalLongitude(12.3);
+    flagged.addIssue(OccurrenceIssue.ZERO_COORDINATE);
+    cube.add(flagged);
+
+    assertEquals(OccurrenceCube.ROLLUPS, cube.getSchema());
+    assertEquals(2, cube.get(new ReadBuilder().at(OccurrenceCube.DATASET_KEY, d1)));
+    assertEquals(2, cube.get(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK)));
+    assertEquals(0, cube.get(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.FRANCE)));
+    // the kingdom counts all records, the taxon itself is not counted twice
+    assertEquals(4, cube.get(new ReadBuilder().at(OccurrenceCube.TAXON_KEY, 1)));
+    assertEquals(1, cube.get(new ReadBuilder().at(OccurrenceCube.TAXON_KEY, 5)));
+    assertEquals(2, cube.get(new ReadBuilder().at(OccurrenceCube.TAXON_KEY, 1)
+      .at(OccurrenceCube.COUNTRY, Country.DENMARK)));
+    assertEquals(1, cube.get(new ReadBuilder().at(OccurrenceCube.IS_GEOREFERENCED, true)));
+    assertEquals(3, cube.get(new ReadBuilder().at(OccurrenceCube.IS_GEOREFERENCED, false)));
+    assertEquals(1, cube.get(new ReadBuilder().at(OccurrenceCube.DATASET_KEY, d2)
+      .at(OccurrenceCube.IS_GEOREFERENCED, true).at(OccurrenceCube.TAXON_KEY, 7)));
+    assertEquals(1, cube.get(new ReadBuilder().at(OccurrenceCube.ISSUE, OccurrenceIssue.ZERO_COORDINATE)));
+    assertEquals(4, cube.get(new ReadBuilder().at(OccurrenceCube.BASIS_OF_RECORD, BasisOfRecord.PRESERVED_SPECIMEN)));
+
+    cube.remove(flagged);
+    assertEquals(0, cube.get(new ReadBuilder().at(OccurrenceCube.ISSUE, OccurrenceIssue.ZERO_COORDINATE)));
+    assertEquals(3, cube.get(new ReadBuilder().at(OccurrenceCube.TAXON_KEY, 1)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingRollup() {
+    new InMemoryOccurrenceCube().get(new ReadBuilder().at(OccurrenceCube.YEAR, 1990)
+                                       .at(OccurrenceCube.COUNTRY, Country.DENMARK));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownDimension() {
+    new InMemoryOccurrenceCube().get(new ReadBuilder().at(NAME, "x"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoCountAll() {
+    new InMemoryOccurrenceCube().get(new ReadBuilder());
+  }
+
+  @Test
+  public void testCustomSchema() {
+    InMemoryCube cube = new InMemoryCube(ImmutableList.of(
+      new Rollup(ImmutableSet.<Dimension<?>>of()), new Rollup(NAME), new Rollup(NAME, SIZE)));
+    cube.increment(ImmutableListMultimap.<Dimension<?>, Object>of(NAME, "a", SIZE, 1.5));
+    cube.increment(ImmutableListMultimap.<Dimension<?>, Object>of(NAME, "a", NAME, "b"), 3);
+    cube.increment(ImmutableListMultimap.<Dimension<?>, Object>of(SIZE, 2d));
+
+    assertEquals(5, cube.get(new ReadBuilder()));
+    assertEquals(4, cube.get(new ReadBuilder().at(NAME, "a")));
+    assertEquals(3, cube.get(new ReadBuilder().at(NAME, "b")));
+    assertEquals(0, cube.get(new ReadBuilder().at(NAME, "c")));
+    assertEquals(1, cube.get(new ReadBuilder().at(NAME, "a").at(SIZE, 1.5)));
+    assertEquals(0, cube.get(new ReadBuilder().at(NAME, "b").at(SIZE, 1.5)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongValueType() {
+    InMemoryCube cube = new InMemoryCube(ImmutableList.of(new Rollup(NAME)));
+    cube.increment(ImmutableListMultimap.<Dimension<?>, Object>of(NAME, 1));
+  }
+
+  @Test
+  public void testConcurrentIncrements() throws Exception {
+    final InMemoryOccurrenceCube cube = new InMemoryOccurrenceCube();
+    final List<Country> countries = ImmutableList.of(Country.DENMARK, Country.GERMANY, Country.SPAIN);
+    final UUID datasetKey = UUID.randomUUID();
+    ExecutorService exec = Executors.newFixedThreadPool(4);
+    for (int t = 0; t < 4; t++) {
+      exec.submit(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 3000; i++) {
+            cube.add(occurrence(datasetKey, countries.get(i % 3), 10 + i % 10, 1));
+          }
+        }
+      });
+    }
+    exec.shutdown();
+    assertTrue(exec.awaitTermination(1, TimeUnit.MINUTES));
+    assertEquals(12000, cube.get(new ReadBuilder().at(OccurrenceCube.DATASET_KEY, datasetKey)));
+    assertEquals(4000, cube.get(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.SPAIN)));
+    assertEquals(1200, cube.get(new ReadBuilder().at(OccurrenceCube.TAXON_KEY, 13)));
+    assertEquals(400, cube.get(new ReadBuilder().at(OccurrenceCube.TAXON_KEY, 13)
+      .at(OccurrenceCube.COUNTRY, Country.GERMANY)));
+  }
+}
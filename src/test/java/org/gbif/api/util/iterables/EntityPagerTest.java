@@ -0,0 +1,249 @@
+package org.gbif.api.util.iterables;
+
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.registry.Node;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EntityPagerTest {
+
+  private ExecutorService executor;
+
+  /**
+   * Pages through a list of nodes, every 7th being deleted, failing at the given offset.
+   */
+  private static class ListPager extends EntityPager<Node> {
+
+    private final List<Node> nodes = Lists.newArrayList();
+    private final long failAt;
+    private final boolean withCount;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final Set<Long> offsets = Sets.newConcurrentHashSet();
+
+    ListPager(int size, int pageSize, long failAt) {
+      this(size, pageSize, failAt, true);
+    }
+
+    ListPager(int size, int pageSize, long failAt, boolean withCount) {
+      super(pageSize);
+      this.failAt = failAt;
+      this.withCount = withCount;
+      for (int i = 0; i < size; i++) {
+        Node n = new Node();
+        n.setKey(UUID.randomUUID());
+        n.setTitle("node " + i);
+        if (i % 7 == 3) {
+          n.setDeleted(new Date());
+        }
+        nodes.add(n);
+      }
+    }
+
+    @Override
+    PagingResponse<Node> nextPage(PagingRequest page) {
+      calls.incrementAndGet();
+      offsets.add(page.getOffset());
+      try {
+        // simulate a slow registry
+        Thread.sleep(2);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (page.getOffset() == failAt) {
+        throw new IllegalStateException("registry down");
+      }
+      int from = (int) Math.min(page.getOffset(), nodes.size());
+      int to = (int) Math.min(page.getOffset() + page.getLimit(), nodes.size());
+      return new PagingResponse<Node>(page, withCount ? (long) nodes.size() : null,
+                                      Lists.newArrayList(nodes.subList(from, to)));
+    }
+
+    List<Node> expected() {
+      List<Node> expected = Lists.newArrayList();
+      for (Node n : nodes) {
+        if (n.getDeleted() == null) {
+          expected.add(n);
+        }
+      }
+      return expected;
+    }
+  }
+
+  @Before
+  public void init() {
+    executor = Executors.newFixedThreadPool(3);
+  }
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSequential() {
+    ListPager pager = new ListPager(95, 10, -1);
+    assertEquals(pager.expected(), Lists.newArrayList(pager));
+    assertEquals(10, pager.getMetrics().getPages());
+    assertTrue(pager.getMetrics().getMaxLatency(TimeUnit.NANOSECONDS) > 0);
+  }
+
+  @Test
+  public void testReadAhead() {
+    for (int size : new int[] {0, 1, 10, 95, 100}) {
+      ListPager pager = new ListPager(size, 10, -1);
+      pager.readAhead(4, executor);
+      assertEquals(pager.expected(), Lists.newArrayList(pager));
+      // iterate twice
+      assertEquals(pager.expected(), Lists.newArrayList(pager));
+    }
+  }
+
+  @Test
+  public void testReadAheadError() {
+    ListPager pager = new ListPager(100, 10, 50);
+    Iterables.readAhead(pager, 3, executor);
+    List<Node> found = Lists.newArrayList();
+    try {
+      for (Node n : pager) {
+        found.add(n);
+      }
+      fail("Paging error not propagated");
+    } catch (IllegalStateException e) {
+      assertEquals("registry down", e.getMessage());
+    }
+    // the 5 pages before the failing one hold 43 entities, the last one being held back by the iterator
+    assertEquals(pager.expected().subList(0, 42), found);
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    ListPager pager = new ListPager(1000, 10, -1);
+    pager.readAhead(2, executor);
+    EntityPager<Node>.ResponseIterator iter = pager.iterator();
+    assertTrue(iter.hasNext());
+    iter.next();
+    iter.close();
+    assertFalse(iter.hasNext());
+    Thread.sleep(50);
+    // the first page plus at most 2 pages loaded ahead
+    assertTrue(pager.calls.get() <= 3);
+  }
+
+  @Test
+  public void testStream() {
+    for (int size : new int[] {0, 1, 10, 95, 100, 1000}) {
+      ListPager pager = new ListPager(size, 10, -1);
+      assertEquals(pager.expected(), Iterables.stream(pager).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testParallelStream() {
+    for (int size : new int[] {0, 1, 10, 95, 100, 1000}) {
+      for (boolean withCount : new boolean[] {true, false}) {
+        ListPager pager = new ListPager(size, 10, -1, withCount);
+        assertEquals(pager.expected(), Iterables.parallelStream(pager).collect(Collectors.toList()));
+        // every page is loaded only once
+        assertEquals(pager.calls.get(), pager.offsets.size());
+      }
+    }
+  }
+
+  @Test
+  public void testSplit() {
+    ListPager pager = new ListPager(95, 10, -1);
+    Spliterator<Node> suffix = pager.spliterator();
+    Spliterator<Node> prefix = suffix.trySplit();
+    assertNotNull(prefix);
+    // only the first page has been loaded to get the count
+    assertEquals(1, pager.calls.get());
+    final List<Node> found = Lists.newArrayList();
+    Consumer<Node> collect = new Consumer<Node>() {
+      @Override
+      public void accept(Node node) {
+        found.add(node);
+      }
+    };
+    prefix.forEachRemaining(collect);
+    // the prefix holds the first 5 of the 10 pages
+    assertEquals(5, pager.calls.get());
+    suffix.forEachRemaining(collect);
+    assertEquals(pager.expected(), found);
+    assertEquals(10, pager.calls.get());
+  }
+
+  @Test
+  public void testResume() {
+    for (boolean readAhead : new boolean[] {false, true}) {
+      ListPager pager = new ListPager(95, 10, -1);
+      if (readAhead) {
+        pager.readAhead(2, executor);
+      }
+      List<Node> expected = pager.expected();
+      for (int stop = 0; stop <= expected.size(); stop++) {
+        EntityPager<Node>.ResponseIterator iter = pager.iterator();
+        List<Node> found = Lists.newArrayList();
+        while (found.size() < stop) {
+          found.add(iter.next());
+        }
+        // persist as string and resume
+        PagerCheckpoint checkpoint = PagerCheckpoint.fromString(iter.checkpoint().toString());
+        iter.close();
+        Iterator<Node> resumed = pager.iterator(checkpoint);
+        while (resumed.hasNext()) {
+          found.add(resumed.next());
+        }
+        assertEquals(expected, found);
+      }
+    }
+  }
+
+  @Test
+  public void testResumeUnknownKey() {
+    ListPager pager = new ListPager(95, 10, -1);
+    List<Node> resumed = Lists.newArrayList(pager.iterator(new PagerCheckpoint(20, UUID.randomUUID())));
+    // the entire page is repeated
+    assertEquals(pager.expected().subList(pager.expected().indexOf(pager.nodes.get(20)), pager.expected().size()),
+                 resumed);
+  }
+
+  @Test
+  public void testCheckpoint() throws Exception {
+    PagerCheckpoint cp = new PagerCheckpoint(200, UUID.randomUUID());
+    assertEquals(cp, PagerCheckpoint.fromString(cp.toString()));
+    assertEquals(PagerCheckpoint.START, PagerCheckpoint.fromString("0"));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(cp);
+    out.close();
+    assertEquals(cp, new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject());
+  }
+}
@@ -0,0 +1,153 @@
+package org.gbif.api.util.iterables;
+
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.Network;
+import org.gbif.api.model.registry.Node;
+import org.gbif.api.model.registry.Organization;
+import org.gbif.api.service.registry.DatasetService;
+import org.gbif.api.service.registry.InstallationService;
+import org.gbif.api.service.registry.NetworkService;
+import org.gbif.api.service.registry.NodeService;
+import org.gbif.api.service.registry.OrganizationService;
+import org.gbif.api.util.iterables.RegistryKeyResolver.EntityType;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.AtomicLongMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RegistryKeyResolverTest {
+
+  private final UUID datasetKey = UUID.randomUUID();
+  private final UUID orgKey = UUID.randomUUID();
+  private final UUID nodeKey = UUID.randomUUID();
+  private final UUID networkKey = UUID.randomUUID();
+  // counts calls by method name
+  private final AtomicLongMap<String> calls = AtomicLongMap.create();
+  private RegistryKeyResolver resolver;
+
+  /**
+   * A registry service only implementing get and getTitles for a single entity.
+   */
+  private <T> T service(Class<T> type, final UUID key, final Object entity) {
+    return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type},
+      new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          calls.incrementAndGet(method.getName());
+          if (method.getName().equals("get")) {
+            return key != null && key.equals(args[0]) ? entity : null;
+          } else if (method.getName().equals("getTitles")) {
+            Map<UUID, String> titles = Maps.newHashMap();
+            if (key != null && ((Collection<?>) args[0]).contains(key)) {
+              titles.put(key, "title");
+            }
+            return titles;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        }
+      }));
+  }
+
+  @Before
+  public void init() {
+    Dataset d = new Dataset();
+    d.setKey(datasetKey);
+    Node n = new Node();
+    n.setKey(nodeKey);
+    resolver = new RegistryKeyResolver(service(DatasetService.class, datasetKey, d),
+      service(OrganizationService.class, orgKey, new Organization()),
+      service(InstallationService.class, null, null),
+      service(NodeService.class, nodeKey, n),
+      service(NetworkService.class, networkKey, new Network()), 100, 1, TimeUnit.MINUTES);
+  }
+
+  @Test
+  public void testResolve() {
+    assertEquals(EntityType.DATASET, resolver.resolve(datasetKey));
+    assertEquals(EntityType.NETWORK, resolver.resolve(networkKey));
+    assertEquals(6, calls.get("get"));
+    assertNull(resolver.resolve(UUID.randomUUID()));
+    assertEquals(11, calls.get("get"));
+
+    // cached
+    assertEquals(EntityType.DATASET, resolver.resolve(datasetKey));
+    assertEquals(EntityType.NETWORK, resolver.resolve(networkKey));
+    assertEquals(11, calls.get("get"));
+
+    resolver.invalidate(datasetKey);
+    assertEquals(EntityType.DATASET, resolver.resolve(datasetKey));
+    assertEquals(12, calls.get("get"));
+  }
+
+  @Test
+  public void testResolveAll() {
+    UUID unknown = UUID.randomUUID();
+    Map<UUID, EntityType> types = resolver.resolveAll(ImmutableList.of(datasetKey, orgKey, nodeKey, networkKey, unknown));
+    assertEquals(ImmutableMap.of(datasetKey, EntityType.DATASET, orgKey, EntityType.ORGANIZATION,
+                                 nodeKey, EntityType.NODE, networkKey, EntityType.NETWORK), types);
+    assertEquals(5, calls.get("getTitles"));
+    assertEquals(0, calls.get("get"));
+
+    // all cached, including the unknown key
+    assertEquals(types, resolver.resolveAll(ImmutableList.of(datasetKey, orgKey, nodeKey, networkKey, unknown)));
+    assertNull(resolver.resolve(unknown));
+    assertEquals(5, calls.get("getTitles"));
+    assertEquals(0, calls.get("get"));
+  }
+
+  @Test
+  public void testResolveAllStopsEarly() {
+    resolver.resolveAll(ImmutableList.of(datasetKey));
+    assertEquals(1, calls.get("getTitles"));
+  }
+
+  @Test
+  public void testGet() {
+    assertEquals(datasetKey, resolver.get(datasetKey).getKey());
+    assertNull(resolver.get(UUID.randomUUID()));
+    // resolved while getting the entities
+    assertEquals(6, calls.get("get"));
+    assertEquals(EntityType.DATASET, resolver.resolve(datasetKey));
+    assertEquals(6, calls.get("get"));
+    assertEquals(datasetKey, resolver.get(datasetKey).getKey());
+    assertEquals(7, calls.get("get"));
+  }
+
+  @Test
+  public void testDatasets() {
+    assertEquals(ImmutableList.of(datasetKey), keys(Iterables.datasets(datasetKey, null, resolver, 10)));
+    // the dataset found while resolving its key is not got again
+    assertEquals(1, calls.get("get"));
+    assertTrue(Iterables.datasets(nodeKey, null, resolver, 10) instanceof NodeDatasetPager);
+    assertTrue(Iterables.datasets(networkKey, null, resolver, 10) instanceof NetworkPager);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDatasetsUnknownKey() {
+    Iterables.datasets(UUID.randomUUID(), null, resolver, 10);
+  }
+
+  private static Iterable<UUID> keys(Iterable<Dataset> datasets) {
+    Collection<UUID> keys = Lists.newArrayList();
+    for (Dataset d : datasets) {
+      keys.add(d.getKey());
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,141 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GeometryMatcherTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  @Test
+  public void testPolygonWithHole() {
+    GeometryMatcher matcher = GeometryMatcher.of(
+      new WithinPredicate("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (4 4, 6 4, 6 6, 4 6, 4 4))"));
+    assertTrue(matcher.matches(1, 1));
+    assertTrue(matcher.matches(9.9, 0.1));
+    // boundaries
+    assertTrue(matcher.matches(0, 0));
+    assertTrue(matcher.matches(10, 5));
+    assertTrue(matcher.matches(4, 5));
+    // hole
+    assertFalse(matcher.matches(5, 5));
+    // outside
+    assertFalse(matcher.matches(-1, 5));
+    assertFalse(matcher.matches(5, 10.1));
+  }
+
+  @Test
+  public void testMultiPolygon() {
+    GeometryMatcher matcher = GeometryMatcher.of(
+      new WithinPredicate("MULTIPOLYGON (((0 0, 1 0, 1 1, 0 1, 0 0)), ((20 20, 21 20, 21 21, 20 21, 20 20)))"));
+    assertTrue(matcher.matches(0.5, 0.5));
+    assertTrue(matcher.matches(20.5, 20.5));
+    assertFalse(matcher.matches(10, 10));
+  }
+
+  @Test
+  public void testLine() {
+    GeometryMatcher matcher = GeometryMatcher.of(new WithinPredicate("LINESTRING (0 0, 10 10)"));
+    assertTrue(matcher.matches(5, 5));
+    assertFalse(matcher.matches(5, 6));
+  }
+
+  /**
+   * Compares the matcher against the plain JTS intersection test for a star shaped polygon with many vertices.
+   */
+  @Test
+  public void testLargePolygon() {
+    Geometry polygon = star(20000);
+    GeometryMatcher matcher = new GeometryMatcher(polygon);
+
+    Random rnd = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      double lat = rnd.nextDouble() * 100 - 50;
+      double lng = rnd.nextDouble() * 100 - 50;
+      boolean expected = polygon.intersects(GEOMETRY_FACTORY.createPoint(new Coordinate(lng, lat)));
+      assertEquals("Point " + lat + "," + lng, expected, matcher.matches(lat, lng));
+    }
+  }
+
+  /**
+   * Many threads using new matchers at once must get the same results as the plain JTS intersection test.
+   */
+  @Test
+  public void testConcurrentFirstUse() throws Exception {
+    final Geometry polygon = star(2000);
+    int points = 2000;
+    final double[] lats = new double[points];
+    final double[] lngs = new double[points];
+    final boolean[] expected = new boolean[points];
+    Random rnd = new Random(7);
+    for (int i = 0; i < points; i++) {
+      lats[i] = rnd.nextDouble() * 100 - 50;
+      lngs[i] = rnd.nextDouble() * 100 - 50;
+      expected[i] = polygon.intersects(GEOMETRY_FACTORY.createPoint(new Coordinate(lngs[i], lats[i])));
+    }
+
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < 20; round++) {
+        final GeometryMatcher matcher = new GeometryMatcher(polygon);
+        final CyclicBarrier start = new CyclicBarrier(threads);
+        List<Future<Integer>> mismatches = Lists.newArrayList();
+        for (int t = 0; t < threads; t++) {
+          final int offset = t * points / threads;
+          mismatches.add(executor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+              start.await();
+              int mismatch = 0;
+              for (int j = 0; j < lats.length; j++) {
+                int i = (offset + j) % lats.length;
+                if (matcher.matches(lats[i], lngs[i]) != expected[i]) {
+                  mismatch++;
+                }
+              }
+              return mismatch;
+            }
+          }));
+        }
+        for (Future<Integer> mismatch : mismatches) {
+          assertEquals(Integer.valueOf(0), mismatch.get(1, TimeUnit.MINUTES));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * @return a star shaped polygon with the given number of vertices around 0,0
+   */
+  private static Geometry star(int vertices) {
+    Coordinate[] coords = new Coordinate[vertices + 1];
+    for (int i = 0; i < vertices; i++) {
+      double angle = 2 * Math.PI * i / vertices;
+      double radius = i % 2 == 0 ? 40 : 35;
+      coords[i] = new Coordinate(radius * Math.cos(angle), radius * Math.sin(angle));
+    }
+    coords[vertices] = coords[0];
+    return GEOMETRY_FACTORY.createPolygon(coords);
+  }
+}
@@ -0,0 +1,198 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.IsNotNullPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanPredicate;
+import org.gbif.api.model.occurrence.predicate.LikePredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.MediaType;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.dwc.terms.DwcTerm;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.UUID;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PredicateCompilerTest {
+
+  private static final UUID DATASET_KEY = UUID.fromString("7ddf754f-d193-4cc9-b351-99906754a03b");
+
+  private static Occurrence occurrence() {
+    Occurrence occ = new Occurrence();
+    occ.setDatasetKey(DATASET_KEY);
+    occ.setYear(1998);
+    occ.setMonth(6);
+    occ.setEventDate(date(1998, Calendar.JUNE, 12));
+    occ.setDecimalLatitude(10.5);
+    occ.setDecimalLongitude(20.5);
+    occ.setCountry(Country.DENMARK);
+    occ.setPublishingCountry(Country.GERMANY);
+    occ.setBasisOfRecord(BasisOfRecord.PRESERVED_SPECIMEN);
+    occ.setTaxonKey(2435098);
+    occ.setKingdomKey(1);
+    occ.setFamilyKey(9703);
+    occ.setScientificName("Puma concolor (Linnaeus, 1771)");
+    occ.addIssue(OccurrenceIssue.COUNTRY_COORDINATE_MISMATCH);
+    MediaObject image = new MediaObject();
+    image.setType(MediaType.StillImage);
+    occ.getMedia().add(image);
+    occ.setVerbatimField(DwcTerm.catalogNumber, "CN-1234");
+    return occ;
+  }
+
+  private static Date date(int year, int month, int day) {
+    Calendar cal = Calendar.getInstance();
+    cal.clear();
+    cal.set(year, month, day, 13, 45);
+    return cal.getTime();
+  }
+
+  private static boolean matches(Predicate p) {
+    return PredicateCompiler.compile(p).matches(occurrence());
+  }
+
+  @Test
+  public void testNullMatchesAll() {
+    assertTrue(PredicateCompiler.compile(null).matches(new VerbatimOccurrence()));
+  }
+
+  @Test
+  public void testEquals() {
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.DATASET_KEY, DATASET_KEY.toString())));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.DATASET_KEY, UUID.randomUUID().toString())));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "DK")));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "DE")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.BASIS_OF_RECORD, "preserved specimen")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.YEAR, "1998")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.DECIMAL_LATITUDE, "10.5")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.CATALOG_NUMBER, "CN-1234")));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.CATALOG_NUMBER, "CN-12")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.HAS_COORDINATE, "true")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.HAS_GEOSPATIAL_ISSUE, "TRUE")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.REPATRIATED, "true")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.MEDIA_TYPE, "StillImage")));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.MEDIA_TYPE, "Sound")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.ISSUE, "COUNTRY_COORDINATE_MISMATCH")));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.ISSUE, "ZERO_COORDINATE")));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.ELEVATION, "*")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.YEAR, "*")));
+  }
+
+  @Test
+  public void testTaxonKeyIncludesHigherTaxa() {
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.TAXON_KEY, "2435098")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.TAXON_KEY, "9703")));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.TAXON_KEY, "212")));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.FAMILY_KEY, "1")));
+  }
+
+  @Test
+  public void testRanges() {
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.YEAR, "1990,2000")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.YEAR, "*,1998")));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.YEAR, "1999,*")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.DECIMAL_LATITUDE, "10,11")));
+
+    assertTrue(matches(new GreaterThanPredicate(OccurrenceSearchParameter.YEAR, "1997")));
+    assertFalse(matches(new GreaterThanPredicate(OccurrenceSearchParameter.YEAR, "1998")));
+    assertTrue(matches(new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.YEAR, "1998")));
+    assertFalse(matches(new LessThanPredicate(OccurrenceSearchParameter.YEAR, "1998")));
+    assertTrue(matches(new LessThanOrEqualsPredicate(OccurrenceSearchParameter.YEAR, "1998")));
+    // no elevation
+    assertFalse(matches(new LessThanPredicate(OccurrenceSearchParameter.ELEVATION, "1000")));
+  }
+
+  @Test
+  public void testDates() {
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-06")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-06-12")));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-06-11")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-01,1998-06")));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-06-12,*")));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "*,1998-05")));
+
+    assertTrue(matches(new LessThanOrEqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-06")));
+    assertFalse(matches(new LessThanPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-06")));
+    assertTrue(matches(new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998")));
+    assertFalse(matches(new GreaterThanPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998")));
+  }
+
+  @Test
+  public void testIn() {
+    assertTrue(matches(new InPredicate(OccurrenceSearchParameter.COUNTRY, Lists.newArrayList("DE", "DK"))));
+    assertFalse(matches(new InPredicate(OccurrenceSearchParameter.COUNTRY, Lists.newArrayList("DE", "FR"))));
+    assertTrue(matches(new InPredicate(OccurrenceSearchParameter.YEAR, Lists.newArrayList("1800", "1990,2000"))));
+    assertTrue(matches(new InPredicate(OccurrenceSearchParameter.TAXON_KEY, Lists.newArrayList("212", "1"))));
+  }
+
+  @Test
+  public void testLike() {
+    assertTrue(matches(new LikePredicate(OccurrenceSearchParameter.CATALOG_NUMBER, "CN-%")));
+    assertTrue(matches(new LikePredicate(OccurrenceSearchParameter.CATALOG_NUMBER, "%12_4")));
+    assertTrue(matches(new LikePredicate(OccurrenceSearchParameter.CATALOG_NUMBER, "%")));
+    assertFalse(matches(new LikePredicate(OccurrenceSearchParameter.CATALOG_NUMBER, "CN-_")));
+    assertTrue(matches(new LikePredicate(OccurrenceSearchParameter.SCIENTIFIC_NAME, "Puma %")));
+  }
+
+  @Test
+  public void testCompound() {
+    Predicate country = new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "DK");
+    Predicate year = new EqualsPredicate(OccurrenceSearchParameter.YEAR, "2000");
+    assertFalse(matches(new ConjunctionPredicate(Lists.newArrayList(country, year))));
+    assertTrue(matches(new DisjunctionPredicate(Lists.newArrayList(country, year))));
+    assertTrue(matches(new ConjunctionPredicate(Lists.<Predicate>newArrayList(country, new NotPredicate(year)))));
+  }
+
+  @Test
+  public void testIsNotNull() {
+    assertTrue(matches(new IsNotNullPredicate(OccurrenceSearchParameter.CATALOG_NUMBER)));
+    assertFalse(matches(new IsNotNullPredicate(OccurrenceSearchParameter.RECORDED_BY)));
+    assertFalse(matches(new IsNotNullPredicate(OccurrenceSearchParameter.DEPTH)));
+    assertTrue(matches(new IsNotNullPredicate(OccurrenceSearchParameter.ISSUE)));
+  }
+
+  @Test
+  public void testVerbatimRecord() {
+    VerbatimOccurrence v = new VerbatimOccurrence();
+    v.setDatasetKey(DATASET_KEY);
+    v.setVerbatimField(DwcTerm.catalogNumber, "CN-1234");
+    assertTrue(PredicateCompiler.compile(new EqualsPredicate(OccurrenceSearchParameter.DATASET_KEY,
+                                                             DATASET_KEY.toString())).matches(v));
+    assertTrue(PredicateCompiler.compile(new EqualsPredicate(OccurrenceSearchParameter.CATALOG_NUMBER, "CN-1234"))
+                 .matches(v));
+    // interpreted values do not exist on verbatim records
+    assertFalse(PredicateCompiler.compile(new EqualsPredicate(OccurrenceSearchParameter.YEAR, "1998")).matches(v));
+  }
+
+  @Test
+  public void testWithin() {
+    assertTrue(matches(new WithinPredicate("POLYGON ((10 0, 30 0, 30 20, 10 20, 10 0))")));
+    assertFalse(matches(new WithinPredicate("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedParameter() {
+    PredicateCompiler.compile(new EqualsPredicate(OccurrenceSearchParameter.CRAWL_ID, UUID.randomUUID().toString()));
+  }
+}
@@ -0,0 +1,204 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.IsNotNullPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanPredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.vocabulary.Country;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PredicateNormalizerTest {
+
+  private static final String DATASET_KEY = "7ddf754f-d193-4cc9-b351-99906754a03b";
+
+  private static Predicate and(Predicate... predicates) {
+    return new ConjunctionPredicate(Lists.newArrayList(predicates));
+  }
+
+  private static Predicate or(Predicate... predicates) {
+    return new DisjunctionPredicate(Lists.newArrayList(predicates));
+  }
+
+  private static Predicate eq(OccurrenceSearchParameter key, String value) {
+    return new EqualsPredicate(key, value);
+  }
+
+  @Test
+  public void testNull() {
+    assertNull(PredicateNormalizer.normalize(null));
+  }
+
+  @Test
+  public void testFlatten() {
+    Predicate p = and(eq(OccurrenceSearchParameter.CATALOG_NUMBER, "1"),
+                      and(eq(OccurrenceSearchParameter.RECORDED_BY, "Tim"),
+                          and(eq(OccurrenceSearchParameter.COUNTRY, "DK"))));
+    Predicate expected = and(eq(OccurrenceSearchParameter.CATALOG_NUMBER, "1"),
+                             eq(OccurrenceSearchParameter.COUNTRY, "DK"),
+                             eq(OccurrenceSearchParameter.RECORDED_BY, "Tim"));
+    assertEquals(expected, PredicateNormalizer.normalize(p));
+
+    // single branches are unwrapped, double negations removed
+    Predicate single = or(and(new NotPredicate(new NotPredicate(eq(OccurrenceSearchParameter.COUNTRY, "DK")))));
+    assertEquals(eq(OccurrenceSearchParameter.COUNTRY, "DK"), PredicateNormalizer.normalize(single));
+  }
+
+  @Test
+  public void testCanonicalValues() {
+    assertEquals(eq(OccurrenceSearchParameter.COUNTRY, "DK"),
+                 PredicateNormalizer.normalize(eq(OccurrenceSearchParameter.COUNTRY, "dnk")));
+    assertEquals(eq(OccurrenceSearchParameter.BASIS_OF_RECORD, "PRESERVED_SPECIMEN"),
+                 PredicateNormalizer.normalize(eq(OccurrenceSearchParameter.BASIS_OF_RECORD, "preserved specimen")));
+    assertEquals(eq(OccurrenceSearchParameter.DATASET_KEY, DATASET_KEY),
+                 PredicateNormalizer.normalize(eq(OccurrenceSearchParameter.DATASET_KEY, DATASET_KEY.toUpperCase())));
+    assertEquals(eq(OccurrenceSearchParameter.HAS_COORDINATE, "true"),
+                 PredicateNormalizer.normalize(eq(OccurrenceSearchParameter.HAS_COORDINATE, "TRUE")));
+    assertEquals(eq(OccurrenceSearchParameter.DECIMAL_LATITUDE, "10.5"),
+                 PredicateNormalizer.normalize(eq(OccurrenceSearchParameter.DECIMAL_LATITUDE, "10.50")));
+    assertEquals(eq(OccurrenceSearchParameter.YEAR, "1990,2000"),
+                 PredicateNormalizer.normalize(eq(OccurrenceSearchParameter.YEAR, "1990,2000")));
+    // free text is untouched
+    assertEquals(eq(OccurrenceSearchParameter.RECORDED_BY, " Tim "),
+                 PredicateNormalizer.normalize(eq(OccurrenceSearchParameter.RECORDED_BY, " Tim ")));
+  }
+
+  @Test
+  public void testDisjunctionToIn() {
+    Predicate p = or(eq(OccurrenceSearchParameter.COUNTRY, "DK"),
+                     eq(OccurrenceSearchParameter.COUNTRY, "de"),
+                     new InPredicate(OccurrenceSearchParameter.COUNTRY, Lists.newArrayList("DK", "SE")),
+                     eq(OccurrenceSearchParameter.YEAR, "1990"));
+    Predicate expected = or(eq(OccurrenceSearchParameter.YEAR, "1990"),
+                            new InPredicate(OccurrenceSearchParameter.COUNTRY, Lists.newArrayList("DE", "DK", "SE")));
+    assertEquals(expected, PredicateNormalizer.normalize(p));
+
+    Predicate dupes = or(eq(OccurrenceSearchParameter.TAXON_KEY, "1"), eq(OccurrenceSearchParameter.TAXON_KEY, "1"));
+    assertEquals(eq(OccurrenceSearchParameter.TAXON_KEY, "1"), PredicateNormalizer.normalize(dupes));
+  }
+
+  @Test
+  public void testInValuesSorted() {
+    Predicate p = new InPredicate(OccurrenceSearchParameter.CATALOG_NUMBER, Lists.newArrayList("b", "a", "b"));
+    assertEquals(new InPredicate(OccurrenceSearchParameter.CATALOG_NUMBER, Lists.newArrayList("a", "b")),
+                 PredicateNormalizer.normalize(p));
+  }
+
+  @Test
+  public void testMergeBounds() {
+    Predicate range = and(new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.YEAR, "1980"),
+                          new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.YEAR, "1990"),
+                          new LessThanOrEqualsPredicate(OccurrenceSearchParameter.YEAR, "2000"),
+                          eq(OccurrenceSearchParameter.YEAR, "1950,2010"));
+    assertEquals(eq(OccurrenceSearchParameter.YEAR, "1990,2000"), PredicateNormalizer.normalize(range));
+
+    Predicate exclusive = and(new GreaterThanPredicate(OccurrenceSearchParameter.ELEVATION, "10"),
+                              new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.ELEVATION, "10"),
+                              new LessThanPredicate(OccurrenceSearchParameter.ELEVATION, "100.0"));
+    assertEquals(and(new GreaterThanPredicate(OccurrenceSearchParameter.ELEVATION, "10"),
+                     new LessThanPredicate(OccurrenceSearchParameter.ELEVATION, "100")),
+                 PredicateNormalizer.normalize(exclusive));
+
+    Predicate single = and(new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.YEAR, "1990"),
+                           new LessThanOrEqualsPredicate(OccurrenceSearchParameter.YEAR, "1990"));
+    assertEquals(eq(OccurrenceSearchParameter.YEAR, "1990"), PredicateNormalizer.normalize(single));
+
+    Predicate exact = and(eq(OccurrenceSearchParameter.YEAR, "1995"), eq(OccurrenceSearchParameter.YEAR, "1990,2000"));
+    assertEquals(eq(OccurrenceSearchParameter.YEAR, "1995"), PredicateNormalizer.normalize(exact));
+  }
+
+  @Test
+  public void testAlwaysFalse() {
+    assertTrue(PredicateNormalizer.isAlwaysFalse(
+      and(new GreaterThanPredicate(OccurrenceSearchParameter.YEAR, "2000"),
+          new LessThanPredicate(OccurrenceSearchParameter.YEAR, "1990"))));
+    assertTrue(PredicateNormalizer.isAlwaysFalse(
+      and(new GreaterThanPredicate(OccurrenceSearchParameter.YEAR, "2000"),
+          new LessThanPredicate(OccurrenceSearchParameter.YEAR, "2000"))));
+    assertTrue(PredicateNormalizer.isAlwaysFalse(
+      and(eq(OccurrenceSearchParameter.YEAR, "1990"), eq(OccurrenceSearchParameter.YEAR, "1991"))));
+    assertTrue(PredicateNormalizer.isAlwaysFalse(
+      and(eq(OccurrenceSearchParameter.COUNTRY, "DK"), eq(OccurrenceSearchParameter.COUNTRY, "DE"))));
+    assertTrue(PredicateNormalizer.isAlwaysFalse(
+      or(and(eq(OccurrenceSearchParameter.COUNTRY, "DK"), eq(OccurrenceSearchParameter.COUNTRY, "DE")),
+         and(eq(OccurrenceSearchParameter.YEAR, "1990"), eq(OccurrenceSearchParameter.YEAR, "2000,2010")))));
+
+    // a false branch of a disjunction is dropped
+    assertEquals(eq(OccurrenceSearchParameter.RECORDED_BY, "Tim"), PredicateNormalizer.normalize(
+      or(eq(OccurrenceSearchParameter.RECORDED_BY, "Tim"),
+         and(eq(OccurrenceSearchParameter.COUNTRY, "DK"), eq(OccurrenceSearchParameter.COUNTRY, "DE")))));
+  }
+
+  @Test
+  public void testIntersectValues() {
+    Predicate p = and(new InPredicate(OccurrenceSearchParameter.COUNTRY, Lists.newArrayList("DK", "DE", "SE")),
+                      new InPredicate(OccurrenceSearchParameter.COUNTRY, Lists.newArrayList("SE", "DK", "NO")));
+    assertEquals(new InPredicate(OccurrenceSearchParameter.COUNTRY, Lists.newArrayList("DK", "SE")),
+                 PredicateNormalizer.normalize(p));
+  }
+
+  @Test
+  public void testMultiValuedNotIntersected() {
+    // a record has several taxon keys, so both can be satisfied at once
+    Predicate p = and(eq(OccurrenceSearchParameter.TAXON_KEY, "1"), eq(OccurrenceSearchParameter.TAXON_KEY, "2"));
+    assertFalse(PredicateNormalizer.isAlwaysFalse(p));
+    assertEquals(p, PredicateNormalizer.normalize(p));
+
+    // wildcards are kept
+    Predicate wildcard = and(eq(OccurrenceSearchParameter.COUNTRY, "*"), eq(OccurrenceSearchParameter.COUNTRY, "DK"));
+    assertFalse(PredicateNormalizer.isAlwaysFalse(wildcard));
+  }
+
+  @Test
+  public void testStableCanonicalForm() {
+    Predicate p1 = and(or(eq(OccurrenceSearchParameter.COUNTRY, "DK"), eq(OccurrenceSearchParameter.COUNTRY, "de")),
+                       new IsNotNullPredicate(OccurrenceSearchParameter.RECORDED_BY),
+                       new GreaterThanPredicate(OccurrenceSearchParameter.ELEVATION, "10"));
+    Predicate p2 = and(new GreaterThanPredicate(OccurrenceSearchParameter.ELEVATION, "10.0"),
+                       and(new IsNotNullPredicate(OccurrenceSearchParameter.RECORDED_BY),
+                           new InPredicate(OccurrenceSearchParameter.COUNTRY, Lists.newArrayList("DE", "DNK"))));
+    Predicate n1 = PredicateNormalizer.normalize(p1);
+    Predicate n2 = PredicateNormalizer.normalize(p2);
+    assertEquals(n1, n2);
+    assertEquals(n1.hashCode(), n2.hashCode());
+    // normalizing is idempotent
+    assertEquals(n1, PredicateNormalizer.normalize(n1));
+  }
+
+  @Test
+  public void testMatchesSameRecords() {
+    List<Predicate> predicates = Lists.newArrayList(
+      and(new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.YEAR, "1990"),
+          new LessThanPredicate(OccurrenceSearchParameter.YEAR, "2000")),
+      or(eq(OccurrenceSearchParameter.COUNTRY, "DK"), eq(OccurrenceSearchParameter.COUNTRY, "DE")),
+      new NotPredicate(and(eq(OccurrenceSearchParameter.YEAR, "1998"), eq(OccurrenceSearchParameter.YEAR, "1999"))));
+    for (Predicate p : predicates) {
+      Predicate normalized = PredicateNormalizer.normalize(p);
+      for (int year = 1985; year < 2005; year++) {
+        Occurrence occ = new Occurrence();
+        occ.setDatasetKey(UUID.fromString(DATASET_KEY));
+        occ.setYear(year);
+        occ.setCountry(year % 2 == 0 ? Country.DENMARK : Country.SWEDEN);
+        assertEquals(PredicateCompiler.compile(p).matches(occ), PredicateCompiler.compile(normalized).matches(occ));
+      }
+    }
+  }
+}
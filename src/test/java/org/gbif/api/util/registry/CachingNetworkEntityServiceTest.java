@@ -0,0 +1,251 @@
+package org.gbif.api.util.registry;
+
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.Organization;
+import org.gbif.api.model.registry.Tag;
+import org.gbif.api.service.registry.DatasetService;
+import org.gbif.api.service.registry.OrganizationService;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.AtomicLongMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CachingNetworkEntityServiceTest {
+
+  private final ConcurrentMap<UUID, Dataset> datasets = Maps.newConcurrentMap();
+  // counts calls by method name
+  private final AtomicLongMap<String> calls = AtomicLongMap.create();
+  // the sizes of all getTitles calls
+  private final List<Integer> titleBatches = Lists.newCopyOnWriteArrayList();
+  // blocks the delegate until released
+  private volatile CountDownLatch gate = new CountDownLatch(0);
+  private ExecutorService executor;
+  private CachingDatasetService service;
+
+  /**
+   * A dataset service backed by a map, implementing only the methods used in this test.
+   */
+  private DatasetService delegate() {
+    return (DatasetService) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DatasetService.class},
+      new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+          calls.incrementAndGet(method.getName());
+          gate.await();
+          if (method.getName().equals("get")) {
+            return datasets.get(args[0]);
+          } else if (method.getName().equals("getTitles")) {
+            Collection<?> keys = (Collection<?>) args[0];
+            titleBatches.add(keys.size());
+            Map<UUID, String> titles = Maps.newHashMap();
+            for (Object key : keys) {
+              if (datasets.containsKey(key)) {
+                titles.put((UUID) key, datasets.get(key).getTitle());
+              }
+            }
+            return titles;
+          } else if (method.getName().equals("update")) {
+            Dataset d = (Dataset) args[0];
+            datasets.put(d.getKey(), d);
+            return null;
+          } else if (method.getName().equals("delete")) {
+            if (datasets.remove(args[0]) == null) {
+              throw new IllegalArgumentException("Unknown dataset " + args[0]);
+            }
+            return null;
+          } else if (method.getName().equals("addTag")) {
+            return 1;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        }
+      });
+  }
+
+  private Dataset dataset(String title) {
+    Dataset d = new Dataset();
+    d.setKey(UUID.randomUUID());
+    d.setTitle(title);
+    datasets.put(d.getKey(), d);
+    return d;
+  }
+
+  @Before
+  public void init() {
+    service = new CachingDatasetService(delegate(), 100, 1, TimeUnit.MINUTES);
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void shutdown() {
+    gate.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testGet() {
+    Dataset d = dataset("Birds");
+    UUID unknown = UUID.randomUUID();
+    assertSame(d, service.get(d.getKey()));
+    assertNull(service.get(unknown));
+    assertSame(d, service.get(d.getKey()));
+    assertNull(service.get(unknown));
+    assertEquals(2, calls.get("get"));
+  }
+
+  @Test
+  public void testGetTitles() {
+    Dataset d1 = dataset("Birds");
+    Dataset d2 = dataset("Fish");
+    UUID unknown = UUID.randomUUID();
+    assertEquals(ImmutableMap.of(d1.getKey(), "Birds", d2.getKey(), "Fish"),
+                 service.getTitles(ImmutableList.of(d1.getKey(), d2.getKey(), unknown)));
+    assertEquals(1, calls.get("getTitles"));
+
+    // only the new key is loaded
+    Dataset d3 = dataset("Plants");
+    assertEquals(ImmutableMap.of(d1.getKey(), "Birds", d3.getKey(), "Plants"),
+                 service.getTitles(ImmutableList.of(d1.getKey(), d3.getKey(), unknown)));
+    assertEquals(ImmutableList.of(3, 1), titleBatches);
+    assertEquals(0, calls.get("get"));
+  }
+
+  @Test
+  public void testInvalidation() {
+    Dataset d = dataset("Birds");
+    service.get(d.getKey());
+    service.getTitles(ImmutableList.of(d.getKey()));
+
+    Dataset changed = new Dataset();
+    changed.setKey(d.getKey());
+    changed.setTitle("Birds of Denmark");
+    service.update(changed);
+    assertSame(changed, service.get(d.getKey()));
+    assertEquals("Birds of Denmark", service.getTitles(ImmutableList.of(d.getKey())).get(d.getKey()));
+    assertEquals(2, calls.get("get"));
+
+    service.addTag(d.getKey(), new Tag());
+    service.get(d.getKey());
+    assertEquals(3, calls.get("get"));
+
+    service.delete(d.getKey());
+    assertNull(service.get(d.getKey()));
+    assertTrue(service.getTitles(ImmutableList.of(d.getKey())).isEmpty());
+    assertEquals(3, calls.get("getTitles"));
+  }
+
+  @Test
+  public void testFailedChangeInvalidates() {
+    UUID unknown = UUID.randomUUID();
+    assertNull(service.get(unknown));
+    try {
+      service.delete(unknown);
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    service.get(unknown);
+    assertEquals(2, calls.get("get"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testErrorsPropagate() {
+    new CachingOrganizationService(
+      (OrganizationService) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {OrganizationService.class}, new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            throw new UnsupportedOperationException(method.getName());
+          }
+        })).getTitles(ImmutableList.of(UUID.randomUUID()));
+  }
+
+  @Test
+  public void testSingleFlight() throws Exception {
+    final Dataset d = dataset("Birds");
+    gate = new CountDownLatch(1);
+    List<Future<Dataset>> results = Lists.newArrayList();
+    for (int i = 0; i < 8; i++) {
+      results.add(executor.submit(new Callable<Dataset>() {
+        @Override
+        public Dataset call() {
+          return service.get(d.getKey());
+        }
+      }));
+    }
+    awaitCalls("get", 1);
+    // give the other threads time to block on the same load
+    Thread.sleep(100);
+    gate.countDown();
+    for (Future<Dataset> result : results) {
+      assertSame(d, result.get(10, TimeUnit.SECONDS));
+    }
+    assertEquals(1, calls.get("get"));
+  }
+
+  @Test
+  public void testCoalesceTitles() throws Exception {
+    final Dataset first = dataset("first");
+    gate = new CountDownLatch(1);
+    Future<Map<UUID, String>> blocked = executor.submit(new Callable<Map<UUID, String>>() {
+      @Override
+      public Map<UUID, String> call() {
+        return service.getTitles(ImmutableList.of(first.getKey()));
+      }
+    });
+    awaitCalls("getTitles", 1);
+
+    // concurrent single key lookups while the first bulk call is running
+    Map<UUID, Future<Map<UUID, String>>> results = Maps.newHashMap();
+    for (int i = 0; i < 20; i++) {
+      final Dataset d = dataset("dataset " + i);
+      results.put(d.getKey(), executor.submit(new Callable<Map<UUID, String>>() {
+        @Override
+        public Map<UUID, String> call() {
+          return service.getTitles(ImmutableList.of(d.getKey()));
+        }
+      }));
+    }
+    Thread.sleep(200);
+    gate.countDown();
+
+    assertEquals(ImmutableMap.of(first.getKey(), "first"), blocked.get(10, TimeUnit.SECONDS));
+    for (Map.Entry<UUID, Future<Map<UUID, String>>> result : results.entrySet()) {
+      assertEquals(datasets.get(result.getKey()).getTitle(),
+                   result.getValue().get(10, TimeUnit.SECONDS).get(result.getKey()));
+    }
+    assertEquals(ImmutableList.of(1, 20), titleBatches);
+    assertEquals(2, service.getTitleCalls());
+  }
+
+  private void awaitCalls(String method, long expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (calls.get(method) < expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(expected, calls.get(method));
+  }
+}
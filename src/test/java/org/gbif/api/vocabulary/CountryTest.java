@@ -23,6 +23,7 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -32,6 +33,39 @@ public class CountryTest {
   public void testFromIsoCode() throws Exception {
     assertEquals(Country.ARGENTINA, Country.fromIsoCode("ar"));
     assertEquals(Country.ARGENTINA, Country.fromIsoCode("AR"));
+    assertEquals(Country.ARGENTINA, Country.fromIsoCode(" arg "));
+    assertEquals(Country.ARGENTINA, Country.fromIsoCode("aRg"));
+    assertNull(Country.fromIsoCode(null));
+    assertNull(Country.fromIsoCode(""));
+    assertNull(Country.fromIsoCode("A"));
+    assertNull(Country.fromIsoCode("ARGE"));
+    assertNull(Country.fromIsoCode("A-"));
+    for (Country c : Country.values()) {
+      assertEquals(c, Country.fromIsoCode(c.getIso2LetterCode()));
+      assertEquals(c, Country.fromIsoCode(c.getIso3LetterCode().toLowerCase()));
+    }
+  }
+
+  @Test
+  public void testFromIsoNumericalCode() {
+    assertEquals(Country.ARGENTINA, Country.fromIsoNumericalCode(32));
+    assertNull(Country.fromIsoNumericalCode(null));
+    assertNull(Country.fromIsoNumericalCode(-1));
+    assertNull(Country.fromIsoNumericalCode(1000));
+    for (Country c : Country.values()) {
+      assertEquals(c, Country.fromIsoNumericalCode(c.getIsoNumericalCode()));
+    }
+  }
+
+  @Test
+  public void testFromTitle() {
+    assertEquals(Country.ARGENTINA, Country.fromTitle("Argentina"));
+    assertEquals(Country.ARGENTINA, Country.fromTitle(" ARGENTINA"));
+    assertNull(Country.fromTitle("Argentinia"));
+    assertNull(Country.fromTitle(null));
+    for (Country c : Country.values()) {
+      assertEquals(c, Country.fromTitle(c.getTitle()));
+    }
   }
 
   @Test
@@ -0,0 +1,105 @@
+package org.gbif.api.vocabulary;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Strings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the indexed country and language code lookups with the previous linear scans over all enum values.
+ * Run the main method from within an IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IsoCodeLookupBenchmark {
+
+  // a mix of upper and lower case, 2 and 3 letter codes, from the start and end of the enumerations
+  private final String[] countryCodes = {"DK", "dk", "AFG", "zw", "ZWE", "US", "de", "XX"};
+  private final String[] languageCodes = {"en", "DE", "deu", "zu", "ZUL", "ab", "fra", "xx"};
+
+  @Benchmark
+  public void countryIndexed(Blackhole bh) {
+    for (String code : countryCodes) {
+      bh.consume(Country.fromIsoCode(code));
+    }
+  }
+
+  @Benchmark
+  public void countryScan(Blackhole bh) {
+    for (String code : countryCodes) {
+      bh.consume(scanCountry(code));
+    }
+  }
+
+  @Benchmark
+  public void languageIndexed(Blackhole bh) {
+    for (String code : languageCodes) {
+      bh.consume(Language.fromIsoCode(code));
+    }
+  }
+
+  @Benchmark
+  public void languageScan(Blackhole bh) {
+    for (String code : languageCodes) {
+      bh.consume(scanLanguage(code));
+    }
+  }
+
+  /**
+   * The original Country.fromIsoCode implementation.
+   */
+  private static Country scanCountry(String code) {
+    if (!Strings.isNullOrEmpty(code)) {
+      String codeUpper = code.toUpperCase().trim();
+      for (Country c : Country.values()) {
+        if (codeUpper.equals(c.getIso2LetterCode()) || codeUpper.equals(c.getIso3LetterCode())) {
+          return c;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The original Language.fromIsoCode implementation.
+   */
+  private static Language scanLanguage(String code) {
+    if (!Strings.isNullOrEmpty(code)) {
+      String codeLower = code.toLowerCase().trim();
+      if (codeLower.length() == 2) {
+        for (Language language : Language.values()) {
+          if (codeLower.equals(language.getIso2LetterCode())) {
+            return language;
+          }
+        }
+      } else if (codeLower.length() == 3) {
+        for (Language language : Language.values()) {
+          if (codeLower.equals(language.getIso3LetterCode())) {
+            return language;
+          }
+        }
+      }
+    }
+    return Language.UNKNOWN;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(IsoCodeLookupBenchmark.class.getSimpleName()).build()).run();
+  }
+}
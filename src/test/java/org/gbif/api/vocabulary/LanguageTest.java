@@ -35,6 +35,17 @@ public class LanguageTest {
     assertEquals(Language.GERMAN, Language.fromIsoCode("de"));
     assertEquals(Language.GERMAN, Language.fromIsoCode("DEU"));
     assertEquals(Language.GERMAN, Language.fromIsoCode("Deu"));
+    assertEquals(Language.GERMAN, Language.fromIsoCode(" de "));
+    assertEquals(Language.UNKNOWN, Language.fromIsoCode(null));
+    assertEquals(Language.UNKNOWN, Language.fromIsoCode(""));
+    assertEquals(Language.UNKNOWN, Language.fromIsoCode("d"));
+    assertEquals(Language.UNKNOWN, Language.fromIsoCode("deut"));
+    for (Language l : Language.values()) {
+      if (l != Language.UNKNOWN) {
+        assertEquals(l, Language.fromIsoCode(l.getIso2LetterCode().toUpperCase()));
+        assertEquals(l, Language.fromIsoCode(l.getIso3LetterCode()));
+      }
+    }
   }
 
   @Test